@@ -25,7 +25,7 @@ import java.util.Map;
         builderPackage = "io.fabric8.kubernetes.api.builder"
 )
 @JsonInclude(JsonInclude.Include.NON_NULL)
-@JsonPropertyOrder({ "generateCertificateAuthority", "validityDays", "renewalDays" })
+@JsonPropertyOrder({ "generateCertificateAuthority", "validityDays", "renewalDays", "keyAlgorithm" })
 public class CertificateAuthority implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -33,6 +33,7 @@ public class CertificateAuthority implements Serializable {
     private int validityDays;
     private boolean generateCertificateAuthority = true;
     private int renewalDays;
+    private CertificateKeyAlgorithm keyAlgorithm;
     private Map<String, Object> additionalProperties = new HashMap<>(0);
 
     @Description("The number of days generated certificates should be valid for. Default is 365.")
@@ -70,6 +71,19 @@ public class CertificateAuthority implements Serializable {
         this.renewalDays = renewalDays;
     }
 
+    @Description("The algorithm of the keys of the Certificate Authority and of the certificates it signs, " +
+            "which must be one of `rsa`, `ecdsa-p256` or `ecdsa-p384`. " +
+            "ECDSA keys make TLS handshakes cheaper for brokers and clients. " +
+            "When `generateCertificateAuthority` is true, changing this will cause the generation of a new Certificate Authority key and certificate. " +
+            "Default is `rsa`.")
+    public CertificateKeyAlgorithm getKeyAlgorithm() {
+        return keyAlgorithm;
+    }
+
+    public void setKeyAlgorithm(CertificateKeyAlgorithm keyAlgorithm) {
+        this.keyAlgorithm = keyAlgorithm;
+    }
+
     @JsonAnyGetter
     public Map<String, Object> getAdditionalProperties() {
         return this.additionalProperties;
@@ -34,7 +34,7 @@ import java.util.Map;
 @JsonPropertyOrder({
         "replicas", "image", "storage",
         "listeners", "authorization", "config",
-        "rack", "brokerRackInitImage",
+        "rack", "brokerRackInitImage", "rebalancing",
         "affinity", "tolerations",
         "livenessProbe", "readinessProbe",
         "jvmOptions", "resources",
@@ -62,6 +62,8 @@ public class KafkaClusterSpec implements Serializable {
 
     private Rack rack;
 
+    private KafkaRebalancing rebalancing;
+
     private Logging logging;
 
     private TlsSidecar tlsSidecar;
@@ -120,6 +122,18 @@ public class KafkaClusterSpec implements Serializable {
         this.rack = rack;
     }
 
+    @Description("Moves partition replicas onto the brokers which host less than their share of them, " +
+            "such as the brokers added by a scale-up, with throttled reassignments. " +
+            "When it is not set, partitions are only moved off the brokers removed by a scale-down.")
+    @JsonInclude(value = JsonInclude.Include.NON_NULL)
+    public KafkaRebalancing getRebalancing() {
+        return rebalancing;
+    }
+
+    public void setRebalancing(KafkaRebalancing rebalancing) {
+        this.rebalancing = rebalancing;
+    }
+
     @Description("Storage configuration (disk). Cannot be updated.")
     @JsonProperty(required = true)
     public Storage getStorage() {
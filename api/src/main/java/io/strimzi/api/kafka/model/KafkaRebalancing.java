@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.api.kafka.model;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import io.strimzi.crdgenerator.annotations.Description;
+import io.strimzi.crdgenerator.annotations.Minimum;
+import io.sundr.builder.annotations.Buildable;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Representation of the policy for moving partition replicas onto brokers which host less than their share of them,
+ * such as the brokers added by a scale-up.
+ */
+@Buildable(
+        editableEnabled = false,
+        generateBuilderPackage = false,
+        builderPackage = "io.fabric8.kubernetes.api.builder"
+)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({ "maxReplicaMovements", "targetMinutes", "maxThrottle" })
+public class KafkaRebalancing implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_MAX_REPLICA_MOVEMENTS = 50;
+    public static final int DEFAULT_TARGET_MINUTES = 60;
+    public static final long DEFAULT_MAX_THROTTLE = 100_000_000L;
+
+    private int maxReplicaMovements = DEFAULT_MAX_REPLICA_MOVEMENTS;
+    private int targetMinutes = DEFAULT_TARGET_MINUTES;
+    private long maxThrottle = DEFAULT_MAX_THROTTLE;
+    private Map<String, Object> additionalProperties = new HashMap<>(0);
+
+    @Description("The maximum number of partition replicas moved by one reassignment. " +
+            "The next replicas are moved once the reassignment has completed. " +
+            "Default is " + DEFAULT_MAX_REPLICA_MOVEMENTS + ".")
+    @Minimum(1)
+    public int getMaxReplicaMovements() {
+        return maxReplicaMovements;
+    }
+
+    public void setMaxReplicaMovements(int maxReplicaMovements) {
+        this.maxReplicaMovements = maxReplicaMovements;
+    }
+
+    @Description("The number of minutes within which the brokers should host their share of the partition replicas. " +
+            "The replication throttle of the reassignments is adjusted to the observed replication rate to meet it. " +
+            "Default is " + DEFAULT_TARGET_MINUTES + ".")
+    @Minimum(1)
+    public int getTargetMinutes() {
+        return targetMinutes;
+    }
+
+    public void setTargetMinutes(int targetMinutes) {
+        this.targetMinutes = targetMinutes;
+    }
+
+    @Description("The highest replication throttle of the reassignments, in bytes per second. " +
+            "Default is " + DEFAULT_MAX_THROTTLE + ".")
+    @Minimum(1)
+    public long getMaxThrottle() {
+        return maxThrottle;
+    }
+
+    public void setMaxThrottle(long maxThrottle) {
+        this.maxThrottle = maxThrottle;
+    }
+
+    @JsonAnyGetter
+    public Map<String, Object> getAdditionalProperties() {
+        return this.additionalProperties;
+    }
+
+    @JsonAnySetter
+    public void setAdditionalProperty(String name, Object value) {
+        this.additionalProperties.put(name, value);
+    }
+}
@@ -6,6 +6,9 @@ package io.strimzi.certs;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 
 public interface CertManager {
 
@@ -98,4 +101,112 @@ public interface CertManager {
      * @throws IOException
      */
     void generateCert(File csrFile, byte[] caKey, byte[] caCert, File crtFile, Subject sbj, int days) throws IOException;
+
+    /**
+     * Generate a private key and a self-signed certificate for it.
+     * This implementation uses temporary files; implementations which can should override it to work in memory.
+     *
+     * @param sbj subject information
+     * @param days certificate duration
+     * @return the PEM encoded private key and certificate
+     * @throws IOException
+     */
+    default CertAndKey generateSelfSignedCert(Subject sbj, int days) throws IOException {
+        File keyFile = File.createTempFile("tls", "-key");
+        File certFile = File.createTempFile("tls", "-cert");
+        try {
+            generateSelfSignedCert(keyFile, certFile, sbj, days);
+            return new CertAndKey(Files.readAllBytes(keyFile.toPath()), Files.readAllBytes(certFile.toPath()));
+        } finally {
+            Files.deleteIfExists(keyFile.toPath());
+            Files.deleteIfExists(certFile.toPath());
+        }
+    }
+
+    /**
+     * Generate a private key using the given algorithm and a self-signed certificate for it.
+     * This implementation supports only {@link KeyAlgorithm#RSA}.
+     *
+     * @param sbj subject information
+     * @param keyAlgorithm the algorithm of the key to generate
+     * @param days certificate duration
+     * @return the PEM encoded private key and certificate
+     * @throws IOException
+     */
+    default CertAndKey generateSelfSignedCert(Subject sbj, KeyAlgorithm keyAlgorithm, int days) throws IOException {
+        if (keyAlgorithm != KeyAlgorithm.RSA) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot generate " + keyAlgorithm + " keys");
+        }
+        return generateSelfSignedCert(sbj, days);
+    }
+
+    /**
+     * Renew a self-signed certificate, keeping the existing private key.
+     * This implementation uses temporary files; implementations which can should override it to work in memory.
+     *
+     * @param key the PEM encoded existing private key
+     * @param sbj subject information
+     * @param days certificate duration
+     * @return the existing private key and the new PEM encoded certificate
+     * @throws IOException
+     */
+    default CertAndKey renewSelfSignedCert(byte[] key, Subject sbj, int days) throws IOException {
+        File keyFile = File.createTempFile("tls", "-key");
+        File certFile = File.createTempFile("tls", "-cert");
+        try {
+            Files.write(keyFile.toPath(), key);
+            renewSelfSignedCert(keyFile, certFile, sbj, days);
+            return new CertAndKey(key, Files.readAllBytes(certFile.toPath()));
+        } finally {
+            Files.deleteIfExists(keyFile.toPath());
+            Files.deleteIfExists(certFile.toPath());
+        }
+    }
+
+    /**
+     * Generate a private key and a certificate for it signed by a Certificate Authority.
+     * Implementations which support more than one {@link KeyAlgorithm} generate a key of the same algorithm as the CA's key.
+     * This implementation uses temporary files; implementations which can should override it to work in memory.
+     *
+     * @param sbj subject information
+     * @param caKey CA private key bytes
+     * @param caCert CA certificate bytes
+     * @param days certificate duration
+     * @return the PEM encoded private key and certificate
+     * @throws IOException
+     */
+    default CertAndKey generateSignedCert(Subject sbj, byte[] caKey, byte[] caCert, int days) throws IOException {
+        File csrFile = File.createTempFile("tls", "-csr");
+        File keyFile = File.createTempFile("tls", "-key");
+        File certFile = File.createTempFile("tls", "-cert");
+        try {
+            generateCsr(keyFile, csrFile, sbj);
+            generateCert(csrFile, caKey, caCert, certFile, sbj, days);
+            return new CertAndKey(Files.readAllBytes(keyFile.toPath()), Files.readAllBytes(certFile.toPath()));
+        } finally {
+            Files.deleteIfExists(csrFile.toPath());
+            Files.deleteIfExists(keyFile.toPath());
+            Files.deleteIfExists(certFile.toPath());
+        }
+    }
+
+    /**
+     * Generate a private key and a certificate signed by a Certificate Authority for each of the given subjects.
+     * This implementation generates them one after another; implementations which can should override it to
+     * generate them concurrently.
+     *
+     * @param sbjs subject information, one for each certificate
+     * @param caKey CA private key bytes
+     * @param caCert CA certificate bytes
+     * @param days certificate duration
+     * @return the PEM encoded private keys and certificates, in the same order as the subjects
+     * @throws IOException
+     */
+    default List<CertAndKey> generateSignedCerts(List<Subject> sbjs, byte[] caKey, byte[] caCert, int days) throws IOException {
+        List<CertAndKey> result = new ArrayList<>(sbjs.size());
+        for (Subject sbj : sbjs) {
+            result.add(generateSignedCert(sbj, caKey, caCert, days));
+        }
+        return result;
+    }
 }
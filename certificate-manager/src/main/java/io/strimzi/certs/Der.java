@@ -0,0 +1,279 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.certs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * The subset of the ASN.1 Distinguished Encoding Rules needed to encode certificates and certificate
+ * signing requests, and to read the parts of them which are needed to sign or verify them.
+ */
+final class Der {
+
+    static final int BOOLEAN = 0x01;
+    static final int INTEGER = 0x02;
+    static final int BIT_STRING = 0x03;
+    static final int OCTET_STRING = 0x04;
+    static final int NULL = 0x05;
+    static final int OBJECT_IDENTIFIER = 0x06;
+    static final int UTF8_STRING = 0x0c;
+    static final int IA5_STRING = 0x16;
+    static final int UTC_TIME = 0x17;
+    static final int GENERALIZED_TIME = 0x18;
+    static final int SEQUENCE = 0x30;
+    static final int SET = 0x31;
+    static final int CONTEXT_SPECIFIC = 0x80;
+    static final int CONSTRUCTED = 0x20;
+
+    private Der() {
+    }
+
+    /**
+     * @return The element with the given tag and the given contents, concatenated.
+     */
+    static byte[] element(int tag, byte[]... contents) {
+        int length = 0;
+        for (byte[] content : contents) {
+            length += content.length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length + 6);
+        out.write(tag);
+        if (length < 0x80) {
+            out.write(length);
+        } else {
+            int bytes = (Integer.SIZE - Integer.numberOfLeadingZeros(length) + 7) / 8;
+            out.write(0x80 | bytes);
+            for (int i = bytes - 1; i >= 0; i--) {
+                out.write(length >>> (8 * i));
+            }
+        }
+        for (byte[] content : contents) {
+            out.write(content, 0, content.length);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] sequence(byte[]... elements) {
+        return element(SEQUENCE, elements);
+    }
+
+    static byte[] set(byte[]... elements) {
+        return element(SET, elements);
+    }
+
+    static byte[] integer(BigInteger value) {
+        return element(INTEGER, value.toByteArray());
+    }
+
+    static byte[] integer(long value) {
+        return integer(BigInteger.valueOf(value));
+    }
+
+    static byte[] bool(boolean value) {
+        return element(BOOLEAN, new byte[] {(byte) (value ? 0xff : 0)});
+    }
+
+    static byte[] nullValue() {
+        return element(NULL);
+    }
+
+    static byte[] bitString(byte[] bits) {
+        // No unused bits in the last byte
+        return element(BIT_STRING, new byte[] {0}, bits);
+    }
+
+    static byte[] octetString(byte[] octets) {
+        return element(OCTET_STRING, octets);
+    }
+
+    static byte[] utf8String(String value) {
+        return element(UTF8_STRING, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static byte[] ia5String(String value) {
+        return element(IA5_STRING, value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static byte[] objectIdentifier(String oid) {
+        String[] arcs = oid.split("\\.");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeBase128(out, Long.parseLong(arcs[0]) * 40 + Long.parseLong(arcs[1]));
+        for (int i = 2; i < arcs.length; i++) {
+            writeBase128(out, Long.parseLong(arcs[i]));
+        }
+        return element(OBJECT_IDENTIFIER, out.toByteArray());
+    }
+
+    private static void writeBase128(ByteArrayOutputStream out, long value) {
+        int groups = Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(value) + 6) / 7);
+        for (int i = groups - 1; i > 0; i--) {
+            out.write(0x80 | (int) (value >>> (7 * i)) & 0x7f);
+        }
+        out.write((int) value & 0x7f);
+    }
+
+    /**
+     * @return The given time as a UTCTime before 2050, and as a GeneralizedTime from 2050, as RFC 5280 requires.
+     */
+    static byte[] time(Date date) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"), Locale.ROOT);
+        calendar.setTime(date);
+        boolean utcTime = calendar.get(Calendar.YEAR) < 2050;
+        SimpleDateFormat format = new SimpleDateFormat(utcTime ? "yyMMddHHmmss'Z'" : "yyyyMMddHHmmss'Z'", Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return element(utcTime ? UTC_TIME : GENERALIZED_TIME, format.format(date).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return The given element, explicitly tagged with the given context-specific tag number.
+     */
+    static byte[] explicit(int tagNumber, byte[]... elements) {
+        return element(CONTEXT_SPECIFIC | CONSTRUCTED | tagNumber, elements);
+    }
+
+    /**
+     * @return The given primitive contents, implicitly tagged with the given context-specific tag number.
+     */
+    static byte[] implicit(int tagNumber, byte[] contents) {
+        return element(CONTEXT_SPECIFIC | tagNumber, contents);
+    }
+
+    /**
+     * Reads the elements of an encoding one after another, without copying them.
+     */
+    static final class Reader {
+        private final byte[] der;
+        private int position;
+        private final int end;
+
+        private int tag;
+        private int start;
+        private int contentStart;
+        private int contentEnd;
+
+        Reader(byte[] der) {
+            this(der, 0, der.length);
+        }
+
+        private Reader(byte[] der, int position, int end) {
+            this.der = der;
+            this.position = position;
+            this.end = end;
+        }
+
+        boolean hasNext() {
+            return position < end;
+        }
+
+        /**
+         * Reads the header of the next element, which must have the given {@code expectedTag}.
+         * @return This reader, positioned after the element.
+         */
+        Reader next(int expectedTag) throws IOException {
+            next();
+            if (tag != expectedTag) {
+                throw new IOException("Expected DER tag 0x" + Integer.toHexString(expectedTag) + " but found 0x" + Integer.toHexString(tag));
+            }
+            return this;
+        }
+
+        /**
+         * Reads the header of the next element, whatever its tag.
+         * @return This reader, positioned after the element.
+         */
+        Reader next() throws IOException {
+            if (position + 2 > end) {
+                throw new IOException("Truncated DER encoding");
+            }
+            start = position;
+            tag = der[position++] & 0xff;
+            int length = der[position++] & 0xff;
+            if (length >= 0x80) {
+                int bytes = length & 0x7f;
+                if (bytes == 0 || bytes > 3 || position + bytes > end) {
+                    throw new IOException("Unsupported DER length");
+                }
+                length = 0;
+                for (int i = 0; i < bytes; i++) {
+                    length = (length << 8) | (der[position++] & 0xff);
+                }
+            }
+            contentStart = position;
+            contentEnd = position + length;
+            if (contentEnd > end) {
+                throw new IOException("Truncated DER encoding");
+            }
+            position = contentEnd;
+            return this;
+        }
+
+        /**
+         * @return The tag of the element last read.
+         */
+        int tag() {
+            return tag;
+        }
+
+        /**
+         * @return The whole of the element last read, including its header.
+         */
+        byte[] encoded() {
+            return Arrays.copyOfRange(der, start, contentEnd);
+        }
+
+        /**
+         * @return The contents of the element last read.
+         */
+        byte[] contents() {
+            return Arrays.copyOfRange(der, contentStart, contentEnd);
+        }
+
+        /**
+         * @return A reader of the elements within the (constructed) element last read.
+         */
+        Reader children() {
+            return new Reader(der, contentStart, contentEnd);
+        }
+
+        /**
+         * @return The value of the BIT STRING element last read, without its count of unused bits.
+         */
+        byte[] bits() {
+            return Arrays.copyOfRange(der, contentStart + 1, contentEnd);
+        }
+
+        /**
+         * @return The value of the OBJECT IDENTIFIER element last read, in dotted form.
+         */
+        String objectIdentifier() {
+            StringBuilder sb = new StringBuilder();
+            long value = 0;
+            boolean first = true;
+            for (int i = contentStart; i < contentEnd; i++) {
+                value = (value << 7) | (der[i] & 0x7f);
+                if ((der[i] & 0x80) == 0) {
+                    if (first) {
+                        long arc = Math.min(value / 40, 2);
+                        sb.append(arc).append('.').append(value - 40 * arc);
+                        first = false;
+                    } else {
+                        sb.append('.').append(value);
+                    }
+                    value = 0;
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,594 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.certs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A certificates manager which generates keys, certificate signing requests and certificates in process,
+ * using only the JDK's security providers, rather than running OpenSSL.
+ * Keys, certificates and requests are read and written in the same PEM formats as {@link OpenSslCertManager}'s,
+ * so either can be used with keys and certificates generated by the other.
+ * The in-memory methods, such as {@link #generateSignedCert(Subject, byte[], byte[], int)},
+ * don't use any files at all.
+ */
+public class JavaCertManager implements CertManager {
+
+    private static final Logger log = LogManager.getLogger(JavaCertManager.class);
+
+    /** The size of the RSA keys generated by default, which is OpenSSL's default */
+    public static final int DEFAULT_RSA_KEY_SIZE = 2048;
+
+    static final String RSA_ENCRYPTION = "1.2.840.113549.1.1.1";
+    static final String SHA256_WITH_RSA = "1.2.840.113549.1.1.11";
+    static final String EC_PUBLIC_KEY = "1.2.840.10045.2.1";
+    static final String ECDSA_WITH_SHA256 = "1.2.840.10045.4.3.2";
+    static final String ECDSA_WITH_SHA384 = "1.2.840.10045.4.3.3";
+    private static final String COMMON_NAME = "2.5.4.3";
+    private static final String ORGANIZATION_NAME = "2.5.4.10";
+    private static final String DEFAULT_ORGANIZATION_NAME = "Default Company Ltd";
+    private static final String SUBJECT_KEY_IDENTIFIER = "2.5.29.14";
+    private static final String SUBJECT_ALT_NAME = "2.5.29.17";
+    private static final String BASIC_CONSTRAINTS = "2.5.29.19";
+    private static final String AUTHORITY_KEY_IDENTIFIER = "2.5.29.35";
+    private static final String EXTENSION_REQUEST = "1.2.840.113549.1.9.14";
+
+    /** The JCA names of the signature algorithms of the certificate signing requests which can be verified, by OID */
+    private static final Map<String, String> SIGNATURE_ALGORITHMS = new HashMap<>();
+    static {
+        SIGNATURE_ALGORITHMS.put("1.2.840.113549.1.1.5", "SHA1withRSA");
+        SIGNATURE_ALGORITHMS.put(SHA256_WITH_RSA, "SHA256withRSA");
+        SIGNATURE_ALGORITHMS.put("1.2.840.113549.1.1.12", "SHA384withRSA");
+        SIGNATURE_ALGORITHMS.put("1.2.840.113549.1.1.13", "SHA512withRSA");
+        SIGNATURE_ALGORITHMS.put(ECDSA_WITH_SHA256, "SHA256withECDSA");
+        SIGNATURE_ALGORITHMS.put(ECDSA_WITH_SHA384, "SHA384withECDSA");
+        SIGNATURE_ALGORITHMS.put("1.2.840.10045.4.3.4", "SHA512withECDSA");
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final int keySize;
+    private final KeyPairPool keyPairPool;
+    private final ExecutorService issuer;
+
+    public JavaCertManager() {
+        this(DEFAULT_RSA_KEY_SIZE);
+    }
+
+    /**
+     * @param keySize The size, in bits, of the RSA keys to generate.
+     */
+    public JavaCertManager(int keySize) {
+        this(keySize, 0, 1);
+    }
+
+    /**
+     * @param keySize The size, in bits, of the RSA keys to generate.
+     * @param keyPairPoolSize The number of key pairs to generate in the background, ahead of the certificates
+     *                        which need them, or 0 to generate each key pair when it's needed.
+     * @param issuingThreads The maximum number of certificates which
+     *                       {@link #generateSignedCerts(List, byte[], byte[], int)} issues concurrently.
+     */
+    public JavaCertManager(int keySize, int keyPairPoolSize, int issuingThreads) {
+        if (issuingThreads <= 0) {
+            throw new IllegalArgumentException("The number of certificate issuing threads must be positive");
+        }
+        this.keySize = keySize;
+        this.keyPairPool = keyPairPoolSize > 0 ? new KeyPairPool("rsa-" + keySize, keyPairPoolSize, this::newKeyPair) : null;
+        this.issuer = issuingThreads > 1 ? Executors.newFixedThreadPool(issuingThreads, daemonThreads("cert-issuer")) : null;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public CertAndKey generateSelfSignedCert(Subject sbj, int days) throws IOException {
+        return generateSelfSignedCert(sbj, KeyAlgorithm.RSA, days);
+    }
+
+    @Override
+    public CertAndKey generateSelfSignedCert(Subject sbj, KeyAlgorithm keyAlgorithm, int days) throws IOException {
+        KeyPair keyPair = generateKeyPair(keyAlgorithm);
+        return new CertAndKey(encodePrivateKey(keyPair), selfSignedCert(keyPair, sbj, days));
+    }
+
+    @Override
+    public CertAndKey renewSelfSignedCert(byte[] key, Subject sbj, int days) throws IOException {
+        return new CertAndKey(key, selfSignedCert(readKeyPair(key), sbj, days));
+    }
+
+    /**
+     * Generates a key of the same algorithm, and for EC keys on the same curve, as the CA's key.
+     */
+    @Override
+    public CertAndKey generateSignedCert(Subject sbj, byte[] caKey, byte[] caCert, int days) throws IOException {
+        PrivateKey caPrivateKey = readPrivateKey(caKey);
+        KeyPair keyPair = generateKeyPair(KeyAlgorithm.of(caPrivateKey));
+        byte[] cert = signedCert(name(sbj), keyPair.getPublic().getEncoded(), sbj, caPrivateKey, caCert, days);
+        return new CertAndKey(encodePrivateKey(keyPair), cert);
+    }
+
+    /**
+     * Generates the certificates concurrently, on at most as many threads as this was constructed with.
+     */
+    @Override
+    public List<CertAndKey> generateSignedCerts(List<Subject> sbjs, byte[] caKey, byte[] caCert, int days) throws IOException {
+        if (issuer == null || sbjs.size() <= 1) {
+            return CertManager.super.generateSignedCerts(sbjs, caKey, caCert, days);
+        }
+        List<Callable<CertAndKey>> tasks = new ArrayList<>(sbjs.size());
+        for (Subject sbj : sbjs) {
+            tasks.add(() -> generateSignedCert(sbj, caKey, caCert, days));
+        }
+        List<CertAndKey> result = new ArrayList<>(sbjs.size());
+        try {
+            for (Future<CertAndKey> future : issuer.invokeAll(tasks)) {
+                result.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating certificates", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Could not generate certificates", cause);
+        }
+        return result;
+    }
+
+    @Override
+    public void generateSelfSignedCert(File keyFile, File certFile, Subject sbj, int days) throws IOException {
+        CertAndKey certAndKey = generateSelfSignedCert(sbj, days);
+        Files.write(keyFile.toPath(), certAndKey.key());
+        Files.write(certFile.toPath(), certAndKey.cert());
+    }
+
+    @Override
+    public void generateSelfSignedCert(File keyFile, File certFile, int days) throws IOException {
+        generateSelfSignedCert(keyFile, certFile, null, days);
+    }
+
+    @Override
+    public void renewSelfSignedCert(File keyFile, File certFile, Subject sbj, int days) throws IOException {
+        CertAndKey certAndKey = renewSelfSignedCert(Files.readAllBytes(keyFile.toPath()), sbj, days);
+        Files.write(certFile.toPath(), certAndKey.cert());
+    }
+
+    @Override
+    public void generateCsr(File keyFile, File csrFile, Subject sbj) throws IOException {
+        KeyPair keyPair = generateKeyPair(KeyAlgorithm.RSA);
+        byte[] info = Der.sequence(
+                Der.integer(0),
+                name(sbj),
+                keyPair.getPublic().getEncoded(),
+                hasSubjectAltNames(sbj)
+                        ? Der.explicit(0, Der.sequence(Der.objectIdentifier(EXTENSION_REQUEST), Der.set(Der.sequence(subjectAltNames(sbj)))))
+                        : Der.explicit(0));
+        Files.write(keyFile.toPath(), encodePrivateKey(keyPair));
+        Files.write(csrFile.toPath(), Pem.encode(Pem.CERTIFICATE_REQUEST, sign(info, keyPair.getPrivate())));
+    }
+
+    @Override
+    public void generateCert(File csrFile, File caKey, File caCert, File crtFile, int days) throws IOException {
+        generateCert(csrFile, caKey, caCert, crtFile, null, days);
+    }
+
+    @Override
+    public void generateCert(File csrFile, File caKey, File caCert, File crtFile, Subject sbj, int days) throws IOException {
+        generateCert(csrFile, Files.readAllBytes(caKey.toPath()), Files.readAllBytes(caCert.toPath()), crtFile, sbj, days);
+    }
+
+    @Override
+    public void generateCert(File csrFile, byte[] caKey, byte[] caCert, File crtFile, int days) throws IOException {
+        generateCert(csrFile, caKey, caCert, crtFile, null, days);
+    }
+
+    @Override
+    public void generateCert(File csrFile, byte[] caKey, byte[] caCert, File crtFile, Subject sbj, int days) throws IOException {
+        byte[] csr = Pem.decode(Pem.CERTIFICATE_REQUEST, Files.readAllBytes(csrFile.toPath()));
+        Der.Reader request = new Der.Reader(csr).next(Der.SEQUENCE).children();
+        Der.Reader info = request.next(Der.SEQUENCE);
+        byte[] signed = info.encoded();
+        Der.Reader fields = info.children();
+        fields.next(Der.INTEGER);
+        byte[] subject = fields.next(Der.SEQUENCE).encoded();
+        byte[] publicKeyInfo = fields.next(Der.SEQUENCE).encoded();
+        String signatureAlgorithm = request.next(Der.SEQUENCE).children().next(Der.OBJECT_IDENTIFIER).objectIdentifier();
+        byte[] signature = request.next(Der.BIT_STRING).bits();
+        verify(signed, signatureAlgorithm, signature, publicKeyInfo);
+        // Like "openssl x509 -req", the subject comes from the request, and the extensions from the given subject
+        Files.write(crtFile.toPath(), signedCert(subject, publicKeyInfo, sbj, readPrivateKey(caKey), caCert, days));
+    }
+
+    /**
+     * @return A key pair of the given algorithm which hasn't been used before.
+     * RSA key pairs come from the pool if this has one; EC key pairs are quick enough to generate that they don't need one.
+     */
+    protected KeyPair generateKeyPair(KeyAlgorithm keyAlgorithm) throws IOException {
+        if (keyAlgorithm == KeyAlgorithm.RSA) {
+            return keyPairPool != null ? keyPairPool.take() : newKeyPair();
+        }
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(keyAlgorithm.jcaName());
+            generator.initialize(new ECGenParameterSpec(keyAlgorithm.curve()), random);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not generate a " + keyAlgorithm + " key pair", e);
+        }
+    }
+
+    private KeyPair newKeyPair() throws IOException {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(keySize, random);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not generate a key pair", e);
+        }
+    }
+
+    private byte[] selfSignedCert(KeyPair keyPair, Subject sbj, int days) throws IOException {
+        byte[] publicKeyInfo = keyPair.getPublic().getEncoded();
+        byte[] keyIdentifier = keyIdentifier(publicKeyInfo);
+        List<byte[]> extensions = new ArrayList<>();
+        // The extensions of OpenSSL's v3_ca section, which it uses for self-signed certificates
+        extensions.add(extension(SUBJECT_KEY_IDENTIFIER, false, Der.octetString(keyIdentifier)));
+        extensions.add(extension(AUTHORITY_KEY_IDENTIFIER, false, Der.sequence(Der.implicit(0, keyIdentifier))));
+        extensions.add(extension(BASIC_CONSTRAINTS, true, Der.sequence(Der.bool(true))));
+        if (hasSubjectAltNames(sbj)) {
+            extensions.add(subjectAltNames(sbj));
+        }
+        byte[] name = name(sbj);
+        byte[] cert = sign(tbsCertificate(name, name, publicKeyInfo, days, extensions, keyPair.getPrivate()), keyPair.getPrivate());
+        log.debug("Generated self-signed certificate {}", sbj);
+        return Pem.encode(Pem.CERTIFICATE, cert);
+    }
+
+    private byte[] signedCert(byte[] subject, byte[] publicKeyInfo, Subject sbj, PrivateKey caPrivateKey, byte[] caCert, int days) throws IOException {
+        byte[] issuer = readCertificate(caCert).getSubjectX500Principal().getEncoded();
+        List<byte[]> extensions = new ArrayList<>();
+        if (hasSubjectAltNames(sbj)) {
+            extensions.add(subjectAltNames(sbj));
+        }
+        byte[] cert = sign(tbsCertificate(subject, issuer, publicKeyInfo, days, extensions, caPrivateKey), caPrivateKey);
+        log.debug("Generated certificate {} with SAN {}", sbj, sbj != null ? sbj.subjectAltNames() : null);
+        return Pem.encode(Pem.CERTIFICATE, cert);
+    }
+
+    private byte[] tbsCertificate(byte[] subject, byte[] issuer, byte[] publicKeyInfo, int days,
+                                  List<byte[]> extensions, PrivateKey signingKey) throws IOException {
+        long now = System.currentTimeMillis();
+        BigInteger serial = new BigInteger(Long.SIZE, random).setBit(Long.SIZE - 1);
+        return Der.sequence(
+                Der.explicit(0, Der.integer(2)),
+                Der.integer(serial),
+                signatureAlgorithmIdentifier(signingKey),
+                issuer,
+                Der.sequence(Der.time(new Date(now)), Der.time(new Date(now + days * 24L * 60L * 60L * 1000L))),
+                subject,
+                publicKeyInfo,
+                extensions.isEmpty() ? new byte[0] : Der.explicit(3, Der.sequence(extensions.toArray(new byte[0][]))));
+    }
+
+    /**
+     * @return The given {@code tbs} ("to be signed") structure, signed with the given key.
+     */
+    private static byte[] sign(byte[] tbs, PrivateKey key) throws IOException {
+        try {
+            Signature signature = Signature.getInstance(signatureAlgorithm(key));
+            signature.initSign(key);
+            signature.update(tbs);
+            return Der.sequence(tbs, signatureAlgorithmIdentifier(key), Der.bitString(signature.sign()));
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not sign with a " + key.getAlgorithm() + " key", e);
+        }
+    }
+
+    private static void verify(byte[] signed, String signatureAlgorithm, byte[] signature, byte[] publicKeyInfo) throws IOException {
+        String algorithm = SIGNATURE_ALGORITHMS.get(signatureAlgorithm);
+        if (algorithm == null) {
+            throw new IOException("Unsupported certificate signing request signature algorithm " + signatureAlgorithm);
+        }
+        try {
+            Signature verifier = Signature.getInstance(algorithm);
+            verifier.initVerify(readPublicKey(publicKeyInfo));
+            verifier.update(signed);
+            if (!verifier.verify(signature)) {
+                throw new IOException("The signature of the certificate signing request is invalid");
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not verify the signature of the certificate signing request", e);
+        }
+    }
+
+    /**
+     * @return The JCA name of the algorithm to sign with the given key: for EC keys, a hash as strong as the curve,
+     * as OpenSSL and RFC 5480 recommend.
+     */
+    private static String signatureAlgorithm(PrivateKey key) throws IOException {
+        KeyAlgorithm algorithm = KeyAlgorithm.of(key);
+        if (algorithm == KeyAlgorithm.RSA) {
+            return "SHA256withRSA";
+        } else if (algorithm == KeyAlgorithm.EC_P256) {
+            return "SHA256withECDSA";
+        } else if (algorithm == KeyAlgorithm.EC_P384) {
+            return "SHA384withECDSA";
+        }
+        throw new IOException("Unsupported key algorithm " + key.getAlgorithm());
+    }
+
+    private static byte[] signatureAlgorithmIdentifier(PrivateKey key) throws IOException {
+        KeyAlgorithm algorithm = KeyAlgorithm.of(key);
+        if (algorithm == KeyAlgorithm.RSA) {
+            return Der.sequence(Der.objectIdentifier(SHA256_WITH_RSA), Der.nullValue());
+        } else if (algorithm == KeyAlgorithm.EC_P256) {
+            // ECDSA signature algorithm identifiers have no parameters, rather than NULL ones (RFC 5758)
+            return Der.sequence(Der.objectIdentifier(ECDSA_WITH_SHA256));
+        } else if (algorithm == KeyAlgorithm.EC_P384) {
+            return Der.sequence(Der.objectIdentifier(ECDSA_WITH_SHA384));
+        }
+        throw new IOException("Unsupported key algorithm " + key.getAlgorithm());
+    }
+
+    private static byte[] extension(String oid, boolean critical, byte[] value) {
+        return critical
+                ? Der.sequence(Der.objectIdentifier(oid), Der.bool(true), Der.octetString(value))
+                : Der.sequence(Der.objectIdentifier(oid), Der.octetString(value));
+    }
+
+    /**
+     * @return The key identifier of the given public key: the SHA-1 hash of its bits, as in RFC 5280 section 4.2.1.2.
+     */
+    private static byte[] keyIdentifier(byte[] publicKeyInfo) throws IOException {
+        Der.Reader spki = new Der.Reader(publicKeyInfo).next(Der.SEQUENCE).children();
+        spki.next(Der.SEQUENCE);
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(spki.next(Der.BIT_STRING).bits());
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * @return The X.500 name with the organization and common name of the given subject, or if it has neither,
+     * the organization OpenSSL uses by default, since certificates need a non-empty issuer.
+     */
+    static byte[] name(Subject sbj) {
+        List<byte[]> rdns = new ArrayList<>(2);
+        if (sbj != null && sbj.organizationName() != null) {
+            rdns.add(Der.set(Der.sequence(Der.objectIdentifier(ORGANIZATION_NAME), Der.utf8String(sbj.organizationName()))));
+        }
+        if (sbj != null && sbj.commonName() != null) {
+            rdns.add(Der.set(Der.sequence(Der.objectIdentifier(COMMON_NAME), Der.utf8String(sbj.commonName()))));
+        }
+        if (rdns.isEmpty()) {
+            rdns.add(Der.set(Der.sequence(Der.objectIdentifier(ORGANIZATION_NAME), Der.utf8String(DEFAULT_ORGANIZATION_NAME))));
+        }
+        return Der.sequence(rdns.toArray(new byte[0][]));
+    }
+
+    private static boolean hasSubjectAltNames(Subject sbj) {
+        return sbj != null && sbj.subjectAltNames() != null && !sbj.subjectAltNames().isEmpty();
+    }
+
+    /**
+     * @return The subject alternative name extension for the given subject's alternative names,
+     * which are keyed like they are in an OpenSSL configuration file, e.g. {@code DNS.1}.
+     */
+    private static byte[] subjectAltNames(Subject sbj) throws IOException {
+        List<byte[]> names = new ArrayList<>(sbj.subjectAltNames().size());
+        for (Map.Entry<String, String> entry : sbj.subjectAltNames().entrySet()) {
+            String key = entry.getKey();
+            String type = key.indexOf('.') >= 0 ? key.substring(0, key.indexOf('.')) : key;
+            String value = entry.getValue();
+            switch (type) {
+                case "DNS":
+                    names.add(Der.implicit(2, value.getBytes(StandardCharsets.US_ASCII)));
+                    break;
+                case "IP":
+                    if (!value.matches("[0-9.]+|[0-9a-fA-F:.]+")) {
+                        throw new IOException("Invalid IP address " + value + " in subject alternative name " + key);
+                    }
+                    names.add(Der.implicit(7, InetAddress.getByName(value).getAddress()));
+                    break;
+                case "email":
+                    names.add(Der.implicit(1, value.getBytes(StandardCharsets.US_ASCII)));
+                    break;
+                case "URI":
+                    names.add(Der.implicit(6, value.getBytes(StandardCharsets.US_ASCII)));
+                    break;
+                default:
+                    throw new IOException("Unsupported subject alternative name " + key);
+            }
+        }
+        return extension(SUBJECT_ALT_NAME, false, Der.sequence(names.toArray(new byte[0][])));
+    }
+
+    /**
+     * @return The PEM encoded PKCS#8 private key of the given key pair.
+     * EC private keys include their public key, as OpenSSL's do, so that it's known when the key is used to renew a certificate.
+     */
+    private static byte[] encodePrivateKey(KeyPair keyPair) throws IOException {
+        PrivateKey key = keyPair.getPrivate();
+        if (!(key instanceof ECPrivateKey)) {
+            return Pem.encode(Pem.PRIVATE_KEY, key.getEncoded());
+        }
+        Der.Reader publicKeyInfo = new Der.Reader(keyPair.getPublic().getEncoded()).next(Der.SEQUENCE).children();
+        byte[] algorithm = publicKeyInfo.next(Der.SEQUENCE).encoded();
+        byte[] publicKey = publicKeyInfo.next(Der.BIT_STRING).encoded();
+        ECPrivateKey ec = (ECPrivateKey) key;
+        byte[] ecPrivateKey = Der.sequence(
+                Der.integer(1),
+                Der.octetString(unsigned(ec.getS(), (ec.getParams().getCurve().getField().getFieldSize() + 7) / 8)),
+                Der.explicit(1, publicKey));
+        return Pem.encode(Pem.PRIVATE_KEY, Der.sequence(Der.integer(0), algorithm, Der.octetString(ecPrivateKey)));
+    }
+
+    /**
+     * @return The given non-negative integer as a big-endian byte array of the given length.
+     */
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        byte[] result = new byte[length];
+        int copy = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copy, result, length - copy, copy);
+        return result;
+    }
+
+    /**
+     * @return The PKCS#8 encoding of the private key in the given PEM, which may be a PKCS#8 {@code PRIVATE KEY}
+     * or, as older versions of OpenSSL generate, a PKCS#1 {@code RSA PRIVATE KEY} or SEC 1 {@code EC PRIVATE KEY}.
+     */
+    private static byte[] pkcs8(byte[] pem) throws IOException {
+        String label = Pem.label(pem);
+        if (Pem.EC_PARAMETERS.equals(label)) {
+            // As "openssl ecparam -genkey" writes them, before the key
+            label = Pem.EC_PRIVATE_KEY;
+        }
+        if (Pem.PRIVATE_KEY.equals(label)) {
+            return Pem.decode(label, pem);
+        } else if (Pem.RSA_PRIVATE_KEY.equals(label)) {
+            return Der.sequence(
+                    Der.integer(0),
+                    Der.sequence(Der.objectIdentifier(RSA_ENCRYPTION), Der.nullValue()),
+                    Der.octetString(Pem.decode(label, pem)));
+        } else if (Pem.EC_PRIVATE_KEY.equals(label)) {
+            byte[] ecPrivateKey = Pem.decode(label, pem);
+            Der.Reader fields = new Der.Reader(ecPrivateKey).next(Der.SEQUENCE).children();
+            fields.next(Der.INTEGER);
+            fields.next(Der.OCTET_STRING);
+            byte[] curve = null;
+            while (fields.hasNext()) {
+                if (fields.next().tag() == (Der.CONTEXT_SPECIFIC | Der.CONSTRUCTED)) {
+                    curve = fields.children().next(Der.OBJECT_IDENTIFIER).encoded();
+                }
+            }
+            if (curve == null) {
+                throw new IOException("EC private key without a named curve");
+            }
+            return Der.sequence(
+                    Der.integer(0),
+                    Der.sequence(Der.objectIdentifier(EC_PUBLIC_KEY), curve),
+                    Der.octetString(ecPrivateKey));
+        }
+        throw new IOException("Unsupported private key " + label);
+    }
+
+    static PrivateKey readPrivateKey(byte[] pem) throws IOException {
+        byte[] pkcs8 = pkcs8(pem);
+        Der.Reader privateKeyInfo = new Der.Reader(pkcs8).next(Der.SEQUENCE).children();
+        privateKeyInfo.next(Der.INTEGER);
+        String algorithm = keyAlgorithm(privateKeyInfo.next(Der.SEQUENCE).children().next(Der.OBJECT_IDENTIFIER).objectIdentifier());
+        try {
+            return KeyFactory.getInstance(algorithm).generatePrivate(new PKCS8EncodedKeySpec(pkcs8));
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Invalid " + algorithm + " private key", e);
+        }
+    }
+
+    /**
+     * @return The private key in the given PEM, with its public key.
+     */
+    private static KeyPair readKeyPair(byte[] pem) throws IOException {
+        PrivateKey privateKey = readPrivateKey(pem);
+        if (privateKey instanceof RSAPrivateCrtKey) {
+            RSAPrivateCrtKey rsa = (RSAPrivateCrtKey) privateKey;
+            try {
+                PublicKey publicKey = KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(rsa.getModulus(), rsa.getPublicExponent()));
+                return new KeyPair(publicKey, privateKey);
+            } catch (GeneralSecurityException e) {
+                throw new IOException(e);
+            }
+        } else if (privateKey instanceof ECPrivateKey) {
+            // The public key is in the SEC 1 ECPrivateKey, as both this and OpenSSL write it
+            Der.Reader privateKeyInfo = new Der.Reader(pkcs8(pem)).next(Der.SEQUENCE).children();
+            privateKeyInfo.next(Der.INTEGER);
+            byte[] algorithm = privateKeyInfo.next(Der.SEQUENCE).encoded();
+            Der.Reader fields = new Der.Reader(privateKeyInfo.next(Der.OCTET_STRING).contents()).next(Der.SEQUENCE).children();
+            fields.next(Der.INTEGER);
+            fields.next(Der.OCTET_STRING);
+            while (fields.hasNext()) {
+                if (fields.next().tag() == (Der.CONTEXT_SPECIFIC | Der.CONSTRUCTED | 1)) {
+                    byte[] publicKeyInfo = Der.sequence(algorithm, fields.children().next(Der.BIT_STRING).encoded());
+                    return new KeyPair(readPublicKey(publicKeyInfo), privateKey);
+                }
+            }
+        }
+        throw new IOException("Cannot find the public key of a " + privateKey.getAlgorithm() + " private key");
+    }
+
+    private static PublicKey readPublicKey(byte[] publicKeyInfo) throws IOException {
+        String oid = new Der.Reader(publicKeyInfo).next(Der.SEQUENCE).children()
+                .next(Der.SEQUENCE).children().next(Der.OBJECT_IDENTIFIER).objectIdentifier();
+        String algorithm = keyAlgorithm(oid);
+        try {
+            return KeyFactory.getInstance(algorithm).generatePublic(new X509EncodedKeySpec(publicKeyInfo));
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Invalid " + algorithm + " public key", e);
+        }
+    }
+
+    private static String keyAlgorithm(String oid) throws IOException {
+        if (RSA_ENCRYPTION.equals(oid)) {
+            return "RSA";
+        } else if (EC_PUBLIC_KEY.equals(oid)) {
+            return "EC";
+        }
+        throw new IOException("Unsupported key algorithm " + oid);
+    }
+
+    private static X509Certificate readCertificate(byte[] pem) throws IOException {
+        try {
+            return (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(new ByteArrayInputStream(pem));
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Invalid CA certificate", e);
+        }
+    }
+}
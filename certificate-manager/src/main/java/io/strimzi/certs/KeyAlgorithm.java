@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.certs;
+
+import java.security.Key;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.RSAKey;
+
+/**
+ * The algorithms of the keys which can be generated for certificates.
+ */
+public enum KeyAlgorithm {
+
+    /** RSA keys, of the size the {@link CertManager} is configured with */
+    RSA("RSA", null, 0),
+    /** ECDSA keys on the NIST P-256 curve, signing with SHA-256 */
+    EC_P256("EC", "secp256r1", 256),
+    /** ECDSA keys on the NIST P-384 curve, signing with SHA-384 */
+    EC_P384("EC", "secp384r1", 384);
+
+    private final String jcaName;
+    private final String curve;
+    private final int fieldSize;
+
+    KeyAlgorithm(String jcaName, String curve, int fieldSize) {
+        this.jcaName = jcaName;
+        this.curve = curve;
+        this.fieldSize = fieldSize;
+    }
+
+    /**
+     * @return The name of the algorithm in the Java Cryptography Architecture, e.g. {@code EC}.
+     */
+    public String jcaName() {
+        return jcaName;
+    }
+
+    /**
+     * @return The standard name of the elliptic curve, or null if this isn't an elliptic curve algorithm.
+     */
+    public String curve() {
+        return curve;
+    }
+
+    /**
+     * @return The algorithm of the given (public or private) key, or null if it isn't one of these algorithms.
+     */
+    public static KeyAlgorithm of(Key key) {
+        if (key instanceof RSAKey) {
+            return RSA;
+        } else if (key instanceof ECKey) {
+            int fieldSize = ((ECKey) key).getParams().getCurve().getField().getFieldSize();
+            for (KeyAlgorithm algorithm : values()) {
+                if (algorithm.fieldSize == fieldSize) {
+                    return algorithm;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.certs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.security.KeyPair;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A pool of key pairs which are generated in the background, so that they are ready by the time a certificate
+ * needs one. Generating an RSA key pair is by far the slowest part of issuing a certificate, so taking one from
+ * the pool takes that time out of the reconciliation which needs the certificate.
+ * When the pool is empty, e.g. when many certificates are issued at once, {@link #take()} generates a key pair
+ * in the calling thread, so using the pool is never slower than not using it.
+ */
+public final class KeyPairPool implements AutoCloseable {
+
+    private static final Logger log = LogManager.getLogger(KeyPairPool.class);
+
+    /**
+     * Generates a key pair.
+     */
+    @FunctionalInterface
+    public interface Generator {
+        KeyPair generate() throws IOException;
+    }
+
+    private final Generator generator;
+    private final BlockingQueue<KeyPair> pool;
+    private final Thread refiller;
+    private volatile boolean closed;
+
+    /**
+     * @param name The name of the pool, used to name its thread.
+     * @param capacity The number of key pairs to keep ready.
+     * @param generator The generator of the key pairs.
+     */
+    public KeyPairPool(String name, int capacity, Generator generator) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of a key pair pool must be positive");
+        }
+        this.generator = generator;
+        this.pool = new ArrayBlockingQueue<>(capacity);
+        this.refiller = new Thread(this::refill, name + "-key-pair-pool");
+        this.refiller.setDaemon(true);
+        this.refiller.setPriority(Thread.MIN_PRIORITY);
+        this.refiller.start();
+    }
+
+    private void refill() {
+        while (!closed) {
+            try {
+                pool.put(generator.generate());
+            } catch (InterruptedException e) {
+                break;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to generate a key pair for the pool", e);
+                try {
+                    Thread.sleep(1_000);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+            }
+        }
+        log.debug("Stopped refilling key pair pool {}", refiller.getName());
+    }
+
+    /**
+     * @return A key pair from the pool, or a newly generated key pair if the pool is empty.
+     * Each key pair is returned once only.
+     */
+    public KeyPair take() throws IOException {
+        KeyPair keyPair = pool.poll();
+        if (keyPair == null) {
+            log.trace("Key pair pool {} is empty", refiller.getName());
+            keyPair = generator.generate();
+        }
+        return keyPair;
+    }
+
+    /**
+     * @return The number of key pairs currently ready in the pool.
+     */
+    public int size() {
+        return pool.size();
+    }
+
+    /**
+     * Stops generating key pairs in the background.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        refiller.interrupt();
+        pool.clear();
+    }
+}
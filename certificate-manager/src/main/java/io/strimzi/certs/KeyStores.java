@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.certs;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.util.Map;
+
+/**
+ * Builds PKCS#12 key stores from PEM encoded keys and certificates, for clients (such as Kafka's) which can only
+ * read keys and certificates from key store files.
+ */
+public class KeyStores {
+
+    public static final String TYPE = "PKCS12";
+
+    private KeyStores() {
+    }
+
+    /**
+     * @param alias The alias of the key store's entry
+     * @param certAndKey The PEM encoded private key and certificate
+     * @param password The password protecting the private key
+     * @return A key store holding the given private key and certificate.
+     * @throws IOException If the key or certificate cannot be read.
+     */
+    public static KeyStore keyStore(String alias, CertAndKey certAndKey, char[] password) throws IOException {
+        try {
+            KeyStore store = emptyStore();
+            store.setKeyEntry(alias, JavaCertManager.readPrivateKey(certAndKey.key()), password,
+                    new Certificate[] {readCertificate(certAndKey.cert())});
+            return store;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Cannot build key store", e);
+        }
+    }
+
+    /**
+     * @param certs The PEM encoded certificates, keyed by the alias of their entry
+     * @return A key store trusting the given certificates.
+     * @throws IOException If a certificate cannot be read.
+     */
+    public static KeyStore trustStore(Map<String, byte[]> certs) throws IOException {
+        try {
+            KeyStore store = emptyStore();
+            for (Map.Entry<String, byte[]> cert : certs.entrySet()) {
+                store.setCertificateEntry(cert.getKey(), readCertificate(cert.getValue()));
+            }
+            return store;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Cannot build trust store", e);
+        }
+    }
+
+    /**
+     * Writes the given key store to the given file.
+     *
+     * @param store The key store
+     * @param file The file
+     * @param password The password protecting the integrity of the file
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(KeyStore store, File file, char[] password) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            store.store(out, password);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Cannot write key store " + file, e);
+        }
+    }
+
+    private static KeyStore emptyStore() throws IOException, GeneralSecurityException {
+        KeyStore store = KeyStore.getInstance(TYPE);
+        store.load(null, null);
+        return store;
+    }
+
+    private static Certificate readCertificate(byte[] pem) throws GeneralSecurityException {
+        return CertificateFactory.getInstance("X.509").generateCertificate(new ByteArrayInputStream(pem));
+    }
+}
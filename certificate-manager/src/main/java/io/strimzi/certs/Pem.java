@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.certs;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the PEM (RFC 7468) files in which OpenSSL stores keys, certificates and certificate signing requests.
+ */
+final class Pem {
+
+    static final String CERTIFICATE = "CERTIFICATE";
+    static final String CERTIFICATE_REQUEST = "CERTIFICATE REQUEST";
+    static final String PRIVATE_KEY = "PRIVATE KEY";
+    static final String RSA_PRIVATE_KEY = "RSA PRIVATE KEY";
+    static final String EC_PRIVATE_KEY = "EC PRIVATE KEY";
+    static final String EC_PARAMETERS = "EC PARAMETERS";
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private Pem() {
+    }
+
+    static byte[] encode(String label, byte[] der) {
+        String base64 = Base64.getMimeEncoder(64, NEWLINE).encodeToString(der);
+        return ("-----BEGIN " + label + "-----\n" + base64 + "\n-----END " + label + "-----\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return The label of the first PEM block in the given bytes, e.g. {@code PRIVATE KEY}.
+     */
+    static String label(byte[] pem) throws IOException {
+        String text = new String(pem, StandardCharsets.US_ASCII);
+        int begin = text.indexOf("-----BEGIN ");
+        int end = begin < 0 ? -1 : text.indexOf("-----", begin + 11);
+        if (end < 0) {
+            throw new IOException("No PEM block found");
+        }
+        return text.substring(begin + 11, end);
+    }
+
+    /**
+     * @return The DER encoding within the first PEM block with the given label.
+     */
+    static byte[] decode(String label, byte[] pem) throws IOException {
+        String text = new String(pem, StandardCharsets.US_ASCII);
+        String begin = "-----BEGIN " + label + "-----";
+        String end = "-----END " + label + "-----";
+        int from = text.indexOf(begin);
+        int to = from < 0 ? -1 : text.indexOf(end, from);
+        if (to < 0) {
+            throw new IOException("No PEM block labelled " + label + " found");
+        }
+        try {
+            return Base64.getMimeDecoder().decode(text.substring(from + begin.length(), to));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid PEM block labelled " + label, e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.certs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares how many certificates per second {@link OpenSslCertManager} and {@link JavaCertManager} can issue,
+ * for a broker certificate with the subject alternative names the cluster operator gives one, and for a CA certificate.
+ * Run it with the {@link #main(String[])} method from the test classpath, with {@code openssl} on the path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CertManagerBenchmark {
+
+    @Param({"openssl", "java"})
+    public String certManager;
+
+    private CertManager manager;
+    private CertAndKey ca;
+    private Subject caSubject;
+    private Subject brokerSubject;
+
+    @Setup
+    public void setup() throws IOException {
+        manager = "openssl".equals(certManager) ? new OpenSslCertManager() : new JavaCertManager();
+
+        caSubject = new Subject();
+        caSubject.setOrganizationName("io.strimzi");
+        caSubject.setCommonName("cluster-ca");
+        ca = manager.generateSelfSignedCert(caSubject, 365);
+
+        brokerSubject = new Subject();
+        brokerSubject.setOrganizationName("io.strimzi");
+        brokerSubject.setCommonName("my-cluster-kafka");
+        Map<String, String> sbjAltNames = new LinkedHashMap<>();
+        sbjAltNames.put("DNS.1", "my-cluster-kafka-bootstrap");
+        sbjAltNames.put("DNS.2", "my-cluster-kafka-bootstrap.myproject");
+        sbjAltNames.put("DNS.3", "my-cluster-kafka-bootstrap.myproject.svc");
+        sbjAltNames.put("DNS.4", "my-cluster-kafka-bootstrap.myproject.svc.cluster.local");
+        sbjAltNames.put("DNS.5", "my-cluster-kafka-0.my-cluster-kafka-brokers.myproject.svc.cluster.local");
+        brokerSubject.setSubjectAltNames(sbjAltNames);
+    }
+
+    /** A broker's key and certificate, as generated for each broker of a cluster */
+    @Benchmark
+    public CertAndKey generateSignedCert() throws IOException {
+        return manager.generateSignedCert(brokerSubject, ca.key(), ca.cert(), 365);
+    }
+
+    /** A CA's key and certificate, as generated for a new cluster */
+    @Benchmark
+    public CertAndKey generateSelfSignedCert() throws IOException {
+        return manager.generateSelfSignedCert(caSubject, 365);
+    }
+
+    /** A CA's certificate, renewed with its existing key */
+    @Benchmark
+    public CertAndKey renewSelfSignedCert() throws IOException {
+        return manager.renewSelfSignedCert(ca.key(), caSubject, 365);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CertManagerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
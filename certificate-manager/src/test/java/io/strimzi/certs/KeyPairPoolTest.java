@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.certs;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class KeyPairPoolTest {
+
+    private static KeyPair keyPair() throws IOException {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(1024);
+            return generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void waitForSize(KeyPairPool pool, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (pool.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(size, pool.size());
+    }
+
+    @Test
+    public void testFillsToCapacityInBackground() throws Exception {
+        AtomicInteger generated = new AtomicInteger();
+        try (KeyPairPool pool = new KeyPairPool("test", 3, () -> {
+            generated.incrementAndGet();
+            return keyPair();
+        })) {
+            waitForSize(pool, 3);
+            // Blocked on the full pool, with at most one more generated
+            Thread.sleep(100);
+            assertTrue(generated.get() <= 4);
+
+            KeyPair first = pool.take();
+            KeyPair second = pool.take();
+            assertNotSame(first, second);
+
+            // Refilled after taking
+            waitForSize(pool, 3);
+        }
+    }
+
+    @Test
+    public void testGeneratesWhenEmpty() throws Exception {
+        AtomicInteger generated = new AtomicInteger();
+        try (KeyPairPool pool = new KeyPairPool("test", 1, () -> {
+            if (generated.incrementAndGet() > 1 && Thread.currentThread().getName().endsWith("-key-pair-pool")) {
+                // Never refill, so the pool stays empty after the first key pair
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            return keyPair();
+        })) {
+            waitForSize(pool, 1);
+            KeyPair pooled = pool.take();
+            assertEquals(0, pool.size());
+            KeyPair generatedInCaller = pool.take();
+            assertNotSame(pooled, generatedInCaller);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.certs;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KeyStoresTest {
+
+    private static final char[] PASSWORD = "password".toCharArray();
+
+    private static Subject subject(String commonName) {
+        Subject sbj = new Subject();
+        sbj.setOrganizationName("io.strimzi");
+        sbj.setCommonName(commonName);
+        return sbj;
+    }
+
+    @Test
+    public void testKeyStoreAndTrustStoreRoundTripThroughFiles() throws Exception {
+        CertManager certManager = new JavaCertManager();
+        CertAndKey ca = certManager.generateSelfSignedCert(subject("cluster-ca"), KeyAlgorithm.EC_P256, 365);
+        CertAndKey oldCa = certManager.generateSelfSignedCert(subject("cluster-ca"), 365);
+        CertAndKey broker = certManager.generateSignedCert(subject("my-cluster-kafka"), ca.key(), ca.cert(), 365);
+
+        Map<String, byte[]> caCerts = new LinkedHashMap<>();
+        caCerts.put("ca", ca.cert());
+        caCerts.put("ca-2018-10-01T00-00-00", oldCa.cert());
+
+        File keyStoreFile = File.createTempFile(getClass().getSimpleName(), ".keystore.p12");
+        File trustStoreFile = File.createTempFile(getClass().getSimpleName(), ".truststore.p12");
+        keyStoreFile.deleteOnExit();
+        trustStoreFile.deleteOnExit();
+        KeyStores.write(KeyStores.keyStore("my-cluster-kafka-0", broker, PASSWORD), keyStoreFile, PASSWORD);
+        KeyStores.write(KeyStores.trustStore(caCerts), trustStoreFile, PASSWORD);
+
+        KeyStore keyStore = read(keyStoreFile);
+        assertTrue(keyStore.isKeyEntry("my-cluster-kafka-0"));
+        assertEquals("EC", ((PrivateKey) keyStore.getKey("my-cluster-kafka-0", PASSWORD)).getAlgorithm());
+        X509Certificate cert = (X509Certificate) keyStore.getCertificate("my-cluster-kafka-0");
+        assertEquals("CN=my-cluster-kafka,O=io.strimzi", cert.getSubjectX500Principal().getName());
+
+        KeyStore trustStore = read(trustStoreFile);
+        assertEquals(2, trustStore.size());
+        assertTrue(trustStore.isCertificateEntry("ca"));
+        assertTrue(trustStore.isCertificateEntry("ca-2018-10-01T00-00-00"));
+        cert.verify(trustStore.getCertificate("ca").getPublicKey());
+    }
+
+    private static KeyStore read(File file) throws Exception {
+        KeyStore store = KeyStore.getInstance(KeyStores.TYPE);
+        try (InputStream in = new FileInputStream(file)) {
+            store.load(in, PASSWORD);
+        }
+        return store;
+    }
+}
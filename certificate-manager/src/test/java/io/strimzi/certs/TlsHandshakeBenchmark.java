@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.certs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many mutually authenticated TLS handshakes per second a broker could complete with the keys and
+ * certificates {@link JavaCertManager} generates with each {@link KeyAlgorithm}, signed by a CA with the same algorithm.
+ * Both ends of each handshake run in the benchmark thread, over in-memory buffers, and sessions are never resumed.
+ * Run it with the {@link #main(String[])} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TlsHandshakeBenchmark {
+
+    private static final char[] PASSWORD = "password".toCharArray();
+
+    @Param({"RSA", "EC_P256", "EC_P384"})
+    public KeyAlgorithm keyAlgorithm;
+
+    private SSLContext server;
+    private SSLContext client;
+
+    @Setup
+    public void setup() throws IOException, GeneralSecurityException {
+        CertManager certManager = new JavaCertManager();
+        Subject caSubject = new Subject();
+        caSubject.setOrganizationName("io.strimzi");
+        caSubject.setCommonName("cluster-ca");
+        CertAndKey ca = certManager.generateSelfSignedCert(caSubject, keyAlgorithm, 365);
+
+        Subject brokerSubject = new Subject();
+        brokerSubject.setOrganizationName("io.strimzi");
+        brokerSubject.setCommonName("my-cluster-kafka");
+        brokerSubject.setSubjectAltNames(Collections.singletonMap("DNS.1", "my-cluster-kafka-0.my-cluster-kafka-brokers"));
+        Subject clientSubject = new Subject();
+        clientSubject.setCommonName("my-user");
+
+        server = sslContext(certManager.generateSignedCert(brokerSubject, ca.key(), ca.cert(), 365), ca.cert());
+        client = sslContext(certManager.generateSignedCert(clientSubject, ca.key(), ca.cert(), 365), ca.cert());
+    }
+
+    private static SSLContext sslContext(CertAndKey certAndKey, byte[] caCert) throws IOException, GeneralSecurityException {
+        CertificateFactory factory = CertificateFactory.getInstance("X.509");
+        Certificate cert = factory.generateCertificate(new ByteArrayInputStream(certAndKey.cert()));
+        Certificate ca = factory.generateCertificate(new ByteArrayInputStream(caCert));
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        keyStore.setKeyEntry("key", JavaCertManager.readPrivateKey(certAndKey.key()), PASSWORD, new Certificate[] {cert, ca});
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, PASSWORD);
+
+        KeyStore trustStore = KeyStore.getInstance("PKCS12");
+        trustStore.load(null, null);
+        trustStore.setCertificateEntry("ca", ca);
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(trustStore);
+
+        SSLContext context = SSLContext.getInstance("TLSv1.2");
+        context.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+        return context;
+    }
+
+    @Benchmark
+    public SSLEngine handshake() throws SSLException {
+        SSLEngine serverEngine = server.createSSLEngine();
+        serverEngine.setUseClientMode(false);
+        serverEngine.setNeedClientAuth(true);
+        SSLEngine clientEngine = client.createSSLEngine();
+        clientEngine.setUseClientMode(true);
+
+        int packetSize = Math.max(serverEngine.getSession().getPacketBufferSize(), clientEngine.getSession().getPacketBufferSize());
+        int appSize = Math.max(serverEngine.getSession().getApplicationBufferSize(), clientEngine.getSession().getApplicationBufferSize());
+        ByteBuffer clientToServer = ByteBuffer.allocate(packetSize);
+        ByteBuffer serverToClient = ByteBuffer.allocate(packetSize);
+        ByteBuffer app = ByteBuffer.allocate(appSize);
+        ByteBuffer empty = ByteBuffer.allocate(0);
+
+        clientEngine.beginHandshake();
+        serverEngine.beginHandshake();
+        while (!isFinished(clientEngine) || !isFinished(serverEngine)) {
+            step(clientEngine, empty, clientToServer, serverToClient, app);
+            step(serverEngine, empty, serverToClient, clientToServer, app);
+        }
+        return serverEngine;
+    }
+
+    private static boolean isFinished(SSLEngine engine) {
+        SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+        return status == SSLEngineResult.HandshakeStatus.FINISHED || status == SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
+    }
+
+    /**
+     * Makes what progress the given engine can with the handshake: running its tasks, writing its messages to
+     * {@code out}, and reading its peer's messages from {@code in}.
+     */
+    private static void step(SSLEngine engine, ByteBuffer empty, ByteBuffer out, ByteBuffer in, ByteBuffer app) throws SSLException {
+        while (true) {
+            switch (engine.getHandshakeStatus()) {
+                case NEED_TASK:
+                    Runnable task;
+                    while ((task = engine.getDelegatedTask()) != null) {
+                        task.run();
+                    }
+                    break;
+                case NEED_WRAP:
+                    if (engine.wrap(empty, out).getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+                        // Wait for the peer to read what's been written
+                        return;
+                    }
+                    break;
+                case NEED_UNWRAP:
+                    in.flip();
+                    SSLEngineResult result = engine.unwrap(in, app);
+                    in.compact();
+                    app.clear();
+                    if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW) {
+                        // Wait for the peer to write more
+                        return;
+                    }
+                    break;
+                default:
+                    return;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TlsHandshakeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
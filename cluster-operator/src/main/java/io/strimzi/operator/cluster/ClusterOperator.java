@@ -7,26 +7,34 @@ package io.strimzi.operator.cluster;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.Watch;
-import io.strimzi.operator.cluster.operator.assembly.AbstractAssemblyOperator;
 import io.strimzi.operator.cluster.operator.assembly.KafkaAssemblyOperator;
 import io.strimzi.operator.cluster.operator.assembly.KafkaConnectAssemblyOperator;
 import io.strimzi.operator.cluster.operator.assembly.KafkaConnectS2IAssemblyOperator;
 import io.strimzi.operator.cluster.operator.assembly.KafkaMirrorMakerAssemblyOperator;
+import io.strimzi.operator.common.metrics.EventLoopMonitor;
+import io.strimzi.operator.common.metrics.MetricsRegistry;
+import io.strimzi.operator.common.operator.resource.AbstractResourceOperator;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Future;
 import io.vertx.core.http.HttpServer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static java.util.Collections.singleton;
 
 /**
  * An "operator" for managing assemblies of various types <em>in a particular namespace</em>.
  * The Cluster Operator's multiple namespace support is achieved by deploying multiple
- * {@link ClusterOperator}'s in Vertx.
+ * {@link ClusterOperator}'s in Vertx, or by deploying a single {@link ClusterOperator} for
+ * {@link AbstractResourceOperator#ANY_NAMESPACE} with a filter for the namespaces to operate in.
  */
 public class ClusterOperator extends AbstractVerticle {
 
@@ -36,6 +44,7 @@ public class ClusterOperator extends AbstractVerticle {
 
     private final KubernetesClient client;
     private final String namespace;
+    private final Predicate<String> namespaceFilter;
     private final long reconciliationInterval;
 
     private final Map<String, Watch> watchByKind = new ConcurrentHashMap();
@@ -45,6 +54,8 @@ public class ClusterOperator extends AbstractVerticle {
     private final KafkaConnectAssemblyOperator kafkaConnectAssemblyOperator;
     private final KafkaConnectS2IAssemblyOperator kafkaConnectS2IAssemblyOperator;
     private final KafkaMirrorMakerAssemblyOperator kafkaMirrorMakerAssemblyOperator;
+    private final MetricsRegistry metrics;
+    private EventLoopMonitor eventLoopMonitor;
 
     public ClusterOperator(String namespace,
                            long reconciliationInterval,
@@ -53,29 +64,44 @@ public class ClusterOperator extends AbstractVerticle {
                            KafkaConnectAssemblyOperator kafkaConnectAssemblyOperator,
                            KafkaConnectS2IAssemblyOperator kafkaConnectS2IAssemblyOperator,
                            KafkaMirrorMakerAssemblyOperator kafkaMirrorMakerAssemblyOperator) {
+        this(namespace, singleton(namespace), reconciliationInterval, client, kafkaAssemblyOperator, kafkaConnectAssemblyOperator,
+                kafkaConnectS2IAssemblyOperator, kafkaMirrorMakerAssemblyOperator, new MetricsRegistry());
+    }
+
+    /**
+     * @param namespace The namespace to watch, or {@link AbstractResourceOperator#ANY_NAMESPACE} to use a single
+     *                  watch (and list, for periodic reconciliation) of all namespaces per kind.
+     * @param namespaces The namespaces whose assemblies should be reconciled, which may include
+     *                   {@link AbstractResourceOperator#ANY_NAMESPACE} to reconcile the assemblies in all namespaces.
+     * @param metrics The registry served on {@code /metrics}, which should be shared by all the verticles,
+     *                since they share the health server.
+     */
+    public ClusterOperator(String namespace,
+                           Set<String> namespaces,
+                           long reconciliationInterval,
+                           KubernetesClient client,
+                           KafkaAssemblyOperator kafkaAssemblyOperator,
+                           KafkaConnectAssemblyOperator kafkaConnectAssemblyOperator,
+                           KafkaConnectS2IAssemblyOperator kafkaConnectS2IAssemblyOperator,
+                           KafkaMirrorMakerAssemblyOperator kafkaMirrorMakerAssemblyOperator,
+                           MetricsRegistry metrics) {
         log.info("Creating ClusterOperator for namespace {}", namespace);
         this.namespace = namespace;
+        this.namespaceFilter = namespaces.contains(AbstractResourceOperator.ANY_NAMESPACE) ? ns -> true : new HashSet<>(namespaces)::contains;
         this.reconciliationInterval = reconciliationInterval;
         this.client = client;
         this.kafkaAssemblyOperator = kafkaAssemblyOperator;
         this.kafkaConnectAssemblyOperator = kafkaConnectAssemblyOperator;
         this.kafkaConnectS2IAssemblyOperator = kafkaConnectS2IAssemblyOperator;
         this.kafkaMirrorMakerAssemblyOperator = kafkaMirrorMakerAssemblyOperator;
+        this.metrics = metrics;
     }
 
-    Consumer<KubernetesClientException> recreateWatch(AbstractAssemblyOperator op) {
-        Consumer<KubernetesClientException> cons = new Consumer<KubernetesClientException>() {
-            @Override
-            public void accept(KubernetesClientException e) {
-                if (e != null) {
-                    log.error("Watcher closed with exception in namespace {}", namespace, e);
-                    op.createWatch(namespace, this);
-                } else {
-                    log.info("Watcher closed in namespace {}", namespace);
-                }
-            }
-        };
-        return cons;
+    /**
+     * The watches resume themselves when closed by the API server, so they are only closed when this verticle stops.
+     */
+    Consumer<KubernetesClientException> onWatchClosed(String kind) {
+        return e -> log.info("{} watcher closed in namespace {}", kind, namespace);
     }
 
 
@@ -86,21 +112,24 @@ public class ClusterOperator extends AbstractVerticle {
         // Configure the executor here, but it is used only in other places
         getVertx().createSharedWorkerExecutor("kubernetes-ops-pool", 10, TimeUnit.SECONDS.toNanos(120));
 
-        kafkaAssemblyOperator.createWatch(namespace, recreateWatch(kafkaAssemblyOperator))
+        eventLoopMonitor = new EventLoopMonitor(vertx, metrics, namespace, EventLoopMonitor.DEFAULT_INTERVAL_MS);
+        eventLoopMonitor.start();
+
+        kafkaAssemblyOperator.createWatch(namespace, namespaceFilter, onWatchClosed("Kafka"))
             .compose(w -> {
                 log.info("Started operator for {} kind", "Kafka");
                 watchByKind.put("Kafka", w);
-                return kafkaMirrorMakerAssemblyOperator.createWatch(namespace, recreateWatch(kafkaMirrorMakerAssemblyOperator));
+                return kafkaMirrorMakerAssemblyOperator.createWatch(namespace, namespaceFilter, onWatchClosed("KafkaMirrorMaker"));
             }).compose(w -> {
                 log.info("Started operator for {} kind", "KafkaMirrorMaker");
                 watchByKind.put("KafkaMirrorMaker", w);
-                return kafkaConnectAssemblyOperator.createWatch(namespace, recreateWatch(kafkaConnectAssemblyOperator));
+                return kafkaConnectAssemblyOperator.createWatch(namespace, namespaceFilter, onWatchClosed("KafkaConnect"));
             }).compose(w -> {
                 log.info("Started operator for {} kind", "KafkaConnect");
                 watchByKind.put("KafkaConnect", w);
                 if (kafkaConnectS2IAssemblyOperator != null) {
                     // only on OS
-                    return kafkaConnectS2IAssemblyOperator.createWatch(namespace, recreateWatch(kafkaConnectS2IAssemblyOperator));
+                    return kafkaConnectS2IAssemblyOperator.createWatch(namespace, namespaceFilter, onWatchClosed("KafkaConnectS2I"));
                 } else {
                     return Future.succeededFuture(null);
                 }
@@ -123,6 +152,9 @@ public class ClusterOperator extends AbstractVerticle {
     public void stop(Future<Void> stop) {
         log.info("Stopping ClusterOperator for namespace {}", namespace);
         vertx.cancelTimer(reconcileTimer);
+        if (eventLoopMonitor != null) {
+            eventLoopMonitor.stop();
+        }
         for (Watch watch : watchByKind.values()) {
             if (watch != null) {
                 watch.close();
@@ -134,21 +166,45 @@ public class ClusterOperator extends AbstractVerticle {
         stop.complete();
     }
 
+    /**
+     * Triggers the reconciliation of all the assemblies on this verticle's context,
+     * e.g. when this replica becomes the leader, rather than waiting for the next periodic reconciliation.
+     * @param trigger A description of the trigger, used for logging
+     */
+    public void reconcileNow(String trigger) {
+        context.runOnContext(ignored -> {
+            log.info("Triggering {} reconciliation for namespace {}...", trigger, namespace);
+            reconcileAll(trigger);
+        });
+    }
+
+    /**
+     * Cancels the running reconciliations of all the assemblies, e.g. when this replica stops being the leader.
+     */
+    public void cancelRunningReconciliations() {
+        kafkaAssemblyOperator.cancelRunningReconciliations();
+        kafkaMirrorMakerAssemblyOperator.cancelRunningReconciliations();
+        kafkaConnectAssemblyOperator.cancelRunningReconciliations();
+        if (kafkaConnectS2IAssemblyOperator != null) {
+            kafkaConnectS2IAssemblyOperator.cancelRunningReconciliations();
+        }
+    }
+
     /**
       Periodical reconciliation (in case we lost some event)
      */
     private void reconcileAll(String trigger) {
-        kafkaAssemblyOperator.reconcileAll(trigger, namespace);
-        kafkaMirrorMakerAssemblyOperator.reconcileAll(trigger, namespace);
-        kafkaConnectAssemblyOperator.reconcileAll(trigger, namespace);
+        kafkaAssemblyOperator.reconcileAll(trigger, namespace, namespaceFilter);
+        kafkaMirrorMakerAssemblyOperator.reconcileAll(trigger, namespace, namespaceFilter);
+        kafkaConnectAssemblyOperator.reconcileAll(trigger, namespace, namespaceFilter);
 
         if (kafkaConnectS2IAssemblyOperator != null) {
-            kafkaConnectS2IAssemblyOperator.reconcileAll(trigger, namespace);
+            kafkaConnectS2IAssemblyOperator.reconcileAll(trigger, namespace, namespaceFilter);
         }
     }
 
     /**
-     * Start an HTTP health server
+     * Start an HTTP health server, which also serves the metrics on {@code /metrics}
      */
     private Future<HttpServer> startHealthServer() {
         Future<HttpServer> result = Future.future();
@@ -159,6 +215,10 @@ public class ClusterOperator extends AbstractVerticle {
                         request.response().setStatusCode(200).end();
                     } else if (request.path().equals("/ready")) {
                         request.response().setStatusCode(200).end();
+                    } else if (request.path().equals("/metrics")) {
+                        request.response().setStatusCode(200)
+                                .putHeader("Content-Type", MetricsRegistry.CONTENT_TYPE)
+                                .end(metrics.scrape());
                     }
                 })
                 .listen(HEALTH_SERVER_PORT, ar -> {
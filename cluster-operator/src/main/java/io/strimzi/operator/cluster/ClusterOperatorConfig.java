@@ -7,6 +7,7 @@ package io.strimzi.operator.cluster;
 import io.strimzi.operator.cluster.model.KafkaVersion;
 import io.strimzi.operator.cluster.model.ModelUtils;
 import io.strimzi.operator.common.InvalidConfigurationException;
+import io.strimzi.operator.common.operator.resource.AbstractResourceOperator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -26,21 +27,46 @@ public class ClusterOperatorConfig {
 
     public static final String STRIMZI_NAMESPACE = "STRIMZI_NAMESPACE";
     public static final String STRIMZI_FULL_RECONCILIATION_INTERVAL_MS = "STRIMZI_FULL_RECONCILIATION_INTERVAL_MS";
+    public static final String STRIMZI_DEEP_RECONCILIATION_INTERVAL_MS = "STRIMZI_DEEP_RECONCILIATION_INTERVAL_MS";
     public static final String STRIMZI_OPERATION_TIMEOUT_MS = "STRIMZI_OPERATION_TIMEOUT_MS";
+    public static final String STRIMZI_BLOCKING_OPERATIONS_PER_ASSEMBLY = "STRIMZI_BLOCKING_OPERATIONS_PER_ASSEMBLY";
     public static final String STRIMZI_CREATE_CLUSTER_ROLES = "STRIMZI_CREATE_CLUSTER_ROLES";
+    public static final String STRIMZI_RESOURCE_CACHE = "STRIMZI_RESOURCE_CACHE";
+    public static final String STRIMZI_CLUSTER_WIDE_WATCH = "STRIMZI_CLUSTER_WIDE_WATCH";
+    public static final String STRIMZI_TRACE_FILE = "STRIMZI_TRACE_FILE";
+    public static final String STRIMZI_LEADER_ELECTION_LEASE_NAME = "STRIMZI_LEADER_ELECTION_LEASE_NAME";
+    public static final String STRIMZI_LEADER_ELECTION_LEASE_NAMESPACE = "STRIMZI_LEADER_ELECTION_LEASE_NAMESPACE";
+    public static final String STRIMZI_LEADER_ELECTION_IDENTITY = "STRIMZI_LEADER_ELECTION_IDENTITY";
+    public static final String STRIMZI_LEADER_ELECTION_LEASE_DURATION_MS = "STRIMZI_LEADER_ELECTION_LEASE_DURATION_MS";
     public static final String STRIMZI_KAFKA_IMAGES = "STRIMZI_KAFKA_IMAGES";
     public static final String STRIMZI_KAFKA_CONNECT_IMAGES = "STRIMZI_KAFKA_CONNECT_IMAGES";
     public static final String STRIMZI_KAFKA_CONNECT_S2I_IMAGES = "STRIMZI_KAFKA_CONNECT_S2I_IMAGES";
     public static final String STRIMZI_KAFKA_MIRROR_MAKER_IMAGES = "STRIMZI_KAFKA_MIRROR_MAKER_IMAGES";
 
     public static final long DEFAULT_FULL_RECONCILIATION_INTERVAL_MS = 120_000;
+    public static final long DEFAULT_DEEP_RECONCILIATION_INTERVAL_MS = 600_000;
     public static final long DEFAULT_OPERATION_TIMEOUT_MS = 300_000;
+    public static final int DEFAULT_BLOCKING_OPERATIONS_PER_ASSEMBLY = 2;
     public static final boolean DEFAULT_CREATE_CLUSTER_ROLES = false;
+    public static final boolean DEFAULT_RESOURCE_CACHE = false;
+    public static final boolean DEFAULT_CLUSTER_WIDE_WATCH = false;
+    public static final String DEFAULT_TRACE_FILE = null;
+
+    /**
+     * The value of {@link #STRIMZI_NAMESPACE} which means all namespaces.
+     */
+    public static final String ANY_NAMESPACE = AbstractResourceOperator.ANY_NAMESPACE;
 
     private final Set<String> namespaces;
     private final long reconciliationIntervalMs;
     private final long operationTimeoutMs;
     private final boolean createClusterRoles;
+    private final boolean resourceCache;
+    private final long deepReconciliationIntervalMs;
+    private final int blockingOperationsPerAssembly;
+    private final boolean clusterWideWatch;
+    private final String traceFile;
+    private final LeaderElectionConfig leaderElection;
     private final KafkaVersion.Lookup versions;
 
     /**
@@ -53,10 +79,115 @@ public class ClusterOperatorConfig {
      * @param versions The configured Kafka versions
      */
     public ClusterOperatorConfig(Set<String> namespaces, long reconciliationIntervalMs, long operationTimeoutMs, boolean createClusterRoles, KafkaVersion.Lookup versions) {
+        this(namespaces, reconciliationIntervalMs, operationTimeoutMs, createClusterRoles, DEFAULT_RESOURCE_CACHE, versions);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param namespaces namespace in which the operator will run and create resources
+     * @param reconciliationIntervalMs    specify every how many milliseconds the reconciliation runs
+     * @param operationTimeoutMs    timeout for internal operations specified in milliseconds
+     * @param createClusterRoles true to create the cluster roles
+     * @param resourceCache true to serve reads of StatefulSets, Pods, Services, Secrets, ConfigMaps and Deployments from watch-fed caches
+     * @param versions The configured Kafka versions
+     */
+    public ClusterOperatorConfig(Set<String> namespaces, long reconciliationIntervalMs, long operationTimeoutMs, boolean createClusterRoles, boolean resourceCache, KafkaVersion.Lookup versions) {
+        this(namespaces, reconciliationIntervalMs, operationTimeoutMs, createClusterRoles, resourceCache, DEFAULT_DEEP_RECONCILIATION_INTERVAL_MS, versions);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param namespaces namespace in which the operator will run and create resources
+     * @param reconciliationIntervalMs    specify every how many milliseconds the reconciliation runs
+     * @param operationTimeoutMs    timeout for internal operations specified in milliseconds
+     * @param createClusterRoles true to create the cluster roles
+     * @param resourceCache true to serve reads of StatefulSets, Pods, Services, Secrets, ConfigMaps and Deployments from watch-fed caches
+     * @param deepReconciliationIntervalMs    specify every how many milliseconds the periodic reconciliation of an unchanged assembly runs in full
+     * @param versions The configured Kafka versions
+     */
+    public ClusterOperatorConfig(Set<String> namespaces, long reconciliationIntervalMs, long operationTimeoutMs, boolean createClusterRoles, boolean resourceCache, long deepReconciliationIntervalMs, KafkaVersion.Lookup versions) {
+        this(namespaces, reconciliationIntervalMs, operationTimeoutMs, createClusterRoles, resourceCache, deepReconciliationIntervalMs, DEFAULT_BLOCKING_OPERATIONS_PER_ASSEMBLY, versions);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param namespaces namespace in which the operator will run and create resources
+     * @param reconciliationIntervalMs    specify every how many milliseconds the reconciliation runs
+     * @param operationTimeoutMs    timeout for internal operations specified in milliseconds
+     * @param createClusterRoles true to create the cluster roles
+     * @param resourceCache true to serve reads of StatefulSets, Pods, Services, Secrets, ConfigMaps and Deployments from watch-fed caches
+     * @param deepReconciliationIntervalMs    specify every how many milliseconds the periodic reconciliation of an unchanged assembly runs in full
+     * @param blockingOperationsPerAssembly the maximum number of blocking operations for the same assembly to run at once
+     * @param versions The configured Kafka versions
+     */
+    public ClusterOperatorConfig(Set<String> namespaces, long reconciliationIntervalMs, long operationTimeoutMs, boolean createClusterRoles, boolean resourceCache, long deepReconciliationIntervalMs, int blockingOperationsPerAssembly, KafkaVersion.Lookup versions) {
+        this(namespaces, reconciliationIntervalMs, operationTimeoutMs, createClusterRoles, resourceCache, deepReconciliationIntervalMs, blockingOperationsPerAssembly, DEFAULT_CLUSTER_WIDE_WATCH, versions);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param namespaces namespace in which the operator will run and create resources
+     * @param reconciliationIntervalMs    specify every how many milliseconds the reconciliation runs
+     * @param operationTimeoutMs    timeout for internal operations specified in milliseconds
+     * @param createClusterRoles true to create the cluster roles
+     * @param resourceCache true to serve reads of StatefulSets, Pods, Services, Secrets, ConfigMaps and Deployments from watch-fed caches
+     * @param deepReconciliationIntervalMs    specify every how many milliseconds the periodic reconciliation of an unchanged assembly runs in full
+     * @param blockingOperationsPerAssembly the maximum number of blocking operations for the same assembly to run at once
+     * @param clusterWideWatch true to use a single cluster-wide watch and list per kind, rather than one per namespace
+     * @param versions The configured Kafka versions
+     */
+    public ClusterOperatorConfig(Set<String> namespaces, long reconciliationIntervalMs, long operationTimeoutMs, boolean createClusterRoles, boolean resourceCache, long deepReconciliationIntervalMs, int blockingOperationsPerAssembly, boolean clusterWideWatch, KafkaVersion.Lookup versions) {
+        this(namespaces, reconciliationIntervalMs, operationTimeoutMs, createClusterRoles, resourceCache, deepReconciliationIntervalMs, blockingOperationsPerAssembly, clusterWideWatch, DEFAULT_TRACE_FILE, versions);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param namespaces namespace in which the operator will run and create resources
+     * @param reconciliationIntervalMs    specify every how many milliseconds the reconciliation runs
+     * @param operationTimeoutMs    timeout for internal operations specified in milliseconds
+     * @param createClusterRoles true to create the cluster roles
+     * @param resourceCache true to serve reads of StatefulSets, Pods, Services, Secrets, ConfigMaps and Deployments from watch-fed caches
+     * @param deepReconciliationIntervalMs    specify every how many milliseconds the periodic reconciliation of an unchanged assembly runs in full
+     * @param blockingOperationsPerAssembly the maximum number of blocking operations for the same assembly to run at once
+     * @param clusterWideWatch true to use a single cluster-wide watch and list per kind, rather than one per namespace
+     * @param traceFile the file to append the traces of reconciliations to, or null to write them to the log
+     * @param versions The configured Kafka versions
+     */
+    public ClusterOperatorConfig(Set<String> namespaces, long reconciliationIntervalMs, long operationTimeoutMs, boolean createClusterRoles, boolean resourceCache, long deepReconciliationIntervalMs, int blockingOperationsPerAssembly, boolean clusterWideWatch, String traceFile, KafkaVersion.Lookup versions) {
+        this(namespaces, reconciliationIntervalMs, operationTimeoutMs, createClusterRoles, resourceCache, deepReconciliationIntervalMs, blockingOperationsPerAssembly, clusterWideWatch, traceFile, null, versions);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param namespaces namespace in which the operator will run and create resources
+     * @param reconciliationIntervalMs    specify every how many milliseconds the reconciliation runs
+     * @param operationTimeoutMs    timeout for internal operations specified in milliseconds
+     * @param createClusterRoles true to create the cluster roles
+     * @param resourceCache true to serve reads of StatefulSets, Pods, Services, Secrets, ConfigMaps and Deployments from watch-fed caches
+     * @param deepReconciliationIntervalMs    specify every how many milliseconds the periodic reconciliation of an unchanged assembly runs in full
+     * @param blockingOperationsPerAssembly the maximum number of blocking operations for the same assembly to run at once
+     * @param clusterWideWatch true to use a single cluster-wide watch and list per kind, rather than one per namespace
+     * @param traceFile the file to append the traces of reconciliations to, or null to write them to the log
+     * @param leaderElection the configuration of leader election among replicas of the operator, or null to always act as the leader
+     * @param versions The configured Kafka versions
+     */
+    public ClusterOperatorConfig(Set<String> namespaces, long reconciliationIntervalMs, long operationTimeoutMs, boolean createClusterRoles, boolean resourceCache, long deepReconciliationIntervalMs, int blockingOperationsPerAssembly, boolean clusterWideWatch, String traceFile, LeaderElectionConfig leaderElection, KafkaVersion.Lookup versions) {
         this.namespaces = unmodifiableSet(new HashSet<>(namespaces));
         this.reconciliationIntervalMs = reconciliationIntervalMs;
         this.operationTimeoutMs = operationTimeoutMs;
         this.createClusterRoles = createClusterRoles;
+        this.resourceCache = resourceCache;
+        this.deepReconciliationIntervalMs = deepReconciliationIntervalMs;
+        this.blockingOperationsPerAssembly = blockingOperationsPerAssembly;
+        this.clusterWideWatch = clusterWideWatch || namespaces.contains(ANY_NAMESPACE);
+        this.traceFile = traceFile;
+        this.leaderElection = leaderElection;
         this.versions = versions;
     }
 
@@ -94,6 +225,37 @@ public class ClusterOperatorConfig {
             createClusterRoles = Boolean.parseBoolean(createClusterRolesEnvVar);
         }
 
+        boolean resourceCache = DEFAULT_RESOURCE_CACHE;
+        String resourceCacheEnvVar = map.get(ClusterOperatorConfig.STRIMZI_RESOURCE_CACHE);
+        if (resourceCacheEnvVar != null) {
+            resourceCache = Boolean.parseBoolean(resourceCacheEnvVar);
+        }
+
+        long deepReconciliationInterval = DEFAULT_DEEP_RECONCILIATION_INTERVAL_MS;
+        String deepReconciliationIntervalEnvVar = map.get(ClusterOperatorConfig.STRIMZI_DEEP_RECONCILIATION_INTERVAL_MS);
+        if (deepReconciliationIntervalEnvVar != null) {
+            deepReconciliationInterval = Long.parseLong(deepReconciliationIntervalEnvVar);
+        }
+
+        int blockingOperationsPerAssembly = DEFAULT_BLOCKING_OPERATIONS_PER_ASSEMBLY;
+        String blockingOperationsPerAssemblyEnvVar = map.get(ClusterOperatorConfig.STRIMZI_BLOCKING_OPERATIONS_PER_ASSEMBLY);
+        if (blockingOperationsPerAssemblyEnvVar != null) {
+            blockingOperationsPerAssembly = Integer.parseInt(blockingOperationsPerAssemblyEnvVar);
+            if (blockingOperationsPerAssembly <= 0) {
+                throw new InvalidConfigurationException(ClusterOperatorConfig.STRIMZI_BLOCKING_OPERATIONS_PER_ASSEMBLY + " must be positive");
+            }
+        }
+
+        boolean clusterWideWatch = DEFAULT_CLUSTER_WIDE_WATCH;
+        String clusterWideWatchEnvVar = map.get(ClusterOperatorConfig.STRIMZI_CLUSTER_WIDE_WATCH);
+        if (clusterWideWatchEnvVar != null) {
+            clusterWideWatch = Boolean.parseBoolean(clusterWideWatchEnvVar);
+        }
+
+        String traceFile = traceFileFromMap(map);
+
+        LeaderElectionConfig leaderElection = leaderElectionFromMap(map);
+
         KafkaVersion.Lookup lookup = new KafkaVersion.Lookup(
                 ModelUtils.parseImageMap(map.get(STRIMZI_KAFKA_IMAGES)),
                 ModelUtils.parseImageMap(map.get(STRIMZI_KAFKA_CONNECT_IMAGES)),
@@ -112,10 +274,48 @@ public class ClusterOperatorConfig {
             }
         }
 
-        return new ClusterOperatorConfig(namespaces, reconciliationInterval, operationTimeout, createClusterRoles, lookup);
+        return new ClusterOperatorConfig(namespaces, reconciliationInterval, operationTimeout, createClusterRoles, resourceCache, deepReconciliationInterval, blockingOperationsPerAssembly, clusterWideWatch, traceFile, leaderElection, lookup);
     }
 
 
+    private static String traceFileFromMap(Map<String, String> map) {
+        String traceFileEnvVar = map.get(ClusterOperatorConfig.STRIMZI_TRACE_FILE);
+        if (traceFileEnvVar != null && !traceFileEnvVar.trim().isEmpty()) {
+            return traceFileEnvVar.trim();
+        }
+        return DEFAULT_TRACE_FILE;
+    }
+
+    private static LeaderElectionConfig leaderElectionFromMap(Map<String, String> map) {
+        String leaseName = map.get(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_LEASE_NAME);
+        if (leaseName == null || leaseName.trim().isEmpty()) {
+            return null;
+        }
+        String leaseNamespace = map.get(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_LEASE_NAMESPACE);
+        if (leaseNamespace == null || leaseNamespace.trim().isEmpty()) {
+            throw new InvalidConfigurationException(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_LEASE_NAMESPACE + " is required when "
+                    + ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_LEASE_NAME + " is set");
+        }
+        String identity = map.get(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_IDENTITY);
+        if (identity == null || identity.trim().isEmpty()) {
+            // The pod name, in a container
+            identity = map.get("HOSTNAME");
+            if (identity == null || identity.trim().isEmpty()) {
+                throw new InvalidConfigurationException(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_IDENTITY + " is required when "
+                        + ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_LEASE_NAME + " is set");
+            }
+        }
+        long leaseDuration = LeaderElectionConfig.DEFAULT_LEASE_DURATION_MS;
+        String leaseDurationEnvVar = map.get(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_LEASE_DURATION_MS);
+        if (leaseDurationEnvVar != null) {
+            leaseDuration = Long.parseLong(leaseDurationEnvVar);
+            if (leaseDuration < 3) {
+                throw new InvalidConfigurationException(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_LEASE_DURATION_MS + " is too short");
+            }
+        }
+        return new LeaderElectionConfig(leaseNamespace.trim(), leaseName.trim(), identity.trim(), leaseDuration);
+    }
+
     /**
      * @return  namespaces in which the operator runs and creates resources
      */
@@ -144,6 +344,49 @@ public class ClusterOperatorConfig {
         return createClusterRoles;
     }
 
+    /**
+     * @return  Indicates whether reads of the commonly used resources should be served from watch-fed caches
+     */
+    public boolean isResourceCache() {
+        return resourceCache;
+    }
+
+    /**
+     * @return  how many milliseconds the periodic reconciliation of an unchanged assembly runs in full
+     */
+    public long getDeepReconciliationIntervalMs() {
+        return deepReconciliationIntervalMs;
+    }
+
+    /**
+     * @return  the maximum number of blocking operations for the same assembly to run at once
+     */
+    public int getBlockingOperationsPerAssembly() {
+        return blockingOperationsPerAssembly;
+    }
+
+    /**
+     * @return  Indicates whether to use a single cluster-wide watch and list per kind, filtered to the {@linkplain #getNamespaces() namespaces}.
+     * This is always the case when the namespaces include {@link #ANY_NAMESPACE}.
+     */
+    public boolean isClusterWideWatch() {
+        return clusterWideWatch;
+    }
+
+    /**
+     * @return  the file to append the traces of reconciliations to, or null if they are written to the log
+     */
+    public String getTraceFile() {
+        return traceFile;
+    }
+
+    /**
+     * @return  the configuration of leader election among the replicas of the operator, or null if it is not enabled
+     */
+    public LeaderElectionConfig getLeaderElection() {
+        return leaderElection;
+    }
+
     public KafkaVersion.Lookup versions() {
         return versions;
     }
@@ -155,6 +398,12 @@ public class ClusterOperatorConfig {
                 ",reconciliationIntervalMs=" + reconciliationIntervalMs +
                 ",operationTimeoutMs=" + operationTimeoutMs +
                 ",createClusterRoles=" + createClusterRoles +
+                ",resourceCache=" + resourceCache +
+                ",deepReconciliationIntervalMs=" + deepReconciliationIntervalMs +
+                ",blockingOperationsPerAssembly=" + blockingOperationsPerAssembly +
+                ",clusterWideWatch=" + clusterWideWatch +
+                ",traceFile=" + traceFile +
+                ",leaderElection=" + leaderElection +
                 ",versions=" + versions +
                 ")";
     }
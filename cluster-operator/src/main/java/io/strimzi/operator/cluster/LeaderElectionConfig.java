@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster;
+
+/**
+ * Configuration of the election of a leader among the replicas of the Cluster Operator.
+ * See {@link LeaderElector}.
+ */
+public class LeaderElectionConfig {
+
+    public static final long DEFAULT_LEASE_DURATION_MS = 15_000;
+
+    private final String namespace;
+    private final String leaseName;
+    private final String identity;
+    private final long leaseDurationMs;
+
+    /**
+     * @param namespace The namespace of the ConfigMap used as the lock.
+     * @param leaseName The name of the ConfigMap used as the lock.
+     * @param identity The identity of this replica, which must be unique among the replicas (e.g. the pod name).
+     * @param leaseDurationMs How long, in milliseconds, the other replicas wait after the leader last renewed
+     *                        its lease before taking over.
+     */
+    public LeaderElectionConfig(String namespace, String leaseName, String identity, long leaseDurationMs) {
+        this.namespace = namespace;
+        this.leaseName = leaseName;
+        this.identity = identity;
+        this.leaseDurationMs = leaseDurationMs;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getLeaseName() {
+        return leaseName;
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    public long getLeaseDurationMs() {
+        return leaseDurationMs;
+    }
+
+    /**
+     * @return How long, in milliseconds, the leader keeps acting as leader without managing to renew its lease.
+     * This is shorter than the {@linkplain #getLeaseDurationMs() lease duration}, so the leader stops before any other replica can take over.
+     */
+    public long getRenewDeadlineMs() {
+        return leaseDurationMs * 2 / 3;
+    }
+
+    /**
+     * @return How often, in milliseconds, the leader renews its lease and the other replicas try to acquire it.
+     */
+    public long getRetryPeriodMs() {
+        return Math.max(1, leaseDurationMs / 5);
+    }
+
+    @Override
+    public String toString() {
+        return "LeaderElectionConfig(" +
+                "namespace=" + namespace +
+                ",leaseName=" + leaseName +
+                ",identity=" + identity +
+                ",leaseDurationMs=" + leaseDurationMs +
+                ")";
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Elects a leader among the replicas of the Cluster Operator, using a ConfigMap as the lock,
+ * so that replicas can run as hot standbys which take over within seconds when the leader fails.</p>
+ *
+ * <p>The ConfigMap records the identity of the leader and when it last renewed its lease.
+ * It is only ever replaced conditionally on the {@code resourceVersion} which was read, so of two replicas
+ * trying to acquire or renew the lease at once at most one can succeed.</p>
+ *
+ * <p>The other replicas time the lease using their own clocks, from when they last saw the record change,
+ * so clock skew between nodes doesn't matter. The leader stops acting as leader once
+ * {@link LeaderElectionConfig#getRenewDeadlineMs()} have passed since it started its last successful renewal,
+ * which is before any other replica can consider the lease expired. So two replicas never both believe
+ * that they are the leader, provided that {@link #isLeader()} is checked before changing anything.</p>
+ */
+public class LeaderElector {
+
+    private static final Logger log = LogManager.getLogger(LeaderElector.class);
+
+    static final String HOLDER_IDENTITY = "holderIdentity";
+    static final String RENEW_TIME = "renewTime";
+    static final String LEASE_DURATION_MS = "leaseDurationMs";
+    static final String LEADER_TRANSITIONS = "leaderTransitions";
+
+    private final Vertx vertx;
+    private final KubernetesClient client;
+    private final LeaderElectionConfig config;
+    private final Handler<Void> onStartedLeading;
+    private final Handler<Void> onStoppedLeading;
+    private final LongSupplier nanoClock;
+
+    private volatile boolean leader;
+    private volatile long renewStartedNanos;
+    // Only accessed while holding the lock on this
+    private String observedRecord;
+    private long observedNanos;
+
+    private boolean electing;
+    private volatile boolean stopped;
+    private volatile long timerId = -1;
+    private volatile long checkTimerId = -1;
+
+    /**
+     * @param vertx The Vertx instance.
+     * @param client The client.
+     * @param config The configuration.
+     * @param onStartedLeading Called on the event loop when this replica becomes the leader.
+     * @param onStoppedLeading Called on the event loop when this replica stops being the leader.
+     */
+    public LeaderElector(Vertx vertx, KubernetesClient client, LeaderElectionConfig config,
+                         Handler<Void> onStartedLeading, Handler<Void> onStoppedLeading) {
+        this(vertx, client, config, onStartedLeading, onStoppedLeading, System::nanoTime);
+    }
+
+    LeaderElector(Vertx vertx, KubernetesClient client, LeaderElectionConfig config,
+                  Handler<Void> onStartedLeading, Handler<Void> onStoppedLeading, LongSupplier nanoClock) {
+        this.vertx = vertx;
+        this.client = client;
+        this.config = config;
+        this.onStartedLeading = onStartedLeading;
+        this.onStoppedLeading = onStoppedLeading;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return true if this replica is the leader and may change the resources it operates on.
+     */
+    public boolean isLeader() {
+        return leader && withinRenewDeadline();
+    }
+
+    private boolean withinRenewDeadline() {
+        return nanoClock.getAsLong() - renewStartedNanos < TimeUnit.MILLISECONDS.toNanos(config.getRenewDeadlineMs());
+    }
+
+    /**
+     * Starts trying to acquire, and then renewing, the lease.
+     * @return false if this had already been started.
+     */
+    public synchronized boolean start() {
+        if (electing) {
+            return false;
+        }
+        electing = true;
+        log.info("Starting leader election as {} using ConfigMap {} in namespace {}",
+                config.getIdentity(), config.getLeaseName(), config.getNamespace());
+        // The renewals get their own thread, so they can't be held up by a busy worker pool
+        vertx.createSharedWorkerExecutor("leader-election", 1);
+        // Notices when a renewal is taking so long that the lease may no longer be ours
+        checkTimerId = vertx.setPeriodic(config.getRetryPeriodMs(), ignored -> updateLeadership(false));
+        tick();
+        return true;
+    }
+
+    private void tick() {
+        vertx.createSharedWorkerExecutor("leader-election").<Boolean>executeBlocking(
+            future -> future.complete(tryAcquireOrRenew()),
+            true,
+            res -> {
+                if (stopped) {
+                    return;
+                }
+                if (res.failed()) {
+                    log.warn("{} failed to acquire or renew the lease in ConfigMap {}", config.getIdentity(), config.getLeaseName(), res.cause());
+                }
+                updateLeadership(res.succeeded() && res.result());
+                timerId = vertx.setTimer(config.getRetryPeriodMs(), ignored -> tick());
+            });
+    }
+
+    void updateLeadership(boolean renewed) {
+        boolean wasLeader = leader;
+        boolean isLeader = (renewed || wasLeader) && withinRenewDeadline();
+        leader = isLeader;
+        if (!wasLeader && isLeader) {
+            log.info("{} is now the leader", config.getIdentity());
+            onStartedLeading.handle(null);
+        } else if (wasLeader && !isLeader) {
+            log.warn("{} is no longer the leader", config.getIdentity());
+            onStoppedLeading.handle(null);
+        }
+    }
+
+    /**
+     * Stops taking part in the election, releasing the lease if this replica holds it,
+     * so that another replica can take over without waiting for the lease to expire.
+     * @return A future which completes once the lease has been released.
+     */
+    public Future<Void> stop() {
+        stopped = true;
+        vertx.cancelTimer(timerId);
+        vertx.cancelTimer(checkTimerId);
+        boolean wasLeader = leader;
+        leader = false;
+        if (!wasLeader) {
+            return Future.succeededFuture();
+        }
+        onStoppedLeading.handle(null);
+        Future<Void> result = Future.future();
+        vertx.createSharedWorkerExecutor("leader-election").<Void>executeBlocking(
+            future -> {
+                release();
+                future.complete();
+            },
+            true,
+            result.completer());
+        return result;
+    }
+
+    /**
+     * Stops taking part in the election and releases the lease if this replica holds it,
+     * blocking until it has been released. This is for use from a shutdown hook, when the event loop may not run again.
+     */
+    public void close() {
+        stopped = true;
+        leader = false;
+        release();
+    }
+
+    /**
+     * Registers a shutdown hook which {@linkplain #close() closes} this elector,
+     * so that another replica can take over as soon as this one is shut down.
+     */
+    public void closeOnShutdown() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "leader-election-release"));
+    }
+
+    /**
+     * Acquires the lease if it is free or has expired, or renews it if this replica already holds it.
+     * This blocks while making requests to the API server.
+     * @return true if this replica holds the lease.
+     */
+    synchronized boolean tryAcquireOrRenew() {
+        long started = nanoClock.getAsLong();
+        ConfigMap current = getLock();
+        long now = nanoClock.getAsLong();
+        if (current == null) {
+            if (createLock(desiredLock(null, 0))) {
+                renewed(started);
+                return true;
+            }
+            return false;
+        }
+
+        Map<String, String> data = current.getData() != null ? current.getData() : new HashMap<>(0);
+        String holder = data.get(HOLDER_IDENTITY);
+        String record = record(data);
+        if (!record.equals(observedRecord)) {
+            observedRecord = record;
+            observedNanos = now;
+        }
+        boolean heldByUs = config.getIdentity().equals(holder);
+        long leaseDurationMs = parseLong(data.get(LEASE_DURATION_MS), config.getLeaseDurationMs());
+        if (!heldByUs && holder != null && !holder.isEmpty()
+                && now - observedNanos < TimeUnit.MILLISECONDS.toNanos(leaseDurationMs)) {
+            log.debug("{} is waiting for the lease held by {}", config.getIdentity(), holder);
+            return false;
+        }
+
+        long transitions = parseLong(data.get(LEADER_TRANSITIONS), 0) + (heldByUs ? 0 : 1);
+        if (replaceLock(current, desiredLock(current, transitions))) {
+            if (!heldByUs) {
+                log.info("{} acquired the lease previously held by {}", config.getIdentity(), holder == null || holder.isEmpty() ? "nobody" : holder);
+            }
+            renewed(started);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gives up the lease, if this replica holds it, by clearing the holder.
+     * This blocks while making requests to the API server.
+     */
+    synchronized void release() {
+        try {
+            ConfigMap current = getLock();
+            if (current != null && current.getData() != null && config.getIdentity().equals(current.getData().get(HOLDER_IDENTITY))) {
+                ConfigMap released = new ConfigMapBuilder(current).build();
+                Map<String, String> data = new HashMap<>(current.getData());
+                data.put(HOLDER_IDENTITY, "");
+                released.setData(data);
+                if (replaceLock(current, released)) {
+                    log.info("{} released the lease", config.getIdentity());
+                }
+            }
+        } catch (KubernetesClientException e) {
+            log.warn("{} failed to release the lease; the other replicas will take over once it expires", config.getIdentity(), e);
+        }
+    }
+
+    private void renewed(long started) {
+        renewStartedNanos = started;
+    }
+
+    private static String record(Map<String, String> data) {
+        return data.get(HOLDER_IDENTITY) + "/" + data.get(RENEW_TIME) + "/" + data.get(LEADER_TRANSITIONS);
+    }
+
+    private ConfigMap desiredLock(ConfigMap current, long transitions) {
+        Map<String, String> data = new HashMap<>();
+        data.put(HOLDER_IDENTITY, config.getIdentity());
+        data.put(RENEW_TIME, String.valueOf(System.currentTimeMillis()));
+        data.put(LEASE_DURATION_MS, String.valueOf(config.getLeaseDurationMs()));
+        data.put(LEADER_TRANSITIONS, String.valueOf(transitions));
+        if (current != null) {
+            ConfigMap desired = new ConfigMapBuilder(current).build();
+            desired.setData(data);
+            return desired;
+        }
+        return new ConfigMapBuilder()
+                .withNewMetadata()
+                    .withNamespace(config.getNamespace())
+                    .withName(config.getLeaseName())
+                .endMetadata()
+                .withData(data)
+                .build();
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return value != null ? Long.parseLong(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * @return The lock, or null if it doesn't exist.
+     */
+    protected ConfigMap getLock() {
+        return client.configMaps().inNamespace(config.getNamespace()).withName(config.getLeaseName()).get();
+    }
+
+    /**
+     * @return true if the lock was created, false if it already existed.
+     */
+    protected boolean createLock(ConfigMap lock) {
+        try {
+            client.configMaps().inNamespace(config.getNamespace()).create(lock);
+            return true;
+        } catch (KubernetesClientException e) {
+            if (e.getCode() == 409) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if the lock was replaced, false if it had changed since {@code current} was read.
+     */
+    protected boolean replaceLock(ConfigMap current, ConfigMap desired) {
+        try {
+            client.configMaps().inNamespace(config.getNamespace()).withName(config.getLeaseName())
+                    .lockResourceVersion(current.getMetadata().getResourceVersion())
+                    .replace(desired);
+            return true;
+        } catch (KubernetesClientException e) {
+            if (e.getCode() == 409) {
+                return false;
+            }
+            throw e;
+        }
+    }
+}
@@ -19,13 +19,16 @@ import io.strimzi.api.kafka.model.DoneableKafkaMirrorMaker;
 import io.strimzi.api.kafka.model.KafkaConnect;
 import io.strimzi.api.kafka.model.KafkaConnectS2I;
 import io.strimzi.api.kafka.model.KafkaMirrorMaker;
-import io.strimzi.certs.OpenSslCertManager;
-import io.strimzi.operator.cluster.model.KafkaVersion;
+import io.strimzi.certs.JavaCertManager;
+import io.strimzi.operator.cluster.operator.assembly.Bulkheads;
 import io.strimzi.operator.cluster.operator.assembly.KafkaAssemblyOperator;
 import io.strimzi.operator.cluster.operator.assembly.KafkaConnectAssemblyOperator;
 import io.strimzi.operator.cluster.operator.assembly.KafkaConnectS2IAssemblyOperator;
 import io.strimzi.operator.cluster.operator.assembly.KafkaMirrorMakerAssemblyOperator;
+import io.strimzi.operator.cluster.operator.assembly.ReconciliationQueue;
 import io.strimzi.operator.cluster.operator.resource.ResourceOperatorSupplier;
+import io.strimzi.operator.common.metrics.KubernetesApiMetrics;
+import io.strimzi.operator.common.metrics.MetricsRegistry;
 import io.strimzi.operator.common.operator.resource.BuildConfigOperator;
 import io.strimzi.operator.common.operator.resource.ClusterRoleOperator;
 import io.strimzi.operator.common.operator.resource.ConfigMapOperator;
@@ -34,8 +37,12 @@ import io.strimzi.operator.common.operator.resource.DeploymentConfigOperator;
 import io.strimzi.operator.common.operator.resource.DeploymentOperator;
 import io.strimzi.operator.common.operator.resource.ImageStreamOperator;
 import io.strimzi.operator.common.operator.resource.NetworkPolicyOperator;
+import io.strimzi.operator.common.operator.resource.ResourceCaches;
 import io.strimzi.operator.common.operator.resource.SecretOperator;
 import io.strimzi.operator.common.operator.resource.ServiceOperator;
+import io.strimzi.operator.common.tracing.JsonSpanExporter;
+import io.strimzi.operator.common.tracing.KubernetesApiTracing;
+import io.strimzi.operator.common.tracing.SpanExporter;
 import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
@@ -49,15 +56,23 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
+import static java.util.Collections.singleton;
+
 public class Main {
     private static final Logger log = LogManager.getLogger(Main.class.getName());
 
+    /** The number of key pairs kept ready for new certificates, enough for a typical new cluster's certificates */
+    private static final int KEY_PAIR_POOL_SIZE = 10;
+
     static {
         try {
             Crds.registerCustomKinds();
@@ -70,13 +85,14 @@ public class Main {
         log.info("ClusterOperator {} is starting", Main.class.getPackage().getImplementationVersion());
         ClusterOperatorConfig config = ClusterOperatorConfig.fromMap(System.getenv());
         Vertx vertx = Vertx.vertx();
-        KubernetesClient client = new DefaultKubernetesClient();
+        MetricsRegistry metrics = new MetricsRegistry();
+        KubernetesClient client = KubernetesApiTracing.instrument(KubernetesApiMetrics.instrument(new DefaultKubernetesClient(), metrics));
 
         maybeCreateClusterRoles(vertx, config, client).setHandler(crs -> {
             if (crs.succeeded())    {
                 isOnOpenShift(vertx, client).setHandler(os -> {
                     if (os.succeeded()) {
-                        run(vertx, client, os.result().booleanValue(), config).setHandler(ar -> {
+                        run(vertx, client, os.result().booleanValue(), config, metrics).setHandler(ar -> {
                             if (ar.failed()) {
                                 log.error("Unable to start operator for 1 or more namespace", ar.cause());
                                 System.exit(1);
@@ -95,7 +111,18 @@ public class Main {
     }
 
     static CompositeFuture run(Vertx vertx, KubernetesClient client, boolean isOpenShift, ClusterOperatorConfig config) {
+        return run(vertx, client, isOpenShift, config, new MetricsRegistry());
+    }
+
+    static CompositeFuture run(Vertx vertx, KubernetesClient client, boolean isOpenShift, ClusterOperatorConfig config, MetricsRegistry metrics) {
         printEnvInfo();
+        // With leader election every replica watches and caches, but only the leader reconciles
+        List<ClusterOperator> operators = new ArrayList<>();
+        LeaderElector elector = config.getLeaderElection() == null ? null : new LeaderElector(vertx, client, config.getLeaderElection(),
+            v -> operators.forEach(operator -> operator.reconcileNow("leader elected")),
+            v -> operators.forEach(ClusterOperator::cancelRunningReconciliations));
+        // and the resource operators check the lease right before each change they make
+        BooleanSupplier leadership = elector != null ? elector::isLeader : () -> true;
         ServiceOperator serviceOperations = new ServiceOperator(vertx, client);
         ConfigMapOperator configMapOperations = new ConfigMapOperator(vertx, client);
         DeploymentOperator deploymentOperations = new DeploymentOperator(vertx, client);
@@ -106,10 +133,42 @@ public class Main {
                 new CrdOperator<>(vertx, client, KafkaMirrorMaker.class, KafkaMirrorMakerList.class, DoneableKafkaMirrorMaker.class);
         NetworkPolicyOperator networkPolicyOperator = new NetworkPolicyOperator(vertx, client);
 
-        OpenSslCertManager certManager = new OpenSslCertManager();
+        ResourceOperatorSupplier resourceOperatorSupplier = new ResourceOperatorSupplier(vertx, client, isOpenShift, config.getOperationTimeoutMs());
+
+        resourceOperatorSupplier.setMetrics(metrics);
+        serviceOperations.setMetrics(metrics);
+        configMapOperations.setMetrics(metrics);
+        deploymentOperations.setMetrics(metrics);
+        secretOperations.setMetrics(metrics);
+        kco.setMetrics(metrics);
+        kmmo.setMetrics(metrics);
+        networkPolicyOperator.setMetrics(metrics);
+
+        ResourceCaches caches = null;
+        if (config.isResourceCache()) {
+            caches = new ResourceCaches(vertx, client);
+            resourceOperatorSupplier.useCaches(caches);
+            serviceOperations.setCache(caches.services);
+            configMapOperations.setCache(caches.configMaps);
+            deploymentOperations.setCache(caches.deployments);
+            deploymentOperations.setPodCache(caches.pods);
+            secretOperations.setCache(caches.secrets);
+            caches.registerMetrics(metrics);
+        }
+        resourceOperatorSupplier.setLeadership(leadership);
+        serviceOperations.setLeadership(leadership);
+        configMapOperations.setLeadership(leadership);
+        deploymentOperations.setLeadership(leadership);
+        secretOperations.setLeadership(leadership);
+        kco.setLeadership(leadership);
+        kmmo.setLeadership(leadership);
+        networkPolicyOperator.setLeadership(leadership);
+
+        JavaCertManager certManager = new JavaCertManager(JavaCertManager.DEFAULT_RSA_KEY_SIZE,
+                KEY_PAIR_POOL_SIZE, Runtime.getRuntime().availableProcessors());
         KafkaAssemblyOperator kafkaClusterOperations = new KafkaAssemblyOperator(vertx, isOpenShift,
                 config.getOperationTimeoutMs(), certManager,
-                new ResourceOperatorSupplier(vertx, client, isOpenShift, config.getOperationTimeoutMs()),
+                resourceOperatorSupplier,
                 config.versions());
         KafkaConnectAssemblyOperator kafkaConnectClusterOperations = new KafkaConnectAssemblyOperator(vertx, isOpenShift, certManager, kco, configMapOperations, deploymentOperations, serviceOperations, secretOperations, networkPolicyOperator,
                 config.versions());
@@ -117,7 +176,7 @@ public class Main {
         KafkaConnectS2IAssemblyOperator kafkaConnectS2IClusterOperations = null;
         CrdOperator<OpenShiftClient, KafkaConnectS2I, KafkaConnectS2IAssemblyList, DoneableKafkaConnectS2I> kafkaConnectS2iCrdOperator = null;
         if (isOpenShift) {
-            kafkaConnectS2IClusterOperations = createS2iOperator(vertx, client, isOpenShift, serviceOperations, configMapOperations, secretOperations, certManager, config.versions());
+            kafkaConnectS2IClusterOperations = createS2iOperator(vertx, client, isOpenShift, serviceOperations, configMapOperations, secretOperations, certManager, config, leadership, metrics);
         } else {
             maybeLogS2iOnKubeWarning(vertx, client);
         }
@@ -125,31 +184,107 @@ public class Main {
         KafkaMirrorMakerAssemblyOperator kafkaMirrorMakerAssemblyOperator =
                 new KafkaMirrorMakerAssemblyOperator(vertx, isOpenShift, certManager, kmmo, secretOperations, configMapOperations, networkPolicyOperator, deploymentOperations, serviceOperations, config.versions());
 
+        // A single queue bounds the number of reconciliations running at once over all the assembly types
+        ReconciliationQueue reconciliationQueue = new ReconciliationQueue(vertx, ReconciliationQueue.DEFAULT_MAX_CONCURRENT_RECONCILIATIONS);
+        // and a single set of bulkheads bounds each assembly's share of the worker pool
+        Bulkheads bulkheads = new Bulkheads(vertx, "kubernetes-ops-pool", config.getBlockingOperationsPerAssembly());
+        reconciliationQueue.registerMetrics(metrics);
+        bulkheads.registerMetrics(metrics);
+        SpanExporter spanExporter = spanExporter(config);
+        kafkaClusterOperations.setDeepReconciliationIntervalMs(config.getDeepReconciliationIntervalMs());
+        kafkaClusterOperations.setReconciliationQueue(reconciliationQueue);
+        kafkaClusterOperations.setBulkheads(bulkheads);
+        kafkaClusterOperations.setMetrics(metrics);
+        kafkaClusterOperations.setSpanExporter(spanExporter);
+        kafkaClusterOperations.setLeadership(leadership);
+        kafkaConnectClusterOperations.setDeepReconciliationIntervalMs(config.getDeepReconciliationIntervalMs());
+        kafkaConnectClusterOperations.setReconciliationQueue(reconciliationQueue);
+        kafkaConnectClusterOperations.setBulkheads(bulkheads);
+        kafkaConnectClusterOperations.setMetrics(metrics);
+        kafkaConnectClusterOperations.setSpanExporter(spanExporter);
+        kafkaConnectClusterOperations.setLeadership(leadership);
+        if (kafkaConnectS2IClusterOperations != null) {
+            kafkaConnectS2IClusterOperations.setDeepReconciliationIntervalMs(config.getDeepReconciliationIntervalMs());
+            kafkaConnectS2IClusterOperations.setReconciliationQueue(reconciliationQueue);
+            kafkaConnectS2IClusterOperations.setBulkheads(bulkheads);
+            kafkaConnectS2IClusterOperations.setMetrics(metrics);
+            kafkaConnectS2IClusterOperations.setSpanExporter(spanExporter);
+            kafkaConnectS2IClusterOperations.setLeadership(leadership);
+        }
+        kafkaMirrorMakerAssemblyOperator.setDeepReconciliationIntervalMs(config.getDeepReconciliationIntervalMs());
+        kafkaMirrorMakerAssemblyOperator.setReconciliationQueue(reconciliationQueue);
+        kafkaMirrorMakerAssemblyOperator.setBulkheads(bulkheads);
+        kafkaMirrorMakerAssemblyOperator.setMetrics(metrics);
+        kafkaMirrorMakerAssemblyOperator.setSpanExporter(spanExporter);
+        kafkaMirrorMakerAssemblyOperator.setLeadership(leadership);
+
+        // With a cluster-wide watch a single verticle watches and lists each kind in all namespaces,
+        // ignoring those it should not operate in
+        Set<String> operatorNamespaces = config.isClusterWideWatch() ? singleton(ClusterOperatorConfig.ANY_NAMESPACE) : config.getNamespaces();
+
         List<Future> futures = new ArrayList<>();
-        for (String namespace : config.getNamespaces()) {
+        for (String namespace : operatorNamespaces) {
             Future<String> fut = Future.future();
             futures.add(fut);
             ClusterOperator operator = new ClusterOperator(namespace,
+                    config.isClusterWideWatch() ? config.getNamespaces() : singleton(namespace),
                     config.getReconciliationIntervalMs(),
                     client,
                     kafkaClusterOperations,
                     kafkaConnectClusterOperations,
                     kafkaConnectS2IClusterOperations,
-                    kafkaMirrorMakerAssemblyOperator);
-            vertx.deployVerticle(operator,
-                res -> {
-                    if (res.succeeded()) {
-                        log.info("Cluster Operator verticle started in namespace {}", namespace);
-                    } else {
-                        log.error("Cluster Operator verticle in namespace {} failed to start", namespace, res.cause());
-                        System.exit(1);
-                    }
-                    fut.completer().handle(res);
-                });
+                    kafkaMirrorMakerAssemblyOperator,
+                    metrics);
+            operators.add(operator);
+            Future<Void> cached = caches != null ? startCaches(caches, namespace, config.getNamespaces()) : Future.succeededFuture();
+            cached.setHandler(cacheResult -> {
+                if (cacheResult.failed()) {
+                    log.warn("Resources in namespace {} will be read from the API server until they can be cached", namespace, cacheResult.cause());
+                }
+                vertx.deployVerticle(operator,
+                    res -> {
+                        if (res.succeeded()) {
+                            log.info("Cluster Operator verticle started in namespace {}", namespace);
+                        } else {
+                            log.error("Cluster Operator verticle in namespace {} failed to start", namespace, res.cause());
+                            System.exit(1);
+                        }
+                        fut.completer().handle(res);
+                        // Only start competing for leadership once this replica is ready to take over
+                        if (elector != null && futures.size() == operatorNamespaces.size()
+                                && futures.stream().allMatch(Future::succeeded) && elector.start()) {
+                            elector.closeOnShutdown();
+                        }
+                    });
+            });
         }
         return CompositeFuture.join(futures);
     }
 
+    /**
+     * @return The exporter of the spans of the reconciliations: to the configured trace file, or else to the log.
+     */
+    private static SpanExporter spanExporter(ClusterOperatorConfig config) {
+        return config.getTraceFile() != null ? JsonSpanExporter.toFile(Paths.get(config.getTraceFile())) : JsonSpanExporter.toLog();
+    }
+
+    /**
+     * Starts caching the resources which the operator for the given {@code namespace} reads.
+     * The caches work per namespace, so the operator for all namespaces uses them only for the configured {@code namespaces}.
+     */
+    private static Future<Void> startCaches(ResourceCaches caches, String namespace, Set<String> namespaces) {
+        if (!ClusterOperatorConfig.ANY_NAMESPACE.equals(namespace)) {
+            return caches.start(namespace);
+        }
+        List<Future> futures = new ArrayList<>();
+        for (String cachedNamespace : namespaces) {
+            if (!ClusterOperatorConfig.ANY_NAMESPACE.equals(cachedNamespace)) {
+                futures.add(caches.start(cachedNamespace));
+            }
+        }
+        return CompositeFuture.join(futures).map((Void) null);
+    }
+
     private static void maybeLogS2iOnKubeWarning(Vertx vertx, KubernetesClient client) {
         try {
             // Check the KafkaConnectS2I isn't installed and whinge if it is
@@ -163,7 +298,7 @@ public class Main {
         }
     }
 
-    private static KafkaConnectS2IAssemblyOperator createS2iOperator(Vertx vertx, KubernetesClient client, boolean isOpenShift, ServiceOperator serviceOperations, ConfigMapOperator configMapOperations, SecretOperator secretOperations, OpenSslCertManager certManager, KafkaVersion.Lookup versions) {
+    private static KafkaConnectS2IAssemblyOperator createS2iOperator(Vertx vertx, KubernetesClient client, boolean isOpenShift, ServiceOperator serviceOperations, ConfigMapOperator configMapOperations, SecretOperator secretOperations, JavaCertManager certManager, ClusterOperatorConfig config, BooleanSupplier leadership, MetricsRegistry metrics) {
         ImageStreamOperator imagesStreamOperations;
         BuildConfigOperator buildConfigOperations;
         DeploymentConfigOperator deploymentConfigOperations;
@@ -176,11 +311,21 @@ public class Main {
         deploymentConfigOperations = new DeploymentConfigOperator(vertx, osClient);
         kafkaConnectS2iCrdOperator = new CrdOperator<>(vertx, osClient, KafkaConnectS2I.class, KafkaConnectS2IAssemblyList.class, DoneableKafkaConnectS2I.class);
         networkPolicyOperator = new NetworkPolicyOperator(vertx, client);
+        imagesStreamOperations.setMetrics(metrics);
+        buildConfigOperations.setMetrics(metrics);
+        deploymentConfigOperations.setMetrics(metrics);
+        kafkaConnectS2iCrdOperator.setMetrics(metrics);
+        networkPolicyOperator.setMetrics(metrics);
+        imagesStreamOperations.setLeadership(leadership);
+        buildConfigOperations.setLeadership(leadership);
+        deploymentConfigOperations.setLeadership(leadership);
+        kafkaConnectS2iCrdOperator.setLeadership(leadership);
+        networkPolicyOperator.setLeadership(leadership);
         kafkaConnectS2IClusterOperations = new KafkaConnectS2IAssemblyOperator(vertx, isOpenShift,
                 certManager,
                 kafkaConnectS2iCrdOperator,
                  configMapOperations, deploymentConfigOperations,
-                serviceOperations, imagesStreamOperations, buildConfigOperations, secretOperations, networkPolicyOperator, versions);
+                serviceOperations, imagesStreamOperations, buildConfigOperations, secretOperations, networkPolicyOperator, config.versions());
         return kafkaConnectS2IClusterOperations;
     }
 
@@ -0,0 +1,16 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster;
+
+/**
+ * Thrown when a reconciliation gives up at a safe point because it has been
+ * {@linkplain io.strimzi.operator.common.Reconciliation#cancel() cancelled}.
+ */
+public class ReconciliationCancelledException extends RuntimeException {
+
+    public ReconciliationCancelledException(String message) {
+        super(message);
+    }
+}
@@ -17,6 +17,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -173,6 +175,17 @@ public abstract class AbstractConfiguration {
         options.remove(configOption);
     }
 
+    /**
+     * @return The configuration options, sorted by name.
+     */
+    public SortedMap<String, String> asSortedMap() {
+        SortedMap<String, String> result = new TreeMap<>();
+        for (String option : options.stringPropertyNames()) {
+            result.put(option, options.getProperty(option));
+        }
+        return result;
+    }
+
     /**
      * Generate configuration file in String format.
      *
@@ -8,6 +8,7 @@ import io.fabric8.kubernetes.api.model.Secret;
 import io.strimzi.api.kafka.model.Kafka;
 import io.strimzi.certs.CertAndKey;
 import io.strimzi.certs.CertManager;
+import io.strimzi.certs.KeyAlgorithm;
 import io.strimzi.certs.Subject;
 
 import java.io.IOException;
@@ -43,12 +44,23 @@ public class ClusterCa extends Ca {
                      int validityDays,
                      int renewalDays,
                      boolean generateCa) {
+        this(certManager, clusterName, clusterCaCert, clusterCaKey, validityDays, renewalDays, generateCa, KeyAlgorithm.RSA);
+    }
+
+    public ClusterCa(CertManager certManager,
+                     String clusterName,
+                     Secret clusterCaCert,
+                     Secret clusterCaKey,
+                     int validityDays,
+                     int renewalDays,
+                     boolean generateCa,
+                     KeyAlgorithm keyAlgorithm) {
         super(certManager, "cluster-ca",
                 AbstractModel.clusterCaCertSecretName(clusterName),
                 forceRenewal(clusterCaCert, clusterCaKey, "cluster-ca.key"),
                 AbstractModel.clusterCaKeySecretName(clusterName),
                 adapt060ClusterCaSecret(clusterCaKey),
-                validityDays, renewalDays, generateCa);
+                validityDays, renewalDays, generateCa, keyAlgorithm);
         this.clusterName = clusterName;
     }
 
@@ -123,7 +135,11 @@ public class ClusterCa extends Ca {
             podNum -> ZookeeperCluster.zookeeperPodName(cluster, podNum));
     }
 
-    public Map<String, CertAndKey> generateBrokerCerts(Kafka kafka, String externalBootstrapAddress, Map<Integer, String> externalAddresses) throws IOException {
+    /**
+     * Generates (or copies from the current Secret) the certificates of the given number of brokers,
+     * which may be more than the Kafka resource asks for while a scale-down is waiting for partitions to be moved.
+     */
+    public Map<String, CertAndKey> generateBrokerCerts(Kafka kafka, int replicas, String externalBootstrapAddress, Map<Integer, String> externalAddresses) throws IOException {
         String cluster = kafka.getMetadata().getName();
         String namespace = kafka.getMetadata().getNamespace();
         Function<Integer, Subject> subjectFn = i -> {
@@ -160,7 +176,7 @@ public class ClusterCa extends Ca {
         };
         log.debug("{}: Reconciling kafka broker certificates", this);
         return maybeCopyOrGenerateCerts(
-            kafka.getSpec().getKafka().getReplicas(),
+            replicas,
             subjectFn,
             brokersSecret,
             podNum -> KafkaCluster.kafkaPodName(cluster, podNum));
@@ -43,6 +43,7 @@ import io.strimzi.api.kafka.model.KafkaListenerExternalLoadBalancer;
 import io.strimzi.api.kafka.model.KafkaListenerExternalNodePort;
 import io.strimzi.api.kafka.model.KafkaListenerExternalRoute;
 import io.strimzi.api.kafka.model.KafkaListeners;
+import io.strimzi.api.kafka.model.KafkaRebalancing;
 import io.strimzi.api.kafka.model.KafkaResources;
 import io.strimzi.api.kafka.model.Logging;
 import io.strimzi.api.kafka.model.PersistentClaimStorage;
@@ -55,7 +56,10 @@ import io.strimzi.operator.common.model.Labels;
 import io.strimzi.operator.common.operator.resource.ClusterRoleBindingOperator;
 
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -117,6 +121,18 @@ public class KafkaCluster extends AbstractModel {
     protected static final String TLS_SIDECAR_KAFKA_CERTS_VOLUME_MOUNT = "/etc/tls-sidecar/kafka-brokers/";
     protected static final String TLS_SIDECAR_CLUSTER_CA_CERTS_VOLUME_MOUNT = "/etc/tls-sidecar/cluster-ca-certs/";
 
+    // Keystore and truststores built by kafka_tls_prepare_certificates.sh, and the listeners using them
+    protected static final String TLS_STORES_PATH = "/tmp/kafka/";
+    protected static final String CLUSTER_KEYSTORE = "cluster.keystore";
+    protected static final String CLUSTER_TRUSTSTORE = "cluster.truststore";
+    protected static final String CLIENTS_TRUSTSTORE = "clients.truststore";
+    protected static final String REPLICATION_LISTENER_NAME = "replication";
+    protected static final String CLIENT_TLS_LISTENER_NAME = "clienttls";
+    protected static final String EXTERNAL_LISTENER_NAME = "external";
+
+    /** The label selecting the cluster operator's pods, which connect to the replication port to reconfigure brokers */
+    private static final Map<String, String> CLUSTER_OPERATOR_SELECTOR = singletonMap("name", "strimzi-cluster-operator");
+
     private static final String NAME_SUFFIX = "-kafka";
 
     // Suffixes for secrets with certificates
@@ -128,10 +144,23 @@ public class KafkaCluster extends AbstractModel {
     public static final String ANNO_STRIMZI_IO_FROM_VERSION = Annotations.STRIMZI_DOMAIN + "/from-version";
     /** Records the state of the Kafka upgrade process. Unset outside of upgrades. */
     public static final String ANNO_STRIMZI_IO_TO_VERSION = Annotations.STRIMZI_DOMAIN + "/to-version";
+    /**
+     * Records on a broker pod the {@link KafkaConfiguration#digest() digest} of the configuration the broker was
+     * changed to while running. Unset when the broker runs with the configuration it was started with.
+     */
+    public static final String ANNO_STRIMZI_IO_KAFKA_CONFIGURATION_DIGEST = Annotations.STRIMZI_DOMAIN + "/kafka-configuration-digest";
+    /** Records on the Kafka StatefulSet the number of brokers it is waiting to be scaled down to. Unset outside of scale-downs. */
+    public static final String ANNO_STRIMZI_IO_SCALE_DOWN_TO = Annotations.STRIMZI_DOMAIN + "/scale-down-to";
+    /**
+     * Records on the Kafka StatefulSet how many partitions still have replicas on the brokers to be removed by a
+     * scale-down. Unset outside of scale-downs.
+     */
+    public static final String ANNO_STRIMZI_IO_PARTITIONS_TO_MOVE = Annotations.STRIMZI_DOMAIN + "/partitions-to-move";
 
     // Kafka configuration
     private String zookeeperConnect;
     private Rack rack;
+    private KafkaRebalancing rebalancing;
     private String initImage;
     private TlsSidecar tlsSidecar;
     private KafkaListeners listeners;
@@ -233,6 +262,14 @@ public class KafkaCluster extends AbstractModel {
         return kafkaClusterName(cluster) + "-" + pod;
     }
 
+    /**
+     * @return The address of the replication listener of the given pod, which is one of the names in its certificate.
+     */
+    public static String replicationAddress(String namespace, String cluster, int pod) {
+        return String.format("%s.%s.%s.svc.%s:%d", kafkaPodName(cluster, pod), headlessServiceName(cluster), namespace,
+                ClusterCa.KUBERNETES_SERVICE_DNS_DOMAIN, REPLICATION_PORT);
+    }
+
     public static String clientsCaKeySecretName(String cluster) {
         return KafkaResources.clientsCaKeySecretName(cluster);
     }
@@ -266,6 +303,7 @@ public class KafkaCluster extends AbstractModel {
             result.setLivenessTimeout(kafkaClusterSpec.getLivenessProbe().getTimeoutSeconds());
         }
         result.setRack(kafkaClusterSpec.getRack());
+        result.setRebalancing(kafkaClusterSpec.getRebalancing());
 
         String initImage = kafkaClusterSpec.getBrokerRackInitImage();
         if (initImage == null) {
@@ -361,7 +399,7 @@ public class KafkaCluster extends AbstractModel {
         log.debug("Generating certificates");
 
         try {
-            brokerCerts = clusterCa.generateBrokerCerts(kafka, externalBootstrapDnsName, externalDnsNames);
+            brokerCerts = clusterCa.generateBrokerCerts(kafka, replicas, externalBootstrapDnsName, externalDnsNames);
         } catch (IOException e) {
             log.warn("Error while generating certificates", e);
         }
@@ -595,6 +633,75 @@ public class KafkaCluster extends AbstractModel {
         return createSecret(KafkaCluster.brokersSecretName(cluster), data);
     }
 
+    /**
+     * <p>Generate the dynamic broker configuration which points the TLS listeners of the given pod at the keystore and
+     * truststores built from the certificates and keys in the given Secrets.</p>
+     *
+     * <p>Whenever the certificates and keys mounted into a broker change, {@code kafka_tls_prepare_certificates.sh}
+     * builds new stores from them, naming each after a digest of the files it was built from. This computes the same
+     * names from the Secrets. Kafka reloads a listener's keystore or truststore when its location changes, so applying
+     * this configuration to a running broker makes it use renewed certificates without a restart.</p>
+     *
+     * @param pod The index of the pod
+     * @param clusterCaCertSecret The Secret containing the cluster CA certificates
+     * @param clientsCaCertSecret The Secret containing the clients CA certificates
+     * @param brokersSecret The Secret containing the brokers certificates and keys
+     * @return The configuration, keyed by option name
+     */
+    public Map<String, String> generateTlsStoresConfiguration(int pod, Secret clusterCaCertSecret, Secret clientsCaCertSecret, Secret brokersSecret) {
+        String podName = kafkaPodName(cluster, pod);
+        String keyStore = tlsStoreLocation(CLUSTER_KEYSTORE,
+                asList(brokersSecret.getData().get(podName + ".crt"), brokersSecret.getData().get(podName + ".key")));
+        String clusterTrustStore = tlsStoreLocation(CLUSTER_TRUSTSTORE, caCertificates(clusterCaCertSecret));
+        String clientsTrustStore = tlsStoreLocation(CLIENTS_TRUSTSTORE, caCertificates(clientsCaCertSecret));
+
+        Map<String, String> config = new TreeMap<>();
+        addTlsStoresConfiguration(config, REPLICATION_LISTENER_NAME, keyStore, clusterTrustStore);
+        if (listeners != null && listeners.getTls() != null) {
+            addTlsStoresConfiguration(config, CLIENT_TLS_LISTENER_NAME, keyStore, clientsTrustStore);
+        }
+        if (isExposedWithTls()) {
+            addTlsStoresConfiguration(config, EXTERNAL_LISTENER_NAME, keyStore, clientsTrustStore);
+        }
+        return config;
+    }
+
+    private static void addTlsStoresConfiguration(Map<String, String> config, String listener, String keyStore, String trustStore) {
+        config.put("listener.name." + listener + ".ssl.keystore.location", keyStore);
+        config.put("listener.name." + listener + ".ssl.truststore.location", trustStore);
+    }
+
+    /**
+     * @return The base64 encoded CA certificates in the given Secret, in the order of their file names.
+     */
+    private static List<String> caCertificates(Secret caCertSecret) {
+        return new TreeMap<>(caCertSecret.getData()).entrySet().stream()
+                .filter(entry -> entry.getKey().endsWith(".crt"))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return The location of the version of the given store built from the given base64 encoded files, which is
+     * named after the first 16 hex digits of the SHA-256 digest of the files' contents.
+     */
+    protected static String tlsStoreLocation(String store, List<String> files) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String file : files) {
+                digest.update(Base64.getDecoder().decode(file));
+            }
+            StringBuilder version = new StringBuilder();
+            byte[] hash = digest.digest();
+            for (int i = 0; i < 8; i++) {
+                version.append(String.format("%02x", hash[i]));
+            }
+            return TLS_STORES_PATH + store + "." + version + ".p12";
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private List<ContainerPort> getContainerPortList() {
         List<ContainerPort> portList = new ArrayList<>(5);
         portList.add(createContainerPort(REPLICATION_PORT_NAME, REPLICATION_PORT, "TCP"));
@@ -828,6 +935,18 @@ public class KafkaCluster extends AbstractModel {
         this.rack = rack;
     }
 
+    protected void setRebalancing(KafkaRebalancing rebalancing) {
+        this.rebalancing = rebalancing;
+    }
+
+    /**
+     * @return The policy for moving partition replicas onto the brokers which host less than their share of them,
+     * or null if they are only moved off the brokers removed by a scale-down.
+     */
+    public KafkaRebalancing getRebalancing() {
+        return rebalancing;
+    }
+
     protected void setInitImage(String initImage) {
         this.initImage = initImage;
     }
@@ -907,9 +1026,16 @@ public class KafkaCluster extends AbstractModel {
         labelSelector2.setMatchLabels(expressions2);
         entityOperatorPeer.setPodSelector(labelSelector2);
 
+        // The cluster operator can run in any namespace
+        NetworkPolicyPeer clusterOperatorPeer = new NetworkPolicyPeer();
+        LabelSelector labelSelector3 = new LabelSelector();
+        labelSelector3.setMatchLabels(CLUSTER_OPERATOR_SELECTOR);
+        clusterOperatorPeer.setPodSelector(labelSelector3);
+        clusterOperatorPeer.setNamespaceSelector(new LabelSelector());
+
         NetworkPolicyIngressRule replicationRule = new NetworkPolicyIngressRuleBuilder()
                 .withPorts(replicationPort)
-                .withFrom(kafkaClusterPeer, entityOperatorPeer)
+                .withFrom(kafkaClusterPeer, entityOperatorPeer, clusterOperatorPeer)
                 .build();
 
         rules.add(replicationRule);
@@ -1008,6 +1134,16 @@ public class KafkaCluster extends AbstractModel {
         this.externalAddresses = externalAddresses;
     }
 
+    /**
+     * Keeps more brokers than the Kafka resource asks for, while the brokers to be removed by a scale-down
+     * still have partitions.
+     *
+     * @param replicas The number of brokers to keep
+     */
+    public void keepReplicas(int replicas) {
+        setReplicas(replicas);
+    }
+
     /**
      * Returns true when the Kafka cluster is exposed to the outside of OpenShift / Kubernetes
      *
@@ -6,10 +6,22 @@
 package io.strimzi.operator.cluster.model;
 
 import io.strimzi.api.kafka.model.KafkaClusterSpec;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyMap;
@@ -19,6 +31,8 @@ import static java.util.Collections.emptyMap;
  */
 public class KafkaConfiguration extends AbstractConfiguration {
 
+    private static final Logger log = LogManager.getLogger(KafkaConfiguration.class.getName());
+
     public static final String INTERBROKER_PROTOCOL_VERSION = "inter.broker.protocol.version";
     public static final String LOG_MESSAGE_FORMAT_VERSION = "log.message.format.version";
 
@@ -28,6 +42,57 @@ public class KafkaConfiguration extends AbstractConfiguration {
         FORBIDDEN_OPTIONS = asList(KafkaClusterSpec.FORBIDDEN_PREFIXES.split(", "));
     }
 
+    /**
+     * How an option can be changed on running brokers, see
+     * <a href="https://kafka.apache.org/documentation/#dynamicbrokerconfigs">Updating Broker Configs</a>.
+     */
+    public enum Scope {
+        /** The option can only be changed by restarting the broker. */
+        READ_ONLY,
+        /** The option can be changed on running brokers, one broker at a time. */
+        PER_BROKER,
+        /** The option can be changed on running brokers, one broker at a time or as a default for all of them. */
+        CLUSTER_WIDE
+    }
+
+    /** The first Kafka version in which options became dynamic, when they weren't dynamic from the start (1.1.0). */
+    private static final String DYNAMIC_SINCE = "1.1.0";
+
+    /** The per-broker dynamic options, keyed by option name, with the first Kafka version in which they are dynamic. */
+    private static final Map<String, String> PER_BROKER_OPTIONS = new HashMap<>();
+
+    /** The cluster-wide dynamic options, keyed by option name, with the first Kafka version in which they are dynamic. */
+    private static final Map<String, String> CLUSTER_WIDE_OPTIONS = new HashMap<>();
+
+    static {
+        for (String option : asList("listeners", "advertised.listeners", "listener.security.protocol.map",
+                "ssl.keystore.type", "ssl.keystore.location", "ssl.keystore.password", "ssl.key.password",
+                "ssl.truststore.type", "ssl.truststore.location", "ssl.truststore.password")) {
+            PER_BROKER_OPTIONS.put(option, DYNAMIC_SINCE);
+        }
+        for (String option : asList(
+                // Thread pools
+                "num.io.threads", "num.network.threads", "num.replica.fetchers", "num.recovery.threads.per.data.dir",
+                "background.threads",
+                // Log cleaner
+                "log.cleaner.threads", "log.cleaner.dedupe.buffer.size", "log.cleaner.io.buffer.load.factor",
+                "log.cleaner.io.buffer.size", "log.cleaner.io.max.bytes.per.second", "log.cleaner.backoff.ms",
+                // Defaults of the topic configurations
+                "log.segment.bytes", "log.roll.ms", "log.roll.jitter.ms", "log.index.size.max.bytes",
+                "log.flush.interval.messages", "log.flush.interval.ms", "log.retention.bytes", "log.retention.ms",
+                "message.max.bytes", "log.index.interval.bytes", "log.cleaner.delete.retention.ms",
+                "log.cleaner.min.compaction.lag.ms", "log.segment.delete.delay.ms", "log.cleaner.min.cleanable.ratio",
+                "log.cleanup.policy", "unclean.leader.election.enable", "min.insync.replicas", "compression.type",
+                "log.preallocate", "log.message.timestamp.type", "log.message.timestamp.difference.max.ms",
+                // Metrics
+                "metric.reporters")) {
+            CLUSTER_WIDE_OPTIONS.put(option, DYNAMIC_SINCE);
+        }
+        CLUSTER_WIDE_OPTIONS.put("log.message.downconversion.enable", "2.0.0");
+        CLUSTER_WIDE_OPTIONS.put("max.connections.per.ip", "2.1.0");
+        CLUSTER_WIDE_OPTIONS.put("max.connections.per.ip.overrides", "2.1.0");
+    }
+
     /**
      * Constructor used to instantiate this class from String configuration. Should be used to create configuration
      * from the Assembly.
@@ -37,6 +102,7 @@ public class KafkaConfiguration extends AbstractConfiguration {
      */
     public KafkaConfiguration(String configuration) {
         super(configuration, FORBIDDEN_OPTIONS);
+        canonicalize();
     }
 
     /**
@@ -47,12 +113,27 @@ public class KafkaConfiguration extends AbstractConfiguration {
      */
     public KafkaConfiguration(Iterable<Map.Entry<String, Object>> jsonOptions) {
         super(jsonOptions, FORBIDDEN_OPTIONS);
+        canonicalize();
     }
 
     private KafkaConfiguration(Properties properties) {
         super(properties);
     }
 
+    /**
+     * Writes the values of the options the way Kafka would, so that equivalent values, such as {@code 1048576} and
+     * {@code 1Mi}, or {@code true} and {@code TRUE}, don't cause rolling updates.
+     */
+    private void canonicalize() {
+        for (Map.Entry<String, String> option : asSortedMap().entrySet()) {
+            String canonical = KafkaConfigurationTypes.canonicalValue(option.getKey(), option.getValue());
+            if (!canonical.equals(option.getValue())) {
+                log.debug("Configuration option \"{}\" with value \"{}\" will be passed as \"{}\"", option.getKey(), option.getValue(), canonical);
+                setConfigOption(option.getKey(), canonical);
+            }
+        }
+    }
+
     /**
      * Returns a KafkaConfiguration created without forbidden option filtering.
      * @param string A string representation of the Properties
@@ -61,4 +142,107 @@ public class KafkaConfiguration extends AbstractConfiguration {
     public static KafkaConfiguration unvalidated(String string) {
         return new KafkaConfiguration(parseProperties(string, emptyMap()));
     }
+
+    /**
+     * Returns how the given option can be changed on running brokers of the given Kafka version.
+     * Options which are specific to a listener ({@code listener.name.<listener>.<option>}) have the scope of the
+     * option they are specific to.
+     * @param kafkaVersion The Kafka version of the brokers
+     * @param option The name of the option
+     * @return The scope of the option
+     */
+    public static Scope scope(String kafkaVersion, String option) {
+        String name = option.toLowerCase(Locale.ENGLISH);
+        if (name.startsWith("listener.name.") && name.indexOf('.', "listener.name.".length()) > 0) {
+            name = name.substring(name.indexOf('.', "listener.name.".length()) + 1);
+        }
+        if (isDynamicIn(kafkaVersion, PER_BROKER_OPTIONS.get(name))) {
+            return Scope.PER_BROKER;
+        } else if (isDynamicIn(kafkaVersion, CLUSTER_WIDE_OPTIONS.get(name))) {
+            return Scope.CLUSTER_WIDE;
+        } else {
+            return Scope.READ_ONLY;
+        }
+    }
+
+    private static boolean isDynamicIn(String kafkaVersion, String dynamicSince) {
+        return dynamicSince != null && KafkaVersion.compareDottedVersions(kafkaVersion, dynamicSince) >= 0;
+    }
+
+    /**
+     * @param other Another configuration
+     * @return The names of the options which are set in only one of the configurations, or set to different values.
+     */
+    public Set<String> changedOptions(KafkaConfiguration other) {
+        SortedMap<String, String> mine = asSortedMap();
+        SortedMap<String, String> theirs = other.asSortedMap();
+        Set<String> result = new HashSet<>(mine.keySet());
+        result.addAll(theirs.keySet());
+        result.removeIf(option -> Objects.equals(mine.get(option), theirs.get(option)));
+        return result;
+    }
+
+    /**
+     * Returns whether brokers of the given Kafka version which are running with the given configuration can be
+     * changed to this one without being restarted: every changed option has to be dynamic, and set in this
+     * configuration (an option which is removed would keep the value the broker was started with).
+     * @param current The configuration of the running brokers
+     * @param kafkaVersion The Kafka version of the brokers
+     * @return Whether the change can be made to running brokers
+     */
+    public boolean isDynamicChangeFrom(KafkaConfiguration current, String kafkaVersion) {
+        for (String option : changedOptions(current)) {
+            if (getConfigOption(option) == null || scope(kafkaVersion, option) == Scope.READ_ONLY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the changes which make the dynamic configuration of a broker of the given Kafka version match this
+     * configuration: the value of every dynamic option the user may set, or null for those this configuration
+     * doesn't set, so that they're removed from the dynamic configuration.
+     * @param kafkaVersion The Kafka version of the broker
+     * @return The dynamic options, keyed by option name
+     */
+    public Map<String, String> dynamicConfiguration(String kafkaVersion) {
+        Map<String, String> result = new TreeMap<>();
+        for (String option : CLUSTER_WIDE_OPTIONS.keySet()) {
+            if (scope(kafkaVersion, option) != Scope.READ_ONLY && !isForbidden(option)) {
+                result.put(option, getConfigOption(option));
+            }
+        }
+        for (String option : PER_BROKER_OPTIONS.keySet()) {
+            if (scope(kafkaVersion, option) != Scope.READ_ONLY && !isForbidden(option)) {
+                result.put(option, getConfigOption(option));
+            }
+        }
+        return result;
+    }
+
+    private static boolean isForbidden(String option) {
+        return FORBIDDEN_OPTIONS.stream().anyMatch(option::startsWith);
+    }
+
+    /**
+     * @return The first 16 hex digits of the SHA-256 digest of the options, which is the same for configurations
+     * setting the same options to the same values, whatever their order.
+     */
+    public String digest() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<String, String> entry : asSortedMap().entrySet()) {
+                digest.update((entry.getKey() + "=" + entry.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            StringBuilder result = new StringBuilder();
+            byte[] hash = digest.digest();
+            for (int i = 0; i < 8; i++) {
+                result.append(String.format("%02x", hash[i]));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
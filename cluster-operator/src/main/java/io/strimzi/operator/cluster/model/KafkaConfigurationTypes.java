@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.model;
+
+import io.strimzi.api.kafka.model.Quantities;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+
+/**
+ * The types of the Kafka broker configuration options, as defined by the {@code ConfigDef} of the broker, used to
+ * write equivalent values the same way, so that they don't cause rolling updates.
+ * The types of the options listed here are the same in all the supported Kafka versions.
+ */
+final class KafkaConfigurationTypes {
+
+    private static final Map<String, ConfigDef.Type> TYPES = new HashMap<>();
+
+    /** The list options whose order doesn't matter to the broker. */
+    private static final Set<String> UNORDERED_LISTS = new HashSet<>(asList("log.cleanup.policy", "metric.reporters"));
+
+    /** Kubernetes quantities, such as {@code 512Mi}, which can be used for options which are numbers of bytes. */
+    private static final Pattern QUANTITY = Pattern.compile("[0-9]+[KMGTE]i?");
+
+    static {
+        for (String option : asList("background.threads", "controlled.shutdown.max.retries", "default.replication.factor",
+                "fetch.purgatory.purge.interval.requests", "group.initial.rebalance.delay.ms",
+                "group.max.session.timeout.ms", "group.min.session.timeout.ms", "log.cleaner.io.buffer.size",
+                "log.cleaner.threads", "log.index.interval.bytes", "log.index.size.max.bytes", "log.retention.hours",
+                "log.retention.minutes", "log.roll.hours", "log.roll.jitter.hours", "log.segment.bytes",
+                "max.connections.per.ip", "message.max.bytes", "min.insync.replicas", "num.io.threads",
+                "num.network.threads", "num.partitions", "num.recovery.threads.per.data.dir", "num.replica.fetchers",
+                "offset.metadata.max.bytes", "offsets.load.buffer.size", "offsets.retention.minutes",
+                "offsets.topic.num.partitions", "offsets.topic.segment.bytes", "producer.purgatory.purge.interval.requests",
+                "queued.max.requests", "replica.fetch.backoff.ms", "replica.fetch.max.bytes", "replica.fetch.min.bytes",
+                "replica.fetch.response.max.bytes", "replica.fetch.wait.max.ms", "replica.socket.receive.buffer.bytes",
+                "replica.socket.timeout.ms", "request.timeout.ms", "socket.receive.buffer.bytes",
+                "socket.request.max.bytes", "socket.send.buffer.bytes", "transaction.max.timeout.ms",
+                "transaction.state.log.load.buffer.size", "transaction.state.log.min.isr",
+                "transaction.state.log.num.partitions", "transaction.state.log.segment.bytes",
+                "transactional.id.expiration.ms", "zookeeper.connection.timeout.ms", "zookeeper.max.in.flight.requests",
+                "zookeeper.session.timeout.ms")) {
+            TYPES.put(option, ConfigDef.Type.INT);
+        }
+        for (String option : asList("offsets.commit.required.acks", "offsets.topic.replication.factor",
+                "transaction.state.log.replication.factor")) {
+            TYPES.put(option, ConfigDef.Type.SHORT);
+        }
+        for (String option : asList("connections.max.idle.ms", "controlled.shutdown.retry.backoff.ms",
+                "log.cleaner.backoff.ms", "log.cleaner.dedupe.buffer.size", "log.cleaner.delete.retention.ms",
+                "log.cleaner.min.compaction.lag.ms", "log.flush.interval.messages", "log.flush.interval.ms",
+                "log.flush.offset.checkpoint.interval.ms", "log.flush.scheduler.interval.ms",
+                "log.message.timestamp.difference.max.ms", "log.retention.bytes", "log.retention.check.interval.ms",
+                "log.retention.ms", "log.roll.jitter.ms", "log.roll.ms", "log.segment.delete.delay.ms",
+                "offsets.commit.timeout.ms", "offsets.retention.check.interval.ms", "replica.high.watermark.checkpoint.interval.ms",
+                "replica.lag.time.max.ms")) {
+            TYPES.put(option, ConfigDef.Type.LONG);
+        }
+        for (String option : asList("log.cleaner.io.buffer.load.factor", "log.cleaner.io.max.bytes.per.second",
+                "log.cleaner.min.cleanable.ratio")) {
+            TYPES.put(option, ConfigDef.Type.DOUBLE);
+        }
+        for (String option : asList("auto.create.topics.enable", "auto.leader.rebalance.enable",
+                "controlled.shutdown.enable", "delete.topic.enable", "log.cleaner.enable", "log.message.downconversion.enable",
+                "log.preallocate", "unclean.leader.election.enable")) {
+            TYPES.put(option, ConfigDef.Type.BOOLEAN);
+        }
+        for (String option : asList("log.cleanup.policy", "metric.reporters")) {
+            TYPES.put(option, ConfigDef.Type.LIST);
+        }
+    }
+
+    private KafkaConfigurationTypes() {
+    }
+
+    /**
+     * Returns the canonical way of writing the given value of the given option: how Kafka would write the value it
+     * parses it as. Values which Kafka wouldn't accept, and the values of options whose type isn't known, are only
+     * trimmed of whitespace, which Kafka ignores.
+     *
+     * @param option The name of the option
+     * @param value The value of the option
+     * @return The canonical value
+     */
+    static String canonicalValue(String option, String value) {
+        String trimmed = value.trim();
+        ConfigDef.Type type = TYPES.get(option);
+        if (type == null) {
+            return trimmed;
+        }
+        try {
+            switch (type) {
+                case SHORT:
+                case INT:
+                case LONG:
+                    return String.valueOf(ConfigDef.parseType(option, integral(option, trimmed), type));
+                case DOUBLE:
+                    return new BigDecimal(String.valueOf(ConfigDef.parseType(option, trimmed, type))).stripTrailingZeros().toPlainString();
+                case LIST:
+                    @SuppressWarnings("unchecked")
+                    List<String> items = new ArrayList<>((List<String>) ConfigDef.parseType(option, trimmed, type));
+                    if (UNORDERED_LISTS.contains(option)) {
+                        Collections.sort(items);
+                    }
+                    return String.join(",", items);
+                default:
+                    return String.valueOf(ConfigDef.parseType(option, trimmed, type));
+            }
+        } catch (ConfigException | NumberFormatException | ArithmeticException e) {
+            return trimmed;
+        }
+    }
+
+    /**
+     * @return The given integral value, without a fractional part of zero (which a JSON number can have) or,
+     * for an option which is a number of bytes, a Kubernetes quantity suffix.
+     */
+    private static String integral(String option, String value) {
+        if (QUANTITY.matcher(value).matches() && (option.contains("bytes") || option.endsWith(".size"))) {
+            return String.valueOf(Quantities.parseMemory(value));
+        } else if (value.contains(".") || value.contains("e") || value.contains("E")) {
+            return new BigDecimal(value).toBigIntegerExact().toString();
+        } else {
+            return value;
+        }
+    }
+}
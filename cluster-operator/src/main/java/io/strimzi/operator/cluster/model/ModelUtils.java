@@ -6,6 +6,7 @@ package io.strimzi.operator.cluster.model;
 
 import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.Probe;
 import io.fabric8.kubernetes.api.model.ProbeBuilder;
 import io.fabric8.kubernetes.api.model.Quantity;
@@ -18,6 +19,7 @@ import io.strimzi.api.kafka.model.CpuMemory;
 import io.strimzi.api.kafka.model.Resources;
 import io.strimzi.api.kafka.model.TlsSidecar;
 import io.strimzi.api.kafka.model.TlsSidecarLogLevel;
+import io.strimzi.certs.KeyAlgorithm;
 import io.strimzi.operator.cluster.KafkaUpgradeException;
 import io.strimzi.operator.common.model.Labels;
 
@@ -56,6 +58,20 @@ public class ModelUtils {
         return certificateAuthority != null ? certificateAuthority.getRenewalDays() : 30;
     }
 
+    public static KeyAlgorithm getKeyAlgorithm(CertificateAuthority certificateAuthority) {
+        if (certificateAuthority == null || certificateAuthority.getKeyAlgorithm() == null) {
+            return KeyAlgorithm.RSA;
+        }
+        switch (certificateAuthority.getKeyAlgorithm()) {
+            case ECDSA_P256:
+                return KeyAlgorithm.EC_P256;
+            case ECDSA_P384:
+                return KeyAlgorithm.EC_P384;
+            default:
+                return KeyAlgorithm.RSA;
+        }
+    }
+
     /**
      * Generate labels used by entity-operators to find the resources related to given cluster
      *
@@ -97,7 +113,15 @@ public class ModelUtils {
     }
 
     public static Map<String, String> getKafkaContainerEnv(StatefulSet ss) {
-        for (Container container : ss.getSpec().getTemplate().getSpec().getContainers()) {
+        return getKafkaContainerEnv(ss.getSpec().getTemplate().getSpec().getContainers(), "StatefulSet " + ss.getMetadata().getName());
+    }
+
+    public static Map<String, String> getKafkaContainerEnv(Pod pod) {
+        return getKafkaContainerEnv(pod.getSpec().getContainers(), "Pod " + pod.getMetadata().getName());
+    }
+
+    private static Map<String, String> getKafkaContainerEnv(List<Container> containers, String owner) {
+        for (Container container : containers) {
             if ("kafka".equals(container.getName())) {
                 LinkedHashMap<String, String> map = new LinkedHashMap<>(container.getEnv() == null ? 2 : container.getEnv().size());
                 if (container.getEnv() != null) {
@@ -108,7 +132,7 @@ public class ModelUtils {
                 return map;
             }
         }
-        throw new KafkaUpgradeException("Could not find 'kafka' container in StatefulSet " + ss.getMetadata().getName());
+        throw new KafkaUpgradeException("Could not find 'kafka' container in " + owner);
     }
 
     public static List<EnvVar> envAsList(Map<String, String> env) {
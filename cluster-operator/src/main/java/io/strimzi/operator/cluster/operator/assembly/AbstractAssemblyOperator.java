@@ -18,25 +18,46 @@ import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.zjsonpatch.JsonDiff;
 import io.strimzi.certs.CertManager;
 import io.strimzi.operator.cluster.InvalidConfigParameterException;
+import io.strimzi.operator.cluster.ReconciliationCancelledException;
 import io.strimzi.operator.common.Reconciliation;
+import io.strimzi.operator.common.metrics.MetricsRegistry;
 import io.strimzi.operator.common.model.Labels;
 import io.strimzi.operator.common.model.ResourceType;
+import io.strimzi.operator.common.operator.resource.AbstractResourceOperator;
 import io.strimzi.operator.common.operator.resource.AbstractWatchableResourceOperator;
 import io.strimzi.operator.common.operator.resource.NetworkPolicyOperator;
+import io.strimzi.operator.common.operator.resource.NotLeaderException;
 import io.strimzi.operator.common.operator.resource.SecretOperator;
+import io.strimzi.operator.common.tracing.KubernetesApiCalls;
+import io.strimzi.operator.common.tracing.Span;
+import io.strimzi.operator.common.tracing.SpanExporter;
+import io.strimzi.operator.common.tracing.Trace;
+import io.strimzi.operator.common.tracing.Tracing;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
-import io.vertx.core.shareddata.Lock;
+import io.vertx.core.WorkerExecutor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import static io.fabric8.kubernetes.client.internal.PatchUtils.patchMapper;
 
@@ -46,16 +67,16 @@ import static io.fabric8.kubernetes.client.internal.PatchUtils.patchMapper;
  * <p>An assembly is a collection of Kubernetes resources of various types
  * (e.g. Services, StatefulSets, Deployments etc) which operate together to provide some functionality.</p>
  *
- * <p>This class manages a per-assembly locking strategy so only one operation per assembly
- * can proceed at once.</p>
+ * <p>Reconciliations are run through a {@link ReconciliationQueue}, so only one operation per assembly
+ * can proceed at once, and a change made while an assembly is being reconciled is reconciled afterwards
+ * rather than being dropped.</p>
  */
 public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T extends HasMetadata,
         L extends KubernetesResourceList/*<T>*/, D extends Doneable<T>, R extends Resource<T, D>> {
 
     private static final Logger log = LogManager.getLogger(AbstractAssemblyOperator.class.getName());
 
-    protected static final int LOCK_TIMEOUT_MS = 10000;
-
+    private static final double[] API_REQUEST_BUCKETS = {10, 25, 50, 100, 250, 500, 1000, 2500};
 
     protected final Vertx vertx;
     protected final boolean isOpenShift;
@@ -66,6 +87,16 @@ public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T ext
     protected final NetworkPolicyOperator networkPolicyOperator;
     private final String kind;
 
+    private final Map<String, AssemblyFingerprint> fingerprints = new ConcurrentHashMap<>();
+    private final AtomicLong skippedReconciliations = new AtomicLong();
+    private volatile long deepReconciliationIntervalMs = 0;
+    private volatile ReconciliationQueue reconciliationQueue;
+    private volatile Bulkheads bulkheads;
+    private volatile MetricsRegistry metrics = new MetricsRegistry();
+    private volatile SpanExporter spanExporter = SpanExporter.NONE;
+    private volatile BooleanSupplier leadership = () -> true;
+    private final Map<String, RunningReconciliation> running = new ConcurrentHashMap<>();
+
     /**
      * @param vertx The Vertx instance
      * @param isOpenShift True iff running on OpenShift
@@ -85,17 +116,19 @@ public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T ext
         this.certManager = certManager;
         this.secretOperations = secretOperations;
         this.networkPolicyOperator = networkPolicyOperator;
+        this.reconciliationQueue = new ReconciliationQueue(vertx, ReconciliationQueue.DEFAULT_MAX_CONCURRENT_RECONCILIATIONS);
+        this.bulkheads = new Bulkheads(vertx, "kubernetes-ops-pool", Bulkheads.DEFAULT_PERMITS_PER_KEY);
     }
 
     /**
-     * Gets the name of the lock to be used for operating on the given {@code assemblyType}, {@code namespace} and
+     * Gets the key used to queue reconciliations of the given {@code assemblyType}, {@code namespace} and
      * cluster {@code name}
      * @param assemblyType The type of cluster
      * @param namespace The namespace containing the cluster
      * @param name The name of the cluster
      */
-    protected final String getLockName(ResourceType assemblyType, String namespace, String name) {
-        return "lock::" + namespace + "::" + assemblyType + "::" + name;
+    protected final String getReconciliationKey(ResourceType assemblyType, String namespace, String name) {
+        return namespace + "::" + assemblyType + "::" + name;
     }
 
     /**
@@ -129,69 +162,391 @@ public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T ext
     /**
      * Reconcile assembly resources in the given namespace having the given {@code name}.
      * Reconciliation works by getting the assembly resource (e.g. {@code KafkaAssembly}) in the given namespace with the given name and
-     * comparing with the corresponding {@linkplain #getResources(String, Labels) resource}.
+     * comparing with the corresponding {@linkplain #getResourceMetadata(String, Labels, Consumer) resources}.
      * <ul>
      * <li>An assembly will be {@linkplain #createOrUpdate(Reconciliation, HasMetadata) created or updated} if ConfigMap is without same-named resources</li>
      * <li>An assembly will be {@linkplain #delete(Reconciliation) deleted} if resources without same-named ConfigMap</li>
      * </ul>
      */
     public final void reconcileAssembly(Reconciliation reconciliation, Handler<AsyncResult<Void>> handler) {
+        reconcileAssembly(reconciliation, false, handler);
+    }
+
+    /**
+     * Queues the reconciliation of assembly resources in the given namespace having the given {@code name}.
+     * When {@code periodic} is true and the assembly has not changed since its last successful reconciliation
+     * (see {@link #setDeepReconciliationIntervalMs(long)}) the full reconciliation is skipped.
+     */
+    private void reconcileAssembly(Reconciliation reconciliation, boolean periodic, Handler<AsyncResult<Void>> handler) {
+        String key = getReconciliationKey(assemblyType, reconciliation.namespace(), reconciliation.name());
+        long enqueued = System.nanoTime();
+        reconciliationQueue.enqueue(key, !periodic, () -> {
+            if (!leadership.getAsBoolean()) {
+                log.debug("{}: Not reconciling {}, because this replica is not the leader", reconciliation, key);
+                return Future.succeededFuture();
+            }
+            log.debug("{}: Reconciliation of {} started", reconciliation, key);
+            long started = System.nanoTime();
+            metrics.durationHistogram("strimzi_reconciliation_wait_seconds",
+                    "How long reconciliations waited for the previous reconciliation of their assembly, or for a free slot, before starting",
+                    "kind").observe((started - enqueued) / 1e9, kind);
+            Span trace = Trace.start(reconciliation.toString(), "reconcile", spanExporter)
+                    .tag("kind", kind).tag("namespace", reconciliation.namespace()).tag("name", reconciliation.name());
+            Future<Void> reconciled;
+            try {
+                reconciled = Tracing.callWith(trace, () -> reconcile(reconciliation, periodic));
+            } catch (Throwable e) {
+                reconciled = Future.failedFuture(e);
+            }
+            Future<Void> result = Future.future();
+            reconciled.setHandler(ar -> {
+                running.remove(key);
+                recordOutcome(started, ar);
+                trace.finish(ar.cause());
+                KubernetesApiCalls calls = KubernetesApiCalls.of(trace.trace());
+                recordApiCalls(calls);
+                log.info("{}: {}; {}", reconciliation, trace.trace().summary(), calls);
+                result.handle(ar);
+            });
+            return result;
+        }, handler);
+    }
+
+    private void recordOutcome(long started, AsyncResult<Void> result) {
+        String outcome;
+        if (result.succeeded()) {
+            outcome = "success";
+        } else if (isCancellation(result.cause())) {
+            outcome = "cancelled";
+        } else if (result.cause() instanceof InvalidConfigParameterException) {
+            outcome = "invalid";
+        } else {
+            outcome = "failure";
+        }
+        metrics.durationHistogram("strimzi_reconciliation_duration_seconds", "How long reconciliations took, by outcome",
+                "kind", "outcome").observe(MetricsRegistry.secondsSince(started), kind, outcome);
+        metrics.counter("strimzi_reconciliations_total", "The number of reconciliations, by outcome",
+                "kind", "outcome").inc(kind, outcome);
+    }
+
+    private void recordApiCalls(KubernetesApiCalls calls) {
+        metrics.histogram("strimzi_reconciliation_api_requests", "The number of requests to the Kubernetes API server made by each reconciliation",
+                API_REQUEST_BUCKETS, "kind").observe(calls.total(), kind);
+        calls.forEach((step, verb, resource, count) -> metrics.counter("strimzi_reconciliation_api_requests_total",
+                "The number of requests to the Kubernetes API server made by reconciliations, by step, verb and resource",
+                "kind", "step", "verb", "resource").inc(count, kind, step, verb, resource));
+    }
+
+    private Future<Void> reconcile(Reconciliation reconciliation, boolean periodic) {
         String namespace = reconciliation.namespace();
         String assemblyName = reconciliation.name();
-        final String lockName = getLockName(assemblyType, namespace, assemblyName);
-        vertx.sharedData().getLockWithTimeout(lockName, LOCK_TIMEOUT_MS, res -> {
-            if (res.succeeded()) {
-                log.debug("{}: Lock {} acquired", reconciliation, lockName);
-                Lock lock = res.result();
+        // get CustomResource and related resources for the specific cluster
+        T cr = resourceOperator.get(namespace, assemblyName);
+        running.put(getReconciliationKey(assemblyType, namespace, assemblyName), new RunningReconciliation(reconciliation, cr));
 
-                try {
-                    // get CustomResource and related resources for the specific cluster
-                    T cr = resourceOperator.get(namespace, assemblyName);
-
-                    if (cr != null) {
-                        log.info("{}: Assembly {} should be created or updated", reconciliation, assemblyName);
-                        createOrUpdate(reconciliation, cr)
-                            .setHandler(createResult -> {
-                                lock.release();
-                                log.debug("{}: Lock {} released", reconciliation, lockName);
-                                if (createResult.failed()) {
-                                    if (createResult.cause() instanceof InvalidConfigParameterException) {
-                                        log.error(createResult.cause().getMessage());
-                                    } else {
-                                        log.error("{}: createOrUpdate failed", reconciliation, createResult.cause());
-                                    }
-                                } else {
-                                    handler.handle(createResult);
-                                }
-                            });
-                    } else {
-                        log.info("{}: Assembly {} should be deleted", reconciliation, assemblyName);
-                        delete(reconciliation).setHandler(deleteResult -> {
-                            lock.release();
-                            log.debug("{}: Lock {} released", reconciliation, lockName);
-                            if (deleteResult.succeeded())   {
-                                log.info("{}: Assembly {} deleted", reconciliation, assemblyName);
+        if (cr != null) {
+            Future<Boolean> unchanged = periodic ? isUnchanged(reconciliation, cr) : Future.succeededFuture(false);
+            return unchanged.recover(e -> Future.succeededFuture(false)).compose(isUnchanged -> {
+                if (isUnchanged) {
+                    skippedReconciliations.incrementAndGet();
+                    log.info("{}: Assembly {} is unchanged since it was last reconciled", reconciliation, assemblyName);
+                    return Future.succeededFuture();
+                }
+                log.info("{}: Assembly {} should be created or updated", reconciliation, assemblyName);
+                Future<Void> result = Future.future();
+                createOrUpdate(reconciliation, cr)
+                    .compose(ignored -> recordFingerprint(reconciliation, cr))
+                    .setHandler(createResult -> {
+                        if (createResult.failed()) {
+                            fingerprints.remove(fingerprintKey(reconciliation));
+                            if (createResult.cause() instanceof InvalidConfigParameterException) {
+                                log.error(createResult.cause().getMessage());
+                            } else if (isCancellation(createResult.cause())) {
+                                log.info("{}: {}", reconciliation, createResult.cause().getMessage());
                             } else {
-                                log.error("{}: Deletion of assembly {} failed", reconciliation, assemblyName, deleteResult.cause());
+                                log.error("{}: createOrUpdate failed", reconciliation, createResult.cause());
                             }
-                            handler.handle(deleteResult);
-                        });
-                    }
-                } catch (Throwable ex) {
-                    lock.release();
-                    log.debug("{}: Lock {} released", reconciliation, lockName);
-                    handler.handle(Future.failedFuture(ex));
+                        }
+                        result.handle(createResult);
+                    });
+                return result;
+            });
+        } else {
+            fingerprints.remove(fingerprintKey(reconciliation));
+            log.info("{}: Assembly {} should be deleted", reconciliation, assemblyName);
+            Future<Void> result = Future.future();
+            delete(reconciliation).setHandler(deleteResult -> {
+                if (deleteResult.succeeded())   {
+                    log.info("{}: Assembly {} deleted", reconciliation, assemblyName);
+                } else {
+                    log.error("{}: Deletion of assembly {} failed", reconciliation, assemblyName, deleteResult.cause());
                 }
-            } else {
-                log.debug("{}: Failed to acquire lock {}.", reconciliation, lockName);
+                result.handle(deleteResult);
+            });
+            return result;
+        }
+    }
+
+    /**
+     * Sets the queue used for reconciliations, which may be shared with other assembly operators
+     * so that the number of reconciliations running at once is bounded over all of them.
+     * @param reconciliationQueue The queue.
+     */
+    public void setReconciliationQueue(ReconciliationQueue reconciliationQueue) {
+        this.reconciliationQueue = reconciliationQueue;
+    }
+
+    /**
+     * Sets the bulkheads within which the blocking work of each assembly runs, which may be shared with
+     * other assembly operators so that the blocking work of any one assembly cannot monopolise the worker pool.
+     * @param bulkheads The bulkheads.
+     */
+    public void setBulkheads(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * Sets the registry in which the reconciliations of this operator are recorded, which may be shared with
+     * other assembly operators so that they can be scraped together.
+     * @param metrics The registry.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+        metrics.counter("strimzi_reconciliations_skipped_total",
+                "The number of periodic reconciliations skipped because their assembly was unchanged", "kind")
+                .register(this::skippedReconciliations, kind);
+    }
+
+    /**
+     * Sets the exporter to which the trace of each reconciliation is passed once the reconciliation has finished.
+     * @param spanExporter The exporter.
+     */
+    public void setSpanExporter(SpanExporter spanExporter) {
+        this.spanExporter = spanExporter;
+    }
+
+    /**
+     * Sets whether this replica of the operator is the leader, and so may change resources.
+     * While it is not, reconciliations are skipped, and running reconciliations stop at their next step
+     * or before restarting their next pod, in the same way as when they are cancelled.
+     * The resource operators should be given the same leadership, so that they also check it right before each change,
+     * in case leadership is lost within a step.
+     * @param leadership Whether this replica is the leader.
+     */
+    public void setLeadership(BooleanSupplier leadership) {
+        this.leadership = leadership;
+    }
+
+    /**
+     * Cancels all the running reconciliations, e.g. because this replica has stopped being the leader.
+     */
+    public void cancelRunningReconciliations() {
+        for (RunningReconciliation current : running.values()) {
+            if (!current.reconciliation.isCancelled()) {
+                log.info("{}: Cancelling, because this replica is no longer the leader", current.reconciliation);
+                current.reconciliation.cancel();
             }
-        });
+        }
+    }
+
+    private boolean isCancelled(Reconciliation reconciliation) {
+        return reconciliation.isCancelled() || !leadership.getAsBoolean();
+    }
+
+    /**
+     * @return Whether the given failure of a reconciliation is because it was cancelled, or because the
+     * resource operators refused to make a change once this replica was no longer the leader.
+     */
+    private static boolean isCancellation(Throwable cause) {
+        return cause instanceof ReconciliationCancelledException || cause instanceof NotLeaderException;
+    }
+
+    /**
+     * Wraps a step of {@link #createOrUpdate(Reconciliation, HasMetadata)}, recording how long the step takes,
+     * and tracing it as a span of the reconciliation, within which the requests made by the step are traced.
+     * @param step The name of the step.
+     * @param fn The step, which is passed the reconciliation state and completes with it.
+     * @param <S> The type of the reconciliation state.
+     * @return The wrapped step.
+     */
+    protected <S> Function<S, Future<S>> step(String step, Function<S, Future<S>> fn) {
+        // The steps are wrapped as the pipeline is built, within the reconciliation's trace, and each step is a child of its root
+        Span current = Tracing.current();
+        Span root = current != null ? current.trace().root() : null;
+        return state -> {
+            long started = System.nanoTime();
+            Span span = root != null ? root.child(step) : null;
+            Future<S> stepResult;
+            try {
+                stepResult = !leadership.getAsBoolean()
+                        ? Future.failedFuture(new ReconciliationCancelledException("Reconciliation cancelled, because this replica is not the leader"))
+                        : Tracing.callWith(span, () -> fn.apply(state));
+            } catch (Throwable e) {
+                stepResult = Future.failedFuture(e);
+            }
+            Future<S> result = Future.future();
+            stepResult.setHandler(ar -> {
+                if (span != null) {
+                    span.finish(ar.cause());
+                }
+                metrics.durationHistogram("strimzi_reconciliation_step_duration_seconds", "How long each step of reconciliations took",
+                        "kind", "step").observe(MetricsRegistry.secondsSince(started), kind, step);
+                result.handle(ar);
+            });
+            return result;
+        };
+    }
+
+    /**
+     * Runs the given {@code blockingCode} on the worker pool, within the bulkhead of the assembly
+     * being reconciled by the given {@code reconciliation}.
+     * @param reconciliation The reconciliation.
+     * @param blockingCode The blocking code.
+     * @param ordered If true, the blocking code runs after any other ordered blocking code submitted for the same assembly.
+     * @param resultHandler Called with the result of the blocking code.
+     * @param <X> The type of the result.
+     */
+    protected <X> void executeBlocking(Reconciliation reconciliation, Handler<Future<X>> blockingCode, boolean ordered, Handler<AsyncResult<X>> resultHandler) {
+        bulkheads.executeBlocking(getReconciliationKey(assemblyType, reconciliation.namespace(), reconciliation.name()),
+                blockingCode, ordered, resultHandler);
+    }
+
+    /**
+     * Returns an executor which runs blocking code within the bulkhead of the assembly being reconciled by the given
+     * {@code reconciliation}, for the resource operators which retry blocking work after asynchronous waits.
+     * @param reconciliation The reconciliation.
+     * @return The executor.
+     */
+    protected WorkerExecutor workerExecutor(Reconciliation reconciliation) {
+        return bulkheads.executor(getReconciliationKey(assemblyType, reconciliation.namespace(), reconciliation.name()));
+    }
+
+    /**
+     * Sets how often, in milliseconds, the periodic reconciliation runs the full {@link #createOrUpdate(Reconciliation, HasMetadata)}
+     * for an assembly which has not changed since it was last reconciled.
+     * An assembly is unchanged if neither the generation and resourceVersion of its custom resource nor
+     * the resourceVersions of its {@linkplain #getOwnedResourceMetadata(String, Labels, BiConsumer) owned resources} have changed.
+     * Reconciliations triggered by a watch event always run in full.
+     * @param deepReconciliationIntervalMs The interval, or 0 to run every periodic reconciliation in full.
+     */
+    public void setDeepReconciliationIntervalMs(long deepReconciliationIntervalMs) {
+        this.deepReconciliationIntervalMs = deepReconciliationIntervalMs;
+        if (deepReconciliationIntervalMs <= 0) {
+            fingerprints.clear();
+        }
+    }
+
+    /**
+     * @return The number of periodic reconciliations which were skipped because their assembly was unchanged.
+     */
+    public long skippedReconciliations() {
+        return skippedReconciliations.get();
+    }
+
+    private static String fingerprintKey(Reconciliation reconciliation) {
+        return reconciliation.namespace() + "/" + reconciliation.name();
+    }
+
+    /**
+     * Passes the metadata of the resources owned by an assembly, together with their kind, to the given
+     * {@code consumer}. The resourceVersions are used to decide whether the assembly has changed since it was
+     * last reconciled, so only the metadata is read, from the cache when the namespace is cached.
+     * @param namespace The namespace
+     * @param selector The selector of the resources owned by the assembly.
+     * @param consumer The consumer of the kind and metadata of each owned resource.
+     */
+    protected abstract void getOwnedResourceMetadata(String namespace, Labels selector, BiConsumer<String, ObjectMeta> consumer);
+
+    private String ownedResourcesFingerprint(String namespace, String name) {
+        List<String> versions = new ArrayList<>();
+        getOwnedResourceMetadata(namespace, Labels.EMPTY.withKind(assemblyType.name).withCluster(name),
+            (ownedKind, metadata) -> versions.add(ownedKind + "/" + metadata.getName() + "@" + metadata.getResourceVersion()));
+        Collections.sort(versions);
+        return String.join(",", versions);
+    }
+
+    /**
+     * Remembers the state of the given {@code cr} and of its owned resources after a successful reconciliation.
+     */
+    private Future<Void> recordFingerprint(Reconciliation reconciliation, T cr) {
+        long deepInterval = deepReconciliationIntervalMs;
+        if (deepInterval <= 0) {
+            return Future.succeededFuture();
+        }
+        Future<Void> result = Future.future();
+        this.<Void>executeBlocking(reconciliation,
+            future -> {
+                try {
+                    String owned = ownedResourcesFingerprint(reconciliation.namespace(), reconciliation.name());
+                    fingerprints.put(fingerprintKey(reconciliation), new AssemblyFingerprint(cr.getMetadata(), owned,
+                            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deepInterval)));
+                } catch (Throwable e) {
+                    // The next periodic reconciliation will just run in full
+                    log.debug("{}: Could not record the state of the assembly", reconciliation, e);
+                    fingerprints.remove(fingerprintKey(reconciliation));
+                }
+                future.complete();
+            },
+            false,
+            result.completer());
+        return result;
+    }
+
+    /**
+     * Returns a future which completes with true if neither the given {@code cr} nor its owned resources have changed
+     * since the assembly was last reconciled, and the next deep reconciliation is not yet due.
+     */
+    private Future<Boolean> isUnchanged(Reconciliation reconciliation, T cr) {
+        AssemblyFingerprint last = fingerprints.get(fingerprintKey(reconciliation));
+        if (last == null || deepReconciliationIntervalMs <= 0) {
+            return Future.succeededFuture(false);
+        } else if (System.nanoTime() - last.deepReconciliationDue >= 0) {
+            log.debug("{}: Deep reconciliation is due", reconciliation);
+            return Future.succeededFuture(false);
+        } else if (!last.matches(cr.getMetadata())) {
+            log.debug("{}: {} {} has changed", reconciliation, kind, reconciliation.name());
+            return Future.succeededFuture(false);
+        }
+        Future<Boolean> result = Future.future();
+        this.<Boolean>executeBlocking(reconciliation,
+            future -> {
+                boolean unchanged = last.owned.equals(ownedResourcesFingerprint(reconciliation.namespace(), reconciliation.name()));
+                if (!unchanged) {
+                    log.debug("{}: Resources owned by {} {} have changed", reconciliation, kind, reconciliation.name());
+                }
+                future.complete(unchanged);
+            },
+            false,
+            result.completer());
+        return result;
+    }
+
+    /**
+     * The state of an assembly after it was last reconciled successfully.
+     */
+    private static class AssemblyFingerprint {
+        private final Long generation;
+        private final String resourceVersion;
+        private final String owned;
+        private final long deepReconciliationDue;
+
+        AssemblyFingerprint(ObjectMeta metadata, String owned, long deepReconciliationDue) {
+            this.generation = metadata.getGeneration();
+            this.resourceVersion = metadata.getResourceVersion();
+            this.owned = owned;
+            this.deepReconciliationDue = deepReconciliationDue;
+        }
+
+        boolean matches(ObjectMeta metadata) {
+            return Objects.equals(generation, metadata.getGeneration())
+                    && Objects.equals(resourceVersion, metadata.getResourceVersion());
+        }
     }
 
     /**
      * Reconcile assembly resources in the given namespace having the given selector.
      * Reconciliation works by getting the assembly ConfigMaps in the given namespace with the given selector and
-     * comparing with the corresponding {@linkplain #getResources(String, Labels) resource}.
+     * comparing with the corresponding {@linkplain #getResourceMetadata(String, Labels, Consumer) resources}.
      * <ul>
      * <li>An assembly will be {@linkplain #createOrUpdate(Reconciliation, HasMetadata) created} for all ConfigMaps without same-named resources</li>
      * <li>An assembly will be {@linkplain #delete(Reconciliation) deleted} for all resources without same-named ConfigMaps</li>
@@ -201,72 +556,122 @@ public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T ext
      * @param namespace The namespace
      */
     public final CountDownLatch reconcileAll(String trigger, String namespace) {
+        return reconcileAll(trigger, namespace, ns -> true);
+    }
+
+    /**
+     * Like {@link #reconcileAll(String, String)}, but the given {@code namespace} may be
+     * {@link AbstractResourceOperator#ANY_NAMESPACE}, in which case the assemblies in all the namespaces
+     * accepted by the given {@code namespaceFilter} are reconciled, using a single list call per kind of resource.
+     *
+     * @param trigger A description of the triggering event (timer or watch), used for logging
+     * @param namespace The namespace, or {@link AbstractResourceOperator#ANY_NAMESPACE}
+     * @param namespaceFilter Accepts the namespaces whose assemblies should be reconciled
+     */
+    public final CountDownLatch reconcileAll(String trigger, String namespace, Predicate<String> namespaceFilter) {
+        if (!leadership.getAsBoolean()) {
+            log.debug("reconcileAll({}, {}): Not reconciling, because this replica is not the leader", assemblyType, trigger);
+            return new CountDownLatch(0);
+        }
 
-        // get ConfigMaps with kind=cluster&type=kafka (or connect, or connect-s2i) for the corresponding cluster type
-        List<T> desiredResources = resourceOperator.list(namespace, Labels.EMPTY);
-        Set<String> desiredNames = desiredResources.stream().map(cm -> cm.getMetadata().getName()).collect(Collectors.toSet());
+        // get the names of the custom resources, without the resources themselves
+        Map<String, Set<String>> desiredNames = new HashMap<>();
+        resourceOperator.listMetadata(namespace, Labels.EMPTY, metadata ->
+                desiredNames.computeIfAbsent(namespaceOf(namespace, metadata), k -> new HashSet<>()).add(metadata.getName()));
         log.debug("reconcileAll({}, {}): desired resources with labels {}: {}", assemblyType, trigger, Labels.EMPTY, desiredNames);
 
-        // get resources with kind=cluster&type=kafka (or connect, or connect-s2i)
+        // get the cluster names from the labels of the resources with kind=cluster&type=kafka (or connect, or connect-s2i)
         Labels resourceSelector = Labels.EMPTY.withKind(assemblyType.name);
-        List<? extends HasMetadata> resources = getResources(namespace, resourceSelector);
-        // now extract the cluster name from those
-        Set<String> resourceNames = resources.stream()
-                .filter(r -> !r.getKind().equals(kind)) // exclude desired resource
-                .map(Labels::cluster)
-                .collect(Collectors.toSet());
+        Map<String, Set<String>> resourceNames = new HashMap<>();
+        getResourceMetadata(namespace, resourceSelector, metadata -> {
+            String cluster = metadata.getLabels() != null ? metadata.getLabels().get(Labels.STRIMZI_CLUSTER_LABEL) : null;
+            if (cluster != null) {
+                resourceNames.computeIfAbsent(namespaceOf(namespace, metadata), k -> new HashSet<>()).add(cluster);
+            }
+        });
         log.debug("reconcileAll({}, {}): Other resources with labels {}: {}", assemblyType, trigger, resourceSelector, resourceNames);
 
-        desiredNames.addAll(resourceNames);
+        resourceNames.forEach((ns, names) -> desiredNames.computeIfAbsent(ns, k -> new HashSet<>()).addAll(names));
+        desiredNames.keySet().removeIf(namespaceFilter.negate());
 
         // We use a latch so that callers (specifically, test callers) know when the reconciliation is complete
         // Using futures would be more complex for no benefit
-        CountDownLatch latch = new CountDownLatch(desiredNames.size());
+        CountDownLatch latch = new CountDownLatch(desiredNames.values().stream().mapToInt(Set::size).sum());
 
-        for (String name: desiredNames) {
-            Reconciliation reconciliation = new Reconciliation(trigger, assemblyType, namespace, name);
-            reconcileAssembly(reconciliation, result -> {
-                handleResult(reconciliation, result);
-                latch.countDown();
-            });
-        }
+        desiredNames.forEach((ns, names) -> {
+            for (String name: names) {
+                Reconciliation reconciliation = new Reconciliation(trigger, assemblyType, ns, name);
+                reconcileAssembly(reconciliation, true, result -> {
+                    handleResult(reconciliation, result);
+                    latch.countDown();
+                });
+            }
+        });
 
         return latch;
     }
 
     /**
-     * Gets all the assembly resources (for all assemblies) in the given namespace.
-     * Assembly resources (e.g. the {@code KafkaAssembly} resource) may be included in the result.
-     * @param namespace The namespace
-     * @return The matching resources.
+     * The namespace of the resource with the given {@code metadata}, which was listed or watched in the given {@code namespace}.
      */
-    protected abstract List<HasMetadata> getResources(String namespace, Labels selector);
+    private static String namespaceOf(String namespace, ObjectMeta metadata) {
+        return AbstractResourceOperator.ANY_NAMESPACE.equals(namespace) ? metadata.getNamespace() : namespace;
+    }
+
+    /**
+     * Passes the metadata of the resources (for all assemblies) in the given namespace with the given selector
+     * to the given consumer. This is used to find assemblies whose custom resource has been deleted,
+     * so only the labels of the resources are needed. The default finds no resources.
+     * @param namespace The namespace, or {@link AbstractResourceOperator#ANY_NAMESPACE}
+     * @param selector The selector
+     * @param consumer The consumer of the resources' metadata
+     */
+    protected void getResourceMetadata(String namespace, Labels selector, Consumer<ObjectMeta> consumer) {
+    }
 
     public Future<Watch> createWatch(String namespace, Consumer<KubernetesClientException> onClose) {
+        return createWatch(namespace, ns -> true, onClose);
+    }
+
+    /**
+     * Watches the assembly resources in the given {@code namespace}, reconciling an assembly when its resource changes.
+     * If the watch is closed by the API server it is resumed from the last seen resourceVersion, and
+     * only if that is no longer available are all the assemblies in the {@code namespace} reconciled.
+     * @param namespace The namespace, or {@link AbstractResourceOperator#ANY_NAMESPACE} for a single watch of all namespaces.
+     * @param namespaceFilter Accepts the namespaces whose events should be acted on.
+     * @param onClose Called when the watch is closed.
+     * @return A future which completes with the watch.
+     */
+    public Future<Watch> createWatch(String namespace, Predicate<String> namespaceFilter, Consumer<KubernetesClientException> onClose) {
         Future<Watch> result = Future.future();
         vertx.<Watch>executeBlocking(
             future -> {
-                Watch watch = resourceOperator.watch(namespace, new Watcher<T>() {
+                Watch watch = resourceOperator.resumableWatch(namespace, new Watcher<T>() {
                     @Override
                     public void eventReceived(Action action, T cm) {
                         String name = cm.getMetadata().getName();
+                        String resourceNamespace = namespaceOf(namespace, cm.getMetadata());
                         switch (action) {
                             case ADDED:
                             case DELETED:
                             case MODIFIED:
-                                Reconciliation reconciliation = new Reconciliation("watch", assemblyType, namespace, name);
-                                log.info("{}: {} {} in namespace {} was {}", reconciliation, kind, name, namespace, action);
+                                if (!namespaceFilter.test(resourceNamespace)) {
+                                    log.trace("Ignoring {} {} in unwatched namespace {}", kind, name, resourceNamespace);
+                                    break;
+                                }
+                                Reconciliation reconciliation = new Reconciliation("watch", assemblyType, resourceNamespace, name);
+                                log.info("{}: {} {} in namespace {} was {}", reconciliation, kind, name, resourceNamespace, action);
+                                cancelIfStale(resourceNamespace, name, action == Action.DELETED ? null : cm);
                                 reconcileAssembly(reconciliation, result -> {
                                     handleResult(reconciliation, result);
                                 });
                                 break;
                             case ERROR:
-                                log.error("Failed {} {} in namespace{} ", kind, name, namespace);
-                                reconcileAll("watch error", namespace);
+                                log.error("Failed {} {} in namespace {}", kind, name, resourceNamespace);
                                 break;
                             default:
                                 log.error("Unknown action: {} in namespace {}", name, namespace);
-                                reconcileAll("watch unknown", namespace);
+                                reconcileAll("watch unknown", namespace, namespaceFilter);
                         }
                     }
 
@@ -274,13 +679,82 @@ public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T ext
                     public void onClose(KubernetesClientException e) {
                         onClose.accept(e);
                     }
-                });
+                }, () -> reconcileAll("watch relist", namespace, namespaceFilter));
                 future.complete(watch);
             }, result.completer()
         );
         return result;
     }
 
+    /**
+     * Cancels the running reconciliation of the given assembly if it is reconciling an older generation of
+     * the custom resource than the given one (or the custom resource has been deleted, if {@code cr} is null).
+     * The reconciliation for the newer generation is queued behind the cancelled one.
+     */
+    private void cancelIfStale(String namespace, String name, T cr) {
+        RunningReconciliation current = running.get(getReconciliationKey(assemblyType, namespace, name));
+        if (current != null && current.isOlderThan(cr) && !current.reconciliation.isCancelled()) {
+            log.info("{}: Cancelling, because a newer generation of {} {} in namespace {} is waiting to be reconciled",
+                    current.reconciliation, kind, name, namespace);
+            current.reconciliation.cancel();
+        }
+    }
+
+    /**
+     * Returns a future which fails with a {@link ReconciliationCancelledException} if the given
+     * {@code reconciliation} has been cancelled, or this replica is not the leader, and otherwise succeeds with the given {@code state}.
+     * Subclasses use this at the points in their {@link #createOrUpdate(Reconciliation, HasMetadata)}
+     * where the reconciliation can safely stop.
+     */
+    protected <S> Future<S> checkCancelled(Reconciliation reconciliation, S state) {
+        if (isCancelled(reconciliation)) {
+            return Future.failedFuture(new ReconciliationCancelledException("Reconciliation cancelled"));
+        }
+        return Future.succeededFuture(state);
+    }
+
+    /**
+     * Wraps the given predicate for whether a pod needs to be restarted, so that a rolling update
+     * fails with a {@link ReconciliationCancelledException} rather than restart another pod
+     * once the given {@code reconciliation} has been cancelled, or this replica is not the leader.
+     */
+    protected <P> Predicate<P> unlessCancelled(Reconciliation reconciliation, Predicate<P> podRestart) {
+        return pod -> {
+            boolean restart = podRestart.test(pod);
+            if (restart && isCancelled(reconciliation)) {
+                throw new ReconciliationCancelledException("Reconciliation cancelled during rolling update");
+            }
+            return restart;
+        };
+    }
+
+    /**
+     * A reconciliation which is running, and the generation of the custom resource it is reconciling.
+     */
+    private static class RunningReconciliation {
+        private final Reconciliation reconciliation;
+        private final Long generation;
+        private final boolean deleting;
+
+        RunningReconciliation(Reconciliation reconciliation, HasMetadata cr) {
+            this.reconciliation = reconciliation;
+            this.generation = cr != null ? cr.getMetadata().getGeneration() : null;
+            this.deleting = cr == null;
+        }
+
+        /**
+         * @return true if the given {@code cr} (or its deletion, if null) is newer than the one being reconciled.
+         */
+        boolean isOlderThan(HasMetadata cr) {
+            if (cr == null) {
+                return !deleting;
+            }
+            Long newGeneration = cr.getMetadata().getGeneration();
+            return deleting
+                    || generation != null && newGeneration != null && newGeneration > generation;
+        }
+    }
+
     /**
      * Log the reconciliation outcome.
      */
@@ -291,6 +765,8 @@ public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T ext
             Throwable cause = result.cause();
             if (cause instanceof InvalidConfigParameterException) {
                 log.warn("{}: Failed to reconcile {}", reconciliation, cause.getMessage());
+            } else if (isCancellation(cause)) {
+                log.info("{}: Reconciliation cancelled", reconciliation);
             } else {
                 log.warn("{}: Failed to reconcile", reconciliation, cause);
             }
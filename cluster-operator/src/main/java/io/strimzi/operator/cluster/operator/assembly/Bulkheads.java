@@ -0,0 +1,272 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.assembly;
+
+import io.strimzi.operator.common.metrics.MetricsRegistry;
+import io.strimzi.operator.common.tracing.Tracing;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Limits how much of a shared worker pool the blocking work of each assembly can use at once.</p>
+ *
+ * <p>Blocking work is keyed by assembly. At most {@code permitsPerKey} tasks for the same key run on the
+ * worker pool at once; further tasks for that key wait, in order, until one of them finishes.
+ * Provided the pool has more threads than there are permits per key, a single assembly with slow
+ * blocking work (for example a slow CA renewal) cannot occupy the whole pool and delay the
+ * reconciliation of other assemblies.</p>
+ *
+ * <p>Blocking work which has to run in order runs in order only with the other ordered work for the same key,
+ * rather than with all the ordered work submitted from the same Vert.x context, which all the assemblies share.
+ * So slow ordered work for one assembly does not hold up the ordered work of the others.</p>
+ */
+public class Bulkheads {
+
+    private static final Logger log = LogManager.getLogger(Bulkheads.class.getName());
+
+    public static final int DEFAULT_PERMITS_PER_KEY = 2;
+
+    private final Vertx vertx;
+    private final String poolName;
+    private final int permitsPerKey;
+
+    private final Map<String, Bulkhead> bulkheads = new HashMap<>();
+    private int active;
+    private int waiting;
+    private long saturations;
+    private long maxWaitMs;
+
+    /**
+     * @param vertx The Vertx instance
+     * @param poolName The name of the shared worker pool to run the blocking work on
+     * @param permitsPerKey The maximum number of blocking tasks for the same key to run at once
+     */
+    public Bulkheads(Vertx vertx, String poolName, int permitsPerKey) {
+        if (permitsPerKey <= 0) {
+            throw new IllegalArgumentException("permitsPerKey must be positive");
+        }
+        this.vertx = vertx;
+        this.poolName = poolName;
+        this.permitsPerKey = permitsPerKey;
+    }
+
+    /**
+     * Runs the given {@code blockingCode} on the worker pool, once a permit for the given {@code key} is free.
+     * The permit is held until the {@code blockingCode} completes its future, so the blocking code should not
+     * wait asynchronously for anything which can take long.
+     * @param key Identifies the assembly the work is for.
+     * @param blockingCode The blocking code.
+     * @param ordered If true, the blocking code only starts once the blocking code of the ordered tasks
+     *                submitted before it for the same key has completed. Ordered tasks for other keys don't hold it up.
+     * @param resultHandler Called with the result of the blocking code.
+     * @param <T> The type of the result.
+     */
+    public <T> void executeBlocking(String key, Handler<Future<T>> blockingCode, boolean ordered, Handler<AsyncResult<T>> resultHandler) {
+        Task task = new Task(ordered);
+        // The ordering is done here, per key, so the worker pool need not order the tasks per context
+        task.run = () -> vertx.createSharedWorkerExecutor(poolName).<T>executeBlocking(Tracing.propagate(blockingCode), false,
+                Tracing.propagate(res -> {
+                    release(key, task);
+                    resultHandler.handle(res);
+                }));
+        List<Task> startable;
+        synchronized (this) {
+            Bulkhead bulkhead = bulkheads.computeIfAbsent(key, k -> new Bulkhead());
+            bulkhead.waiting.add(task);
+            waiting++;
+            startable = startable(bulkhead);
+            if (!startable.contains(task) && bulkhead.active >= permitsPerKey) {
+                saturations++;
+                log.debug("Blocking work for {} is waiting for one of its {} permits", key, permitsPerKey);
+            }
+        }
+        startable.forEach(Task::start);
+    }
+
+    /**
+     * Returns a view of the bulkhead of the given {@code key} as a {@link WorkerExecutor}, for the resource operators
+     * which interleave blocking work with asynchronous waits, so that only their blocking work holds a permit.
+     * Closing it does nothing.
+     * @param key Identifies the assembly the work is for.
+     * @return The executor.
+     */
+    public WorkerExecutor executor(String key) {
+        return new KeyedExecutor(key);
+    }
+
+    /**
+     * Releases the permit of the given {@code task} for the given {@code key}, passing it on to the next waiting task, if any.
+     */
+    private void release(String key, Task task) {
+        List<Task> startable;
+        synchronized (this) {
+            Bulkhead bulkhead = bulkheads.get(key);
+            bulkhead.active--;
+            active--;
+            if (task.ordered) {
+                bulkhead.orderedRunning = false;
+            }
+            startable = startable(bulkhead);
+            if (bulkhead.active == 0 && bulkhead.waiting.isEmpty()) {
+                bulkheads.remove(key);
+            }
+        }
+        startable.forEach(Task::start);
+    }
+
+    /**
+     * Takes permits for the waiting tasks of the given {@code bulkhead} which can start, in the order they were submitted,
+     * skipping ordered tasks while another ordered task for the same key is running.
+     * @return The tasks to start.
+     */
+    private List<Task> startable(Bulkhead bulkhead) {
+        List<Task> result = new ArrayList<>(1);
+        Iterator<Task> it = bulkhead.waiting.iterator();
+        while (bulkhead.active < permitsPerKey && it.hasNext()) {
+            Task next = it.next();
+            if (next.ordered && bulkhead.orderedRunning) {
+                continue;
+            }
+            it.remove();
+            waiting--;
+            bulkhead.active++;
+            active++;
+            if (next.ordered) {
+                bulkhead.orderedRunning = true;
+            }
+            maxWaitMs = Math.max(maxWaitMs, System.currentTimeMillis() - next.queuedAt);
+            result.add(next);
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of blocking tasks running, over all keys.
+     */
+    public synchronized int active() {
+        return active;
+    }
+
+    /**
+     * @return The number of blocking tasks waiting for a permit, or for the ordered tasks before them, over all keys.
+     */
+    public synchronized int waiting() {
+        return waiting;
+    }
+
+    /**
+     * @return The number of keys which are using all their permits and have tasks waiting.
+     */
+    public synchronized int saturatedKeys() {
+        int result = 0;
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            if (bulkhead.active >= permitsPerKey && !bulkhead.waiting.isEmpty()) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of blocking tasks so far which have had to wait for a permit.
+     */
+    public synchronized long saturations() {
+        return saturations;
+    }
+
+    /**
+     * @return The longest time, in milliseconds, that a blocking task has waited for a permit.
+     */
+    public synchronized long maxWaitMs() {
+        return maxWaitMs;
+    }
+
+    /**
+     * Exposes the saturation of the worker pool in the given {@code metrics}.
+     * @param metrics The registry.
+     */
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("strimzi_worker_pool_active_tasks", "The number of blocking tasks running on the worker pool", "pool")
+                .register(this::active, poolName);
+        metrics.gauge("strimzi_worker_pool_waiting_tasks", "The number of blocking tasks waiting for one of their assembly's permits", "pool")
+                .register(this::waiting, poolName);
+        metrics.gauge("strimzi_worker_pool_saturated_assemblies", "The number of assemblies using all their permits and with tasks waiting", "pool")
+                .register(this::saturatedKeys, poolName);
+        metrics.counter("strimzi_worker_pool_saturations_total", "The number of blocking tasks which had to wait for a permit", "pool")
+                .register(this::saturations, poolName);
+        metrics.gauge("strimzi_worker_pool_max_wait_seconds", "The longest time a blocking task waited for a permit", "pool")
+                .register(() -> maxWaitMs() / 1e3, poolName);
+    }
+
+    /**
+     * Runs the blocking code submitted to it within the bulkhead of a single key.
+     */
+    private class KeyedExecutor implements WorkerExecutor {
+        private final String key;
+
+        KeyedExecutor(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public <T> void executeBlocking(Handler<Future<T>> blockingCode, boolean ordered, Handler<AsyncResult<T>> resultHandler) {
+            Bulkheads.this.executeBlocking(key, blockingCode, ordered, resultHandler);
+        }
+
+        @Override
+        public <T> void executeBlocking(Handler<Future<T>> blockingCode, Handler<AsyncResult<T>> resultHandler) {
+            executeBlocking(blockingCode, true, resultHandler);
+        }
+
+        @Override
+        public void close() {
+            // The worker pool is shared
+        }
+
+        @Override
+        public boolean isMetricsEnabled() {
+            return false;
+        }
+    }
+
+    /**
+     * The permits in use by, and the tasks waiting for, a single key.
+     */
+    private static class Bulkhead {
+        private int active;
+        private boolean orderedRunning;
+        private final Deque<Task> waiting = new ArrayDeque<>();
+    }
+
+    /**
+     * A blocking task.
+     */
+    private static class Task {
+        private final long queuedAt = System.currentTimeMillis();
+        private final boolean ordered;
+        private Runnable run;
+
+        Task(boolean ordered) {
+            this.ordered = ordered;
+        }
+
+        void start() {
+            run.run();
+        }
+    }
+}
@@ -5,7 +5,7 @@
 package io.strimzi.operator.cluster.operator.assembly;
 
 import io.fabric8.kubernetes.api.model.ConfigMap;
-import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.OwnerReference;
 import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
 import io.fabric8.kubernetes.api.model.Pod;
@@ -23,6 +23,8 @@ import io.strimzi.api.kafka.model.CertificateAuthority;
 import io.strimzi.api.kafka.model.DoneableKafka;
 import io.strimzi.api.kafka.model.ExternalLogging;
 import io.strimzi.api.kafka.model.Kafka;
+import io.strimzi.api.kafka.model.KafkaBuilder;
+import io.strimzi.api.kafka.model.KafkaRebalancing;
 import io.strimzi.certs.CertManager;
 import io.strimzi.operator.cluster.KafkaUpgradeException;
 import io.strimzi.operator.cluster.model.AbstractModel;
@@ -39,7 +41,9 @@ import io.strimzi.operator.cluster.model.KafkaVersion;
 import io.strimzi.operator.cluster.model.ModelUtils;
 import io.strimzi.operator.cluster.model.TopicOperator;
 import io.strimzi.operator.cluster.model.ZookeeperCluster;
+import io.strimzi.operator.cluster.operator.resource.BrokerConfigOperator;
 import io.strimzi.operator.cluster.operator.resource.KafkaSetOperator;
+import io.strimzi.operator.cluster.operator.resource.PartitionReassignmentOperator;
 import io.strimzi.operator.cluster.operator.resource.ResourceOperatorSupplier;
 import io.strimzi.operator.cluster.operator.resource.StatefulSetOperator;
 import io.strimzi.operator.cluster.operator.resource.ZookeeperSetOperator;
@@ -50,6 +54,7 @@ import io.strimzi.operator.common.model.ResourceType;
 import io.strimzi.operator.common.operator.resource.ClusterRoleBindingOperator;
 import io.strimzi.operator.common.operator.resource.ConfigMapOperator;
 import io.strimzi.operator.common.operator.resource.DeploymentOperator;
+import io.strimzi.operator.common.operator.resource.PodOperator;
 import io.strimzi.operator.common.operator.resource.PvcOperator;
 import io.strimzi.operator.common.operator.resource.ReconcileResult;
 import io.strimzi.operator.common.operator.resource.RoleBindingOperator;
@@ -65,18 +70,23 @@ import org.quartz.CronExpression;
 
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TimeZone;
 import java.util.TreeMap;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 
 import static io.strimzi.operator.cluster.model.KafkaCluster.ANNO_STRIMZI_IO_FROM_VERSION;
+import static io.strimzi.operator.cluster.model.KafkaCluster.ANNO_STRIMZI_IO_KAFKA_CONFIGURATION_DIGEST;
 import static io.strimzi.operator.cluster.model.KafkaCluster.ANNO_STRIMZI_IO_KAFKA_VERSION;
 import static io.strimzi.operator.cluster.model.KafkaCluster.ANNO_STRIMZI_IO_TO_VERSION;
 import static io.strimzi.operator.cluster.model.KafkaCluster.ENV_VAR_KAFKA_CONFIGURATION;
@@ -84,6 +94,7 @@ import static io.strimzi.operator.cluster.model.KafkaConfiguration.INTERBROKER_P
 import static io.strimzi.operator.cluster.model.KafkaConfiguration.LOG_MESSAGE_FORMAT_VERSION;
 import static io.strimzi.operator.cluster.model.KafkaVersion.compareDottedVersions;
 import static io.strimzi.operator.cluster.model.TopicOperator.ANNO_STRIMZI_IO_LOGGING;
+import static java.util.Collections.singletonMap;
 
 /**
  * <p>Assembly operator for a "Kafka" assembly, which manages:</p>
@@ -99,6 +110,11 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
     public static final String ANNO_STRIMZI_IO_MANUAL_ROLLING_UPDATE = Annotations.STRIMZI_DOMAIN + "/manual-rolling-update";
     @Deprecated
     public static final String ANNO_OP_STRIMZI_IO_MANUAL_ROLLING_UPDATE = "operator.strimzi.io/manual-rolling-update";
+    /**
+     * Annotation on the Kafka resource requesting the partitions of the whole cluster to be rebalanced,
+     * following its rebalancing policy, or the default one. It is removed once the rebalance has completed.
+     */
+    public static final String ANNO_STRIMZI_IO_REBALANCE = Annotations.STRIMZI_DOMAIN + "/rebalance";
 
     private final long operationTimeoutMs;
 
@@ -112,6 +128,9 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
     private final ServiceAccountOperator serviceAccountOperator;
     private final RoleBindingOperator roleBindingOperator;
     private final ClusterRoleBindingOperator clusterRoleBindingOperator;
+    private final BrokerConfigOperator brokerConfigOperations;
+    private final PartitionReassignmentOperator reassignmentOperations;
+    private final PodOperator podOperations;
 
     private final KafkaVersion.Lookup versions;
 
@@ -136,6 +155,9 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
         this.serviceAccountOperator = supplier.serviceAccountOperator;
         this.roleBindingOperator = supplier.roleBindingOperator;
         this.clusterRoleBindingOperator = supplier.clusterRoleBindingOperator;
+        this.brokerConfigOperations = supplier.brokerConfigOperations;
+        this.reassignmentOperations = supplier.reassignmentOperations;
+        this.podOperations = supplier.podOperations;
         this.versions = versions;
     }
 
@@ -146,65 +168,73 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
             log.error("{} spec cannot be null", kafkaAssembly.getMetadata().getName());
             return Future.failedFuture("Spec cannot be null");
         }
-        createReconciliationState(reconciliation, kafkaAssembly)
-                .reconcileCas()
-
-                .compose(state -> state.zkManualPodCleaning())
-                .compose(state -> state.zkManualRollingUpdate())
-                .compose(state -> state.getZookeeperDescription())
-                .compose(state -> state.zkScaleDown())
-                .compose(state -> state.zkService())
-                .compose(state -> state.zkHeadlessService())
-                .compose(state -> state.zkAncillaryCm())
-                .compose(state -> state.zkNodesSecret())
-                .compose(state -> state.zkNetPolicy())
-                .compose(state -> state.zkStatefulSet())
-                .compose(state -> state.zkRollingUpdate(this::dateSupplier))
-                .compose(state -> state.zkScaleUp())
-                .compose(state -> state.zkServiceEndpointReadiness())
-                .compose(state -> state.zkHeadlessServiceEndpointReadiness())
-                .compose(state -> state.kafkaUpgrade())
-                .compose(state -> state.kafkaManualPodCleaning())
-                .compose(state -> state.kafkaManualRollingUpdate())
-                .compose(state -> state.getKafkaClusterDescription())
-                .compose(state -> state.kafkaInitServiceAccount())
-                .compose(state -> state.kafkaInitClusterRoleBinding())
-                .compose(state -> state.kafkaScaleDown())
-                .compose(state -> state.kafkaService())
-                .compose(state -> state.kafkaHeadlessService())
-                .compose(state -> state.kafkaExternalBootstrapService())
-                .compose(state -> state.kafkaReplicaServices())
-                .compose(state -> state.kafkaBootstrapRoute())
-                .compose(state -> state.kafkaReplicaRoutes())
-                .compose(state -> state.kafkaExternalBootstrapServiceReady())
-                .compose(state -> state.kafkaReplicaServicesReady())
-                .compose(state -> state.kafkaBootstrapRouteReady())
-                .compose(state -> state.kafkaReplicaRoutesReady())
-                .compose(state -> state.kafkaGenerateCertificates())
-                .compose(state -> state.kafkaAncillaryCm())
-                .compose(state -> state.kafkaBrokersSecret())
-                .compose(state -> state.kafkaNetPolicy())
-                .compose(state -> state.kafkaStatefulSet())
-                .compose(state -> state.kafkaRollingUpdate(this::dateSupplier))
-                .compose(state -> state.kafkaScaleUp())
-                .compose(state -> state.kafkaServiceEndpointReady())
-                .compose(state -> state.kafkaHeadlessServiceEndpointReady())
-
-                .compose(state -> state.getTopicOperatorDescription())
-                .compose(state -> state.topicOperatorServiceAccount())
-                .compose(state -> state.topicOperatorRoleBinding())
-                .compose(state -> state.topicOperatorAncillaryCm())
-                .compose(state -> state.topicOperatorSecret())
-                .compose(state -> state.topicOperatorDeployment(this::dateSupplier))
-
-                .compose(state -> state.getEntityOperatorDescription())
-                .compose(state -> state.entityOperatorServiceAccount())
-                .compose(state -> state.entityOperatorTopicOpRoleBinding())
-                .compose(state -> state.entityOperatorUserOpRoleBinding())
-                .compose(state -> state.entityOperatorTopicOpAncillaryCm())
-                .compose(state -> state.entityOperatorUserOpAncillaryCm())
-                .compose(state -> state.entityOperatorSecret())
-                .compose(state -> state.entityOperatorDeployment(this::dateSupplier))
+        Future.succeededFuture(createReconciliationState(reconciliation, kafkaAssembly))
+                .compose(step("reconcileCas", ReconciliationState::reconcileCas))
+
+                .compose(state -> state.checkCancelled())
+                .compose(step("zkManualPodCleaning", ReconciliationState::zkManualPodCleaning))
+                .compose(step("zkManualRollingUpdate", ReconciliationState::zkManualRollingUpdate))
+                .compose(step("getZookeeperDescription", ReconciliationState::getZookeeperDescription))
+                .compose(step("zkScaleDown", ReconciliationState::zkScaleDown))
+                .compose(step("zkService", ReconciliationState::zkService))
+                .compose(step("zkHeadlessService", ReconciliationState::zkHeadlessService))
+                .compose(step("zkAncillaryCm", ReconciliationState::zkAncillaryCm))
+                .compose(step("zkNodesSecret", ReconciliationState::zkNodesSecret))
+                .compose(step("zkNetPolicy", ReconciliationState::zkNetPolicy))
+                .compose(step("zkStatefulSet", ReconciliationState::zkStatefulSet))
+                .compose(state -> state.checkCancelled())
+                .compose(step("zkRollingUpdate", state -> state.zkRollingUpdate(this::dateSupplier)))
+                .compose(step("zkScaleUp", ReconciliationState::zkScaleUp))
+                .compose(step("zkServiceEndpointReadiness", ReconciliationState::zkServiceEndpointReadiness))
+                .compose(step("zkHeadlessServiceEndpointReadiness", ReconciliationState::zkHeadlessServiceEndpointReadiness))
+                .compose(state -> state.checkCancelled())
+                .compose(step("kafkaUpgrade", ReconciliationState::kafkaUpgrade))
+                .compose(step("kafkaManualPodCleaning", ReconciliationState::kafkaManualPodCleaning))
+                .compose(step("kafkaManualRollingUpdate", ReconciliationState::kafkaManualRollingUpdate))
+                .compose(step("getKafkaClusterDescription", ReconciliationState::getKafkaClusterDescription))
+                .compose(step("kafkaInitServiceAccount", ReconciliationState::kafkaInitServiceAccount))
+                .compose(step("kafkaInitClusterRoleBinding", ReconciliationState::kafkaInitClusterRoleBinding))
+                .compose(step("kafkaScaleDown", ReconciliationState::kafkaScaleDown))
+                .compose(step("kafkaService", ReconciliationState::kafkaService))
+                .compose(step("kafkaHeadlessService", ReconciliationState::kafkaHeadlessService))
+                .compose(step("kafkaExternalBootstrapService", ReconciliationState::kafkaExternalBootstrapService))
+                .compose(step("kafkaReplicaServices", ReconciliationState::kafkaReplicaServices))
+                .compose(step("kafkaBootstrapRoute", ReconciliationState::kafkaBootstrapRoute))
+                .compose(step("kafkaReplicaRoutes", ReconciliationState::kafkaReplicaRoutes))
+                .compose(step("kafkaExternalBootstrapServiceReady", ReconciliationState::kafkaExternalBootstrapServiceReady))
+                .compose(step("kafkaReplicaServicesReady", ReconciliationState::kafkaReplicaServicesReady))
+                .compose(step("kafkaBootstrapRouteReady", ReconciliationState::kafkaBootstrapRouteReady))
+                .compose(step("kafkaReplicaRoutesReady", ReconciliationState::kafkaReplicaRoutesReady))
+                .compose(step("kafkaGenerateCertificates", ReconciliationState::kafkaGenerateCertificates))
+                .compose(step("kafkaAncillaryCm", ReconciliationState::kafkaAncillaryCm))
+                .compose(step("kafkaBrokersSecret", ReconciliationState::kafkaBrokersSecret))
+                .compose(step("kafkaNetPolicy", ReconciliationState::kafkaNetPolicy))
+                .compose(step("kafkaStatefulSet", ReconciliationState::kafkaStatefulSet))
+                .compose(state -> state.checkCancelled())
+                .compose(step("kafkaDynamicConfiguration", ReconciliationState::kafkaDynamicConfiguration))
+                .compose(step("kafkaReloadCertificates", ReconciliationState::kafkaReloadCertificates))
+                .compose(step("kafkaRollingUpdate", state -> state.kafkaRollingUpdate(this::dateSupplier)))
+                .compose(step("kafkaScaleUp", ReconciliationState::kafkaScaleUp))
+                .compose(step("kafkaServiceEndpointReady", ReconciliationState::kafkaServiceEndpointReady))
+                .compose(step("kafkaHeadlessServiceEndpointReady", ReconciliationState::kafkaHeadlessServiceEndpointReady))
+                .compose(step("kafkaRebalance", ReconciliationState::kafkaRebalance))
+
+                .compose(state -> state.checkCancelled())
+                .compose(step("getTopicOperatorDescription", ReconciliationState::getTopicOperatorDescription))
+                .compose(step("topicOperatorServiceAccount", ReconciliationState::topicOperatorServiceAccount))
+                .compose(step("topicOperatorRoleBinding", ReconciliationState::topicOperatorRoleBinding))
+                .compose(step("topicOperatorAncillaryCm", ReconciliationState::topicOperatorAncillaryCm))
+                .compose(step("topicOperatorSecret", ReconciliationState::topicOperatorSecret))
+                .compose(step("topicOperatorDeployment", state -> state.topicOperatorDeployment(this::dateSupplier)))
+
+                .compose(step("getEntityOperatorDescription", ReconciliationState::getEntityOperatorDescription))
+                .compose(step("entityOperatorServiceAccount", ReconciliationState::entityOperatorServiceAccount))
+                .compose(step("entityOperatorTopicOpRoleBinding", ReconciliationState::entityOperatorTopicOpRoleBinding))
+                .compose(step("entityOperatorUserOpRoleBinding", ReconciliationState::entityOperatorUserOpRoleBinding))
+                .compose(step("entityOperatorTopicOpAncillaryCm", ReconciliationState::entityOperatorTopicOpAncillaryCm))
+                .compose(step("entityOperatorUserOpAncillaryCm", ReconciliationState::entityOperatorUserOpAncillaryCm))
+                .compose(step("entityOperatorSecret", ReconciliationState::entityOperatorSecret))
+                .compose(step("entityOperatorDeployment", state -> state.entityOperatorDeployment(this::dateSupplier)))
 
                 .compose(state -> chainFuture.complete(), chainFuture);
 
@@ -244,6 +274,11 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
         private SortedMap<Integer, String> kafkaExternalAddresses = new TreeMap<>();
         private SortedMap<Integer, String> kafkaExternalDnsNames = new TreeMap<>();
         private boolean kafkaAncillaryCmChange;
+        private Secret kafkaBrokersSecret;
+        private int kafkaScaleDownTo;
+        private int kafkaPartitionsToMove;
+        /* test */ final Set<String> kafkaPodsWithReloadedCertificates = new HashSet<>();
+        /* test */ final Set<String> kafkaPodsWithStaleConfiguration = new HashSet<>();
 
         /* test */ TopicOperator topicOperator;
         /* test */ Deployment toDeployment = null;
@@ -271,7 +306,7 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
         Future<ReconciliationState> reconcileCas() {
             Labels caLabels = Labels.userLabels(kafkaAssembly.getMetadata().getLabels()).withKind(reconciliation.type().toString()).withCluster(reconciliation.name());
             Future<ReconciliationState> result = Future.future();
-            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").<ReconciliationState>executeBlocking(
+            KafkaAssemblyOperator.this.<ReconciliationState>executeBlocking(reconciliation,
                 future -> {
                     try {
                         String clusterCaCertName = AbstractModel.clusterCaCertSecretName(name);
@@ -308,10 +343,15 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
                         this.clusterCa = new ClusterCa(certManager, name, clusterCaCertSecret, clusterCaKeySecret,
                                 ModelUtils.getCertificateValidity(clusterCaConfig),
                                 ModelUtils.getRenewalDays(clusterCaConfig),
-                                clusterCaConfig == null || clusterCaConfig.isGenerateCertificateAuthority());
+                                clusterCaConfig == null || clusterCaConfig.isGenerateCertificateAuthority(),
+                                ModelUtils.getKeyAlgorithm(clusterCaConfig));
+                        List<Pod> pods = isNextCaCertPending(clusterCaCertSecret) || isNextCaCertPending(clientsCaCertSecret) ?
+                                podOperations.list(namespace, Labels.forCluster(name)) : Collections.emptyList();
                         clusterCa.createOrRenew(
                                 reconciliation.namespace(), reconciliation.name(), caLabels.toMap(),
-                                ownerRef);
+                                ownerRef, isNextCaCertTrusted(clusterCaCertSecret, Ca.ANNO_STRIMZI_IO_CLUSTER_CA_CERT_GENERATION, pods,
+                                        ZookeeperCluster.zookeeperClusterName(name), KafkaCluster.kafkaClusterName(name),
+                                        EntityOperator.entityOperatorName(name), TopicOperator.topicOperatorName(name)));
 
                         this.clusterCa.initCaSecrets(clusterSecrets);
 
@@ -321,9 +361,11 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
                                 clientsCaKeyName, clientsCaKeySecret,
                                 ModelUtils.getCertificateValidity(clientsCaConfig),
                                 ModelUtils.getRenewalDays(clientsCaConfig),
-                                clientsCaConfig == null || clientsCaConfig.isGenerateCertificateAuthority());
+                                clientsCaConfig == null || clientsCaConfig.isGenerateCertificateAuthority(),
+                                ModelUtils.getKeyAlgorithm(clientsCaConfig));
                         clientsCa.createOrRenew(reconciliation.namespace(), reconciliation.name(),
-                                caLabels.toMap(), ownerRef);
+                                caLabels.toMap(), ownerRef, isNextCaCertTrusted(clientsCaCertSecret, Ca.ANNO_STRIMZI_IO_CLIENTS_CA_CERT_GENERATION, pods,
+                                        KafkaCluster.kafkaClusterName(name)));
 
                         secretOperations.reconcile(reconciliation.namespace(), clusterCaCertName, this.clusterCa.caCertSecret())
                                 .compose(ignored -> secretOperations.reconcile(reconciliation.namespace(), clusterCaKeyName, this.clusterCa.caKeySecret()))
@@ -341,6 +383,33 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
             return result;
         }
 
+        private boolean isNextCaCertPending(Secret caCertSecret) {
+            return podOperations != null && caCertSecret != null && caCertSecret.getData() != null
+                    && caCertSecret.getData().containsKey(Ca.CA_NEXT_CRT);
+        }
+
+        /**
+         * @return Whether the given CA certificate Secret has a {@link Ca#CA_NEXT_CRT} which all the given pods of
+         * the given StatefulSets and Deployments trust, because they have been rolled, or have reloaded their
+         * certificates, since the CA certificate generation was bumped to add it.
+         */
+        private boolean isNextCaCertTrusted(Secret caCertSecret, String podAnnotation, List<Pod> pods, String... podSetNames) {
+            if (!isNextCaCertPending(caCertSecret)) {
+                return false;
+            }
+            int caCertGeneration = Annotations.intAnnotation(caCertSecret, Ca.ANNO_STRIMZI_IO_CA_CERT_GENERATION, Ca.INIT_GENERATION);
+            List<String> names = Arrays.asList(podSetNames);
+            for (Pod pod : pods) {
+                if (names.contains(Labels.name(pod))
+                        && Annotations.intAnnotation(pod, podAnnotation, Ca.INIT_GENERATION) < caCertGeneration) {
+                    log.debug("{}: Pod {} does not trust the new CA certificate of {} yet", reconciliation,
+                            pod.getMetadata().getName(), caCertSecret.getMetadata().getName());
+                    return false;
+                }
+            }
+            return true;
+        }
+
         Future<ReconciliationState> kafkaManualRollingUpdate() {
             Future<StatefulSet> futss = kafkaSetOperations.getAsync(namespace, KafkaCluster.kafkaClusterName(name));
             if (futss != null) {
@@ -763,7 +832,7 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
         Future<ReconciliationState> getZookeeperDescription() {
             Future<ReconciliationState> fut = Future.future();
 
-            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").executeBlocking(
+            executeBlocking(reconciliation,
                 future -> {
                     try {
                         this.zkCluster = ZookeeperCluster.fromCrd(kafkaAssembly, versions);
@@ -800,6 +869,15 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
             });
         }
 
+        /**
+         * A safe point at which the reconciliation stops if it has been cancelled because a newer
+         * generation of the Kafka resource is waiting to be reconciled.
+         * Steps before this point have been applied, and the next reconciliation carries on from them.
+         */
+        Future<ReconciliationState> checkCancelled() {
+            return KafkaAssemblyOperator.this.checkCancelled(reconciliation, this);
+        }
+
         Future<ReconciliationState> withVoid(Future<?> r) {
             return r.map(this);
         }
@@ -819,12 +897,12 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
         Future<ReconciliationState> getReconciliationStateOfConfigMap(AbstractModel cluster, ConfigMap configMap, BiFunction<Boolean, Future<ReconcileResult<ConfigMap>>, Future<ReconciliationState>> function) {
             Future<ReconciliationState> result = Future.future();
 
-            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").<Boolean>executeBlocking(
+            KafkaAssemblyOperator.this.<Boolean>executeBlocking(reconciliation,
                 future -> {
                     ConfigMap current = configMapOperations.get(namespace, cluster.getAncillaryConfigName());
                     boolean onlyMetricsSettingChanged = onlyMetricsSettingChanged(current, configMap);
                     future.complete(onlyMetricsSettingChanged);
-                }, res -> {
+                }, true, res -> {
                     if (res.succeeded())  {
                         boolean onlyMetricsSettingChanged = res.result();
                         function.apply(onlyMetricsSettingChanged, configMapOperations.reconcile(namespace, cluster.getAncillaryConfigName(), configMap)).setHandler(res2 -> {
@@ -861,9 +939,9 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
         }
 
         Future<ReconciliationState> zkRollingUpdate(Supplier<Date> dateSupplier) {
-            return withVoid(zkSetOperations.maybeRollingUpdate(zkDiffs.resource(), pod ->
+            return withVoid(zkSetOperations.maybeRollingUpdate(zkDiffs.resource(), unlessCancelled(reconciliation, pod ->
                 isPodToRestart(zkDiffs.resource(), pod, zkAncillaryCmChange, dateSupplier, this.clusterCa)
-            ));
+            )));
         }
 
         Future<ReconciliationState> zkScaleUp() {
@@ -908,7 +986,7 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
         private Future<ReconciliationState> getKafkaClusterDescription() {
             Future<ReconciliationState> fut = Future.future();
 
-            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").<ReconciliationState>executeBlocking(
+            KafkaAssemblyOperator.this.<ReconciliationState>executeBlocking(reconciliation,
                 future -> {
                     try {
                         this.kafkaCluster = KafkaCluster.fromCrd(kafkaAssembly, versions);
@@ -986,8 +1064,46 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
             return withVoid(replacementFut);
         }
 
+        /**
+         * Removes the brokers which the Kafka resource no longer asks for, once none of the partitions has replicas
+         * on them. Until then, the replicas are moved off them by a throttled reassignment, and the brokers are kept,
+         * with the progress recorded on the StatefulSet (see {@link #kafkaStatefulSet()}).
+         */
         Future<ReconciliationState> kafkaScaleDown() {
-            return withVoid(kafkaSetOperations.scaleDown(namespace, kafkaCluster.getName(), kafkaCluster.getReplicas()));
+            int replicas = kafkaCluster.getReplicas();
+            StatefulSet ss = reassignmentOperations == null ? null : kafkaSetOperations.get(namespace, kafkaCluster.getName());
+            if (ss == null || ss.getSpec().getReplicas() <= replicas) {
+                return withVoid(kafkaSetOperations.scaleDown(namespace, kafkaCluster.getName(), replicas));
+            }
+            int currentReplicas = ss.getSpec().getReplicas();
+            Secret brokersSecret = secretOperations.get(namespace, KafkaCluster.brokersSecretName(name));
+            if (brokersSecret == null) {
+                return Future.failedFuture("Cannot move partitions off the brokers to be removed without the Secret "
+                        + KafkaCluster.brokersSecretName(name));
+            }
+            Future<Integer> drained = Future.future();
+            KafkaAssemblyOperator.this.<Integer>executeBlocking(reconciliation,
+                future -> {
+                    try {
+                        future.complete(reassignmentOperations.drainBrokers(namespace, name, replicas,
+                                clusterCa.caCertSecret(), brokersSecret));
+                    } catch (Throwable e) {
+                        future.fail(e);
+                    }
+                },
+                false,
+                drained.completer());
+            return drained.compose(partitionsToMove -> {
+                if (partitionsToMove == 0) {
+                    return withVoid(kafkaSetOperations.scaleDown(namespace, kafkaCluster.getName(), replicas));
+                }
+                log.info("{}: Keeping {} brokers until {} partitions have been moved off brokers {} to {}",
+                        reconciliation, currentReplicas, partitionsToMove, replicas, currentReplicas - 1);
+                this.kafkaScaleDownTo = replicas;
+                this.kafkaPartitionsToMove = partitionsToMove;
+                kafkaCluster.keepReplicas(currentReplicas);
+                return Future.succeededFuture(this);
+            });
         }
 
         Future<ReconciliationState> kafkaService() {
@@ -1049,54 +1165,32 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
                 return withVoid(Future.succeededFuture());
             }
 
-            Future blockingFuture = Future.future();
+            String serviceName = KafkaCluster.externalBootstrapServiceName(name);
+            Future<Void> address = null;
 
-            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").executeBlocking(
-                future -> {
-                    String serviceName = KafkaCluster.externalBootstrapServiceName(name);
-                    Future<Void> address = null;
-
-                    if (kafkaCluster.isExposedWithNodePort()) {
-                        address = serviceOperations.hasNodePort(namespace, serviceName, 1_000, operationTimeoutMs);
-                    } else {
-                        address = serviceOperations.hasIngressAddress(namespace, serviceName, 1_000, operationTimeoutMs);
-                    }
-
-                    address.setHandler(res -> {
-                        if (res.succeeded()) {
-                            String bootstrapAddress = null;
-
-                            if (kafkaCluster.isExposedWithLoadBalancer()) {
-                                if (serviceOperations.get(namespace, serviceName).getStatus().getLoadBalancer().getIngress().get(0).getHostname() != null) {
-                                    bootstrapAddress = serviceOperations.get(namespace, serviceName).getStatus().getLoadBalancer().getIngress().get(0).getHostname();
-                                } else {
-                                    bootstrapAddress = serviceOperations.get(namespace, serviceName).getStatus().getLoadBalancer().getIngress().get(0).getIp();
-                                }
+            if (kafkaCluster.isExposedWithNodePort()) {
+                address = serviceOperations.hasNodePort(namespace, serviceName, 1_000, operationTimeoutMs);
+            } else {
+                address = serviceOperations.hasIngressAddress(namespace, serviceName, 1_000, operationTimeoutMs);
+            }
 
-                                this.kafkaExternalBootstrapDnsName = bootstrapAddress;
-                            } else if (kafkaCluster.isExposedWithNodePort()) {
-                                bootstrapAddress = serviceOperations.get(namespace, serviceName).getSpec().getPorts().get(0).getNodePort().toString();
-                            }
+            return withVoid(whenAddressReady(address, "Service", serviceName, () -> {
+                String bootstrapAddress = null;
+                Service service = serviceOperations.get(namespace, serviceName);
 
-                            if (log.isTraceEnabled()) {
-                                log.trace("{}: Found address {} for Service {}", reconciliation, bootstrapAddress, serviceName);
-                            }
+                if (kafkaCluster.isExposedWithLoadBalancer()) {
+                    String hostname = service.getStatus().getLoadBalancer().getIngress().get(0).getHostname();
+                    bootstrapAddress = hostname != null ? hostname : service.getStatus().getLoadBalancer().getIngress().get(0).getIp();
 
-                            future.complete();
-                        } else {
-                            log.warn("{}: No address found for Service {}", reconciliation, serviceName);
-                            future.fail("No address found for Service " + serviceName);
-                        }
-                    });
-                }, res -> {
-                    if (res.succeeded())    {
-                        blockingFuture.complete();
-                    } else  {
-                        blockingFuture.fail(res.cause());
-                    }
-                });
+                    this.kafkaExternalBootstrapDnsName = bootstrapAddress;
+                } else if (kafkaCluster.isExposedWithNodePort()) {
+                    bootstrapAddress = service.getSpec().getPorts().get(0).getNodePort().toString();
+                }
 
-            return withVoid(blockingFuture);
+                if (log.isTraceEnabled()) {
+                    log.trace("{}: Found address {} for Service {}", reconciliation, bootstrapAddress, serviceName);
+                }
+            }));
         }
 
         Future<ReconciliationState> kafkaReplicaServicesReady() {
@@ -1104,76 +1198,44 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
                 return withVoid(Future.succeededFuture());
             }
 
-            Future blockingFuture = Future.future();
-
-            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").executeBlocking(
-                future -> {
-                    int replicas = kafkaCluster.getReplicas();
-                    List<Future> routeFutures = new ArrayList<>(replicas);
-
-                    for (int i = 0; i < replicas; i++) {
-                        String serviceName = KafkaCluster.externalServiceName(name, i);
-                        Future routeFuture = Future.future();
-
-                        Future<Void> address = null;
-
-                        if (kafkaCluster.isExposedWithNodePort()) {
-                            address = serviceOperations.hasNodePort(namespace, serviceName, 1_000, operationTimeoutMs);
-                        } else {
-                            address = serviceOperations.hasIngressAddress(namespace, serviceName, 1_000, operationTimeoutMs);
-                        }
-
-                        int podNumber = i;
-
-                        address.setHandler(res -> {
-                            if (res.succeeded()) {
-                                String serviceAddress = null;
-                                if (kafkaCluster.isExposedWithLoadBalancer()) {
-                                    if (serviceOperations.get(namespace, serviceName).getStatus().getLoadBalancer().getIngress().get(0).getHostname() != null) {
-                                        serviceAddress = serviceOperations.get(namespace, serviceName).getStatus().getLoadBalancer().getIngress().get(0).getHostname();
-                                    } else {
-                                        serviceAddress = serviceOperations.get(namespace, serviceName).getStatus().getLoadBalancer().getIngress().get(0).getIp();
-                                    }
+            int replicas = kafkaCluster.getReplicas();
+            List<Future> routeFutures = new ArrayList<>(replicas);
 
-                                    if (kafkaCluster.isExposedWithTls())    {
-                                        this.kafkaExternalDnsNames.put(podNumber, serviceAddress);
-                                    }
-                                } else if (kafkaCluster.isExposedWithNodePort()) {
-                                    serviceAddress = serviceOperations.get(namespace, serviceName).getSpec().getPorts().get(0).getNodePort().toString();
-                                }
+            for (int i = 0; i < replicas; i++) {
+                String serviceName = KafkaCluster.externalServiceName(name, i);
+                Future<Void> address = null;
 
-                                this.kafkaExternalAddresses.put(podNumber, serviceAddress);
+                if (kafkaCluster.isExposedWithNodePort()) {
+                    address = serviceOperations.hasNodePort(namespace, serviceName, 1_000, operationTimeoutMs);
+                } else {
+                    address = serviceOperations.hasIngressAddress(namespace, serviceName, 1_000, operationTimeoutMs);
+                }
 
-                                if (log.isTraceEnabled()) {
-                                    log.trace("{}: Found address {} for Service {}", reconciliation, serviceAddress, serviceName);
-                                }
+                int podNumber = i;
 
-                                routeFuture.complete();
-                            } else {
-                                log.warn("{}: No address found for Service {}", reconciliation, serviceName);
-                                routeFuture.fail("No address found for Service " + serviceName);
-                            }
-                        });
+                routeFutures.add(whenAddressReady(address, "Service", serviceName, () -> {
+                    String serviceAddress = null;
+                    Service service = serviceOperations.get(namespace, serviceName);
+                    if (kafkaCluster.isExposedWithLoadBalancer()) {
+                        String hostname = service.getStatus().getLoadBalancer().getIngress().get(0).getHostname();
+                        serviceAddress = hostname != null ? hostname : service.getStatus().getLoadBalancer().getIngress().get(0).getIp();
 
-                        routeFutures.add(routeFuture);
+                        if (kafkaCluster.isExposedWithTls())    {
+                            this.kafkaExternalDnsNames.put(podNumber, serviceAddress);
+                        }
+                    } else if (kafkaCluster.isExposedWithNodePort()) {
+                        serviceAddress = service.getSpec().getPorts().get(0).getNodePort().toString();
                     }
 
-                    CompositeFuture.join(routeFutures).setHandler(res -> {
-                        if (res.succeeded()) {
-                            future.complete();
-                        } else  {
-                            future.fail(res.cause());
-                        }
-                    });
-                }, res -> {
-                    if (res.succeeded())    {
-                        blockingFuture.complete();
-                    } else  {
-                        blockingFuture.fail(res.cause());
+                    this.kafkaExternalAddresses.put(podNumber, serviceAddress);
+
+                    if (log.isTraceEnabled()) {
+                        log.trace("{}: Found address {} for Service {}", reconciliation, serviceAddress, serviceName);
                     }
-                });
+                }));
+            }
 
-            return withVoid(blockingFuture);
+            return withVoid(CompositeFuture.join(routeFutures));
         }
 
         Future<ReconciliationState> kafkaBootstrapRouteReady() {
@@ -1181,38 +1243,17 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
                 return withVoid(Future.succeededFuture());
             }
 
-            Future blockingFuture = Future.future();
+            String routeName = KafkaCluster.serviceName(name);
+            Future<Void> address = routeOperations.hasAddress(namespace, routeName, 1_000, operationTimeoutMs);
 
-            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").executeBlocking(
-                future -> {
-                    String routeName = KafkaCluster.serviceName(name);
-                    //Future future = Future.future();
-                    Future<Void> address = routeOperations.hasAddress(namespace, routeName, 1_000, operationTimeoutMs);
-
-                    address.setHandler(res -> {
-                        if (res.succeeded()) {
-                            String bootstrapAddress = routeOperations.get(namespace, routeName).getStatus().getIngress().get(0).getHost();
-                            this.kafkaExternalBootstrapDnsName = bootstrapAddress;
-
-                            if (log.isTraceEnabled()) {
-                                log.trace("{}: Found address {} for Route {}", reconciliation, bootstrapAddress, routeName);
-                            }
-
-                            future.complete();
-                        } else {
-                            log.warn("{}: No address found for Route {}", reconciliation, routeName);
-                            future.fail("No address found for Route " + routeName);
-                        }
-                    });
-                }, res -> {
-                    if (res.succeeded())    {
-                        blockingFuture.complete();
-                    } else  {
-                        blockingFuture.fail(res.cause());
-                    }
-                });
+            return withVoid(whenAddressReady(address, "Route", routeName, () -> {
+                String bootstrapAddress = routeOperations.get(namespace, routeName).getStatus().getIngress().get(0).getHost();
+                this.kafkaExternalBootstrapDnsName = bootstrapAddress;
 
-            return withVoid(blockingFuture);
+                if (log.isTraceEnabled()) {
+                    log.trace("{}: Found address {} for Route {}", reconciliation, bootstrapAddress, routeName);
+                }
+            }));
         }
 
         Future<ReconciliationState> kafkaReplicaRoutesReady() {
@@ -1220,60 +1261,54 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
                 return withVoid(Future.succeededFuture());
             }
 
-            Future blockingFuture = Future.future();
+            int replicas = kafkaCluster.getReplicas();
+            List<Future> routeFutures = new ArrayList<>(replicas);
 
-            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").executeBlocking(
-                future -> {
-                    int replicas = kafkaCluster.getReplicas();
-                    List<Future> routeFutures = new ArrayList<>(replicas);
-
-                    for (int i = 0; i < replicas; i++) {
-                        String routeName = KafkaCluster.externalServiceName(name, i);
-                        Future routeFuture = Future.future();
-                        Future<Void> address = routeOperations.hasAddress(namespace, routeName, 1_000, operationTimeoutMs);
-                        int podNumber = i;
-
-                        address.setHandler(res -> {
-                            if (res.succeeded()) {
-                                String routeAddress = routeOperations.get(namespace, routeName).getStatus().getIngress().get(0).getHost();
-                                this.kafkaExternalAddresses.put(podNumber, routeAddress);
-                                this.kafkaExternalDnsNames.put(podNumber, routeAddress);
-
-                                if (log.isTraceEnabled()) {
-                                    log.trace("{}: Found address {} for Route {}", reconciliation, routeAddress, routeName);
-                                }
-
-                                routeFuture.complete();
-                            } else {
-                                log.warn("{}: No address found for Route {}", reconciliation, routeName);
-                                routeFuture.fail("No address found for Route " + routeName);
-                            }
-                        });
+            for (int i = 0; i < replicas; i++) {
+                String routeName = KafkaCluster.externalServiceName(name, i);
+                Future<Void> address = routeOperations.hasAddress(namespace, routeName, 1_000, operationTimeoutMs);
+                int podNumber = i;
 
-                        routeFutures.add(routeFuture);
-                    }
+                routeFutures.add(whenAddressReady(address, "Route", routeName, () -> {
+                    String routeAddress = routeOperations.get(namespace, routeName).getStatus().getIngress().get(0).getHost();
+                    this.kafkaExternalAddresses.put(podNumber, routeAddress);
+                    this.kafkaExternalDnsNames.put(podNumber, routeAddress);
 
-                    CompositeFuture.join(routeFutures).setHandler(res -> {
-                        if (res.succeeded()) {
-                            future.complete();
-                        } else  {
-                            future.fail(res.cause());
-                        }
-                    });
-                }, res -> {
-                    if (res.succeeded())    {
-                        blockingFuture.complete();
-                    } else  {
-                        blockingFuture.fail(res.cause());
+                    if (log.isTraceEnabled()) {
+                        log.trace("{}: Found address {} for Route {}", reconciliation, routeAddress, routeName);
                     }
-                });
+                }));
+            }
+
+            return withVoid(CompositeFuture.join(routeFutures));
+        }
 
-            return withVoid(blockingFuture);
+        /**
+         * Once the given {@code address} future succeeds, runs the blocking {@code lookup} of the address within the
+         * bulkhead of the assembly. Waiting for a load balancer or route to get its address can take minutes, so the
+         * wait happens outside the bulkhead and does not hold one of the assembly's permits.
+         */
+        private Future<Void> whenAddressReady(Future<Void> address, String kind, String resourceName, Runnable lookup) {
+            Future<Void> result = Future.future();
+            address.setHandler(res -> {
+                if (res.succeeded()) {
+                    KafkaAssemblyOperator.this.<Void>executeBlocking(reconciliation,
+                        future -> {
+                            lookup.run();
+                            future.complete();
+                        }, true,
+                        result.completer());
+                } else {
+                    log.warn("{}: No address found for {} {}", reconciliation, kind, resourceName);
+                    result.fail("No address found for " + kind + " " + resourceName);
+                }
+            });
+            return result;
         }
 
         Future<ReconciliationState> kafkaGenerateCertificates() {
             Future<ReconciliationState> result = Future.future();
-            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").<ReconciliationState>executeBlocking(
+            KafkaAssemblyOperator.this.<ReconciliationState>executeBlocking(reconciliation,
                 future -> {
                     try {
                         if (kafkaCluster.isExposedWithNodePort()) {
@@ -1298,7 +1333,8 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
         }
 
         Future<ReconciliationState> kafkaBrokersSecret() {
-            return withVoid(secretOperations.reconcile(namespace, KafkaCluster.brokersSecretName(name), kafkaCluster.generateBrokersSecret()));
+            this.kafkaBrokersSecret = kafkaCluster.generateBrokersSecret();
+            return withVoid(secretOperations.reconcile(namespace, KafkaCluster.brokersSecretName(name), kafkaBrokersSecret));
         }
 
         Future<ReconciliationState> kafkaNetPolicy() {
@@ -1315,13 +1351,141 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
             Annotations.annotations(template).put(
                     Ca.ANNO_STRIMZI_IO_CLIENTS_CA_CERT_GENERATION,
                     String.valueOf(getCaCertGeneration(this.clientsCa)));
+            if (kafkaPartitionsToMove > 0) {
+                Annotations.annotations(kafkaSs).put(KafkaCluster.ANNO_STRIMZI_IO_SCALE_DOWN_TO, String.valueOf(kafkaScaleDownTo));
+                Annotations.annotations(kafkaSs).put(KafkaCluster.ANNO_STRIMZI_IO_PARTITIONS_TO_MOVE, String.valueOf(kafkaPartitionsToMove));
+            }
             return withKafkaDiff(kafkaSetOperations.reconcile(namespace, kafkaCluster.getName(), kafkaSs));
         }
 
+        /**
+         * Brings the dynamic configuration of each broker in line with {@code Kafka.spec.kafka.config} when the
+         * configuration has changed since the broker was started or last updated. Changes to dynamic options alone
+         * don't cause rolling updates (see {@link KafkaSetOperator#changesOnlyDynamicConfiguration(StatefulSet, StatefulSet)}),
+         * so this is how they reach the brokers. Brokers which are about to be restarted for other reasons are updated
+         * as well, so that they don't keep dynamic values of options which have been changed or removed since.
+         * The brokers which fail to be updated are restarted by {@link #kafkaRollingUpdate(Supplier)} instead.
+         */
+        Future<ReconciliationState> kafkaDynamicConfiguration() {
+            StatefulSet ss = kafkaDiffs.resource();
+            String version = ss != null ? Annotations.annotations(ss).get(ANNO_STRIMZI_IO_KAFKA_VERSION) : null;
+            if (brokerConfigOperations == null || version == null) {
+                return Future.succeededFuture(this);
+            }
+            KafkaConfiguration desired = KafkaConfiguration.unvalidated(
+                    ModelUtils.getKafkaContainerEnv(ss).getOrDefault(ENV_VAR_KAFKA_CONFIGURATION, ""));
+            Future<Void> f = Future.succeededFuture();
+            for (int i = 0; i < ss.getSpec().getReplicas(); i++) {
+                int podId = i;
+                f = f.compose(ignored -> maybeUpdateDynamicConfiguration(podId, desired, version));
+            }
+            return withVoid(f);
+        }
+
+        private Future<Void> maybeUpdateDynamicConfiguration(int podId, KafkaConfiguration desired, String version) {
+            String podName = KafkaCluster.kafkaPodName(name, podId);
+            Pod pod = kafkaSetOperations.getPod(namespace, podName);
+            if (pod == null) {
+                return Future.succeededFuture();
+            }
+            String startedDigest = KafkaConfiguration.unvalidated(
+                    ModelUtils.getKafkaContainerEnv(pod).getOrDefault(ENV_VAR_KAFKA_CONFIGURATION, "")).digest();
+            String currentDigest = Annotations.annotations(pod).getOrDefault(ANNO_STRIMZI_IO_KAFKA_CONFIGURATION_DIGEST, startedDigest);
+            String desiredDigest = desired.digest();
+            if (desiredDigest.equals(currentDigest)) {
+                return Future.succeededFuture();
+            }
+            log.debug("{}: Updating the dynamic configuration of pod {}", reconciliation, podName);
+            return brokerConfigOperations.updateBrokerConfig(workerExecutor(reconciliation), namespace, name, podId,
+                        clusterCa.caCertSecret(), kafkaBrokersSecret, desired.dynamicConfiguration(version))
+                .compose(ignored -> kafkaSetOperations.annotatePod(namespace, podName,
+                        singletonMap(ANNO_STRIMZI_IO_KAFKA_CONFIGURATION_DIGEST, desiredDigest)))
+                .map(ignored -> {
+                    log.info("{}: Pod {} updated its dynamic configuration", reconciliation, podName);
+                    return (Void) null;
+                })
+                .recover(error -> {
+                    if (desiredDigest.equals(startedDigest)) {
+                        // Restarting wouldn't help, the dynamic configuration outlives the broker
+                        log.warn("{}: Pod {} could not update its dynamic configuration", reconciliation, podName, error);
+                    } else if (error instanceof BrokerConfigOperator.DynamicUpdateUnsupportedException) {
+                        log.info("{}: Pod {} will be restarted to change its configuration, its dynamic configuration cannot be updated: {}",
+                                reconciliation, podName, error.getMessage());
+                        kafkaPodsWithStaleConfiguration.add(podName);
+                    } else {
+                        log.warn("{}: Pod {} could not update its dynamic configuration and will be restarted instead", reconciliation, podName, error);
+                        kafkaPodsWithStaleConfiguration.add(podName);
+                    }
+                    return Future.succeededFuture();
+                });
+        }
+
+        /**
+         * Makes the brokers which would otherwise be restarted only because of changes to the cluster or clients CA
+         * certificates reload their keystore and truststores instead, and records the new CA certificate generations
+         * on their pods. The brokers which fail to reload them, or which haven't reloaded them within the operation
+         * timeout, over all the brokers, are restarted by {@link #kafkaRollingUpdate(Supplier)}.
+         */
+        Future<ReconciliationState> kafkaReloadCertificates() {
+            StatefulSet ss = kafkaDiffs.resource();
+            if (brokerConfigOperations == null || kafkaAncillaryCmChange || ss == null) {
+                return Future.succeededFuture(this);
+            }
+            long deadline = System.currentTimeMillis() + operationTimeoutMs;
+            Future<Void> f = Future.succeededFuture();
+            for (int i = 0; i < ss.getSpec().getReplicas(); i++) {
+                int podId = i;
+                f = f.compose(ignored -> maybeReloadCertificates(ss, podId, deadline));
+            }
+            return withVoid(f);
+        }
+
+        private Future<Void> maybeReloadCertificates(StatefulSet ss, int podId, long deadline) {
+            String podName = KafkaCluster.kafkaPodName(name, podId);
+            Pod pod = kafkaSetOperations.getPod(namespace, podName);
+            if (pod == null || !isPodUpToDate(ss, pod) || !isCaCertsChangePending(pod, this.clusterCa, this.clientsCa)) {
+                return Future.succeededFuture();
+            }
+            long timeLeft = deadline - System.currentTimeMillis();
+            if (timeLeft <= 0) {
+                log.info("{}: No time left to reload the certificates of pod {}, it will be restarted instead", reconciliation, podName);
+                return Future.succeededFuture();
+            }
+            log.debug("{}: Reloading certificates of pod {}", reconciliation, podName);
+            Map<String, String> caCertGenerations = new HashMap<>(2);
+            caCertGenerations.put(Ca.ANNO_STRIMZI_IO_CLUSTER_CA_CERT_GENERATION, String.valueOf(getCaCertGeneration(this.clusterCa)));
+            caCertGenerations.put(Ca.ANNO_STRIMZI_IO_CLIENTS_CA_CERT_GENERATION, String.valueOf(getCaCertGeneration(this.clientsCa)));
+            return brokerConfigOperations.reloadTlsStores(workerExecutor(reconciliation), namespace, name, podId,
+                        clusterCa.caCertSecret(), kafkaBrokersSecret,
+                        kafkaCluster.generateTlsStoresConfiguration(podId, clusterCa.caCertSecret(), clientsCa.caCertSecret(), kafkaBrokersSecret),
+                        timeLeft)
+                .compose(ignored -> kafkaSetOperations.annotatePod(namespace, podName, caCertGenerations))
+                .map(ignored -> {
+                    log.info("{}: Pod {} reloaded its certificates", reconciliation, podName);
+                    kafkaPodsWithReloadedCertificates.add(podName);
+                    return (Void) null;
+                })
+                .recover(error -> {
+                    log.warn("{}: Pod {} could not reload its certificates and will be restarted instead", reconciliation, podName, error);
+                    return Future.succeededFuture();
+                });
+        }
+
         Future<ReconciliationState> kafkaRollingUpdate(Supplier<Date> dateSupplier) {
-            return withVoid(kafkaSetOperations.maybeRollingUpdate(kafkaDiffs.resource(), pod ->
-                isPodToRestart(kafkaDiffs.resource(), pod, kafkaAncillaryCmChange, dateSupplier, this.clusterCa, this.clientsCa)
-            ));
+            return withVoid(kafkaSetOperations.maybeRollingUpdate(kafkaDiffs.resource(), unlessCancelled(reconciliation, pod ->
+                isKafkaPodToRestart(pod, dateSupplier)
+            )));
+        }
+
+        private boolean isKafkaPodToRestart(Pod pod, Supplier<Date> dateSupplier) {
+            String podName = pod.getMetadata().getName();
+            if (kafkaPodsWithStaleConfiguration.contains(podName) && isMaintenanceTimeWindowsSatisfied(dateSupplier)) {
+                log.debug("{}: Rolling pod {} due to failed dynamic configuration update", reconciliation, podName);
+                return true;
+            }
+            return kafkaPodsWithReloadedCertificates.contains(podName) ?
+                    isPodToRestart(kafkaDiffs.resource(), pod, kafkaAncillaryCmChange, dateSupplier) :
+                    isPodToRestart(kafkaDiffs.resource(), pod, kafkaAncillaryCmChange, dateSupplier, this.clusterCa, this.clientsCa);
         }
 
         Future<ReconciliationState> kafkaScaleUp() {
@@ -1336,6 +1500,62 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
             return withVoid(serviceOperations.endpointReadiness(namespace, kafkaHeadlessService, 1_000, operationTimeoutMs));
         }
 
+        /**
+         * Moves partition replicas onto the brokers which host fewer than their share of them, such as the brokers
+         * added by {@link #kafkaScaleUp()}, when the Kafka resource has a rebalancing policy, or is annotated with
+         * {@link #ANNO_STRIMZI_IO_REBALANCE}. Each reconciliation starts a bounded reassignment, or adjusts the
+         * throttle of the running one, so all the partitions of the cluster are rebalanced through the same
+         * reassignments, which the rebalances requested from the Topic Operator wait for. Nothing is moved while
+         * brokers are being drained by {@link #kafkaScaleDown()}.
+         */
+        Future<ReconciliationState> kafkaRebalance() {
+            boolean requested = Annotations.booleanAnnotation(kafkaAssembly, ANNO_STRIMZI_IO_REBALANCE, false);
+            KafkaRebalancing policy = kafkaCluster.getRebalancing() != null ? kafkaCluster.getRebalancing()
+                    : requested ? new KafkaRebalancing() : null;
+            if (policy == null || reassignmentOperations == null || kafkaPartitionsToMove > 0) {
+                return Future.succeededFuture(this);
+            }
+            Secret brokersSecret = secretOperations.get(namespace, KafkaCluster.brokersSecretName(name));
+            if (brokersSecret == null) {
+                return Future.failedFuture("Cannot move partitions onto the brokers without the Secret "
+                        + KafkaCluster.brokersSecretName(name));
+            }
+            Future<Integer> rebalanced = Future.future();
+            KafkaAssemblyOperator.this.<Integer>executeBlocking(reconciliation,
+                future -> {
+                    try {
+                        future.complete(reassignmentOperations.rebalanceBrokers(namespace, name, kafkaCluster.getReplicas(),
+                                policy, clusterCa.caCertSecret(), brokersSecret));
+                    } catch (Throwable e) {
+                        future.fail(e);
+                    }
+                },
+                false,
+                rebalanced.completer());
+            return rebalanced.compose(partitionsToMove -> {
+                if (partitionsToMove > 0) {
+                    log.debug("{}: {} partitions are being moved onto the brokers which host fewer than their share",
+                            reconciliation, partitionsToMove);
+                } else if (partitionsToMove == 0 && requested) {
+                    log.info("{}: Rebalance of the cluster complete", reconciliation);
+                    return withVoid(removeRebalanceAnnotation());
+                }
+                return Future.succeededFuture(this);
+            });
+        }
+
+        /** Removes {@link #ANNO_STRIMZI_IO_REBALANCE} from the current Kafka resource, which may have changed since it was read */
+        private Future<Void> removeRebalanceAnnotation() {
+            return resourceOperator.getAsync(namespace, name).compose(current -> {
+                if (current == null || !Annotations.annotations(current).containsKey(ANNO_STRIMZI_IO_REBALANCE)) {
+                    return Future.<Void>succeededFuture();
+                }
+                Kafka withoutAnnotation = new KafkaBuilder(current).build();
+                Annotations.annotations(withoutAnnotation).remove(ANNO_STRIMZI_IO_REBALANCE);
+                return resourceOperator.reconcile(namespace, name, withoutAnnotation).map((Void) null);
+            });
+        }
+
         Future<ReconciliationState> kafkaManualPodCleaning() {
             String reason = "manual pod cleaning";
             Future<StatefulSet> futss = kafkaSetOperations.getAsync(namespace, KafkaCluster.kafkaClusterName(name));
@@ -1354,7 +1574,7 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
         private final Future<ReconciliationState> getTopicOperatorDescription() {
             Future<ReconciliationState> fut = Future.future();
 
-            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").<ReconciliationState>executeBlocking(
+            KafkaAssemblyOperator.this.<ReconciliationState>executeBlocking(reconciliation,
                 future -> {
                     try {
                         this.topicOperator = TopicOperator.fromCrd(kafkaAssembly);
@@ -1442,7 +1662,7 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
         private final Future<ReconciliationState> getEntityOperatorDescription() {
             Future<ReconciliationState> fut = Future.future();
 
-            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").<ReconciliationState>executeBlocking(
+            KafkaAssemblyOperator.this.<ReconciliationState>executeBlocking(reconciliation,
                 future -> {
                     try {
                         EntityOperator entityOperator = EntityOperator.fromCrd(kafkaAssembly);
@@ -1575,6 +1795,18 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
             return caCertGeneration == podCaCertGeneration;
         }
 
+        /**
+         * @return Whether the pod has to be brought up to date with changes to the certificates of the given CAs.
+         */
+        private boolean isCaCertsChangePending(Pod pod, Ca... cas) {
+            for (Ca ca : cas) {
+                if (ca.certRenewed() || ca.certsRemoved() || !isPodCaCertUpToDate(pod, ca)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         private boolean isPodToRestart(StatefulSet ss, Pod pod, boolean isAncillaryCmChange, Supplier<Date> dateSupplier, Ca... cas) {
             boolean isPodUpToDate = isPodUpToDate(ss, pod);
             boolean isPodCaCertUpToDate = true;
@@ -1723,9 +1955,13 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
     }
 
     @Override
-    protected List<HasMetadata> getResources(String namespace, Labels selector) {
-        // TODO: Search for PVCs!
-        return Collections.EMPTY_LIST;
+    protected void getOwnedResourceMetadata(String namespace, Labels selector, BiConsumer<String, ObjectMeta> consumer) {
+        // The ZooKeeper and Kafka StatefulSets are both listed by either StatefulSet operator
+        kafkaSetOperations.listMetadata(namespace, selector, metadata -> consumer.accept("StatefulSet", metadata));
+        serviceOperations.listMetadata(namespace, selector, metadata -> consumer.accept("Service", metadata));
+        configMapOperations.listMetadata(namespace, selector, metadata -> consumer.accept("ConfigMap", metadata));
+        deploymentOperations.listMetadata(namespace, selector, metadata -> consumer.accept("Deployment", metadata));
+        secretOperations.listMetadata(namespace, selector, metadata -> consumer.accept("Secret", metadata));
     }
 
     private Date dateSupplier() {
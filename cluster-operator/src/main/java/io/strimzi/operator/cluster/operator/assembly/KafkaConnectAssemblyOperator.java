@@ -5,7 +5,7 @@
 package io.strimzi.operator.cluster.operator.assembly;
 
 import io.fabric8.kubernetes.api.model.ConfigMap;
-import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.Resource;
 import io.strimzi.api.kafka.KafkaConnectAssemblyList;
@@ -30,10 +30,9 @@ import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 /**
  * <p>Assembly operator for a "Kafka Connect" assembly, which manages:</p>
@@ -110,7 +109,9 @@ public class KafkaConnectAssemblyOperator extends AbstractAssemblyOperator<Kuber
     }
 
     @Override
-    protected List<HasMetadata> getResources(String namespace, Labels selector) {
-        return Collections.EMPTY_LIST;
+    protected void getOwnedResourceMetadata(String namespace, Labels selector, BiConsumer<String, ObjectMeta> consumer) {
+        deploymentOperations.listMetadata(namespace, selector, metadata -> consumer.accept("Deployment", metadata));
+        serviceOperations.listMetadata(namespace, selector, metadata -> consumer.accept("Service", metadata));
+        configMapOperations.listMetadata(namespace, selector, metadata -> consumer.accept("ConfigMap", metadata));
     }
 }
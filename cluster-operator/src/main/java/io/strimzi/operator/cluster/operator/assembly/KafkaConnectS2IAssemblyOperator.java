@@ -5,7 +5,7 @@
 package io.strimzi.operator.cluster.operator.assembly;
 
 import io.fabric8.kubernetes.api.model.ConfigMap;
-import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.openshift.client.OpenShiftClient;
 import io.strimzi.api.kafka.KafkaConnectS2IAssemblyList;
@@ -32,9 +32,8 @@ import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
+import java.util.function.BiConsumer;
 
 /**
  * <p>Assembly operator for a "Kafka Connect S2I" assembly, which manages:</p>
@@ -126,8 +125,12 @@ public class KafkaConnectS2IAssemblyOperator extends AbstractAssemblyOperator<Op
     }
 
     @Override
-    protected List<HasMetadata> getResources(String namespace, Labels selector) {
-        return Collections.EMPTY_LIST;
+    protected void getOwnedResourceMetadata(String namespace, Labels selector, BiConsumer<String, ObjectMeta> consumer) {
+        deploymentConfigOperations.listMetadata(namespace, selector, metadata -> consumer.accept("DeploymentConfig", metadata));
+        serviceOperations.listMetadata(namespace, selector, metadata -> consumer.accept("Service", metadata));
+        configMapOperations.listMetadata(namespace, selector, metadata -> consumer.accept("ConfigMap", metadata));
+        imagesStreamOperations.listMetadata(namespace, selector, metadata -> consumer.accept("ImageStream", metadata));
+        buildConfigOperations.listMetadata(namespace, selector, metadata -> consumer.accept("BuildConfig", metadata));
     }
 
 }
@@ -5,7 +5,7 @@
 package io.strimzi.operator.cluster.operator.assembly;
 
 import io.fabric8.kubernetes.api.model.ConfigMap;
-import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.Resource;
 import io.strimzi.api.kafka.KafkaMirrorMakerList;
@@ -30,10 +30,10 @@ import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * <p>Assembly operator for a "Kafka Mirror Maker" assembly, which manages:</p>
@@ -111,11 +111,12 @@ public class KafkaMirrorMakerAssemblyOperator extends AbstractAssemblyOperator<K
     }
 
     @Override
-    protected List<HasMetadata> getResources(String namespace, Labels selector) {
-        List<HasMetadata> result = new ArrayList<>();
-        result.addAll(deploymentOperations.list(namespace, selector));
-        result.addAll(resourceOperator.list(namespace, selector));
-        
-        return result;
+    protected void getOwnedResourceMetadata(String namespace, Labels selector, BiConsumer<String, ObjectMeta> consumer) {
+        deploymentOperations.listMetadata(namespace, selector, metadata -> consumer.accept("Deployment", metadata));
+    }
+
+    @Override
+    protected void getResourceMetadata(String namespace, Labels selector, Consumer<ObjectMeta> consumer) {
+        deploymentOperations.listMetadata(namespace, selector, consumer);
     }
 }
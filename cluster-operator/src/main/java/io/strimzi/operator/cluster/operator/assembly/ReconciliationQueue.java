@@ -0,0 +1,247 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.assembly;
+
+import io.strimzi.operator.common.metrics.MetricsRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * <p>A queue of reconciliations, keyed by assembly.</p>
+ *
+ * <ul>
+ *     <li>At most one reconciliation per key runs at once, and at most one more waits behind it:
+ *     a reconciliation requested while another for the same key is waiting is merged into the waiting one.</li>
+ *     <li>At most {@code maxConcurrentReconciliations} reconciliations run at once, over all keys.</li>
+ *     <li>Reconciliations triggered by watch events start before periodic ones.</li>
+ * </ul>
+ */
+public class ReconciliationQueue {
+
+    private static final Logger log = LogManager.getLogger(ReconciliationQueue.class.getName());
+
+    public static final int DEFAULT_MAX_CONCURRENT_RECONCILIATIONS = 10;
+
+    private final Vertx vertx;
+    private final int maxConcurrentReconciliations;
+
+    private final Map<String, Key> keys = new HashMap<>();
+    private final Deque<Work> watchQueue = new ArrayDeque<>();
+    private final Deque<Work> timerQueue = new ArrayDeque<>();
+    private int running;
+    private int waiting;
+
+    private long started;
+    private long merged;
+    private long totalWaitMs;
+    private long maxWaitMs;
+
+    /**
+     * @param vertx The Vertx instance
+     * @param maxConcurrentReconciliations The maximum number of reconciliations to run at once
+     */
+    public ReconciliationQueue(Vertx vertx, int maxConcurrentReconciliations) {
+        if (maxConcurrentReconciliations <= 0) {
+            throw new IllegalArgumentException("maxConcurrentReconciliations must be positive");
+        }
+        this.vertx = vertx;
+        this.maxConcurrentReconciliations = maxConcurrentReconciliations;
+    }
+
+    /**
+     * Queues a reconciliation.
+     * @param key Identifies the assembly being reconciled.
+     * @param watch True if the reconciliation was triggered by a watch event (rather than by the timer).
+     * @param reconciliation Starts the reconciliation, returning a future which completes when it has finished.
+     * @param handler Called with the result of the reconciliation.
+     * If this request is merged into one which is already waiting the handler is called with the result of that.
+     */
+    public void enqueue(String key, boolean watch, Supplier<Future<Void>> reconciliation, Handler<AsyncResult<Void>> handler) {
+        synchronized (this) {
+            Key state = keys.computeIfAbsent(key, k -> new Key());
+            Work work = state.waiting;
+            if (work != null) {
+                merged++;
+                work.handlers.add(handler);
+                // A periodic reconciliation may skip work which a watch-triggered one must not
+                if (watch || !work.watch) {
+                    work.reconciliation = reconciliation;
+                }
+                if (watch && !work.watch) {
+                    work.watch = true;
+                    if (timerQueue.remove(work)) {
+                        watchQueue.add(work);
+                    }
+                }
+                log.debug("Reconciliation of {} merged into the waiting one", key);
+            } else {
+                work = new Work(key, watch, reconciliation, handler);
+                state.waiting = work;
+                waiting++;
+                if (!state.running) {
+                    (watch ? watchQueue : timerQueue).add(work);
+                } else {
+                    log.debug("Reconciliation of {} will wait for the running one", key);
+                }
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Starts as many waiting reconciliations as the concurrency limit allows.
+     */
+    private void dispatch() {
+        List<Work> toStart = new ArrayList<>(1);
+        synchronized (this) {
+            while (running < maxConcurrentReconciliations) {
+                Work work = watchQueue.poll();
+                if (work == null) {
+                    work = timerQueue.poll();
+                }
+                if (work == null) {
+                    break;
+                }
+                Key state = keys.get(work.key);
+                state.waiting = null;
+                state.running = true;
+                waiting--;
+                running++;
+                started++;
+                long waitMs = System.currentTimeMillis() - work.enqueuedAt;
+                totalWaitMs += waitMs;
+                maxWaitMs = Math.max(maxWaitMs, waitMs);
+                toStart.add(work);
+            }
+        }
+        for (Work work : toStart) {
+            vertx.runOnContext(ignored -> start(work));
+        }
+    }
+
+    private void start(Work work) {
+        Future<Void> result;
+        try {
+            result = work.reconciliation.get();
+        } catch (Throwable e) {
+            result = Future.failedFuture(e);
+        }
+        result.setHandler(res -> {
+            synchronized (this) {
+                running--;
+                Key state = keys.get(work.key);
+                state.running = false;
+                if (state.waiting != null) {
+                    (state.waiting.watch ? watchQueue : timerQueue).add(state.waiting);
+                } else {
+                    keys.remove(work.key);
+                }
+            }
+            for (Handler<AsyncResult<Void>> handler : work.handlers) {
+                handler.handle(res);
+            }
+            dispatch();
+        });
+    }
+
+    /**
+     * @return The number of reconciliations waiting to start.
+     */
+    public synchronized int queueDepth() {
+        return waiting;
+    }
+
+    /**
+     * @return The number of reconciliations running.
+     */
+    public synchronized int running() {
+        return running;
+    }
+
+    /**
+     * @return The number of reconciliations started so far.
+     */
+    public synchronized long started() {
+        return started;
+    }
+
+    /**
+     * @return The number of reconciliations which were merged into one which was already waiting.
+     */
+    public synchronized long merged() {
+        return merged;
+    }
+
+    /**
+     * @return The total time, in milliseconds, that the reconciliations started so far waited in the queue.
+     */
+    public synchronized long totalWaitMs() {
+        return totalWaitMs;
+    }
+
+    /**
+     * @return The longest time, in milliseconds, that a reconciliation has waited in the queue.
+     */
+    public synchronized long maxWaitMs() {
+        return maxWaitMs;
+    }
+
+    /**
+     * Exposes this queue's metrics in the given {@code metrics}.
+     * @param metrics The registry.
+     */
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("strimzi_reconciliation_queue_depth", "The number of reconciliations waiting to start")
+                .register(this::queueDepth);
+        metrics.gauge("strimzi_reconciliations_running", "The number of reconciliations running")
+                .register(this::running);
+        metrics.counter("strimzi_reconciliations_started_total", "The number of reconciliations started")
+                .register(this::started);
+        metrics.counter("strimzi_reconciliations_merged_total", "The number of reconciliations merged into one which was already waiting")
+                .register(this::merged);
+        metrics.counter("strimzi_reconciliation_queue_wait_seconds_total", "The total time reconciliations waited in the queue before starting")
+                .register(() -> totalWaitMs() / 1e3);
+        metrics.gauge("strimzi_reconciliation_queue_max_wait_seconds", "The longest time a reconciliation waited in the queue before starting")
+                .register(() -> maxWaitMs() / 1e3);
+    }
+
+    /**
+     * The state of a single key.
+     */
+    private static class Key {
+        private boolean running;
+        private Work waiting;
+    }
+
+    /**
+     * A requested reconciliation.
+     */
+    private static class Work {
+        private final String key;
+        private final long enqueuedAt = System.currentTimeMillis();
+        private final List<Handler<AsyncResult<Void>>> handlers = new ArrayList<>(1);
+        private boolean watch;
+        private Supplier<Future<Void>> reconciliation;
+
+        Work(String key, boolean watch, Supplier<Future<Void>> reconciliation, Handler<AsyncResult<Void>> handler) {
+            this.key = key;
+            this.watch = watch;
+            this.reconciliation = reconciliation;
+            this.handlers.add(handler);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.resource;
+
+import io.fabric8.kubernetes.api.model.Secret;
+import org.apache.kafka.clients.admin.AdminClient;
+
+import java.io.IOException;
+
+/**
+ * Creates the {@link AdminClient}s the operator uses to talk to Kafka brokers.
+ */
+@FunctionalInterface
+public interface AdminClientProvider {
+
+    /**
+     * Creates an AdminClient which connects to the given brokers over TLS.
+     *
+     * @param bootstrapServers The addresses of the brokers' replication listeners
+     * @param clusterCaCertSecret The Secret containing the cluster CA certificates, which are trusted
+     * @param keyCertSecret The Secret containing the key and certificate the client authenticates with
+     * @param keyCertName The name of the key and certificate within {@code keyCertSecret}, without the {@code .key}
+     *                    or {@code .crt} extension
+     * @return The AdminClient, which the caller must close
+     * @throws IOException If the keys or certificates cannot be read.
+     */
+    AdminClient createAdminClient(String bootstrapServers, Secret clusterCaCertSecret, Secret keyCertSecret, String keyCertName) throws IOException;
+}
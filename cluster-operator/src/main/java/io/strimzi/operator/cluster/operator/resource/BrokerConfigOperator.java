@@ -0,0 +1,270 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.resource;
+
+import io.fabric8.kubernetes.api.model.Secret;
+import io.strimzi.operator.cluster.model.KafkaCluster;
+import io.strimzi.operator.common.operator.resource.TimeoutException;
+import io.strimzi.operator.common.tracing.Tracing;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.clients.admin.ConfigEntry;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.errors.AuthenticationException;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+
+/**
+ * Changes the dynamic configuration of running Kafka brokers, through their replication listener,
+ * authenticating as the broker itself.
+ */
+public class BrokerConfigOperator {
+
+    private static final Logger log = LogManager.getLogger(BrokerConfigOperator.class.getName());
+
+    private static final long DEFAULT_POLL_INTERVAL_MS = 5_000;
+    private static final long REQUEST_TIMEOUT_MS = 60_000;
+
+    private final Vertx vertx;
+    private final AdminClientProvider adminClientProvider;
+    private final long pollIntervalMs;
+    private final long requestTimeoutMs;
+
+    /**
+     * Constructor
+     *
+     * @param vertx The Vertx instance
+     * @param adminClientProvider Creates the AdminClients which talk to the brokers
+     * @param operationTimeoutMs Bounds how long to wait for each request to a broker
+     */
+    public BrokerConfigOperator(Vertx vertx, AdminClientProvider adminClientProvider, long operationTimeoutMs) {
+        this(vertx, adminClientProvider, DEFAULT_POLL_INTERVAL_MS, operationTimeoutMs);
+    }
+
+    BrokerConfigOperator(Vertx vertx, AdminClientProvider adminClientProvider, long pollIntervalMs, long operationTimeoutMs) {
+        this.vertx = vertx;
+        this.adminClientProvider = adminClientProvider;
+        this.pollIntervalMs = pollIntervalMs;
+        this.requestTimeoutMs = Math.min(REQUEST_TIMEOUT_MS, operationTimeoutMs);
+    }
+
+    /**
+     * <p>Asynchronously makes the given broker reload the keystore and truststores of its TLS listeners, so that it
+     * uses renewed certificates without being restarted.</p>
+     *
+     * <p>The listeners are first pointed at the versions of their stores built from the current certificates (see
+     * {@link KafkaCluster#generateTlsStoresConfiguration(int, Secret, Secret, Secret)}). The broker rejects the change
+     * until it has built them, which it does shortly after the renewed certificates reach its volumes, so the change is
+     * retried until the given timeout. The change is then undone, which points the listeners back at their usual
+     * locations, holding the same stores, so that the broker's dynamic configuration doesn't refer to files which won't
+     * exist after a restart.</p>
+     *
+     * <p>Each attempt runs on the given {@code executor}, and holds it only while talking to the broker, not while
+     * waiting to retry. Errors which retrying wouldn't fix, such as the broker being unreachable or refusing the
+     * operator's credentials (see {@link #isPermanent(Throwable)}), fail the reload straight away.</p>
+     *
+     * @param executor Runs the blocking requests to the broker
+     * @param namespace The namespace of the Kafka cluster
+     * @param cluster The name of the Kafka cluster
+     * @param brokerId The id of the broker
+     * @param clusterCaCertSecret The Secret containing the cluster CA certificates
+     * @param brokersSecret The Secret containing the brokers certificates and keys
+     * @param tlsStoresConfig The listener configuration pointing at the versioned stores
+     * @param timeoutMs How long the broker has to reload the stores and be pointed back at their usual locations
+     * @return A future which completes when the broker has reloaded the stores, or fails if it didn't in time.
+     */
+    public Future<Void> reloadTlsStores(WorkerExecutor executor, String namespace, String cluster, int brokerId,
+                                        Secret clusterCaCertSecret, Secret brokersSecret, Map<String, String> tlsStoresConfig,
+                                        long timeoutMs) {
+        Map<String, String> revert = new HashMap<>(tlsStoresConfig.size());
+        for (String option : tlsStoresConfig.keySet()) {
+            revert.put(option, null);
+        }
+        String broker = String.format("broker %d of %s/%s", brokerId, namespace, cluster);
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        return retryAlterBrokerConfig(executor, broker + " to reload its TLS stores", timeoutMs, deadline,
+                namespace, cluster, brokerId, clusterCaCertSecret, brokersSecret, tlsStoresConfig)
+            .compose(ignored -> retryAlterBrokerConfig(executor, broker + " to use its usual TLS store locations", timeoutMs, deadline,
+                namespace, cluster, brokerId, clusterCaCertSecret, brokersSecret, revert));
+    }
+
+    /**
+     * Applies the given changes to the dynamic configuration of the given broker on the given {@code executor},
+     * every {@link #pollIntervalMs} until the broker accepts them, the given {@code deadline} passes, or the broker
+     * fails with a {@linkplain #isPermanent(Throwable) permanent} error.
+     */
+    private Future<Void> retryAlterBrokerConfig(WorkerExecutor executor, String logContext, long timeoutMs, long deadline,
+                                                String namespace, String cluster, int brokerId,
+                                                Secret clusterCaCertSecret, Secret brokersSecret, Map<String, String> changes) {
+        Future<Void> result = Future.future();
+        log.debug("Waiting for {}", logContext);
+        Handler<Long> attempt = new Handler<Long>() {
+            @Override
+            public void handle(Long timerId) {
+                executor.<Void>executeBlocking(
+                    future -> {
+                        try {
+                            alterBrokerConfig(namespace, cluster, brokerId, clusterCaCertSecret, brokersSecret, changes);
+                            future.complete();
+                        } catch (Throwable e) {
+                            future.fail(e);
+                        }
+                    },
+                    false,
+                    Tracing.propagate(res -> {
+                        if (res.succeeded()) {
+                            log.debug("Done waiting for {}", logContext);
+                            result.complete();
+                            return;
+                        }
+                        log.debug("Broker {} of {}/{} did not accept configuration change {}: {}",
+                                brokerId, namespace, cluster, changes, res.cause().toString());
+                        long timeLeft = deadline - System.currentTimeMillis();
+                        if (isPermanent(res.cause())) {
+                            result.fail(res.cause());
+                        } else if (timeLeft <= 0) {
+                            result.fail(new TimeoutException(String.format("Exceeded timeout of %dms while waiting for %s",
+                                    timeoutMs, logContext)));
+                        } else {
+                            vertx.setTimer(Math.min(pollIntervalMs, timeLeft), Tracing.propagate(this));
+                        }
+                    }));
+            }
+        };
+        attempt.handle(null);
+        return result;
+    }
+
+    /**
+     * Returns whether the given error, thrown by {@link #alterBrokerConfig(String, String, int, Secret, Secret, Map)},
+     * would happen again if the change were retried: the broker refusing the operator's credentials or not answering
+     * within the request timeout, or the change being refused by this operator itself.
+     *
+     * @param error The error
+     * @return Whether retrying the change is pointless.
+     */
+    static boolean isPermanent(Throwable error) {
+        Throwable cause = error instanceof ExecutionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof AuthenticationException
+                || cause instanceof AuthorizationException
+                || cause instanceof java.util.concurrent.TimeoutException
+                || cause instanceof org.apache.kafka.common.errors.TimeoutException
+                || cause instanceof IllegalStateException;
+    }
+
+    /**
+     * Asynchronously applies the given changes to the dynamic configuration of the given broker
+     * (see {@link #alterBrokerConfig(String, String, int, Secret, Secret, Map)}), on the given {@code executor}.
+     *
+     * @param executor Runs the blocking requests to the broker
+     * @param namespace The namespace of the Kafka cluster
+     * @param cluster The name of the Kafka cluster
+     * @param brokerId The id of the broker
+     * @param clusterCaCertSecret The Secret containing the cluster CA certificates
+     * @param brokersSecret The Secret containing the brokers certificates and keys
+     * @param changes The new values of the changed options, keyed by option name.
+     *                A null value removes the option from the dynamic configuration.
+     * @return A future which completes when the broker has accepted the changes, or fails if it didn't,
+     * with a {@link DynamicUpdateUnsupportedException} if its dynamic configuration cannot be changed at all.
+     */
+    public Future<Void> updateBrokerConfig(WorkerExecutor executor, String namespace, String cluster, int brokerId,
+                                           Secret clusterCaCertSecret, Secret brokersSecret, Map<String, String> changes) {
+        Future<Void> result = Future.future();
+        executor.<Void>executeBlocking(
+            future -> {
+                try {
+                    alterBrokerConfig(namespace, cluster, brokerId, clusterCaCertSecret, brokersSecret, changes);
+                    future.complete();
+                } catch (Throwable e) {
+                    future.fail(e);
+                }
+            },
+            false,
+            result);
+        return result;
+    }
+
+    /**
+     * <p>Applies the given changes to the dynamic configuration of the given broker, keeping the rest of its
+     * dynamic per-broker configuration (Kafka replaces the whole of it with each change).</p>
+     *
+     * <p>Kafka doesn't describe the values of sensitive options, such as passwords, so a broker whose dynamic
+     * configuration has sensitive options which aren't being changed, for example set with {@code kafka-configs.sh},
+     * cannot be updated without losing them. Such a broker is detected before anything is changed.</p>
+     *
+     * @param namespace The namespace of the Kafka cluster
+     * @param cluster The name of the Kafka cluster
+     * @param brokerId The id of the broker
+     * @param clusterCaCertSecret The Secret containing the cluster CA certificates
+     * @param brokersSecret The Secret containing the brokers certificates and keys
+     * @param changes The new values of the changed options, keyed by option name.
+     *                A null value removes the option from the dynamic configuration.
+     * @throws DynamicUpdateUnsupportedException If the broker has sensitive dynamic options which would be lost.
+     * @throws Exception If the broker cannot be reached or rejects the change.
+     */
+    void alterBrokerConfig(String namespace, String cluster, int brokerId,
+                           Secret clusterCaCertSecret, Secret brokersSecret, Map<String, String> changes) throws Exception {
+        AdminClient admin = adminClientProvider.createAdminClient(KafkaCluster.replicationAddress(namespace, cluster, brokerId),
+                clusterCaCertSecret, brokersSecret, KafkaCluster.kafkaPodName(cluster, brokerId));
+        try {
+            ConfigResource resource = new ConfigResource(ConfigResource.Type.BROKER, String.valueOf(brokerId));
+            Config current = admin.describeConfigs(singleton(resource)).values().get(resource)
+                    .get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+
+            List<ConfigEntry> entries = new ArrayList<>();
+            List<String> sensitive = new ArrayList<>(0);
+            for (ConfigEntry entry : current.entries()) {
+                if (entry.source() == ConfigEntry.ConfigSource.DYNAMIC_BROKER_CONFIG && !changes.containsKey(entry.name())) {
+                    if (entry.isSensitive()) {
+                        sensitive.add(entry.name());
+                    } else {
+                        entries.add(new ConfigEntry(entry.name(), entry.value()));
+                    }
+                }
+            }
+            if (!sensitive.isEmpty()) {
+                throw new DynamicUpdateUnsupportedException("Broker " + brokerId + " has sensitive dynamic options " + sensitive
+                        + ", whose values Kafka does not describe, so updating its dynamic configuration would remove them");
+            }
+            for (Map.Entry<String, String> change : changes.entrySet()) {
+                if (change.getValue() != null) {
+                    entries.add(new ConfigEntry(change.getKey(), change.getValue()));
+                }
+            }
+
+            log.debug("Altering configuration of broker {} of {}/{} to {}", brokerId, namespace, cluster, entries);
+            admin.alterConfigs(singletonMap(resource, new Config(entries))).all()
+                    .get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        } finally {
+            // Don't wait for requests which timed out, this is called from a worker thread
+            admin.close(0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Thrown when the dynamic configuration of a broker cannot be updated without losing some of it,
+     * so that its configuration can only be changed by restarting it.
+     */
+    public static class DynamicUpdateUnsupportedException extends IllegalStateException {
+        public DynamicUpdateUnsupportedException(String message) {
+            super(message);
+        }
+    }
+}
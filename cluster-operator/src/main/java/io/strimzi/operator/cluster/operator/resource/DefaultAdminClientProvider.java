@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.resource;
+
+import io.fabric8.kubernetes.api.model.Secret;
+import io.strimzi.certs.CertAndKey;
+import io.strimzi.certs.KeyStores;
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.common.config.SslConfigs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Creates AdminClients which authenticate with a key and certificate signed by the cluster CA.
+ * Kafka's clients can only read keys and certificates from key store files, so the PEM encoded keys and
+ * certificates in the Secrets are written to temporary PKCS#12 files, which are deleted as soon as the
+ * AdminClient has read them.
+ */
+public class DefaultAdminClientProvider implements AdminClientProvider {
+
+    /** How long the AdminClient waits for a response from a broker. */
+    private static final int REQUEST_TIMEOUT_MS = 30_000;
+
+    @Override
+    public AdminClient createAdminClient(String bootstrapServers, Secret clusterCaCertSecret, Secret keyCertSecret, String keyCertName) throws IOException {
+        Map<String, byte[]> caCerts = new TreeMap<>();
+        for (Map.Entry<String, String> entry : clusterCaCertSecret.getData().entrySet()) {
+            if (entry.getKey().endsWith(".crt")) {
+                caCerts.put(entry.getKey().substring(0, entry.getKey().length() - ".crt".length()), decode(entry.getValue()));
+            }
+        }
+        CertAndKey keyCert = new CertAndKey(
+                decode(keyCertSecret.getData().get(keyCertName + ".key")),
+                decode(keyCertSecret.getData().get(keyCertName + ".crt")));
+
+        char[] password = UUID.randomUUID().toString().toCharArray();
+        File trustStore = File.createTempFile("cluster-ca", ".truststore.p12");
+        File keyStore = File.createTempFile(keyCertName, ".keystore.p12");
+        try {
+            KeyStores.write(KeyStores.trustStore(caCerts), trustStore, password);
+            KeyStores.write(KeyStores.keyStore(keyCertName, keyCert, password), keyStore, password);
+
+            Properties props = new Properties();
+            props.setProperty(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+            props.setProperty(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, String.valueOf(REQUEST_TIMEOUT_MS));
+            props.setProperty(CommonClientConfigs.SECURITY_PROTOCOL_CONFIG, "SSL");
+            props.setProperty(SslConfigs.SSL_TRUSTSTORE_LOCATION_CONFIG, trustStore.getAbsolutePath());
+            props.setProperty(SslConfigs.SSL_TRUSTSTORE_PASSWORD_CONFIG, String.valueOf(password));
+            props.setProperty(SslConfigs.SSL_TRUSTSTORE_TYPE_CONFIG, KeyStores.TYPE);
+            props.setProperty(SslConfigs.SSL_KEYSTORE_LOCATION_CONFIG, keyStore.getAbsolutePath());
+            props.setProperty(SslConfigs.SSL_KEYSTORE_PASSWORD_CONFIG, String.valueOf(password));
+            props.setProperty(SslConfigs.SSL_KEYSTORE_TYPE_CONFIG, KeyStores.TYPE);
+            // The key stores are read when the client is created
+            return AdminClient.create(props);
+        } finally {
+            Files.deleteIfExists(trustStore.toPath());
+            Files.deleteIfExists(keyStore.toPath());
+        }
+    }
+
+    private static byte[] decode(String base64) throws IOException {
+        if (base64 == null) {
+            throw new IOException("Secret does not contain the expected key or certificate");
+        }
+        return Base64.getDecoder().decode(base64);
+    }
+}
@@ -5,11 +5,20 @@
 package io.strimzi.operator.cluster.operator.resource;
 
 import io.fabric8.kubernetes.api.model.extensions.StatefulSet;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSetBuilder;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.strimzi.operator.cluster.model.KafkaConfiguration;
+import io.strimzi.operator.cluster.model.ModelUtils;
+import io.strimzi.operator.common.Annotations;
 import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Map;
+import java.util.TreeSet;
+
+import static io.strimzi.operator.cluster.model.KafkaCluster.ANNO_STRIMZI_IO_KAFKA_VERSION;
+import static io.strimzi.operator.cluster.model.KafkaCluster.ENV_VAR_KAFKA_CONFIGURATION;
 
 /**
  * Specialization of {@link StatefulSetOperator} for StatefulSets of Kafka brokers
@@ -35,7 +44,69 @@ public class KafkaSetOperator extends StatefulSetOperator {
             log.warn("Changing Kafka storage type or size is not possible. The changes will be ignored.");
             diff = revertStorageChanges(current, desired);
         }
-        return !diff.isEmpty() && needsRollingUpdate(diff);
+        if (!diff.isEmpty() && needsRollingUpdate(diff) && !changesOnlyDynamicConfiguration(current, desired)) {
+            logConfigurationChanges(current, desired);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Logs the options of the Kafka configuration which differ between the given StatefulSets, with their values.
+     * Options are compared by value, after the canonicalization done by {@link KafkaConfiguration}.
+     */
+    private static void logConfigurationChanges(StatefulSet current, StatefulSet desired) {
+        KafkaConfiguration currentConfig = KafkaConfiguration.unvalidated(
+                ModelUtils.getKafkaContainerEnv(current).getOrDefault(ENV_VAR_KAFKA_CONFIGURATION, ""));
+        KafkaConfiguration desiredConfig = KafkaConfiguration.unvalidated(
+                ModelUtils.getKafkaContainerEnv(desired).getOrDefault(ENV_VAR_KAFKA_CONFIGURATION, ""));
+        for (String option : new TreeSet<>(desiredConfig.changedOptions(currentConfig))) {
+            log.info("StatefulSet {}/{}: Kafka configuration option {} changed from {} to {} => needs rolling update",
+                    desired.getMetadata().getNamespace(), desired.getMetadata().getName(), option,
+                    currentConfig.getConfigOption(option), desiredConfig.getConfigOption(option));
+        }
+    }
+
+    /**
+     * Returns whether the only change between the given StatefulSets which would need the brokers to be restarted
+     * is a change to their Kafka configuration which can be made to running brokers instead
+     * (see {@link KafkaConfiguration#isDynamicChangeFrom(KafkaConfiguration, String)}).
+     *
+     * @param current The current StatefulSet
+     * @param desired The desired StatefulSet
+     * @return Whether the brokers can be updated without being restarted
+     */
+    public static boolean changesOnlyDynamicConfiguration(StatefulSet current, StatefulSet desired) {
+        String version = Annotations.annotations(desired).get(ANNO_STRIMZI_IO_KAFKA_VERSION);
+        if (version == null || !version.equals(Annotations.annotations(current).get(ANNO_STRIMZI_IO_KAFKA_VERSION))) {
+            return false;
+        }
+        String currentConfig = ModelUtils.getKafkaContainerEnv(current).get(ENV_VAR_KAFKA_CONFIGURATION);
+        Map<String, String> desiredEnv = ModelUtils.getKafkaContainerEnv(desired);
+        String desiredConfig = desiredEnv.get(ENV_VAR_KAFKA_CONFIGURATION);
+        if (currentConfig == null || desiredConfig == null || currentConfig.equals(desiredConfig)
+                || !KafkaConfiguration.unvalidated(desiredConfig).isDynamicChangeFrom(KafkaConfiguration.unvalidated(currentConfig), version)) {
+            return false;
+        }
+
+        // Would anything else need a restart?
+        desiredEnv.put(ENV_VAR_KAFKA_CONFIGURATION, currentConfig);
+        StatefulSet desiredWithCurrentConfig = new StatefulSetBuilder(desired)
+                .editSpec()
+                    .editTemplate()
+                        .editSpec()
+                            .editFirstContainer()
+                                .withEnv(ModelUtils.envAsList(desiredEnv))
+                            .endContainer()
+                        .endSpec()
+                    .endTemplate()
+                .endSpec()
+                .build();
+        boolean dynamic = !needsRollingUpdate(new StatefulSetDiff(current, desiredWithCurrentConfig));
+        if (dynamic) {
+            log.debug("Changed only dynamic Kafka configuration options => no rolling update");
+        }
+        return dynamic;
     }
 
     public static boolean needsRollingUpdate(StatefulSetDiff diff) {
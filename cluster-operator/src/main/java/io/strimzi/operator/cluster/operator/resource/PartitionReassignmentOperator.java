@@ -0,0 +1,688 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.resource;
+
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.ExecListener;
+import io.fabric8.kubernetes.client.dsl.ExecWatch;
+import io.strimzi.api.kafka.model.KafkaRebalancing;
+import io.strimzi.operator.cluster.model.KafkaCluster;
+import io.strimzi.operator.common.operator.resource.TimeoutException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import okhttp3.Response;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.clients.admin.ConfigEntry;
+import org.apache.kafka.clients.admin.ListTopicsOptions;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.protocol.Errors;
+import org.apache.kafka.common.requests.DescribeLogDirsResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Arrays.asList;
+
+/**
+ * <p>Moves partition replicas between the brokers of a Kafka cluster.</p>
+ *
+ * <p>The current assignment of the partitions is described through the replication listener of the first broker,
+ * authenticating as the broker itself. Kafka's AdminClient cannot reassign partitions, so reassignments are run with
+ * the {@code kafka-reassign-partitions.sh} tool, in the kafka container of the first broker, which can reach
+ * Zookeeper through its TLS sidecar. Reassignments are throttled to {@link #THROTTLE_BYTES_PER_SECOND}, so that
+ * they don't starve the replication of the brokers' other partitions.</p>
+ *
+ * <p>The throttle of a rebalancing (see {@link #rebalanceBrokers(String, String, int, KafkaRebalancing, Secret, Secret)})
+ * is adjusted each time it is called, from how fast the data it still has to move has been moving since the previous
+ * call, which is remembered by this operator.</p>
+ */
+public class PartitionReassignmentOperator {
+
+    private static final Logger log = LogManager.getLogger(PartitionReassignmentOperator.class.getName());
+
+    /** The inter-broker replication rate, in bytes per second, which reassignments are throttled to. */
+    public static final long THROTTLE_BYTES_PER_SECOND = 10_000_000;
+
+    /** The lowest inter-broker replication rate, in bytes per second, which the throttle of a rebalancing is adjusted to. */
+    static final long MIN_THROTTLE_BYTES_PER_SECOND = 1_000_000;
+
+    private static final long REQUEST_TIMEOUT_MS = 60_000;
+    /** The time left to a rebalancing once its target time has passed, so that its throttle stays finite. */
+    private static final long MIN_TIME_LEFT_MS = 60_000;
+    private static final String CONTAINER = "kafka";
+    private static final String REASSIGNMENT_FILE = "/tmp/strimzi-reassignment.json";
+    /** How much of the reassignment file is written by each command, well below the limit on the length of an argument. */
+    private static final int CHUNK_LENGTH = 65_536;
+    private static final List<String> THROTTLED_REPLICAS_OPTIONS = asList("leader.replication.throttled.replicas",
+            "follower.replication.throttled.replicas");
+    private static final Comparator<TopicPartition> TOPIC_PARTITION_ORDER =
+            Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition);
+
+    private final KubernetesClient client;
+    private final AdminClientProvider adminClientProvider;
+    private final long operationTimeoutMs;
+    private final long requestTimeoutMs;
+    private final Map<String, RebalanceProgress> rebalances = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param client The Kubernetes client, used to run the reassignment tool in the broker pods
+     * @param adminClientProvider Creates the AdminClients which talk to the brokers
+     * @param operationTimeoutMs How long to wait for the reassignment tool to complete
+     */
+    public PartitionReassignmentOperator(KubernetesClient client, AdminClientProvider adminClientProvider, long operationTimeoutMs) {
+        this.client = client;
+        this.adminClientProvider = adminClientProvider;
+        this.operationTimeoutMs = operationTimeoutMs;
+        this.requestTimeoutMs = Math.min(REQUEST_TIMEOUT_MS, operationTimeoutMs);
+    }
+
+    /**
+     * <p>Moves all the partition replicas of the given cluster off the brokers whose id is {@code brokers} or more,
+     * so that those brokers can be removed.</p>
+     *
+     * <p>This doesn't wait for the replicas to be moved, it starts a reassignment (see
+     * {@link #drainingAssignment(Map, int)}) unless one is already running, and returns how many partitions
+     * still have replicas on those brokers. It is meant to be called until it returns 0, at which point the
+     * throttles the reassignment set have been removed.</p>
+     *
+     * <p>This blocks on AdminClient requests and on the reassignment tool, so it must be called from a worker thread,
+     * within the bulkhead of the Kafka assembly, so that a slow cluster only holds up its own reconciliation.</p>
+     *
+     * @param namespace The namespace of the Kafka cluster
+     * @param cluster The name of the Kafka cluster
+     * @param brokers The number of brokers which will remain
+     * @param clusterCaCertSecret The Secret containing the cluster CA certificates
+     * @param brokersSecret The Secret containing the brokers certificates and keys
+     * @return The number of partitions which still have replicas on the brokers to be removed.
+     * @throws Exception If the assignment couldn't be described or the reassignment couldn't be started.
+     */
+    public int drainBrokers(String namespace, String cluster, int brokers,
+                            Secret clusterCaCertSecret, Secret brokersSecret) throws Exception {
+        // A rebalancing interrupted by a scale-down starts again afterwards
+        rebalances.remove(namespace + "/" + cluster);
+        Map<TopicPartition, List<Integer>> assignment;
+        Map<TopicPartition, List<Integer>> reassignment;
+        Set<String> throttled = new TreeSet<>();
+        AdminClient admin = adminClientProvider.createAdminClient(KafkaCluster.replicationAddress(namespace, cluster, 0),
+                clusterCaCertSecret, brokersSecret, KafkaCluster.kafkaPodName(cluster, 0));
+        try {
+            assignment = describeAssignment(admin);
+            reassignment = drainingAssignment(assignment, brokers);
+            if (reassignment.isEmpty()) {
+                throttled.addAll(throttledTopics(admin, assignment));
+            }
+        } finally {
+            // Don't wait for requests which timed out, this is called from a worker thread
+            admin.close(0, TimeUnit.MILLISECONDS);
+        }
+
+        if (!reassignment.isEmpty()) {
+            log.debug("Moving {} partitions of {}/{} off brokers {} and above", reassignment.size(), namespace, cluster, brokers);
+            if (startReassignment(namespace, cluster, reassignment, THROTTLE_BYTES_PER_SECOND)) {
+                log.info("Started moving {} partitions of {}/{} off brokers {} and above", reassignment.size(), namespace, cluster, brokers);
+            }
+            return reassignment.size();
+        }
+        removeThrottles(namespace, cluster, assignment, throttled);
+        return 0;
+    }
+
+    /**
+     * <p>Moves partition replicas of the given cluster onto the brokers which host fewer than their share of them,
+     * such as the brokers just added by a scale-up, following the given policy.</p>
+     *
+     * <p>This doesn't wait for the replicas to be moved, it starts a reassignment of at most
+     * {@link KafkaRebalancing#getMaxReplicaMovements()} replicas (see
+     * {@link #balancingAssignment(Map, Map, int, int)}) unless one is already running, in which case it only adjusts
+     * the throttle of the running one. It is meant to be called periodically, it returns 0 once the brokers host
+     * their share of the replicas and the throttles have been removed. Nothing is moved until all the brokers are
+     * part of the cluster, until then it returns -1.</p>
+     *
+     * <p>Like {@link #drainBrokers(String, String, int, Secret, Secret)}, this blocks, so it must be called from
+     * a worker thread, within the bulkhead of the Kafka assembly.</p>
+     *
+     * @param namespace The namespace of the Kafka cluster
+     * @param cluster The name of the Kafka cluster
+     * @param brokers The number of brokers
+     * @param policy The rebalancing policy of the Kafka resource
+     * @param clusterCaCertSecret The Secret containing the cluster CA certificates
+     * @param brokersSecret The Secret containing the brokers certificates and keys
+     * @return The number of partitions whose replicas are being moved, at least 1 while data is still being moved,
+     * 0 once the rebalancing is complete, or -1 if not all the brokers have joined the cluster.
+     * @throws Exception If the assignment couldn't be described or the reassignment couldn't be started.
+     */
+    public int rebalanceBrokers(String namespace, String cluster, int brokers, KafkaRebalancing policy,
+                                Secret clusterCaCertSecret, Secret brokersSecret) throws Exception {
+        String key = namespace + "/" + cluster;
+        Map<TopicPartition, List<Integer>> assignment;
+        Map<TopicPartition, List<Integer>> reassignment;
+        long remainingBytes;
+        Set<String> throttled = new TreeSet<>();
+        AdminClient admin = adminClientProvider.createAdminClient(KafkaCluster.replicationAddress(namespace, cluster, 0),
+                clusterCaCertSecret, brokersSecret, KafkaCluster.kafkaPodName(cluster, 0));
+        try {
+            Map<Integer, String> racks = describeRacks(admin);
+            for (int broker = 0; broker < brokers; broker++) {
+                if (!racks.containsKey(broker)) {
+                    log.debug("Not rebalancing {} until broker {} has joined the cluster", key, broker);
+                    return -1;
+                }
+            }
+            Map<String, TopicDescription> descriptions = describeTopics(admin);
+            assignment = assignment(descriptions.values());
+            reassignment = balancingAssignment(assignment, racks, brokers, policy.getMaxReplicaMovements());
+            remainingBytes = bytesToMove(descriptions.values(),
+                    balancingAssignment(assignment, racks, brokers, Integer.MAX_VALUE),
+                    describeReplicaSizes(admin, racks.keySet()));
+            if (reassignment.isEmpty() && remainingBytes == 0) {
+                throttled.addAll(throttledTopics(admin, assignment));
+            }
+        } finally {
+            // Don't wait for requests which timed out, this is called from a worker thread
+            admin.close(0, TimeUnit.MILLISECONDS);
+        }
+
+        if (reassignment.isEmpty() && remainingBytes == 0) {
+            if (rebalances.remove(key) != null) {
+                log.info("The brokers of {} host their share of the partitions", key);
+            }
+            removeThrottles(namespace, cluster, assignment, throttled);
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        RebalanceProgress progress = rebalances.computeIfAbsent(key, k -> new RebalanceProgress(
+                now + policy.getTargetMinutes() * 60_000L, Math.min(THROTTLE_BYTES_PER_SECOND, policy.getMaxThrottle())));
+        long observedRate = progress.remainingBytes > remainingBytes && now > progress.sampledAt
+                ? (progress.remainingBytes - remainingBytes) * 1_000 / (now - progress.sampledAt) : 0;
+        long requiredRate = remainingBytes * 1_000 / Math.max(progress.deadline - now, MIN_TIME_LEFT_MS);
+        progress.throttle = adaptThrottle(progress.throttle, observedRate, requiredRate, policy.getMaxThrottle());
+        progress.remainingBytes = remainingBytes;
+        progress.sampledAt = now;
+        log.debug("Rebalancing {}: {} bytes to move, at {} bytes/s, throttled to {} bytes/s",
+                key, remainingBytes, observedRate, progress.throttle);
+
+        if (!reassignment.isEmpty()) {
+            if (startReassignment(namespace, cluster, reassignment, progress.throttle)) {
+                log.info("Started moving {} partitions of {} onto the brokers which host fewer than their share, throttled to {} bytes/s",
+                        reassignment.size(), key, progress.throttle);
+            }
+        }
+        // Without more partitions to move, the data of the running reassignment is still being copied
+        return Math.max(reassignment.size(), 1);
+    }
+
+    /**
+     * Starts the given reassignment with the given throttle or, if a reassignment is already running, changes the
+     * throttle of the running one.
+     * @return Whether the given reassignment was started.
+     */
+    private boolean startReassignment(String namespace, String cluster, Map<TopicPartition, List<Integer>> reassignment,
+                                      long throttle) throws Exception {
+        String output = runReassignmentTool(namespace, cluster, reassignment, "--execute --throttle " + throttle);
+        if (output.contains("There is an existing assignment running")) {
+            log.debug("A reassignment is running in {}/{}", namespace, cluster);
+            return false;
+        } else if (output.contains("Successfully started reassignment")) {
+            return true;
+        } else {
+            throw new IllegalStateException("Could not start the reassignment of partitions: " + output);
+        }
+    }
+
+    /**
+     * Removes the throttles which completed reassignments left on the given topics.
+     */
+    private void removeThrottles(String namespace, String cluster, Map<TopicPartition, List<Integer>> assignment,
+                                 Set<String> throttled) throws Exception {
+        if (!throttled.isEmpty()) {
+            // Verifying a completed reassignment removes its throttles
+            Map<TopicPartition, List<Integer>> completed = new TreeMap<>(TOPIC_PARTITION_ORDER);
+            for (Map.Entry<TopicPartition, List<Integer>> entry : assignment.entrySet()) {
+                if (throttled.contains(entry.getKey().topic())) {
+                    completed.put(entry.getKey(), entry.getValue());
+                }
+            }
+            String output = runReassignmentTool(namespace, cluster, completed, "--verify");
+            if (!output.contains("Status of partition reassignment")) {
+                throw new IllegalStateException("Could not remove the reassignment throttles: " + output);
+            }
+            log.info("Removed the reassignment throttles of {}/{}", namespace, cluster);
+        }
+    }
+
+    /**
+     * @return The rack of each broker which is part of the cluster, or null for brokers without a rack.
+     */
+    private Map<Integer, String> describeRacks(AdminClient admin) throws Exception {
+        Map<Integer, String> racks = new HashMap<>();
+        for (Node node : admin.describeCluster().nodes().get(requestTimeoutMs, TimeUnit.MILLISECONDS)) {
+            racks.put(node.id(), node.rack());
+        }
+        return racks;
+    }
+
+    /**
+     * @return The size, in bytes, of each replica on each of the given brokers, excluding the replicas being moved
+     * between the log directories of a broker.
+     */
+    private Map<Integer, Map<TopicPartition, Long>> describeReplicaSizes(AdminClient admin, Collection<Integer> brokers) throws Exception {
+        Map<Integer, Map<TopicPartition, Long>> sizes = new HashMap<>();
+        Map<Integer, Map<String, DescribeLogDirsResponse.LogDirInfo>> logDirs = admin.describeLogDirs(brokers).all()
+                .get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        for (Map.Entry<Integer, Map<String, DescribeLogDirsResponse.LogDirInfo>> broker : logDirs.entrySet()) {
+            Map<TopicPartition, Long> brokerSizes = new HashMap<>();
+            for (DescribeLogDirsResponse.LogDirInfo logDir : broker.getValue().values()) {
+                if (logDir.error == Errors.NONE) {
+                    for (Map.Entry<TopicPartition, DescribeLogDirsResponse.ReplicaInfo> replica : logDir.replicaInfos.entrySet()) {
+                        if (!replica.getValue().isFuture) {
+                            brokerSizes.put(replica.getKey(), replica.getValue().size);
+                        }
+                    }
+                }
+            }
+            sizes.put(broker.getKey(), brokerSizes);
+        }
+        return sizes;
+    }
+
+    /**
+     * Estimates how many bytes have to be copied between the brokers: what the replicas which are not in sync
+     * are missing from their leader, and the whole of the leader's replica for each replica which the given
+     * reassignment adds to a partition.
+     *
+     * @param descriptions The descriptions of the topics
+     * @param reassignment The new replicas of the partitions which have to move
+     * @param sizes The size of each replica on each broker
+     * @return The number of bytes.
+     */
+    static long bytesToMove(Collection<TopicDescription> descriptions, Map<TopicPartition, List<Integer>> reassignment,
+                            Map<Integer, Map<TopicPartition, Long>> sizes) {
+        long bytes = 0;
+        for (TopicDescription description : descriptions) {
+            for (TopicPartitionInfo partition : description.partitions()) {
+                TopicPartition topicPartition = new TopicPartition(description.name(), partition.partition());
+                long leaderSize = partition.leader() == null ? 0 : size(sizes, partition.leader().id(), topicPartition);
+                Set<Integer> replicas = new HashSet<>();
+                for (Node replica : partition.replicas()) {
+                    replicas.add(replica.id());
+                    if (!partition.isr().contains(replica)) {
+                        bytes += Math.max(0, leaderSize - size(sizes, replica.id(), topicPartition));
+                    }
+                }
+                for (int broker : reassignment.getOrDefault(topicPartition, new ArrayList<>(0))) {
+                    if (!replicas.contains(broker)) {
+                        bytes += leaderSize;
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long size(Map<Integer, Map<TopicPartition, Long>> sizes, int broker, TopicPartition partition) {
+        return sizes.getOrDefault(broker, new HashMap<>(0)).getOrDefault(partition, 0L);
+    }
+
+    /**
+     * Computes the next throttle of a rebalancing. When the data has been observed to move, the throttle is scaled
+     * by how much faster it has to move to be moved in time, at most halving or doubling it at once, as the brokers
+     * don't replicate exactly at the throttled rate. Otherwise it is only raised, to the required rate.
+     *
+     * @param throttle The current throttle, in bytes per second
+     * @param observedRate The rate at which the data has been moving, in bytes per second, or 0 if it is not known
+     * @param requiredRate The rate at which the data has to move to be moved in time, in bytes per second
+     * @param maxThrottle The highest throttle, in bytes per second
+     * @return The next throttle, in bytes per second.
+     */
+    static long adaptThrottle(long throttle, long observedRate, long requiredRate, long maxThrottle) {
+        long next;
+        if (observedRate > 0) {
+            double scaled = (double) throttle * requiredRate / observedRate;
+            next = (long) Math.max(throttle / 2.0, Math.min(throttle * 2.0, scaled));
+        } else {
+            next = Math.max(throttle, requiredRate);
+        }
+        return Math.max(Math.min(MIN_THROTTLE_BYTES_PER_SECOND, maxThrottle), Math.min(maxThrottle, next));
+    }
+
+    /**
+     * @return The replicas of each partition of the cluster, internal topics included.
+     */
+    private Map<TopicPartition, List<Integer>> describeAssignment(AdminClient admin) throws Exception {
+        return assignment(describeTopics(admin).values());
+    }
+
+    /**
+     * @return The descriptions of the topics of the cluster, internal topics included.
+     */
+    private Map<String, TopicDescription> describeTopics(AdminClient admin) throws Exception {
+        Set<String> topics = admin.listTopics(new ListTopicsOptions().listInternal(true)).names()
+                .get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        if (topics.isEmpty()) {
+            return new HashMap<>(0);
+        }
+        return admin.describeTopics(topics).all().get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The replicas of each partition of the given topics.
+     */
+    private static Map<TopicPartition, List<Integer>> assignment(Collection<TopicDescription> descriptions) {
+        Map<TopicPartition, List<Integer>> assignment = new TreeMap<>(TOPIC_PARTITION_ORDER);
+        for (TopicDescription description : descriptions) {
+            for (TopicPartitionInfo partition : description.partitions()) {
+                List<Integer> replicas = new ArrayList<>(partition.replicas().size());
+                for (Node replica : partition.replicas()) {
+                    replicas.add(replica.id());
+                }
+                assignment.put(new TopicPartition(description.name(), partition.partition()), replicas);
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * @return The topics whose replicas are throttled, which is how a reassignment which ran with a throttle leaves them.
+     */
+    private Set<String> throttledTopics(AdminClient admin, Map<TopicPartition, List<Integer>> assignment) throws Exception {
+        Set<String> throttledTopics = new TreeSet<>();
+        List<ConfigResource> resources = new ArrayList<>();
+        for (TopicPartition partition : assignment.keySet()) {
+            ConfigResource resource = new ConfigResource(ConfigResource.Type.TOPIC, partition.topic());
+            if (!resources.contains(resource)) {
+                resources.add(resource);
+            }
+        }
+        if (resources.isEmpty()) {
+            return throttledTopics;
+        }
+        Map<ConfigResource, Config> configs = admin.describeConfigs(resources).all()
+                .get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        for (Map.Entry<ConfigResource, Config> config : configs.entrySet()) {
+            for (String option : THROTTLED_REPLICAS_OPTIONS) {
+                ConfigEntry entry = config.getValue().get(option);
+                if (entry != null && entry.value() != null && !entry.value().isEmpty()) {
+                    throttledTopics.add(config.getKey().name());
+                }
+            }
+        }
+        return throttledTopics;
+    }
+
+    /**
+     * Computes a reassignment which moves the replicas on the brokers whose id is {@code brokers} or more to the
+     * remaining brokers. Each moved replica keeps its position in the replica list (so the preferred leader of a
+     * partition only changes if it was on a removed broker) and goes to the remaining broker which hosts the fewest
+     * replicas and doesn't already host one of the same partition.
+     *
+     * @param assignment The current replicas of each partition
+     * @param brokers The number of brokers which will remain
+     * @return The new replicas of the partitions which have to move, or an empty map if there are none.
+     * @throws IllegalStateException If a partition has more replicas than there would be brokers.
+     */
+    static Map<TopicPartition, List<Integer>> drainingAssignment(Map<TopicPartition, List<Integer>> assignment, int brokers) {
+        int[] load = new int[brokers];
+        for (List<Integer> replicas : assignment.values()) {
+            for (int broker : replicas) {
+                if (broker < brokers) {
+                    load[broker]++;
+                }
+            }
+        }
+        Map<TopicPartition, List<Integer>> sorted = new TreeMap<>(TOPIC_PARTITION_ORDER);
+        sorted.putAll(assignment);
+        Map<TopicPartition, List<Integer>> reassignment = new TreeMap<>(TOPIC_PARTITION_ORDER);
+        for (Map.Entry<TopicPartition, List<Integer>> entry : sorted.entrySet()) {
+            List<Integer> replicas = new ArrayList<>(entry.getValue());
+            boolean moved = false;
+            for (int i = 0; i < replicas.size(); i++) {
+                if (replicas.get(i) >= brokers) {
+                    int target = -1;
+                    for (int broker = 0; broker < brokers; broker++) {
+                        if (!replicas.contains(broker) && (target < 0 || load[broker] < load[target])) {
+                            target = broker;
+                        }
+                    }
+                    if (target < 0) {
+                        throw new IllegalStateException("Partition " + entry.getKey() + " has " + replicas.size()
+                                + " replicas, which cannot be moved to " + brokers + " brokers");
+                    }
+                    replicas.set(i, target);
+                    load[target]++;
+                    moved = true;
+                }
+            }
+            if (moved) {
+                reassignment.put(entry.getKey(), replicas);
+            }
+        }
+        return reassignment;
+    }
+
+    /**
+     * Computes a reassignment which moves up to {@code maxMovements} replicas onto the brokers which host fewer than
+     * their share of the replicas (the replicas divided by the number of brokers, rounded down), such as the brokers
+     * just added by a scale-up. Each replica is moved onto the broker which hosts the fewest replicas, from the
+     * broker which hosts the most and has a replica that can be moved, as long as that broker hosts at least two
+     * replicas more. Followers are moved rather than leaders, so that the preferred leader of a partition only
+     * changes when there is no follower to move. A replica is not moved to a broker in another rack if a replica of
+     * the same partition is already in that rack, so that the partitions remain spread across as many racks.
+     *
+     * @param assignment The current replicas of each partition
+     * @param racks The rack of each broker, or null for brokers without a rack
+     * @param brokers The number of brokers
+     * @param maxMovements The maximum number of replicas to move
+     * @return The new replicas of the partitions which have to move, or an empty map if there are none.
+     */
+    static Map<TopicPartition, List<Integer>> balancingAssignment(Map<TopicPartition, List<Integer>> assignment,
+                                                                  Map<Integer, String> racks, int brokers, int maxMovements) {
+        int[] load = new int[brokers];
+        int total = 0;
+        Map<TopicPartition, List<Integer>> current = new TreeMap<>(TOPIC_PARTITION_ORDER);
+        for (Map.Entry<TopicPartition, List<Integer>> entry : assignment.entrySet()) {
+            current.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            for (int broker : entry.getValue()) {
+                if (broker < brokers) {
+                    load[broker]++;
+                    total++;
+                }
+            }
+        }
+        int share = total / brokers;
+        Map<TopicPartition, List<Integer>> reassignment = new TreeMap<>(TOPIC_PARTITION_ORDER);
+        Set<Integer> unreachable = new HashSet<>();
+        int movements = 0;
+        while (movements < maxMovements) {
+            int target = -1;
+            for (int broker = 0; broker < brokers; broker++) {
+                if (load[broker] < share && !unreachable.contains(broker) && (target < 0 || load[broker] < load[target])) {
+                    target = broker;
+                }
+            }
+            if (target < 0) {
+                break;
+            }
+            TopicPartition moved = moveReplica(current, racks, load, target);
+            if (moved == null) {
+                unreachable.add(target);
+            } else {
+                reassignment.put(moved, current.get(moved));
+                movements++;
+            }
+        }
+        return reassignment;
+    }
+
+    /**
+     * Moves a replica onto the given broker, as described by {@link #balancingAssignment(Map, Map, int, int)}.
+     * @return The partition whose replica was moved, or null if none could be.
+     */
+    private static TopicPartition moveReplica(Map<TopicPartition, List<Integer>> current, Map<Integer, String> racks,
+                                              int[] load, int target) {
+        List<Integer> sources = new ArrayList<>(load.length);
+        for (int broker = 0; broker < load.length; broker++) {
+            sources.add(broker);
+        }
+        sources.sort(Comparator.<Integer>comparingInt(broker -> -load[broker]).thenComparingInt(broker -> broker));
+        for (int source : sources) {
+            if (load[source] - load[target] < 2) {
+                break;
+            }
+            for (boolean leaders : new boolean[] {false, true}) {
+                for (Map.Entry<TopicPartition, List<Integer>> entry : current.entrySet()) {
+                    List<Integer> replicas = entry.getValue();
+                    int position = replicas.indexOf(source);
+                    if (position >= 0 && (position == 0) == leaders && !replicas.contains(target)
+                            && keepsRacks(racks, replicas, position, target)) {
+                        replicas.set(position, target);
+                        load[source]--;
+                        load[target]++;
+                        return entry.getKey();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Whether moving the replica at the given position to the given broker leaves the partition in as many racks.
+     */
+    private static boolean keepsRacks(Map<Integer, String> racks, List<Integer> replicas, int position, int target) {
+        String rack = racks.get(target);
+        if (rack == null || rack.equals(racks.get(replicas.get(position)))) {
+            return true;
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            if (i != position && rack.equals(racks.get(replicas.get(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The given assignment as the JSON the reassignment tool reads.
+     */
+    static String reassignmentJson(Map<TopicPartition, List<Integer>> assignment) {
+        JsonArray partitions = new JsonArray();
+        for (Map.Entry<TopicPartition, List<Integer>> entry : assignment.entrySet()) {
+            partitions.add(new JsonObject()
+                    .put("topic", entry.getKey().topic())
+                    .put("partition", entry.getKey().partition())
+                    .put("replicas", new JsonArray(new ArrayList<>(entry.getValue()))));
+        }
+        return new JsonObject().put("version", 1).put("partitions", partitions).encode();
+    }
+
+    /**
+     * Runs the reassignment tool with the given assignment and options in the first broker.
+     * @return The output of the tool.
+     */
+    /* test */ protected String runReassignmentTool(String namespace, String cluster, Map<TopicPartition, List<Integer>> assignment,
+                                                    String options) throws Exception {
+        String pod = KafkaCluster.kafkaPodName(cluster, 0);
+        // Topic names cannot contain quotes, so the JSON can be single quoted
+        String json = reassignmentJson(assignment);
+        for (int start = 0; start < json.length(); start += CHUNK_LENGTH) {
+            String chunk = json.substring(start, Math.min(json.length(), start + CHUNK_LENGTH));
+            exec(namespace, pod, "printf '%s' '" + chunk + "' " + (start == 0 ? ">" : ">>") + " " + REASSIGNMENT_FILE);
+        }
+        return exec(namespace, pod, "bin/kafka-reassign-partitions.sh --zookeeper localhost:2181"
+                + " --reassignment-json-file " + REASSIGNMENT_FILE + " " + options);
+    }
+
+    /**
+     * Runs the given shell command in the kafka container of the given pod.
+     * @return The standard output and error of the command.
+     */
+    private String exec(String namespace, String pod, String command) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CountDownLatch closed = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (ExecWatch watch = client.pods().inNamespace(namespace).withName(pod).inContainer(CONTAINER)
+                .writingOutput(output)
+                .writingError(output)
+                .usingListener(new ClosedListener(closed, failure))
+                .exec("/bin/bash", "-c", command)) {
+            if (!closed.await(operationTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new TimeoutException("Command did not complete in pod " + namespace + "/" + pod);
+            }
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Could not run command in pod " + namespace + "/" + pod, failure.get());
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Counts down a latch once a command has finished, noting the failure if it could not be run.
+     */
+    private static class ClosedListener implements ExecListener {
+        private final CountDownLatch closed;
+        private final AtomicReference<Throwable> failure;
+
+        ClosedListener(CountDownLatch closed, AtomicReference<Throwable> failure) {
+            this.closed = closed;
+            this.failure = failure;
+        }
+
+        @Override
+        public void onOpen(Response response) {
+        }
+
+        @Override
+        public void onFailure(Throwable t, Response response) {
+            failure.set(t);
+            closed.countDown();
+        }
+
+        @Override
+        public void onClose(int code, String reason) {
+            closed.countDown();
+        }
+    }
+
+    /**
+     * The progress of a rebalancing, as of the previous time it was checked.
+     */
+    private static class RebalanceProgress {
+        /** When the brokers should host their share of the replicas. */
+        private final long deadline;
+        private long throttle;
+        private long remainingBytes;
+        private long sampledAt;
+
+        RebalanceProgress(long deadline, long throttle) {
+            this.deadline = deadline;
+            this.throttle = throttle;
+        }
+    }
+}
@@ -8,12 +8,15 @@ import io.fabric8.kubernetes.client.KubernetesClient;
 import io.strimzi.api.kafka.model.DoneableKafka;
 import io.strimzi.api.kafka.KafkaAssemblyList;
 import io.strimzi.api.kafka.model.Kafka;
+import io.strimzi.operator.common.metrics.MetricsRegistry;
 import io.strimzi.operator.common.operator.resource.ClusterRoleBindingOperator;
 import io.strimzi.operator.common.operator.resource.ConfigMapOperator;
 import io.strimzi.operator.common.operator.resource.CrdOperator;
 import io.strimzi.operator.common.operator.resource.DeploymentOperator;
 import io.strimzi.operator.common.operator.resource.NetworkPolicyOperator;
+import io.strimzi.operator.common.operator.resource.PodOperator;
 import io.strimzi.operator.common.operator.resource.PvcOperator;
+import io.strimzi.operator.common.operator.resource.ResourceCaches;
 import io.strimzi.operator.common.operator.resource.RoleBindingOperator;
 import io.strimzi.operator.common.operator.resource.RouteOperator;
 import io.strimzi.operator.common.operator.resource.SecretOperator;
@@ -23,6 +26,8 @@ import io.strimzi.operator.common.operator.resource.ServiceOperator;
 import io.fabric8.openshift.client.OpenShiftClient;
 import io.vertx.core.Vertx;
 
+import java.util.function.BooleanSupplier;
+
 public class ResourceOperatorSupplier {
     public final SecretOperator secretOperations;
     public final ServiceOperator serviceOperations;
@@ -37,8 +42,16 @@ public class ResourceOperatorSupplier {
     public final ClusterRoleBindingOperator clusterRoleBindingOperator;
     public final CrdOperator<KubernetesClient, Kafka, KafkaAssemblyList, DoneableKafka> kafkaOperator;
     public final NetworkPolicyOperator networkPolicyOperator;
+    public final BrokerConfigOperator brokerConfigOperations;
+    public final PartitionReassignmentOperator reassignmentOperations;
+    public final PodOperator podOperations;
 
     public ResourceOperatorSupplier(Vertx vertx, KubernetesClient client, boolean isOpenShift, long operationTimeoutMs) {
+        this(vertx, client, isOpenShift, operationTimeoutMs, new DefaultAdminClientProvider());
+    }
+
+    public ResourceOperatorSupplier(Vertx vertx, KubernetesClient client, boolean isOpenShift, long operationTimeoutMs,
+                                    AdminClientProvider adminClientProvider) {
         this(new ServiceOperator(vertx, client),
             isOpenShift ? new RouteOperator(vertx, client.adapt(OpenShiftClient.class)) : null,
             new ZookeeperSetOperator(vertx, client, operationTimeoutMs),
@@ -51,7 +64,10 @@ public class ResourceOperatorSupplier {
             new RoleBindingOperator(vertx, client),
             new ClusterRoleBindingOperator(vertx, client),
             new NetworkPolicyOperator(vertx, client),
-            new CrdOperator<>(vertx, client, Kafka.class, KafkaAssemblyList .class, DoneableKafka.class));
+            new CrdOperator<>(vertx, client, Kafka.class, KafkaAssemblyList .class, DoneableKafka.class),
+            new BrokerConfigOperator(vertx, adminClientProvider, operationTimeoutMs),
+            new PartitionReassignmentOperator(client, adminClientProvider, operationTimeoutMs),
+            new PodOperator(vertx, client));
     }
 
     public ResourceOperatorSupplier(ServiceOperator serviceOperations,
@@ -67,6 +83,33 @@ public class ResourceOperatorSupplier {
                                     ClusterRoleBindingOperator clusterRoleBindingOperator,
                                     NetworkPolicyOperator networkPolicyOperator,
                                     CrdOperator<KubernetesClient, Kafka, KafkaAssemblyList, DoneableKafka> kafkaOperator) {
+        this(serviceOperations, routeOperations, zkSetOperations, kafkaSetOperations, configMapOperations, secretOperations,
+                pvcOperations, deploymentOperations, serviceAccountOperator, roleBindingOperator, clusterRoleBindingOperator,
+                networkPolicyOperator, kafkaOperator, null, null, null);
+    }
+
+    /**
+     * @param brokerConfigOperations Reconfigures running brokers, or null if brokers should be restarted instead.
+     * @param reassignmentOperations Moves partitions between brokers, or null if brokers should be removed without
+     *                               moving their partitions first.
+     * @param podOperations Lists the pods of a cluster, or null if a replacement of a CA key should not be completed.
+     */
+    public ResourceOperatorSupplier(ServiceOperator serviceOperations,
+                                    RouteOperator routeOperations,
+                                    ZookeeperSetOperator zkSetOperations,
+                                    KafkaSetOperator kafkaSetOperations,
+                                    ConfigMapOperator configMapOperations,
+                                    SecretOperator secretOperations,
+                                    PvcOperator pvcOperations,
+                                    DeploymentOperator deploymentOperations,
+                                    ServiceAccountOperator serviceAccountOperator,
+                                    RoleBindingOperator roleBindingOperator,
+                                    ClusterRoleBindingOperator clusterRoleBindingOperator,
+                                    NetworkPolicyOperator networkPolicyOperator,
+                                    CrdOperator<KubernetesClient, Kafka, KafkaAssemblyList, DoneableKafka> kafkaOperator,
+                                    BrokerConfigOperator brokerConfigOperations,
+                                    PartitionReassignmentOperator reassignmentOperations,
+                                    PodOperator podOperations) {
         this.serviceOperations = serviceOperations;
         this.routeOperations = routeOperations;
         this.zkSetOperations = zkSetOperations;
@@ -80,5 +123,69 @@ public class ResourceOperatorSupplier {
         this.clusterRoleBindingOperator = clusterRoleBindingOperator;
         this.networkPolicyOperator = networkPolicyOperator;
         this.kafkaOperator = kafkaOperator;
+        this.brokerConfigOperations = brokerConfigOperations;
+        this.reassignmentOperations = reassignmentOperations;
+        this.podOperations = podOperations;
+    }
+
+    /**
+     * Serve reads of the cached kinds of resource from the given caches.
+     * @param caches The caches.
+     */
+    public void useCaches(ResourceCaches caches) {
+        serviceOperations.setCache(caches.services);
+        secretOperations.setCache(caches.secrets);
+        configMapOperations.setCache(caches.configMaps);
+        deploymentOperations.setCache(caches.deployments);
+        deploymentOperations.setPodCache(caches.pods);
+        zkSetOperations.setCache(caches.statefulSets);
+        zkSetOperations.setPodCache(caches.pods);
+        kafkaSetOperations.setCache(caches.statefulSets);
+        kafkaSetOperations.setPodCache(caches.pods);
+        podOperations.setCache(caches.pods);
+    }
+
+    /**
+     * Only change resources while this replica of the operator is the leader.
+     * @param leadership Whether this replica is the leader.
+     */
+    public void setLeadership(BooleanSupplier leadership) {
+        serviceOperations.setLeadership(leadership);
+        if (routeOperations != null) {
+            routeOperations.setLeadership(leadership);
+        }
+        zkSetOperations.setLeadership(leadership);
+        kafkaSetOperations.setLeadership(leadership);
+        configMapOperations.setLeadership(leadership);
+        secretOperations.setLeadership(leadership);
+        pvcOperations.setLeadership(leadership);
+        deploymentOperations.setLeadership(leadership);
+        serviceAccountOperator.setLeadership(leadership);
+        roleBindingOperator.setLeadership(leadership);
+        clusterRoleBindingOperator.setLeadership(leadership);
+        networkPolicyOperator.setLeadership(leadership);
+        kafkaOperator.setLeadership(leadership);
+        podOperations.setLeadership(leadership);
+    }
+
+    /**
+     * Counts the patches the resource operators skip in the given {@code metrics}.
+     * @param metrics The metrics registry.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        serviceOperations.setMetrics(metrics);
+        if (routeOperations != null) {
+            routeOperations.setMetrics(metrics);
+        }
+        zkSetOperations.setMetrics(metrics);
+        kafkaSetOperations.setMetrics(metrics);
+        configMapOperations.setMetrics(metrics);
+        secretOperations.setMetrics(metrics);
+        pvcOperations.setMetrics(metrics);
+        deploymentOperations.setMetrics(metrics);
+        serviceAccountOperator.setMetrics(metrics);
+        networkPolicyOperator.setMetrics(metrics);
+        kafkaOperator.setMetrics(metrics);
+        podOperations.setMetrics(metrics);
     }
 }
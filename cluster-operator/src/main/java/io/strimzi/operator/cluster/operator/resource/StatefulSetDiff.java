@@ -5,35 +5,55 @@
 package io.strimzi.operator.cluster.operator.resource;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
 import io.fabric8.kubernetes.api.model.extensions.StatefulSet;
-import io.fabric8.zjsonpatch.JsonDiff;
+import io.strimzi.api.kafka.model.Quantities;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import static io.fabric8.kubernetes.client.internal.PatchUtils.patchMapper;
-import static java.lang.Integer.parseInt;
 import static java.util.Arrays.asList;
 
+/**
+ * <p>The differences between a current and a desired StatefulSet which matter to the operator.</p>
+ *
+ * <p>The JSON trees of the two StatefulSets are first put in a canonical form, the way the API server would store
+ * them: the fields in {@link #DEFAULTS} are given their default values when absent, resource quantities are
+ * normalized (so {@code 1Gi} and {@code 1024Mi}, or {@code 500m} and {@code 0.5}, are the same) and the lists in
+ * {@link #KEYED_LISTS}, whose order doesn't matter, are sorted by their key.</p>
+ *
+ * <p>The trees are then walked together once. A difference is found where a value is added,
+ * removed or replaced, and is ignored if its path is one of the {@link #IGNORABLE_PATHS}.
+ * Array elements are compared index by index.
+ * The walk stops as soon as nothing more can be learned from the rest of the trees
+ * (unless debug logging is enabled, in which case every difference is logged).</p>
+ */
 public class StatefulSetDiff {
 
     private static final Logger log = LogManager.getLogger(StatefulSetDiff.class.getName());
 
-    private static final List<Pattern> IGNORABLE_PATHS;
-    static {
-        IGNORABLE_PATHS = asList(
+    /** The path segment matching any array index. */
+    private static final String ANY_INDEX = "[0-9]+";
+
+    private static final List<String> IGNORABLE_PATHS = asList(
             "/spec/revisionHistoryLimit",
             "/spec/template/metadata/annotations", // Actually it's only the statefulset-generation annotation we care about
             "/spec/template/spec/initContainers/[0-9]+/imagePullPolicy",
             "/spec/template/spec/initContainers/[0-9]+/resources",
             "/spec/template/spec/initContainers/[0-9]+/terminationMessagePath",
             "/spec/template/spec/initContainers/[0-9]+/terminationMessagePolicy",
-            "/spec/template/spec/initContainers/[0-9]+/env/[0-9]+/valueFrom/fieldRef/apiVersion",
             "/spec/template/spec/initContainers/[0-9]+/env/[0-9]+/value",
-            "/spec/template/spec/containers/[0-9]+/env/[0-9]+/valueFrom/fieldRef/apiVersion",
             "/spec/template/spec/containers/[0-9]+/imagePullPolicy",
             "/spec/template/spec/containers/[0-9]+/livenessProbe/failureThreshold",
             "/spec/template/spec/containers/[0-9]+/livenessProbe/periodSeconds",
@@ -55,14 +75,56 @@ public class StatefulSetDiff {
             "/spec/volumeClaimTemplates/[0-9]+/spec/volumeMode",
             "/spec/volumeClaimTemplates/[0-9]+/spec/dataSource",
             "/spec/template/spec/serviceAccount",
-            "/status").stream().map(Pattern::compile).collect(Collectors.toList());
+            "/status");
+
+    /** The default values the API server gives to absent fields, keyed by path. */
+    private static final Map<String, JsonNode> DEFAULTS = new LinkedHashMap<>();
+    static {
+        for (String containers : asList("/spec/template/spec/initContainers", "/spec/template/spec/containers")) {
+            DEFAULTS.put(containers + "/[0-9]+/env/[0-9]+/valueFrom/fieldRef/apiVersion", TextNode.valueOf("v1"));
+            DEFAULTS.put(containers + "/[0-9]+/ports/[0-9]+/protocol", TextNode.valueOf("TCP"));
+            DEFAULTS.put(containers + "/[0-9]+/livenessProbe/timeoutSeconds", IntNode.valueOf(1));
+            DEFAULTS.put(containers + "/[0-9]+/readinessProbe/timeoutSeconds", IntNode.valueOf(1));
+        }
+    }
+
+    /** The lists whose order doesn't matter, keyed by path, with the field identifying their elements. */
+    private static final Map<String, String> KEYED_LISTS = new LinkedHashMap<>();
+    static {
+        KEYED_LISTS.put("/spec/template/spec/initContainers/[0-9]+/env", "name");
+        KEYED_LISTS.put("/spec/template/spec/containers/[0-9]+/env", "name");
+        KEYED_LISTS.put("/spec/template/spec/volumes", "name");
     }
 
-    private static boolean equalsOrPrefix(String path, String pathValue) {
-        return pathValue.equals(path)
-                || pathValue.startsWith(path + "/");
+    /** The resource requirements, whose quantities are normalized. */
+    private static final List<String> RESOURCES = asList(
+            "/spec/template/spec/initContainers/[0-9]+/resources",
+            "/spec/template/spec/containers/[0-9]+/resources",
+            "/spec/volumeClaimTemplates/[0-9]+/spec/resources");
+
+    private static final int DIFFERS = 1;
+    private static final int CHANGES_VOLUME_CLAIM_TEMPLATES = 1 << 1;
+    private static final int CHANGES_SPEC_TEMPLATE_SPEC = 1 << 2;
+    private static final int CHANGES_LABELS = 1 << 3;
+    private static final int CHANGES_SPEC_REPLICAS = 1 << 4;
+
+    private static final PathNode ROOT = new PathNode();
+    static {
+        for (String path : IGNORABLE_PATHS) {
+            ROOT.add(path).ignorable = true;
+        }
+        ROOT.add("/spec/volumeClaimTemplates").flag = CHANGES_VOLUME_CLAIM_TEMPLATES;
+        ROOT.add("/spec/template/spec").flag = CHANGES_SPEC_TEMPLATE_SPEC;
+        ROOT.add("/metadata/labels").flag = CHANGES_LABELS;
+        ROOT.add("/spec/replicas").flag = CHANGES_SPEC_REPLICAS;
+        ROOT.computeFlagsBelow();
     }
 
+    private final String namespace;
+    private final String name;
+    private final boolean logDiffs;
+    private int found;
+
     private final boolean changesVolumeClaimTemplate;
     private final boolean isEmpty;
     private final boolean changesSpecTemplateSpec;
@@ -70,60 +132,177 @@ public class StatefulSetDiff {
     private final boolean changesSpecReplicas;
 
     public StatefulSetDiff(StatefulSet current, StatefulSet desired) {
-        JsonNode diff = JsonDiff.asJson(patchMapper().valueToTree(current), patchMapper().valueToTree(desired));
-        int num = 0;
-        boolean changesVolumeClaimTemplate = false;
-        boolean changesSpecTemplateSpec = false;
-        boolean changesLabels = false;
-        boolean changesSpecReplicas = false;
-        outer: for (JsonNode d : diff) {
-            String pathValue = d.get("path").asText();
-            for (Pattern pattern : IGNORABLE_PATHS) {
-                if (pattern.matcher(pathValue).matches()) {
-                    log.debug("StatefulSet {}/{} ignoring diff {}", current.getMetadata().getNamespace(), current.getMetadata().getName(), d);
-                    continue outer;
+        this.namespace = current.getMetadata().getNamespace();
+        this.name = current.getMetadata().getName();
+        this.logDiffs = log.isDebugEnabled();
+        diff(logDiffs ? "" : null, ROOT, 0, canonicalize(patchMapper().valueToTree(current)), canonicalize(patchMapper().valueToTree(desired)));
+        this.isEmpty = (found & DIFFERS) == 0;
+        this.changesLabels = (found & CHANGES_LABELS) != 0;
+        this.changesSpecReplicas = (found & CHANGES_SPEC_REPLICAS) != 0;
+        this.changesSpecTemplateSpec = (found & CHANGES_SPEC_TEMPLATE_SPEC) != 0;
+        this.changesVolumeClaimTemplate = (found & CHANGES_VOLUME_CLAIM_TEMPLATES) != 0;
+    }
+
+    /**
+     * Puts the given StatefulSet tree in canonical form, in place.
+     * @param statefulSet The tree
+     * @return The tree
+     */
+    private static JsonNode canonicalize(JsonNode statefulSet) {
+        for (Map.Entry<String, JsonNode> entry : DEFAULTS.entrySet()) {
+            JsonNode value = entry.getValue();
+            forEachAt(statefulSet, entry.getKey(), (parent, field) -> {
+                if (!parent.has(field)) {
+                    parent.set(field, value);
                 }
-            }
-            if (log.isDebugEnabled()) {
-                log.debug("StatefulSet {}/{} differs: {}", current.getMetadata().getNamespace(), current.getMetadata().getName(), d);
-                log.debug("Current StatefulSet path {} has value {}", pathValue, getFromPath(current, pathValue));
-                log.debug("Desired StatefulSet path {} has value {}", pathValue, getFromPath(desired, pathValue));
-            }
+            });
+        }
+        for (String path : RESOURCES) {
+            forEachAt(statefulSet, path, (parent, field) -> {
+                for (String requirement : asList("limits", "requests")) {
+                    JsonNode quantities = parent.path(field).path(requirement);
+                    if (quantities.isObject()) {
+                        normalizeQuantities((ObjectNode) quantities);
+                    }
+                }
+            });
+        }
+        for (Map.Entry<String, String> entry : KEYED_LISTS.entrySet()) {
+            String key = entry.getValue();
+            forEachAt(statefulSet, entry.getKey(), (parent, field) -> {
+                JsonNode list = parent.get(field);
+                if (list != null && list.isArray()) {
+                    List<JsonNode> elements = new ArrayList<>(list.size());
+                    list.forEach(elements::add);
+                    elements.sort(Comparator.comparing((JsonNode element) -> element.path(key).asText()));
+                    ((ArrayNode) list).removeAll().addAll(elements);
+                }
+            });
+        }
+        return statefulSet;
+    }
 
-            num++;
-            changesVolumeClaimTemplate |= equalsOrPrefix("/spec/volumeClaimTemplates", pathValue);
-            // Change changes to /spec/template/spec, except to imagePullPolicy, which gets changed
-            // by k8s
-            changesSpecTemplateSpec |= equalsOrPrefix("/spec/template/spec", pathValue);
-            changesLabels |= equalsOrPrefix("/metadata/labels", pathValue);
-            changesSpecReplicas |= equalsOrPrefix("/spec/replicas", pathValue);
-        }
-        this.isEmpty = num == 0;
-        this.changesLabels = changesLabels;
-        this.changesSpecReplicas = changesSpecReplicas;
-        this.changesSpecTemplateSpec = changesSpecTemplateSpec;
-        this.changesVolumeClaimTemplate = changesVolumeClaimTemplate;
-    }
-
-    private JsonNode getFromPath(StatefulSet current, String pathValue) {
-        JsonNode node1 = patchMapper().valueToTree(current);
-        for (String field : pathValue.replaceFirst("^/", "").split("/")) {
-            JsonNode node2 = node1.get(field);
-            if (node2 == null) {
+    private static void normalizeQuantities(ObjectNode quantities) {
+        Iterator<Map.Entry<String, JsonNode>> fields = quantities.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            // Depending on the model version a Quantity is written as a string or as its amount and format
+            String quantity = value.isTextual() ? value.asText()
+                    : value.has("amount") ? value.path("amount").asText() + value.path("format").asText("") : null;
+            if (quantity != null) {
                 try {
-                    int index = parseInt(field);
-                    node2 = node1.get(index);
-                } catch (NumberFormatException e) {
+                    field.setValue(TextNode.valueOf("cpu".equals(field.getKey()) ?
+                            Quantities.normalizeCpu(quantity) : Quantities.normalizeMemory(quantity)));
+                } catch (RuntimeException e) {
+                    // Not a quantity we can parse, leave it for the API server to reject
+                    log.trace("Cannot normalize quantity {}", quantity, e);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface FieldConsumer {
+        void accept(ObjectNode parent, String field);
+    }
+
+    /**
+     * Calls the given consumer with the parent object and the name of each field at the given path,
+     * for each array element where the path contains {@link #ANY_INDEX}, whether the field is present or not.
+     */
+    private static void forEachAt(JsonNode node, String path, FieldConsumer consumer) {
+        String[] segments = path.substring(1).split("/");
+        forEachAt(node, segments, 0, consumer);
+    }
+
+    private static void forEachAt(JsonNode node, String[] segments, int index, FieldConsumer consumer) {
+        String segment = segments[index];
+        if (ANY_INDEX.equals(segment)) {
+            if (node.isArray()) {
+                for (JsonNode element : node) {
+                    forEachAt(element, segments, index + 1, consumer);
                 }
             }
-            if (node2 == null) {
-                node1 = null;
-                break;
-            } else {
-                node1 = node2;
+        } else if (node.isObject()) {
+            if (index == segments.length - 1) {
+                consumer.accept((ObjectNode) node, segment);
+            } else if (node.has(segment)) {
+                forEachAt(node.get(segment), segments, index + 1, consumer);
+            }
+        }
+    }
+
+    /**
+     * Compares the {@code current} and {@code desired} values at some path.
+     * @param path The path, used only for logging (null if differences are not being logged).
+     * @param pathNode The node for the path, or null if no ignorable path or flag lies at or below it.
+     * @param flag The flag for the path, inherited from its nearest ancestor having one.
+     * @param current The current value, or null if it is absent.
+     * @param desired The desired value, or null if it is absent.
+     */
+    private void diff(String path, PathNode pathNode, int flag, JsonNode current, JsonNode desired) {
+        if (pathNode != null && pathNode.flag != 0) {
+            flag = pathNode.flag;
+        }
+        int learnable = DIFFERS | flag | (pathNode != null ? pathNode.flagsBelow : 0);
+        if (!logDiffs && (found & learnable) == learnable) {
+            return;
+        }
+        if (current != null && desired != null
+                && current.isObject() && desired.isObject()) {
+            diffObjects(path, pathNode, flag, current, desired);
+        } else if (current != null && desired != null
+                && current.isArray() && desired.isArray()) {
+            diffArrays(path, pathNode, flag, current, desired);
+        } else if (current == null ? desired != null : !current.equals(desired)) {
+            differs(path, pathNode, flag, current, desired);
+        }
+    }
+
+    /** Records that the {@code current} and {@code desired} values at some path differ, unless the path is ignorable. */
+    private void differs(String path, PathNode pathNode, int flag, JsonNode current, JsonNode desired) {
+        if (pathNode != null && pathNode.ignorable) {
+            log.debug("StatefulSet {}/{} ignoring diff at path {}", namespace, name, path);
+        } else {
+            found |= DIFFERS | flag;
+            if (logDiffs) {
+                log.debug("StatefulSet {}/{} differs at path {}", namespace, name, path);
+                log.debug("Current StatefulSet path {} has value {}", path, current);
+                log.debug("Desired StatefulSet path {} has value {}", path, desired);
+            }
+        }
+    }
+
+    private void diffObjects(String path, PathNode pathNode, int flag, JsonNode current, JsonNode desired) {
+        Iterator<Map.Entry<String, JsonNode>> fields = current.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String fieldName = field.getKey();
+            diff(childPath(path, fieldName), pathNode != null ? pathNode.fields.get(fieldName) : null, flag,
+                    field.getValue(), desired.get(fieldName));
+        }
+        Iterator<String> fieldNames = desired.fieldNames();
+        while (fieldNames.hasNext()) {
+            String fieldName = fieldNames.next();
+            if (!current.has(fieldName)) {
+                diff(childPath(path, fieldName), pathNode != null ? pathNode.fields.get(fieldName) : null, flag,
+                        null, desired.get(fieldName));
             }
         }
-        return node1;
+    }
+
+    private void diffArrays(String path, PathNode pathNode, int flag, JsonNode current, JsonNode desired) {
+        PathNode elementNode = pathNode != null ? pathNode.anyIndex : null;
+        int size = Math.max(current.size(), desired.size());
+        for (int i = 0; i < size; i++) {
+            // get() returns null for an index beyond the end of the array
+            diff(path != null ? path + "/" + i : null, elementNode, flag, current.get(i), desired.get(i));
+        }
+    }
+
+    private static String childPath(String path, String fieldName) {
+        return path != null ? path + "/" + fieldName.replace("~", "~0").replace("/", "~1") : null;
     }
 
     public boolean isEmpty() {
@@ -149,4 +328,42 @@ public class StatefulSetDiff {
     public boolean changesSpecReplicas() {
         return changesSpecReplicas;
     }
+
+    /**
+     * A node in the tree of the {@link #IGNORABLE_PATHS} and the paths whose differences are flagged.
+     */
+    private static class PathNode {
+        private final Map<String, PathNode> fields = new HashMap<>();
+        private PathNode anyIndex;
+        private boolean ignorable;
+        private int flag;
+        private int flagsBelow;
+
+        private PathNode add(String path) {
+            PathNode node = this;
+            for (String segment : path.substring(1).split("/")) {
+                if (ANY_INDEX.equals(segment)) {
+                    if (node.anyIndex == null) {
+                        node.anyIndex = new PathNode();
+                    }
+                    node = node.anyIndex;
+                } else {
+                    node = node.fields.computeIfAbsent(segment, k -> new PathNode());
+                }
+            }
+            return node;
+        }
+
+        private int computeFlagsBelow() {
+            int below = 0;
+            for (PathNode child : fields.values()) {
+                below |= child.flag | child.computeFlagsBelow();
+            }
+            if (anyIndex != null) {
+                below |= anyIndex.flag | anyIndex.computeFlagsBelow();
+            }
+            flagsBelow = below;
+            return below;
+        }
+    }
 }
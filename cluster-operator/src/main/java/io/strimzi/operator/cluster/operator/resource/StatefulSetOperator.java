@@ -7,6 +7,7 @@ package io.strimzi.operator.cluster.operator.resource;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
 import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
 import io.fabric8.kubernetes.api.model.Volume;
 import io.fabric8.kubernetes.api.model.extensions.DoneableStatefulSet;
 import io.fabric8.kubernetes.api.model.extensions.StatefulSet;
@@ -20,6 +21,8 @@ import io.strimzi.operator.common.operator.resource.AbstractScalableResourceOper
 import io.strimzi.operator.common.operator.resource.PodOperator;
 import io.strimzi.operator.common.operator.resource.PvcOperator;
 import io.strimzi.operator.common.operator.resource.ReconcileResult;
+import io.strimzi.operator.common.operator.resource.ResourceCache;
+import io.strimzi.operator.common.tracing.Tracing;
 import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
@@ -29,6 +32,7 @@ import org.apache.logging.log4j.Logger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
 import java.util.function.Predicate;
 
 /**
@@ -62,6 +66,21 @@ public abstract class StatefulSetOperator extends AbstractScalableResourceOperat
         this.pvcOperations = pvcOperator;
     }
 
+    /**
+     * Serve reads of the StatefulSets' pods from the given cache.
+     * @param cache The cache, or null to always read pods from the API server.
+     */
+    public void setPodCache(ResourceCache<Pod> cache) {
+        podOperations.setCache(cache);
+    }
+
+    @Override
+    public void setLeadership(BooleanSupplier leadership) {
+        super.setLeadership(leadership);
+        podOperations.setLeadership(leadership);
+        pvcOperations.setLeadership(leadership);
+    }
+
     @Override
     protected MixedOperation<StatefulSet, StatefulSetList, DoneableStatefulSet, RollableScalableResource<StatefulSet, DoneableStatefulSet>> operation() {
         return client.apps().statefulSets();
@@ -71,7 +90,7 @@ public abstract class StatefulSetOperator extends AbstractScalableResourceOperat
      * Asynchronously perform a rolling update of all the pods in the StatefulSet identified by the given
      * {@code namespace} and {@code name}, returning a Future that will complete when the rolling update
      * is complete. Starting with pod 0, each pod will be deleted and re-created automatically by the ReplicaSet,
-     * once the pod has been recreated then given {@code isReady} function will be polled until it returns true,
+     * once the pod has been recreated the process waits (using the shared pod watch) for it to become ready,
      * before the process proceeds with the pod with the next higher number.
      */
     public Future<Void> maybeRollingUpdate(StatefulSet ss, Predicate<Pod> podRestart) {
@@ -132,6 +151,10 @@ public abstract class StatefulSetOperator extends AbstractScalableResourceOperat
         String name = ss.getMetadata().getName();
         Pod pod = podOperations.get(ss.getMetadata().getNamespace(), podName);
         if (podRestart.test(pod)) {
+            // The predicate may have taken a while, so make sure that no other replica has taken over meanwhile
+            if (!isLeader()) {
+                return Future.failedFuture(notLeader("rolling", namespace, name));
+            }
             Future<Void> result = Future.future();
             Future<ReconcileResult<Pod>> deleteFinished = Future.future();
             log.info("Rolling update of {}/{}: Rolling pod {}", namespace, name, podName);
@@ -141,13 +164,16 @@ public abstract class StatefulSetOperator extends AbstractScalableResourceOperat
 
             // Delete the pod
             Future<ReconcileResult<Pod>> podReconcileFuture = deleted.compose(l -> {
+                if (!isLeader()) {
+                    return Future.failedFuture(notLeader("rolling", namespace, name));
+                }
                 log.debug("Rolling update of {}/{}: Waiting for pod {} to be deleted", namespace, name, podName);
                 // null as desired parameter means pod will be deleted
                 return podOperations.reconcile(namespace, podName, null);
             }).compose(ignore -> {
-                Future del = podOperations.waitFor(namespace, name, pollingIntervalMs, timeoutMs, (ignore1, ignore2) -> {
-                    // predicate - changed generation means pod has been updated
-                    String newUid = getPodUid(podOperations.get(namespace, podName));
+                Future del = podOperations.waitFor(namespace, podName, pollingIntervalMs, timeoutMs, (Pod newPod) -> {
+                    // predicate - changed uid means pod has been updated
+                    String newUid = getPodUid(newPod);
                     boolean done = !deleted.result().equals(newUid);
                     if (done) {
                         log.debug("Rolling pod {} finished", podName);
@@ -171,6 +197,30 @@ public abstract class StatefulSetOperator extends AbstractScalableResourceOperat
         }
     }
 
+    /**
+     * @return The pod with the given name, or null if it doesn't exist.
+     */
+    public Pod getPod(String namespace, String podName) {
+        return podOperations.get(namespace, podName);
+    }
+
+    /**
+     * Asynchronously adds the given annotations to the pod with the given name, for instance to record that the pod
+     * has been brought up to date without being restarted.
+     */
+    public Future<Void> annotatePod(String namespace, String podName, Map<String, String> annotations) {
+        Pod pod = podOperations.get(namespace, podName);
+        if (pod == null) {
+            return Future.failedFuture("Pod " + namespace + "/" + podName + " does not exist");
+        }
+        Pod annotated = new PodBuilder(pod)
+                .editMetadata()
+                    .addToAnnotations(annotations)
+                .endMetadata()
+                .build();
+        return podOperations.reconcile(namespace, podName, annotated).map((Void) null);
+    }
+
     @Override
     protected Integer currentScale(String namespace, String name) {
         StatefulSet statefulSet = get(namespace, name);
@@ -312,10 +362,10 @@ public abstract class StatefulSetOperator extends AbstractScalableResourceOperat
     protected Future<String> getUid(String namespace, String podName) {
         Future<String> result = Future.future();
         vertx.createSharedWorkerExecutor("kubernetes-ops-tool").executeBlocking(
-            future -> {
+            Tracing.propagate(future -> {
                 String uid = getPodUid(podOperations.get(namespace, podName));
                 future.complete(uid);
-            }, true, result.completer()
+            }), true, Tracing.propagate(result.completer())
         );
         return result;
     }
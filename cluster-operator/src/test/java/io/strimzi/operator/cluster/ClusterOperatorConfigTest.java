@@ -18,6 +18,9 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singleton;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class ClusterOperatorConfigTest {
 
@@ -44,6 +47,12 @@ public class ClusterOperatorConfigTest {
         assertEquals(singleton("namespace"), config.getNamespaces());
         assertEquals(ClusterOperatorConfig.DEFAULT_FULL_RECONCILIATION_INTERVAL_MS, config.getReconciliationIntervalMs());
         assertEquals(ClusterOperatorConfig.DEFAULT_OPERATION_TIMEOUT_MS, config.getOperationTimeoutMs());
+        assertEquals(ClusterOperatorConfig.DEFAULT_RESOURCE_CACHE, config.isResourceCache());
+        assertEquals(ClusterOperatorConfig.DEFAULT_DEEP_RECONCILIATION_INTERVAL_MS, config.getDeepReconciliationIntervalMs());
+        assertEquals(ClusterOperatorConfig.DEFAULT_BLOCKING_OPERATIONS_PER_ASSEMBLY, config.getBlockingOperationsPerAssembly());
+        assertFalse(config.isClusterWideWatch());
+        assertNull(config.getTraceFile());
+        assertNull(config.getLeaderElection());
     }
 
     @Test
@@ -66,6 +75,99 @@ public class ClusterOperatorConfigTest {
         assertEquals(30_000, config.getOperationTimeoutMs());
     }
 
+    @Test
+    public void testResourceCache() {
+
+        Map<String, String> envVars = new HashMap<>(ClusterOperatorConfigTest.envVars);
+        envVars.put(ClusterOperatorConfig.STRIMZI_RESOURCE_CACHE, "true");
+
+        ClusterOperatorConfig config = ClusterOperatorConfig.fromMap(envVars);
+        assertEquals(true, config.isResourceCache());
+    }
+
+    @Test
+    public void testDeepReconciliationInterval() {
+
+        Map<String, String> envVars = new HashMap<>(ClusterOperatorConfigTest.envVars);
+        envVars.put(ClusterOperatorConfig.STRIMZI_DEEP_RECONCILIATION_INTERVAL_MS, "0");
+
+        ClusterOperatorConfig config = ClusterOperatorConfig.fromMap(envVars);
+        assertEquals(0, config.getDeepReconciliationIntervalMs());
+    }
+
+    @Test
+    public void testClusterWideWatch() {
+
+        Map<String, String> envVars = new HashMap<>(ClusterOperatorConfigTest.envVars);
+        envVars.put(ClusterOperatorConfig.STRIMZI_CLUSTER_WIDE_WATCH, "true");
+
+        ClusterOperatorConfig config = ClusterOperatorConfig.fromMap(envVars);
+        assertTrue(config.isClusterWideWatch());
+
+        envVars.remove(ClusterOperatorConfig.STRIMZI_CLUSTER_WIDE_WATCH);
+        envVars.put(ClusterOperatorConfig.STRIMZI_NAMESPACE, "*");
+        config = ClusterOperatorConfig.fromMap(envVars);
+        assertEquals(singleton("*"), config.getNamespaces());
+        assertTrue(config.isClusterWideWatch());
+    }
+
+    @Test
+    public void testTraceFile() {
+
+        Map<String, String> envVars = new HashMap<>(ClusterOperatorConfigTest.envVars);
+        envVars.put(ClusterOperatorConfig.STRIMZI_TRACE_FILE, " /var/log/strimzi/traces.json ");
+
+        ClusterOperatorConfig config = ClusterOperatorConfig.fromMap(envVars);
+        assertEquals("/var/log/strimzi/traces.json", config.getTraceFile());
+
+        envVars.put(ClusterOperatorConfig.STRIMZI_TRACE_FILE, "");
+        config = ClusterOperatorConfig.fromMap(envVars);
+        assertNull(config.getTraceFile());
+    }
+
+    @Test
+    public void testLeaderElection() {
+
+        Map<String, String> envVars = new HashMap<>(ClusterOperatorConfigTest.envVars);
+        envVars.put(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_LEASE_NAME, "strimzi-cluster-operator");
+        envVars.put(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_LEASE_NAMESPACE, "myproject");
+        envVars.put("HOSTNAME", "strimzi-cluster-operator-1234-abcd");
+
+        LeaderElectionConfig leaderElection = ClusterOperatorConfig.fromMap(envVars).getLeaderElection();
+        assertEquals("myproject", leaderElection.getNamespace());
+        assertEquals("strimzi-cluster-operator", leaderElection.getLeaseName());
+        assertEquals("strimzi-cluster-operator-1234-abcd", leaderElection.getIdentity());
+        assertEquals(LeaderElectionConfig.DEFAULT_LEASE_DURATION_MS, leaderElection.getLeaseDurationMs());
+
+        envVars.put(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_IDENTITY, "replica-a");
+        envVars.put(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_LEASE_DURATION_MS, "6000");
+        leaderElection = ClusterOperatorConfig.fromMap(envVars).getLeaderElection();
+        assertEquals("replica-a", leaderElection.getIdentity());
+        assertEquals(6_000, leaderElection.getLeaseDurationMs());
+        assertEquals(4_000, leaderElection.getRenewDeadlineMs());
+        assertEquals(1_200, leaderElection.getRetryPeriodMs());
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void testLeaderElectionWithoutNamespace() {
+
+        Map<String, String> envVars = new HashMap<>(ClusterOperatorConfigTest.envVars);
+        envVars.put(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_LEASE_NAME, "strimzi-cluster-operator");
+        envVars.put(ClusterOperatorConfig.STRIMZI_LEADER_ELECTION_IDENTITY, "replica-a");
+
+        ClusterOperatorConfig.fromMap(envVars);
+    }
+
+    @Test
+    public void testBlockingOperationsPerAssembly() {
+
+        Map<String, String> envVars = new HashMap<>(ClusterOperatorConfigTest.envVars);
+        envVars.put(ClusterOperatorConfig.STRIMZI_BLOCKING_OPERATIONS_PER_ASSEMBLY, "4");
+
+        ClusterOperatorConfig config = ClusterOperatorConfig.fromMap(envVars);
+        assertEquals(4, config.getBlockingOperationsPerAssembly());
+    }
+
     @Test
     public void testEnvVarsDefault() {
 
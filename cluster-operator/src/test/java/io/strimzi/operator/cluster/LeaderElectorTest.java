@@ -0,0 +1,200 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LeaderElectorTest {
+
+    private static final long LEASE_DURATION_MS = 15_000;
+
+    /** The lock, as stored by the API server, which replaces it only if the resourceVersion matches */
+    private ConfigMap lock;
+    private int resourceVersion;
+    /** A clock shared by the replicas, which the tests advance */
+    private long nanos;
+
+    @Before
+    public void before() {
+        lock = null;
+        resourceVersion = 0;
+        nanos = 1_000_000_000L;
+    }
+
+    private void advance(long ms) {
+        nanos += TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    private class Replica extends LeaderElector {
+        final AtomicInteger started;
+        final AtomicInteger stopped;
+        /** Milliseconds by which reading the lock advances the clock, as if the API server were slow */
+        long getLatencyMs;
+
+        Replica(String identity) {
+            this(identity, new AtomicInteger(), new AtomicInteger());
+        }
+
+        private Replica(String identity, AtomicInteger started, AtomicInteger stopped) {
+            super(null, null, new LeaderElectionConfig("ns", "strimzi-cluster-operator", identity, LeaderElectorTest.LEASE_DURATION_MS),
+                v -> started.incrementAndGet(), v -> stopped.incrementAndGet(), () -> nanos);
+            this.started = started;
+            this.stopped = stopped;
+        }
+
+        @Override
+        protected ConfigMap getLock() {
+            advance(getLatencyMs);
+            return lock != null ? new ConfigMapBuilder(lock).build() : null;
+        }
+
+        @Override
+        protected boolean createLock(ConfigMap desired) {
+            if (lock != null) {
+                return false;
+            }
+            store(desired);
+            return true;
+        }
+
+        @Override
+        protected boolean replaceLock(ConfigMap current, ConfigMap desired) {
+            if (!lock.getMetadata().getResourceVersion().equals(current.getMetadata().getResourceVersion())) {
+                return false;
+            }
+            store(desired);
+            return true;
+        }
+
+        private void store(ConfigMap desired) {
+            lock = new ConfigMapBuilder(desired).editMetadata().withResourceVersion(String.valueOf(++resourceVersion)).endMetadata().build();
+        }
+
+        boolean tick() {
+            boolean renewed = tryAcquireOrRenew();
+            updateLeadership(renewed);
+            return renewed;
+        }
+
+        String holder() {
+            return lock.getData().get(LeaderElector.HOLDER_IDENTITY);
+        }
+    }
+
+    @Test
+    public void testFirstReplicaAcquiresTheLease() {
+        Replica a = new Replica("a");
+        Replica b = new Replica("b");
+
+        assertTrue(a.tick());
+        assertTrue(a.isLeader());
+        assertFalse(b.tick());
+        assertFalse(b.isLeader());
+        assertEquals("a", a.holder());
+        assertEquals("0", lock.getData().get(LeaderElector.LEADER_TRANSITIONS));
+
+        advance(LEASE_DURATION_MS / 5);
+        assertTrue(a.tick());
+        assertTrue(a.isLeader());
+        assertFalse(b.tick());
+    }
+
+    @Test
+    public void testOnlyOneOfTwoConcurrentAttemptsSucceeds() {
+        Replica a = new Replica("a");
+        Replica b = new Replica("b");
+        a.tick();
+        a.close();
+
+        // Both read the released lock before either replaces it
+        ConfigMap read = a.getLock();
+        ConfigMap desired = new ConfigMapBuilder(read).addToData(LeaderElector.HOLDER_IDENTITY, "b").build();
+        assertTrue(a.tryAcquireOrRenew());
+        assertFalse(b.replaceLock(read, desired));
+        assertEquals("a", a.holder());
+    }
+
+    @Test
+    public void testStandbyTakesOverOnlyOnceTheLeaseHasExpired() {
+        Replica a = new Replica("a");
+        Replica b = new Replica("b");
+        a.tick();
+        b.tick();
+
+        // a fails, so stops renewing
+        advance(LEASE_DURATION_MS - 1);
+        assertFalse(b.tick());
+        advance(1);
+        assertTrue(b.tick());
+        assertTrue(b.isLeader());
+        assertEquals("b", b.holder());
+        assertEquals("1", lock.getData().get(LeaderElector.LEADER_TRANSITIONS));
+
+        // a stopped acting as leader well before b took over
+        assertFalse(a.isLeader());
+        a.updateLeadership(false);
+        assertEquals(1, a.stopped.get());
+    }
+
+    @Test
+    public void testLeaderStopsLeadingBeforeTheLeaseCanExpire() {
+        Replica a = new Replica("a");
+        Replica b = new Replica("b");
+        a.tick();
+        b.tick();
+        assertEquals(1, a.started.get());
+
+        // a can't reach the API server, and so can't renew
+        advance(LEASE_DURATION_MS * 2 / 3);
+        a.updateLeadership(false);
+        assertFalse(a.isLeader());
+        assertEquals(1, a.stopped.get());
+        assertFalse(b.tick());
+        assertFalse(b.isLeader());
+    }
+
+    @Test
+    public void testRenewalWhichTookTooLongDoesNotRestoreLeadership() {
+        Replica a = new Replica("a");
+        a.tick();
+
+        // The renewal succeeds, but only after the deadline, so b might already consider the lease expired
+        a.getLatencyMs = LEASE_DURATION_MS;
+        assertTrue(a.tick());
+        assertFalse(a.isLeader());
+        assertEquals(1, a.stopped.get());
+
+        // and the next, prompt, renewal restores it
+        a.getLatencyMs = 0;
+        assertTrue(a.tick());
+        assertTrue(a.isLeader());
+        assertEquals(2, a.started.get());
+    }
+
+    @Test
+    public void testReleasedLeaseIsTakenOverImmediately() {
+        Replica a = new Replica("a");
+        Replica b = new Replica("b");
+        a.tick();
+        b.tick();
+
+        a.close();
+        assertFalse(a.isLeader());
+        assertEquals("", a.holder());
+        assertTrue(b.tick());
+        assertTrue(b.isLeader());
+        assertEquals("b", b.holder());
+    }
+}
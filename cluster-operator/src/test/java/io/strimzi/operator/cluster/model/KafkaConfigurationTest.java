@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.model;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class KafkaConfigurationTest {
+
+    @Test
+    public void testScope() {
+        assertEquals(KafkaConfiguration.Scope.CLUSTER_WIDE, KafkaConfiguration.scope("2.0.0", "log.cleaner.threads"));
+        assertEquals(KafkaConfiguration.Scope.CLUSTER_WIDE, KafkaConfiguration.scope("2.0.0", "log.message.downconversion.enable"));
+        assertEquals(KafkaConfiguration.Scope.PER_BROKER, KafkaConfiguration.scope("2.0.0", "ssl.keystore.location"));
+        assertEquals(KafkaConfiguration.Scope.PER_BROKER, KafkaConfiguration.scope("2.0.0", "listener.name.replication.ssl.keystore.location"));
+        assertEquals(KafkaConfiguration.Scope.READ_ONLY, KafkaConfiguration.scope("2.0.0", "auto.create.topics.enable"));
+        assertEquals(KafkaConfiguration.Scope.READ_ONLY, KafkaConfiguration.scope("2.0.0", "log.message.format.version"));
+        assertEquals(KafkaConfiguration.Scope.READ_ONLY, KafkaConfiguration.scope("2.0.0", "max.connections.per.ip"));
+        assertEquals(KafkaConfiguration.Scope.CLUSTER_WIDE, KafkaConfiguration.scope("2.1.0", "max.connections.per.ip"));
+        assertEquals(KafkaConfiguration.Scope.READ_ONLY, KafkaConfiguration.scope("1.0.0", "log.cleaner.threads"));
+    }
+
+    @Test
+    public void testChangedOptions() {
+        KafkaConfiguration current = KafkaConfiguration.unvalidated("num.io.threads=8\nlog.retention.ms=1000\nauto.create.topics.enable=false\n");
+        KafkaConfiguration desired = KafkaConfiguration.unvalidated("auto.create.topics.enable=false\nnum.io.threads=4\nlog.cleaner.threads=2\n");
+        assertEquals(new HashSet<>(asList("num.io.threads", "log.retention.ms", "log.cleaner.threads")),
+                desired.changedOptions(current));
+        assertEquals(singleton("num.io.threads"),
+                KafkaConfiguration.unvalidated("num.io.threads=4\n").changedOptions(KafkaConfiguration.unvalidated("num.io.threads=8\n")));
+    }
+
+    @Test
+    public void testIsDynamicChangeFrom() {
+        KafkaConfiguration current = KafkaConfiguration.unvalidated("num.io.threads=8\nauto.create.topics.enable=false\n");
+        assertTrue(KafkaConfiguration.unvalidated("num.io.threads=4\nauto.create.topics.enable=false\nlog.cleaner.threads=2\n")
+                .isDynamicChangeFrom(current, "2.0.0"));
+        assertFalse(KafkaConfiguration.unvalidated("num.io.threads=4\nauto.create.topics.enable=true\n")
+                .isDynamicChangeFrom(current, "2.0.0"));
+        assertFalse(KafkaConfiguration.unvalidated("auto.create.topics.enable=false\n")
+                .isDynamicChangeFrom(current, "2.0.0"));
+    }
+
+    @Test
+    public void testDynamicConfiguration() {
+        Map<String, String> dynamic = KafkaConfiguration.unvalidated("num.io.threads=4\nauto.create.topics.enable=false\n")
+                .dynamicConfiguration("2.0.0");
+        assertEquals("4", dynamic.get("num.io.threads"));
+        assertTrue(dynamic.containsKey("log.cleaner.threads"));
+        assertNull(dynamic.get("log.cleaner.threads"));
+        assertFalse(dynamic.containsKey("auto.create.topics.enable"));
+        assertFalse(dynamic.containsKey("max.connections.per.ip"));
+        // Options the operator manages itself are never changed
+        assertFalse(dynamic.containsKey("ssl.keystore.location"));
+        assertFalse(dynamic.containsKey("listeners"));
+    }
+
+    @Test
+    public void testDigest() {
+        String digest = KafkaConfiguration.unvalidated("num.io.threads=4\nauto.create.topics.enable=false\n").digest();
+        assertEquals(16, digest.length());
+        assertEquals(digest, KafkaConfiguration.unvalidated("auto.create.topics.enable=false\nnum.io.threads=4\n").digest());
+        assertNotEquals(digest, KafkaConfiguration.unvalidated("auto.create.topics.enable=false\nnum.io.threads=8\n").digest());
+    }
+
+    @Test
+    public void testEquivalentValuesAreWrittenTheSameWay() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("num.io.threads", 8.0);
+        config.put("message.max.bytes", "1Mi");
+        config.put("log.retention.ms", " 604800000 ");
+        config.put("log.cleaner.min.cleanable.ratio", "0.50");
+        config.put("auto.create.topics.enable", "TRUE");
+        config.put("log.cleanup.policy", "delete, compact");
+        config.put("some.unknown.option", " value ");
+        KafkaConfiguration configuration = new KafkaConfiguration(config.entrySet());
+
+        assertEquals("8", configuration.getConfigOption("num.io.threads"));
+        assertEquals("1048576", configuration.getConfigOption("message.max.bytes"));
+        assertEquals("604800000", configuration.getConfigOption("log.retention.ms"));
+        assertEquals("0.5", configuration.getConfigOption("log.cleaner.min.cleanable.ratio"));
+        assertEquals("true", configuration.getConfigOption("auto.create.topics.enable"));
+        assertEquals("compact,delete", configuration.getConfigOption("log.cleanup.policy"));
+        assertEquals("value", configuration.getConfigOption("some.unknown.option"));
+    }
+
+    @Test
+    public void testInvalidValuesAreKept() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("num.io.threads", 8.5);
+        config.put("num.network.threads", "1Mi");
+        config.put("auto.create.topics.enable", "yes");
+        KafkaConfiguration configuration = new KafkaConfiguration(config.entrySet());
+
+        assertEquals("8.5", configuration.getConfigOption("num.io.threads"));
+        assertEquals("1Mi", configuration.getConfigOption("num.network.threads"));
+        assertEquals("yes", configuration.getConfigOption("auto.create.topics.enable"));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.assembly;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(VertxUnitRunner.class)
+public class BulkheadsTest {
+
+    private static Vertx vertx;
+
+    @BeforeClass
+    public static void before() {
+        vertx = Vertx.vertx();
+        vertx.createSharedWorkerExecutor("bulkheads-test-pool", 4);
+    }
+
+    @AfterClass
+    public static void after() {
+        vertx.close();
+    }
+
+    @Test
+    public void testSlowKeyDoesNotBlockOtherKeys(TestContext context) throws InterruptedException {
+        Bulkheads bulkheads = new Bulkheads(vertx, "bulkheads-test-pool", 2);
+        CountDownLatch slow = new CountDownLatch(1);
+        Async slowDone = context.async(3);
+
+        // Three slow tasks for "a": two run, and the third waits for a permit
+        for (int i = 0; i < 3; i++) {
+            bulkheads.<Void>executeBlocking("a", future -> {
+                try {
+                    slow.await();
+                    future.complete();
+                } catch (InterruptedException e) {
+                    future.fail(e);
+                }
+            }, false,
+                ar -> {
+                    context.assertTrue(ar.succeeded());
+                    slowDone.countDown();
+                });
+        }
+        context.assertEquals(2, bulkheads.active());
+        context.assertEquals(1, bulkheads.waiting());
+        context.assertEquals(1, bulkheads.saturatedKeys());
+        context.assertEquals(1L, bulkheads.saturations());
+
+        // A task for "b" still gets a thread from the pool
+        Async fast = context.async();
+        bulkheads.<String>executeBlocking("b", future -> future.complete("b"), false, ar -> {
+            context.assertEquals("b", ar.result());
+            fast.complete();
+        });
+        fast.awaitSuccess(10_000);
+
+        slow.countDown();
+        slowDone.awaitSuccess(10_000);
+        context.assertEquals(0, bulkheads.active());
+        context.assertEquals(0, bulkheads.waiting());
+        context.assertEquals(0, bulkheads.saturatedKeys());
+    }
+
+    @Test
+    public void testOrderedWorkIsOnlyOrderedPerKey(TestContext context) throws InterruptedException {
+        Bulkheads bulkheads = new Bulkheads(vertx, "bulkheads-test-pool", 2);
+        CountDownLatch slow = new CountDownLatch(1);
+        List<String> completed = new ArrayList<>();
+        Async aDone = context.async(2);
+        Async bDone = context.async();
+
+        // Two assemblies submit their ordered steps from the same context, as the assemblies of a namespace do
+        Context shared = vertx.getOrCreateContext();
+        shared.runOnContext(ignored -> {
+            bulkheads.<Void>executeBlocking("a", future -> {
+                try {
+                    slow.await();
+                    completed.add("a1");
+                    future.complete();
+                } catch (InterruptedException e) {
+                    future.fail(e);
+                }
+            }, true, ar -> aDone.countDown());
+            // Ordered after the slow step of "a", although a permit for "a" is free
+            bulkheads.<Void>executeBlocking("a", future -> {
+                completed.add("a2");
+                future.complete();
+            }, true, ar -> aDone.countDown());
+            bulkheads.<Void>executeBlocking("b", future -> future.complete(), true, ar -> bDone.complete());
+        });
+
+        // The ordered step of "b" is not held up by the slow ordered step of "a"
+        bDone.awaitSuccess(10_000);
+        context.assertEquals(1, bulkheads.active());
+        context.assertEquals(1, bulkheads.waiting());
+        context.assertEquals(0, bulkheads.saturatedKeys());
+
+        slow.countDown();
+        aDone.awaitSuccess(10_000);
+        context.assertEquals(2, completed.size());
+        context.assertEquals("a1", completed.get(0));
+        context.assertEquals("a2", completed.get(1));
+    }
+
+    @Test
+    public void testFailedTaskReleasesPermit(TestContext context) {
+        Bulkheads bulkheads = new Bulkheads(vertx, "bulkheads-test-pool", 1);
+        Async async = context.async(2);
+
+        bulkheads.<Void>executeBlocking("a", future -> future.fail("Oops"), false, ar -> {
+            context.assertTrue(ar.failed());
+            async.countDown();
+        });
+        bulkheads.<Void>executeBlocking("a", future -> future.complete(), false, ar -> {
+            context.assertTrue(ar.succeeded());
+            async.countDown();
+        });
+        async.awaitSuccess(TimeUnit.SECONDS.toMillis(10));
+    }
+}
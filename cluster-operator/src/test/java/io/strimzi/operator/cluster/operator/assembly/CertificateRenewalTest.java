@@ -4,23 +4,33 @@
  */
 package io.strimzi.operator.cluster.operator.assembly;
 
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
 import io.fabric8.kubernetes.api.model.Secret;
 import io.strimzi.api.kafka.model.CertificateAuthority;
 import io.strimzi.api.kafka.model.CertificateAuthorityBuilder;
 import io.strimzi.api.kafka.model.Kafka;
 import io.strimzi.api.kafka.model.KafkaBuilder;
+import io.strimzi.api.kafka.model.CertificateKeyAlgorithm;
 import io.strimzi.certs.CertAndKey;
+import io.strimzi.certs.CertManager;
+import io.strimzi.certs.JavaCertManager;
+import io.strimzi.certs.KeyAlgorithm;
 import io.strimzi.certs.OpenSslCertManager;
 import io.strimzi.certs.Subject;
 import io.strimzi.operator.cluster.ResourceUtils;
 import io.strimzi.operator.cluster.model.AbstractModel;
+import io.strimzi.operator.cluster.model.Ca;
+import io.strimzi.operator.cluster.model.EntityOperator;
 import io.strimzi.operator.cluster.model.KafkaCluster;
 import io.strimzi.operator.cluster.model.KafkaVersion;
 import io.strimzi.operator.cluster.model.ModelUtils;
+import io.strimzi.operator.cluster.model.ZookeeperCluster;
 import io.strimzi.operator.cluster.operator.resource.ResourceOperatorSupplier;
 import io.strimzi.operator.common.Reconciliation;
 import io.strimzi.operator.common.model.Labels;
 import io.strimzi.operator.common.model.ResourceType;
+import io.strimzi.operator.common.operator.resource.PodOperator;
 import io.strimzi.operator.common.operator.resource.ReconcileResult;
 import io.strimzi.operator.common.operator.resource.SecretOperator;
 import io.vertx.core.Future;
@@ -33,10 +43,15 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,9 +60,12 @@ import java.util.stream.Collectors;
 
 import static io.strimzi.operator.cluster.model.Ca.CA_CRT;
 import static io.strimzi.operator.cluster.model.Ca.CA_KEY;
+import static io.strimzi.operator.cluster.model.Ca.CA_NEXT_CRT;
+import static io.strimzi.operator.cluster.model.Ca.CA_NEXT_KEY;
 import static io.strimzi.test.TestUtils.set;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
@@ -65,13 +83,19 @@ public class CertificateRenewalTest {
     private Vertx vertx = Vertx.vertx();
     private OpenSslCertManager certManager = new OpenSslCertManager();
     private List<Secret> secrets = new ArrayList();
+    private List<Pod> pods = new ArrayList<>();
 
     @Before
     public void clearSecrets() {
         secrets = new ArrayList();
+        pods = new ArrayList<>();
     }
 
     private ArgumentCaptor<Secret> reconcileCa(TestContext context, CertificateAuthority clusterCa, CertificateAuthority clientsCa) {
+        return reconcileCa(context, certManager, clusterCa, clientsCa);
+    }
+
+    private ArgumentCaptor<Secret> reconcileCa(TestContext context, CertManager certManager, CertificateAuthority clusterCa, CertificateAuthority clientsCa) {
         SecretOperator secretOps = mock(SecretOperator.class);
 
         when(secretOps.list(eq(NAMESPACE), any())).thenAnswer(invocation -> {
@@ -88,10 +112,13 @@ public class CertificateRenewalTest {
         when(secretOps.reconcile(eq(NAMESPACE), eq(KafkaCluster.clientsCaCertSecretName(NAME)), c.capture())).thenAnswer(i -> Future.succeededFuture(ReconcileResult.noop(i.getArgument(0))));
         when(secretOps.reconcile(eq(NAMESPACE), eq(KafkaCluster.clientsCaKeySecretName(NAME)), c.capture())).thenAnswer(i -> Future.succeededFuture(ReconcileResult.noop(i.getArgument(0))));
 
+        PodOperator podOps = mock(PodOperator.class);
+        when(podOps.list(eq(NAMESPACE), any())).thenAnswer(invocation -> new ArrayList<>(pods));
+
         KafkaAssemblyOperator op = new KafkaAssemblyOperator(vertx, false, 1L, certManager,
                 new ResourceOperatorSupplier(null, null, null,
                         null, null, secretOps, null, null,
-                        null, null, null, null, null),
+                        null, null, null, null, null, null, null, podOps),
                 new KafkaVersion.Lookup(emptyMap(), emptyMap(), emptyMap(), emptyMap()));
         Reconciliation reconciliation = new Reconciliation("test-trigger", ResourceType.KAFKA, NAMESPACE, NAME);
 
@@ -420,4 +447,142 @@ public class CertificateRenewalTest {
         assertEquals(initialClusterCaCertSecret.getData(), c.getAllValues().get(0).getData());
         assertEquals(initialClientsCaCertSecret.getData(), c.getAllValues().get(2).getData());
     }
+
+    private static KeyAlgorithm keyAlgorithm(String base64Cert) throws CertificateException {
+        Certificate cert = CertificateFactory.getInstance("X.509").generateCertificate(
+                new ByteArrayInputStream(Base64.getDecoder().decode(base64Cert)));
+        return KeyAlgorithm.of(cert.getPublicKey());
+    }
+
+    private static CertificateAuthority ecdsaCertificateAuthority() {
+        return new CertificateAuthorityBuilder()
+                .withValidityDays(100)
+                .withRenewalDays(10)
+                .withGenerateCertificateAuthority(true)
+                .withKeyAlgorithm(CertificateKeyAlgorithm.ECDSA_P256)
+                .build();
+    }
+
+    /** Adds the Secrets of RSA cluster and clients CAs, and returns the cluster CA */
+    private CertAndKey addRsaCaSecrets(JavaCertManager javaCertManager) throws IOException {
+        Subject sbj = new Subject();
+        sbj.setOrganizationName("io.strimzi");
+        sbj.setCommonName("cluster-ca");
+        CertAndKey clusterCa = javaCertManager.generateSelfSignedCert(sbj, 100);
+        sbj.setCommonName("clients-ca");
+        CertAndKey clientsCa = javaCertManager.generateSelfSignedCert(sbj, 100);
+        secrets.add(ResourceUtils.createInitialCaCertSecret(NAMESPACE, NAME,
+                AbstractModel.clusterCaCertSecretName(NAME), clusterCa.certAsBase64String()));
+        secrets.add(ResourceUtils.createInitialCaKeySecret(NAMESPACE, NAME,
+                AbstractModel.clusterCaKeySecretName(NAME), clusterCa.keyAsBase64String()));
+        secrets.add(ResourceUtils.createInitialCaCertSecret(NAMESPACE, NAME,
+                KafkaCluster.clientsCaCertSecretName(NAME), clientsCa.certAsBase64String()));
+        secrets.add(ResourceUtils.createInitialCaKeySecret(NAMESPACE, NAME,
+                KafkaCluster.clientsCaKeySecretName(NAME), clientsCa.keyAsBase64String()));
+        return clusterCa;
+    }
+
+    /** @return A pod of the given StatefulSet or Deployment, annotated with the given CA cert generations */
+    private static Pod pod(String podSetName, String podName, int clusterCaCertGeneration, int clientsCaCertGeneration) {
+        return new PodBuilder()
+                .withNewMetadata()
+                    .withNamespace(NAMESPACE)
+                    .withName(podName)
+                    .withLabels(Labels.forCluster(NAME).withName(podSetName).toMap())
+                    .addToAnnotations(Ca.ANNO_STRIMZI_IO_CLUSTER_CA_CERT_GENERATION, String.valueOf(clusterCaCertGeneration))
+                    .addToAnnotations(Ca.ANNO_STRIMZI_IO_CLIENTS_CA_CERT_GENERATION, String.valueOf(clientsCaCertGeneration))
+                .endMetadata()
+            .build();
+    }
+
+    /** Sets the pods of the cluster, whose ZooKeeper and Kafka pods and entity operator pod have the given CA cert generations */
+    private void setPods(int caCertGeneration, int entityOperatorCaCertGeneration) {
+        pods = new ArrayList<>();
+        pods.add(pod(ZookeeperCluster.zookeeperClusterName(NAME), ZookeeperCluster.zookeeperPodName(NAME, 0),
+                caCertGeneration, Ca.INIT_GENERATION));
+        pods.add(pod(KafkaCluster.kafkaClusterName(NAME), KafkaCluster.kafkaPodName(NAME, 0),
+                caCertGeneration, caCertGeneration));
+        pods.add(pod(EntityOperator.entityOperatorName(NAME), EntityOperator.entityOperatorName(NAME) + "-abc",
+                entityOperatorCaCertGeneration, Ca.INIT_GENERATION));
+    }
+
+    @Test
+    public void caKeyGetsReplacedInTwoPhasesWhenKeyAlgorithmChanges(TestContext context) throws Exception {
+        JavaCertManager javaCertManager = new JavaCertManager();
+        CertificateAuthority certificateAuthority = ecdsaCertificateAuthority();
+        CertAndKey clusterCa = addRsaCaSecrets(javaCertManager);
+        setPods(Ca.INIT_GENERATION, Ca.INIT_GENERATION);
+
+        // First the new CA certificate is trusted alongside the current one, which still signs
+        ArgumentCaptor<Secret> c = reconcileCa(context, javaCertManager, certificateAuthority, certificateAuthority);
+        assertEquals(4, c.getAllValues().size());
+        Map<String, String> clusterCaCertData = c.getAllValues().get(0).getData();
+        assertEquals(set(CA_CRT, CA_NEXT_CRT), clusterCaCertData.keySet());
+        assertEquals(clusterCa.certAsBase64String(), clusterCaCertData.get(CA_CRT));
+        assertEquals(KeyAlgorithm.EC_P256, keyAlgorithm(clusterCaCertData.get(CA_NEXT_CRT)));
+        assertEquals("1", c.getAllValues().get(0).getMetadata().getAnnotations().get(Ca.ANNO_STRIMZI_IO_CA_CERT_GENERATION));
+        Map<String, String> clusterCaKeyData = c.getAllValues().get(1).getData();
+        assertEquals(set(CA_KEY, CA_NEXT_KEY), clusterCaKeyData.keySet());
+        assertEquals(clusterCa.keyAsBase64String(), clusterCaKeyData.get(CA_KEY));
+        assertEquals(set(CA_CRT, CA_NEXT_CRT), c.getAllValues().get(2).getData().keySet());
+        assertEquals(set(CA_KEY, CA_NEXT_KEY), c.getAllValues().get(3).getData().keySet());
+
+        // Then, once all the pods have been rolled, the new key signs, and the old certificate is trusted until it expires
+        secrets = new ArrayList<>(c.getAllValues());
+        setPods(1, 1);
+        c = reconcileCa(context, javaCertManager, certificateAuthority, certificateAuthority);
+        assertEquals(4, c.getAllValues().size());
+        Map<String, String> renewedClusterCaCertData = c.getAllValues().get(0).getData();
+        assertEquals(2, renewedClusterCaCertData.size());
+        assertEquals(clusterCaCertData.get(CA_NEXT_CRT), renewedClusterCaCertData.get(CA_CRT));
+        assertTrue(renewedClusterCaCertData.containsValue(clusterCa.certAsBase64String()));
+        assertEquals("2", c.getAllValues().get(0).getMetadata().getAnnotations().get(Ca.ANNO_STRIMZI_IO_CA_CERT_GENERATION));
+        assertEquals(singletonMap(CA_KEY, clusterCaKeyData.get(CA_NEXT_KEY)), c.getAllValues().get(1).getData());
+        assertEquals(KeyAlgorithm.EC_P256, keyAlgorithm(c.getAllValues().get(2).getData().get(CA_CRT)));
+        assertEquals(singleton(CA_KEY), c.getAllValues().get(3).getData().keySet());
+
+        // after which nothing changes
+        secrets = new ArrayList<>(c.getAllValues());
+        c = reconcileCa(context, javaCertManager, certificateAuthority, certificateAuthority);
+        assertEquals(renewedClusterCaCertData, c.getAllValues().get(0).getData());
+        assertEquals("2", c.getAllValues().get(0).getMetadata().getAnnotations().get(Ca.ANNO_STRIMZI_IO_CA_CERT_GENERATION));
+    }
+
+    @Test
+    public void caKeyIsNotReplacedUntilAllPodsTrustTheNewCaCertificate(TestContext context) throws Exception {
+        JavaCertManager javaCertManager = new JavaCertManager();
+        CertificateAuthority certificateAuthority = ecdsaCertificateAuthority();
+        CertAndKey clusterCa = addRsaCaSecrets(javaCertManager);
+        setPods(Ca.INIT_GENERATION, Ca.INIT_GENERATION);
+
+        ArgumentCaptor<Secret> c = reconcileCa(context, javaCertManager, certificateAuthority, certificateAuthority);
+        Map<String, String> clusterCaCertData = c.getAllValues().get(0).getData();
+        Map<String, String> clusterCaKeyData = c.getAllValues().get(1).getData();
+        assertEquals(set(CA_KEY, CA_NEXT_KEY), clusterCaKeyData.keySet());
+
+        // While the roll is deferred, the old key keeps signing
+        secrets = new ArrayList<>(c.getAllValues());
+        c = reconcileCa(context, javaCertManager, certificateAuthority, certificateAuthority);
+        assertEquals(clusterCaCertData, c.getAllValues().get(0).getData());
+        assertEquals("1", c.getAllValues().get(0).getMetadata().getAnnotations().get(Ca.ANNO_STRIMZI_IO_CA_CERT_GENERATION));
+        assertEquals(clusterCaKeyData, c.getAllValues().get(1).getData());
+        assertEquals(clusterCa.keyAsBase64String(), c.getAllValues().get(1).getData().get(CA_KEY));
+        assertEquals(set(CA_CRT, CA_NEXT_CRT), c.getAllValues().get(2).getData().keySet());
+        assertEquals(set(CA_KEY, CA_NEXT_KEY), c.getAllValues().get(3).getData().keySet());
+
+        // as it does while the entity operator is yet to be rolled, but the Kafka pods trust the new clients CA
+        secrets = new ArrayList<>(c.getAllValues());
+        setPods(1, Ca.INIT_GENERATION);
+        c = reconcileCa(context, javaCertManager, certificateAuthority, certificateAuthority);
+        assertEquals(clusterCaKeyData, c.getAllValues().get(1).getData());
+        assertEquals(singleton(CA_KEY), c.getAllValues().get(3).getData().keySet());
+
+        // Once every pod has been rolled, the new key signs
+        secrets = new ArrayList<>(c.getAllValues());
+        setPods(1, 1);
+        c = reconcileCa(context, javaCertManager, certificateAuthority, certificateAuthority);
+        assertEquals(clusterCaCertData.get(CA_NEXT_CRT), c.getAllValues().get(0).getData().get(CA_CRT));
+        assertEquals("2", c.getAllValues().get(0).getMetadata().getAnnotations().get(Ca.ANNO_STRIMZI_IO_CA_CERT_GENERATION));
+        assertEquals(singletonMap(CA_KEY, clusterCaKeyData.get(CA_NEXT_KEY)), c.getAllValues().get(1).getData());
+    }
 }
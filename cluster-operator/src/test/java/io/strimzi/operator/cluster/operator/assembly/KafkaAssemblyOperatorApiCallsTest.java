@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.assembly;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.strimzi.api.kafka.Crds;
+import io.strimzi.api.kafka.KafkaAssemblyList;
+import io.strimzi.api.kafka.model.DoneableKafka;
+import io.strimzi.api.kafka.model.EphemeralStorage;
+import io.strimzi.api.kafka.model.Kafka;
+import io.strimzi.api.kafka.model.KafkaBuilder;
+import io.strimzi.operator.cluster.ResourceUtils;
+import io.strimzi.operator.cluster.model.KafkaVersion;
+import io.strimzi.operator.cluster.operator.resource.ResourceOperatorSupplier;
+import io.strimzi.operator.common.Reconciliation;
+import io.strimzi.operator.common.model.ResourceType;
+import io.strimzi.operator.common.operator.MockCertManager;
+import io.strimzi.operator.common.tracing.KubernetesApiCalls;
+import io.strimzi.operator.common.tracing.Trace;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+
+/**
+ * <p>Bounds the number of requests to the Kubernetes API server made by reconciliations of a Kafka cluster,
+ * as counted by {@link KubernetesApiCalls} from the requests {@link MockKube} records in each reconciliation's trace.</p>
+ *
+ * <p>If one of these tests fails because a change really does need more requests, raise the budget
+ * in the same change, so that the cost is visible in review.</p>
+ */
+@RunWith(VertxUnitRunner.class)
+public class KafkaAssemblyOperatorApiCallsTest {
+
+    private static final String NAMESPACE = "my-namespace";
+    private static final String CLUSTER_NAME = "my-cluster";
+    private static final int REPLICAS = 3;
+
+    /**
+     * The most requests a reconciliation of an unchanged 3-broker cluster (with 3 ZooKeeper nodes) may make.
+     * It currently makes 89 (88 get, 1 list).
+     */
+    private static final int NOOP_RECONCILE_BUDGET = 95;
+    /** The most requests any one step of a reconciliation of an unchanged cluster may make. The busiest currently make 5. */
+    private static final int NOOP_STEP_BUDGET = 6;
+
+    private static final KafkaVersion.Lookup VERSIONS = new KafkaVersion.Lookup(new StringReader(
+            "2.0.0 default 2.0 2.0 1234567890abcdef"),
+            singletonMap("2.0.0", "strimzi/kafka:latest-kafka-2.0.0"), emptyMap(), emptyMap(), emptyMap()) { };
+
+    private Vertx vertx;
+    private KafkaAssemblyOperator operator;
+    private final List<Trace> traces = new ArrayList<>();
+
+    @Before
+    public void before() {
+        vertx = Vertx.vertx();
+        Kafka kafka = new KafkaBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName(CLUSTER_NAME)
+                        .withNamespace(NAMESPACE)
+                        .build())
+                .withNewSpec()
+                    .withNewKafka()
+                        .withReplicas(REPLICAS)
+                        .withStorage(new EphemeralStorage())
+                    .endKafka()
+                    .withNewZookeeper()
+                        .withReplicas(REPLICAS)
+                        .withStorage(new EphemeralStorage())
+                    .endZookeeper()
+                    .withNewTopicOperator()
+                        .withImage("")
+                    .endTopicOperator()
+                .endSpec()
+                .build();
+        KubernetesClient client = new MockKube()
+                .withCustomResourceDefinition(Crds.kafka(), Kafka.class, KafkaAssemblyList.class, DoneableKafka.class)
+                    .withInitialInstances(Collections.singleton(kafka))
+                .end()
+                .build();
+        operator = new KafkaAssemblyOperator(vertx, true, 2_000, new MockCertManager(),
+                new ResourceOperatorSupplier(vertx, client, true, 2_000), VERSIONS);
+        operator.setSpanExporter(traces::add);
+    }
+
+    @After
+    public void after() {
+        vertx.close();
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        ResourceUtils.cleanUpTemporaryTLSFiles();
+    }
+
+    private KubernetesApiCalls reconcile(TestContext context) {
+        Async async = context.async();
+        operator.reconcileAssembly(new Reconciliation("test-trigger", ResourceType.KAFKA, NAMESPACE, CLUSTER_NAME),
+            context.asyncAssertSuccess(v -> async.complete()));
+        async.await();
+        return KubernetesApiCalls.of(traces.get(traces.size() - 1));
+    }
+
+    private static Map<String, Integer> patches(KubernetesApiCalls calls) {
+        Map<String, Integer> result = new TreeMap<>();
+        calls.forEach((step, verb, resource, count) -> {
+            if ("patch".equals(verb)) {
+                result.merge(step + "/" + resource, count, Integer::sum);
+            }
+        });
+        return result;
+    }
+
+    @Test
+    public void testNoopReconcileIsWithinBudget(TestContext context) {
+        KubernetesApiCalls creation = reconcile(context);
+        context.assertTrue(creation.count("create") > 0, "Creating the cluster should have created resources: " + creation);
+
+        KubernetesApiCalls calls = reconcile(context);
+        context.assertTrue(calls.total() <= NOOP_RECONCILE_BUDGET,
+                "A reconciliation of an unchanged cluster made " + calls + ", more than the budget of " + NOOP_RECONCILE_BUDGET
+                        + ": " + calls.byStep());
+        for (Map.Entry<String, Integer> step : calls.byStep().entrySet()) {
+            context.assertTrue(step.getValue() <= NOOP_STEP_BUDGET,
+                    "Step " + step.getKey() + " made " + step.getValue() + " requests, more than the budget of " + NOOP_STEP_BUDGET);
+        }
+        context.assertEquals(0, calls.count("create"), "A reconciliation of an unchanged cluster should not create anything");
+        context.assertEquals(0, calls.count("delete"), "A reconciliation of an unchanged cluster should not delete anything");
+        context.assertEquals(0, calls.count("patch"),
+                "A reconciliation of an unchanged cluster should not patch anything: " + patches(calls));
+    }
+}
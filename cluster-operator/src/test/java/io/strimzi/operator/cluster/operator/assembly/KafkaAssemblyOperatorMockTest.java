@@ -32,6 +32,8 @@ import io.strimzi.operator.cluster.model.KafkaCluster;
 import io.strimzi.operator.cluster.model.KafkaVersion;
 import io.strimzi.operator.cluster.model.TopicOperator;
 import io.strimzi.operator.cluster.model.ZookeeperCluster;
+import io.strimzi.operator.cluster.operator.resource.AdminClientProvider;
+import io.strimzi.operator.cluster.operator.resource.PartitionReassignmentOperator;
 import io.strimzi.operator.cluster.operator.resource.ResourceOperatorSupplier;
 import io.strimzi.operator.common.Reconciliation;
 import io.strimzi.operator.common.model.Labels;
@@ -43,6 +45,20 @@ import io.vertx.core.Vertx;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunnerWithParametersFactory;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.clients.admin.DescribeClusterResult;
+import org.apache.kafka.clients.admin.DescribeConfigsResult;
+import org.apache.kafka.clients.admin.DescribeLogDirsResult;
+import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.ListTopicsOptions;
+import org.apache.kafka.clients.admin.ListTopicsResult;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.config.ConfigResource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.After;
@@ -58,19 +74,29 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static io.strimzi.api.kafka.model.Quantities.normalizeCpu;
 import static io.strimzi.api.kafka.model.Quantities.normalizeMemory;
 import static io.strimzi.api.kafka.model.Storage.deleteClaim;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @RunWith(Parameterized.class)
 @Parameterized.UseParametersRunnerFactory(VertxUnitRunnerWithParametersFactory.class)
@@ -225,11 +251,78 @@ public class KafkaAssemblyOperatorMockTest {
     }
 
     private ResourceOperatorSupplier supplierWithMocks() {
-        return new ResourceOperatorSupplier(vertx, mockClient, true, 2_000);
+        return new ResourceOperatorSupplier(vertx, mockClient, true, 2_000,
+            (bootstrap, caCerts, keyCert, name) -> mockAdminClient());
+    }
+
+    /**
+     * @return A supplier whose partition reassignments use the given {@code adminClientProvider} and, rather than
+     * running the reassignment tool in a broker, record its options into the given {@code reassignmentOptions}.
+     */
+    private ResourceOperatorSupplier supplierWithMocks(AdminClientProvider adminClientProvider, List<String> reassignmentOptions) {
+        ResourceOperatorSupplier supplier = new ResourceOperatorSupplier(vertx, mockClient, true, 2_000, adminClientProvider);
+        PartitionReassignmentOperator reassignmentOperations = new PartitionReassignmentOperator(mockClient, adminClientProvider, 2_000) {
+            @Override
+            protected String runReassignmentTool(String namespace, String cluster, Map<TopicPartition, List<Integer>> assignment, String options) {
+                reassignmentOptions.add(options);
+                return "Successfully started reassignment of partitions.";
+            }
+        };
+        return new ResourceOperatorSupplier(supplier.serviceOperations, supplier.routeOperations, supplier.zkSetOperations,
+                supplier.kafkaSetOperations, supplier.configMapOperations, supplier.secretOperations, supplier.pvcOperations,
+                supplier.deploymentOperations, supplier.serviceAccountOperator, supplier.roleBindingOperator,
+                supplier.clusterRoleBindingOperator, supplier.networkPolicyOperator, supplier.kafkaOperator,
+                supplier.brokerConfigOperations, reassignmentOperations, supplier.podOperations);
+    }
+
+    /** @return An AdminClient for a cluster without topics */
+    private static AdminClient mockAdminClient() {
+        ListTopicsResult topics = mock(ListTopicsResult.class);
+        when(topics.names()).thenReturn(KafkaFuture.completedFuture(emptySet()));
+        AdminClient admin = mock(AdminClient.class);
+        when(admin.listTopics(any(ListTopicsOptions.class))).thenReturn(topics);
+        return admin;
+    }
+
+    /** @return An AdminClient for a cluster without topics, of which the given number of brokers are part */
+    private static AdminClient mockClusterAdminClient(int brokers) {
+        List<Node> nodes = new ArrayList<>();
+        for (int id = 0; id < brokers; id++) {
+            nodes.add(new Node(id, "broker-" + id, 9091));
+        }
+        DescribeClusterResult cluster = mock(DescribeClusterResult.class);
+        when(cluster.nodes()).thenReturn(KafkaFuture.completedFuture(nodes));
+        DescribeLogDirsResult logDirs = mock(DescribeLogDirsResult.class);
+        when(logDirs.all()).thenReturn(KafkaFuture.completedFuture(emptyMap()));
+        AdminClient admin = mockAdminClient();
+        when(admin.describeCluster()).thenReturn(cluster);
+        when(admin.describeLogDirs(anyCollection())).thenReturn(logDirs);
+        return admin;
+    }
+
+    /** @return An AdminClient for a cluster with a single topic, whose only partition has replicas on the given brokers */
+    private static AdminClient mockAdminClient(List<Integer> replicas) {
+        List<Node> nodes = replicas.stream().map(id -> new Node(id, "broker-" + id, 9091)).collect(Collectors.toList());
+        TopicDescription foo = new TopicDescription("foo", false, singletonList(new TopicPartitionInfo(0, nodes.get(0), nodes, nodes)));
+        ListTopicsResult topics = mock(ListTopicsResult.class);
+        when(topics.names()).thenReturn(KafkaFuture.completedFuture(singleton("foo")));
+        DescribeTopicsResult descriptions = mock(DescribeTopicsResult.class);
+        when(descriptions.all()).thenReturn(KafkaFuture.completedFuture(singletonMap("foo", foo)));
+        DescribeConfigsResult configs = mock(DescribeConfigsResult.class);
+        when(configs.all()).thenReturn(KafkaFuture.completedFuture(
+                singletonMap(new ConfigResource(ConfigResource.Type.TOPIC, "foo"), new Config(emptyList()))));
+        AdminClient admin = mock(AdminClient.class);
+        when(admin.listTopics(any(ListTopicsOptions.class))).thenReturn(topics);
+        when(admin.describeTopics(anyCollection())).thenReturn(descriptions);
+        when(admin.describeConfigs(anyCollection())).thenReturn(configs);
+        return admin;
     }
 
     private KafkaAssemblyOperator createCluster(TestContext context) {
-        ResourceOperatorSupplier supplier = supplierWithMocks();
+        return createCluster(context, supplierWithMocks());
+    }
+
+    private KafkaAssemblyOperator createCluster(TestContext context, ResourceOperatorSupplier supplier) {
         KafkaAssemblyOperator kco = new KafkaAssemblyOperator(vertx, true, 2_000,
                 new MockCertManager(), supplier, VERSIONS);
 
@@ -643,6 +736,106 @@ public class KafkaAssemblyOperatorMockTest {
         updateAsync.await();
     }
 
+    /** Scale down a cluster whose brokers to be removed still have partitions on them */
+    @Test
+    public void testKafkaScaleDownMovesPartitionsFirst(TestContext context) {
+        if (kafkaReplicas <= 1) {
+            LOGGER.info("Skipping scale down test because there's only 1 broker");
+            return;
+        }
+        int newScale = kafkaReplicas - 1;
+        String ssName = KafkaCluster.kafkaClusterName(CLUSTER_NAME);
+        String deletedPod = KafkaCluster.kafkaPodName(CLUSTER_NAME, newScale);
+
+        // The only partition has its replica on the broker to be removed, until it has been moved
+        AtomicReference<List<Integer>> replicas = new AtomicReference<>(singletonList(newScale));
+        List<String> reassignmentOptions = new CopyOnWriteArrayList<>();
+        KafkaAssemblyOperator kco = createCluster(context,
+                supplierWithMocks((bootstrap, caCerts, keyCert, name) -> mockAdminClient(replicas.get()), reassignmentOptions));
+
+        Kafka changedClusterCm = new KafkaBuilder(cluster).editSpec().editKafka()
+                .withReplicas(newScale).endKafka().endSpec().build();
+        kafkaAssembly(NAMESPACE, CLUSTER_NAME).patch(changedClusterCm);
+
+        LOGGER.info("Scaling down to {} Kafka pods while a partition is on broker {}", newScale, newScale);
+        Async drainAsync = context.async();
+        kco.reconcileAssembly(new Reconciliation("test-trigger", ResourceType.KAFKA, NAMESPACE, CLUSTER_NAME), ar -> {
+            if (ar.failed()) ar.cause().printStackTrace();
+            context.assertTrue(ar.succeeded());
+            StatefulSet ss = mockClient.apps().statefulSets().inNamespace(NAMESPACE).withName(ssName).get();
+            context.assertEquals(kafkaReplicas, ss.getSpec().getReplicas());
+            context.assertEquals(String.valueOf(newScale), ss.getMetadata().getAnnotations().get(KafkaCluster.ANNO_STRIMZI_IO_SCALE_DOWN_TO));
+            context.assertEquals("1", ss.getMetadata().getAnnotations().get(KafkaCluster.ANNO_STRIMZI_IO_PARTITIONS_TO_MOVE));
+            context.assertNotNull(mockClient.pods().inNamespace(NAMESPACE).withName(deletedPod).get(),
+                    "Expected pod " + deletedPod + " to have been kept");
+            context.assertEquals(1, reassignmentOptions.size());
+            context.assertTrue(reassignmentOptions.get(0).startsWith("--execute"));
+            drainAsync.complete();
+        });
+        drainAsync.await();
+
+        LOGGER.info("Scaling down to {} Kafka pods once the partition has been moved", newScale);
+        replicas.set(singletonList(0));
+        Async scaleDownAsync = context.async();
+        kco.reconcileAssembly(new Reconciliation("test-trigger", ResourceType.KAFKA, NAMESPACE, CLUSTER_NAME), ar -> {
+            if (ar.failed()) ar.cause().printStackTrace();
+            context.assertTrue(ar.succeeded());
+            StatefulSet ss = mockClient.apps().statefulSets().inNamespace(NAMESPACE).withName(ssName).get();
+            context.assertEquals(newScale, ss.getSpec().getReplicas());
+            context.assertNull(ss.getMetadata().getAnnotations().get(KafkaCluster.ANNO_STRIMZI_IO_SCALE_DOWN_TO));
+            context.assertNull(ss.getMetadata().getAnnotations().get(KafkaCluster.ANNO_STRIMZI_IO_PARTITIONS_TO_MOVE));
+            context.assertNull(mockClient.pods().inNamespace(NAMESPACE).withName(deletedPod).get(),
+                    "Expected pod " + deletedPod + " to have been deleted");
+            // No other reassignment was started
+            context.assertEquals(1, reassignmentOptions.size());
+            scaleDownAsync.complete();
+        });
+        scaleDownAsync.await();
+    }
+
+    /** Rebalance the whole cluster when the Kafka resource asks for it, without a rebalancing policy */
+    @Test
+    public void testRebalanceRequestedByAnnotation(TestContext context) {
+        if (kafkaReplicas <= 1) {
+            LOGGER.info("Skipping rebalance test because there's only 1 broker");
+            return;
+        }
+        // Until all the brokers have joined the cluster, nothing can be planned
+        AtomicReference<Integer> joinedBrokers = new AtomicReference<>(1);
+        List<String> reassignmentOptions = new CopyOnWriteArrayList<>();
+        KafkaAssemblyOperator kco = createCluster(context,
+                supplierWithMocks((bootstrap, caCerts, keyCert, name) -> mockClusterAdminClient(joinedBrokers.get()), reassignmentOptions));
+
+        Kafka annotated = new KafkaBuilder(kafkaAssembly(NAMESPACE, CLUSTER_NAME).get()).editMetadata()
+                .addToAnnotations(KafkaAssemblyOperator.ANNO_STRIMZI_IO_REBALANCE, "true").endMetadata().build();
+        kafkaAssembly(NAMESPACE, CLUSTER_NAME).patch(annotated);
+
+        LOGGER.info("Reconciling while only 1 of the {} brokers has joined the cluster", kafkaReplicas);
+        Async waitingAsync = context.async();
+        kco.reconcileAssembly(new Reconciliation("test-trigger", ResourceType.KAFKA, NAMESPACE, CLUSTER_NAME), ar -> {
+            if (ar.failed()) ar.cause().printStackTrace();
+            context.assertTrue(ar.succeeded());
+            context.assertEquals("true", kafkaAssembly(NAMESPACE, CLUSTER_NAME).get().getMetadata().getAnnotations()
+                    .get(KafkaAssemblyOperator.ANNO_STRIMZI_IO_REBALANCE), "Expected the rebalance to be still pending");
+            waitingAsync.complete();
+        });
+        waitingAsync.await();
+
+        LOGGER.info("Reconciling once all the brokers have joined the cluster, which is balanced");
+        joinedBrokers.set(kafkaReplicas);
+        Async rebalanceAsync = context.async();
+        kco.reconcileAssembly(new Reconciliation("test-trigger", ResourceType.KAFKA, NAMESPACE, CLUSTER_NAME), ar -> {
+            if (ar.failed()) ar.cause().printStackTrace();
+            context.assertTrue(ar.succeeded());
+            Map<String, String> annotations = kafkaAssembly(NAMESPACE, CLUSTER_NAME).get().getMetadata().getAnnotations();
+            context.assertFalse(annotations != null && annotations.containsKey(KafkaAssemblyOperator.ANNO_STRIMZI_IO_REBALANCE),
+                    "Expected the rebalance annotation to have been removed");
+            context.assertEquals(0, reassignmentOptions.size());
+            rebalanceAsync.complete();
+        });
+        rebalanceAsync.await();
+    }
+
     /** Create a cluster from a Kafka Cluster CM */
     @Test
     public void testKafkaScaleUp(TestContext context) {
@@ -7,6 +7,7 @@ package io.strimzi.operator.cluster.operator.assembly;
 import io.fabric8.kubernetes.api.model.ConfigMap;
 import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
 import io.fabric8.kubernetes.api.model.LoadBalancerIngressBuilder;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.Secret;
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.api.model.ServiceBuilder;
@@ -82,6 +83,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -824,9 +826,10 @@ public class KafkaAssemblyOperatorTest {
 
         Kafka foo = getKafkaAssembly("foo");
         Kafka bar = getKafkaAssembly("bar");
-        when(mockKafkaOps.list(eq(clusterCmNamespace), any())).thenReturn(
-            asList(foo, bar)
-        );
+        doAnswer(invocation -> {
+            asList(foo, bar).forEach(resource -> invocation.<Consumer<ObjectMeta>>getArgument(2).accept(resource.getMetadata()));
+            return null;
+        }).when(mockKafkaOps).listMetadata(eq(clusterCmNamespace), any(), any());
         // when requested Custom Resource for a specific Kafka cluster
         when(mockKafkaOps.get(eq(clusterCmNamespace), eq("foo"))).thenReturn(foo);
         when(mockKafkaOps.get(eq(clusterCmNamespace), eq("bar"))).thenReturn(bar);
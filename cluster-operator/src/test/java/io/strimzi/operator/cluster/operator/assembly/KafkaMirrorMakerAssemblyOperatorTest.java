@@ -6,6 +6,7 @@ package io.strimzi.operator.cluster.operator.assembly;
 
 import io.fabric8.kubernetes.api.model.ConfigMap;
 import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.api.model.extensions.Deployment;
 import io.strimzi.api.kafka.model.KafkaMirrorMaker;
@@ -21,6 +22,7 @@ import io.strimzi.operator.common.Reconciliation;
 import io.strimzi.operator.common.model.Labels;
 import io.strimzi.operator.common.model.ResourceType;
 import io.strimzi.operator.common.operator.MockCertManager;
+import io.strimzi.operator.common.operator.resource.AbstractResourceOperator;
 import io.strimzi.operator.common.operator.resource.ConfigMapOperator;
 import io.strimzi.operator.common.operator.resource.CrdOperator;
 import io.strimzi.operator.common.operator.resource.DeploymentOperator;
@@ -47,6 +49,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static java.util.Arrays.asList;
 import static org.mockito.ArgumentMatchers.any;
@@ -592,16 +597,20 @@ public class KafkaMirrorMakerAssemblyOperatorTest {
         KafkaMirrorMaker foo = ResourceUtils.createKafkaMirrorMakerCluster(clusterCmNamespace, "foo", image, producer, consumer, whitelist, metricsCm);
         KafkaMirrorMaker bar = ResourceUtils.createKafkaMirrorMakerCluster(clusterCmNamespace, "bar", image, producer, consumer, whitelist, metricsCm);
 
-        when(mockMirrorOps.list(eq(clusterCmNamespace), any())).thenReturn(asList(foo, bar));
+        doAnswer(invocation -> {
+            asList(foo, bar).forEach(resource -> invocation.<Consumer<ObjectMeta>>getArgument(2).accept(resource.getMetadata()));
+            return null;
+        }).when(mockMirrorOps).listMetadata(eq(clusterCmNamespace), any(), any());
         // when requested ConfigMap for a specific Kafka Mirror Maker cluster
         when(mockMirrorOps.get(eq(clusterCmNamespace), eq("foo"))).thenReturn(foo);
         when(mockMirrorOps.get(eq(clusterCmNamespace), eq("bar"))).thenReturn(bar);
 
         // providing the list of ALL Deployments for all the Kafka Mirror Maker clusters
         Labels newLabels = Labels.forKind(KafkaMirrorMaker.RESOURCE_KIND);
-        when(mockDcOps.list(eq(clusterCmNamespace), eq(newLabels))).thenReturn(
-                asList(KafkaMirrorMakerCluster.fromCrd(bar,
-                        VERSIONS).generateDeployment(new HashMap<String, String>(), true)));
+        doAnswer(invocation -> {
+            asList(KafkaMirrorMakerCluster.fromCrd(bar, VERSIONS).generateDeployment(new HashMap<String, String>(), true)).forEach(resource -> invocation.<Consumer<ObjectMeta>>getArgument(2).accept(resource.getMetadata()));
+            return null;
+        }).when(mockDcOps).listMetadata(eq(clusterCmNamespace), eq(newLabels), any());
 
         // providing the list Deployments for already "existing" Kafka Mirror Maker clusters
         Labels barLabels = Labels.forCluster("bar");
@@ -643,4 +652,155 @@ public class KafkaMirrorMakerAssemblyOperatorTest {
         context.assertEquals(new HashSet(asList("foo", "bar")), createdOrUpdated);
     }
 
+
+    @Test
+    public void testReconcileAllNamespaces(TestContext context) throws InterruptedException {
+        CrdOperator mockMirrorOps = mock(CrdOperator.class);
+        ConfigMapOperator mockCmOps = mock(ConfigMapOperator.class);
+        DeploymentOperator mockDcOps = mock(DeploymentOperator.class);
+        SecretOperator mockSecretOps = mock(SecretOperator.class);
+        NetworkPolicyOperator mockPolicyOps = mock(NetworkPolicyOperator.class);
+        ServiceOperator mockServiceOps = mock(ServiceOperator.class);
+
+        KafkaMirrorMakerConsumerSpec consumer = new KafkaMirrorMakerConsumerSpecBuilder()
+                .withBootstrapServers(consumerBootstrapServers)
+                .withGroupId(groupId)
+                .withNumStreams(numStreams)
+                .build();
+        KafkaMirrorMakerProducerSpec producer = new KafkaMirrorMakerProducerSpecBuilder()
+                .withBootstrapServers(producerBootstrapServers)
+                .build();
+
+        KafkaMirrorMaker foo = ResourceUtils.createKafkaMirrorMakerCluster("ns1", "foo", image, producer, consumer, whitelist, Collections.emptyMap());
+        KafkaMirrorMaker bar = ResourceUtils.createKafkaMirrorMakerCluster("ns2", "bar", image, producer, consumer, whitelist, Collections.emptyMap());
+        KafkaMirrorMaker baz = ResourceUtils.createKafkaMirrorMakerCluster("ns3", "baz", image, producer, consumer, whitelist, Collections.emptyMap());
+
+        // A single list of all namespaces
+        doAnswer(invocation -> {
+            asList(foo, bar, baz).forEach(resource -> invocation.<Consumer<ObjectMeta>>getArgument(2).accept(resource.getMetadata()));
+            return null;
+        }).when(mockMirrorOps).listMetadata(eq(AbstractResourceOperator.ANY_NAMESPACE), any(), any());
+        when(mockMirrorOps.get(eq("ns1"), eq("foo"))).thenReturn(foo);
+        when(mockMirrorOps.get(eq("ns2"), eq("bar"))).thenReturn(bar);
+        when(mockMirrorOps.get(eq("ns3"), eq("baz"))).thenReturn(baz);
+
+        Set<String> createdOrUpdated = new CopyOnWriteArraySet<>();
+
+        KafkaMirrorMakerAssemblyOperator ops = new KafkaMirrorMakerAssemblyOperator(vertx, true,
+                new MockCertManager(),
+                mockMirrorOps,
+                mockSecretOps,
+                mockCmOps,
+                mockPolicyOps,
+                mockDcOps,
+                mockServiceOps,
+                VERSIONS) {
+
+            @Override
+            public Future<Void> createOrUpdate(Reconciliation reconciliation, KafkaMirrorMaker kafkaMirrorMakerAssembly) {
+                createdOrUpdated.add(reconciliation.namespace() + "/" + kafkaMirrorMakerAssembly.getMetadata().getName());
+                return Future.succeededFuture();
+            }
+        };
+
+        // Only the assemblies in the filtered namespaces are reconciled, each in its own namespace
+        context.assertTrue(ops.reconcileAll("test", AbstractResourceOperator.ANY_NAMESPACE, ns -> !"ns3".equals(ns))
+                .await(60, TimeUnit.SECONDS));
+        context.assertEquals(new HashSet(asList("ns1/foo", "ns2/bar")), createdOrUpdated);
+    }
+
+    @Test
+    public void testPeriodicReconcileSkipsUnchangedAssembly(TestContext context) throws InterruptedException {
+        CrdOperator mockMirrorOps = mock(CrdOperator.class);
+        ConfigMapOperator mockCmOps = mock(ConfigMapOperator.class);
+        DeploymentOperator mockDcOps = mock(DeploymentOperator.class);
+        SecretOperator mockSecretOps = mock(SecretOperator.class);
+        NetworkPolicyOperator mockPolicyOps = mock(NetworkPolicyOperator.class);
+        ServiceOperator mockServiceOps = mock(ServiceOperator.class);
+
+        String clusterCmNamespace = "test";
+
+        KafkaMirrorMakerConsumerSpec consumer = new KafkaMirrorMakerConsumerSpecBuilder()
+                .withBootstrapServers(consumerBootstrapServers)
+                .withGroupId(groupId)
+                .withNumStreams(numStreams)
+                .build();
+        KafkaMirrorMakerProducerSpec producer = new KafkaMirrorMakerProducerSpecBuilder()
+                .withBootstrapServers(producerBootstrapServers)
+                .build();
+        Map<String, Object> metricsCm = new HashMap<>();
+        metricsCm.put("foo", "bar");
+
+        KafkaMirrorMaker foo = ResourceUtils.createKafkaMirrorMakerCluster(clusterCmNamespace, "foo", image, producer, consumer, whitelist, metricsCm);
+        foo.getMetadata().setResourceVersion("1");
+        Deployment deployment = KafkaMirrorMakerCluster.fromCrd(foo, VERSIONS).generateDeployment(new HashMap<String, String>(), true);
+        deployment.getMetadata().setResourceVersion("10");
+
+        doAnswer(invocation -> {
+            asList(foo).forEach(resource -> invocation.<Consumer<ObjectMeta>>getArgument(2).accept(resource.getMetadata()));
+            return null;
+        }).when(mockMirrorOps).listMetadata(eq(clusterCmNamespace), any(), any());
+        when(mockMirrorOps.get(eq(clusterCmNamespace), eq("foo"))).thenReturn(foo);
+        doAnswer(invocation -> {
+            invocation.<Consumer<ObjectMeta>>getArgument(2).accept(deployment.getMetadata());
+            return null;
+        }).when(mockDcOps).listMetadata(eq(clusterCmNamespace), any(), any());
+
+        AtomicInteger createdOrUpdated = new AtomicInteger();
+
+        KafkaMirrorMakerAssemblyOperator ops = new KafkaMirrorMakerAssemblyOperator(vertx, true,
+                new MockCertManager(),
+                mockMirrorOps,
+                mockSecretOps,
+                mockCmOps,
+                mockPolicyOps,
+                mockDcOps,
+                mockServiceOps,
+                VERSIONS) {
+
+            @Override
+            public Future<Void> createOrUpdate(Reconciliation reconciliation, KafkaMirrorMaker kafkaMirrorMakerAssembly) {
+                createdOrUpdated.incrementAndGet();
+                return Future.succeededFuture();
+            }
+        };
+        ops.setDeepReconciliationIntervalMs(60_000);
+
+        // The first periodic reconciliation runs in full, the second finds nothing has changed
+        context.assertTrue(ops.reconcileAll("timer", clusterCmNamespace).await(60, TimeUnit.SECONDS));
+        context.assertTrue(ops.reconcileAll("timer", clusterCmNamespace).await(60, TimeUnit.SECONDS));
+        context.assertEquals(1, createdOrUpdated.get());
+        context.assertEquals(1L, ops.skippedReconciliations());
+
+        // A change to an owned resource is detected
+        deployment.getMetadata().setResourceVersion("11");
+        context.assertTrue(ops.reconcileAll("timer", clusterCmNamespace).await(60, TimeUnit.SECONDS));
+        context.assertEquals(2, createdOrUpdated.get());
+
+        // A change to the custom resource is detected
+        foo.getMetadata().setResourceVersion("2");
+        context.assertTrue(ops.reconcileAll("timer", clusterCmNamespace).await(60, TimeUnit.SECONDS));
+        context.assertEquals(3, createdOrUpdated.get());
+
+        // Reconciliations triggered by a watch always run in full
+        Async async = context.async();
+        ops.reconcileAssembly(new Reconciliation("watch", ResourceType.MIRRORMAKER, clusterCmNamespace, "foo"), ar -> {
+            context.assertTrue(ar.succeeded());
+            async.complete();
+        });
+        async.await();
+        context.assertEquals(4, createdOrUpdated.get());
+
+        // Once the deep reconciliation is due the periodic reconciliation runs in full again
+        ops.setDeepReconciliationIntervalMs(0);
+        ops.setDeepReconciliationIntervalMs(1);
+        context.assertTrue(ops.reconcileAll("timer", clusterCmNamespace).await(60, TimeUnit.SECONDS));
+        Thread.sleep(5);
+        context.assertTrue(ops.reconcileAll("timer", clusterCmNamespace).await(60, TimeUnit.SECONDS));
+        context.assertEquals(6, createdOrUpdated.get());
+        context.assertEquals(1L, ops.skippedReconciliations());
+
+        // Only the metadata of the owned resources is read
+        verify(mockDcOps, never()).list(any(), any());
+    }
 }
@@ -59,6 +59,9 @@ import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.kubernetes.client.dsl.RollableScalableResource;
 import io.fabric8.kubernetes.client.dsl.ScalableResource;
 import io.strimzi.operator.common.operator.resource.WorkaroundRbacOperator;
+import io.strimzi.operator.common.tracing.KubernetesApiTracing;
+import io.strimzi.operator.common.tracing.Span;
+import io.strimzi.operator.common.tracing.Tracing;
 
 import io.fabric8.openshift.api.model.DoneableRoute;
 import io.fabric8.openshift.api.model.Route;
@@ -79,10 +82,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -285,7 +290,7 @@ public class MockKube {
                         podsForDeployments.computeIfAbsent(deployment.getMetadata().getName(), s -> new ArrayList<>());
                         podsForDeployments.get(deployment.getMetadata().getName()).add(podName);
                     }
-                    return deployment;
+                    return copyResource(depDb.get(resourceName));
                 });
                 mockCascading(resource);
                 //mockPatch(resourceName, resource);
@@ -317,7 +322,7 @@ public class MockKube {
                     }
                     podsForDeployments.get(deployment.getMetadata().getName()).addAll(newPodNames);
 
-                    return deployment;
+                    return copyResource(depDb.get(resourceName));
                 });
             }
         }.build();
@@ -334,6 +339,7 @@ public class MockKube {
                 mockCascading(resource);
                 mockPatch(resourceName, resource);
                 when(resource.delete()).thenAnswer(i -> {
+                    recordRequest("delete");
                     LOGGER.debug("delete {} {}", resourceType, resourceName);
                     StatefulSet removed = ssDb.remove(resourceName);
                     if (removed != null) {
@@ -348,6 +354,7 @@ public class MockKube {
                 });
                 mockIsReady(resourceName, resource);
                 when(resource.create(any())).thenAnswer(cinvocation -> {
+                    recordRequest("create");
                     checkNotExists(resourceName);
                     StatefulSet argument = cinvocation.getArgument(0);
                     LOGGER.debug("create {} {} -> {}", resourceType, resourceName, argument);
@@ -370,7 +377,7 @@ public class MockKube {
                         mockPods.inNamespace(argument.getMetadata().getNamespace()).withName(podName).create(pod);
                         addPodRestarter(mockPods, resourceName, podNum, podName);
                     }
-                    return argument;
+                    return copyResource(ssDb.get(resourceName));
                 });
                 EditReplacePatchDeletable<StatefulSet, StatefulSet, DoneableStatefulSet, Boolean> c = mock(EditReplacePatchDeletable.class);
                 when(resource.cascading(false)).thenReturn(c);
@@ -379,6 +386,7 @@ public class MockKube {
                     return doPatch(resourceName, argument);
                 });
                 when(resource.scale(anyInt(), anyBoolean())).thenAnswer(invocation -> {
+                    recordRequest("get");
                     checkDoesExist(resourceName);
                     StatefulSet ss = copyResource(ssDb.get(resourceName));
                     int newScale = invocation.getArgument(0);
@@ -386,6 +394,7 @@ public class MockKube {
                     return doPatch(resourceName, ss);
                 });
                 when(resource.scale(anyInt())).thenAnswer(invocation -> {
+                    recordRequest("get");
                     checkDoesExist(resourceName);
                     StatefulSet ss = copyResource(ssDb.get(resourceName));
                     int newScale = invocation.getArgument(0);
@@ -393,12 +402,14 @@ public class MockKube {
                     return doPatch(resourceName, ss);
                 });
                 when(resource.isReady()).thenAnswer(i -> {
+                    recordRequest("get");
                     LOGGER.debug("{} {} is ready", resourceType, resourceName);
                     return true;
                 });
             }
 
             private StatefulSet doPatch(String resourceName, StatefulSet argument) {
+                recordRequest("patch");
                 int oldScale = ssDb.get(resourceName).getSpec().getReplicas();
                 int newScale = argument.getSpec().getReplicas();
                 if (newScale > oldScale) {
@@ -420,7 +431,7 @@ public class MockKube {
                 } else {
                     ssDb.put(resourceName, copyResource(argument));
                 }
-                return argument;
+                return copyResource(ssDb.get(resourceName));
             }
         }.build();
 
@@ -509,11 +520,12 @@ public class MockKube {
                 mockPatch(resourceName, resource);
                 mockDelete(resourceName, resource);
                 when(resource.create(any())).thenAnswer(i -> {
+                    recordRequest("create");
                     Service argument = i.getArgument(0);
                     svcDb.put(resourceName, copyResource(argument));
                     LOGGER.debug("create {} (and endpoint) {} ", resourceType, resourceName);
                     endpointDb.put(resourceName, new Endpoints());
-                    return argument;
+                    return copyResource(svcDb.get(resourceName));
                 });
             }
         }.build();
@@ -639,9 +651,33 @@ public class MockKube {
     }
 
     private static <T extends HasMetadata, D extends Doneable<T>> Map<String, T> db(Collection<T> initialResources, Class<T> cls, Class<D> doneableClass) {
-        return new ConcurrentHashMap<>(initialResources.stream().collect(Collectors.toMap(
+        Map<String, T> db = new VersionedDb<>();
+        db.putAll(initialResources.stream().collect(Collectors.toMap(
             c -> c.getMetadata().getName(),
             c -> copyResource(c, cls, doneableClass))));
+        return db;
+    }
+
+    /**
+     * An in-memory db of resources which, like the API server, gives each resource a new resourceVersion
+     * whenever it is stored.
+     */
+    private static class VersionedDb<T extends HasMetadata> extends ConcurrentHashMap<String, T> {
+        private static final long serialVersionUID = 1L;
+        private static final AtomicLong RESOURCE_VERSION = new AtomicLong();
+
+        @Override
+        public T put(String name, T resource) {
+            if (resource.getMetadata() != null) {
+                resource.getMetadata().setResourceVersion(String.valueOf(RESOURCE_VERSION.incrementAndGet()));
+            }
+            return super.put(name, resource);
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ? extends T> resources) {
+            resources.forEach(this::put);
+        }
     }
 
     private static <T extends HasMetadata, D extends Doneable<T>> T copyResource(T resource, Class<T> resourceClass, Class<D> doneableClass) {
@@ -675,12 +711,16 @@ public class MockKube {
         private final Map<String, CM> db;
         protected final Class<CML> listClass;
         protected final String resourceType;
+        protected final String resourcePlural;
         protected final Collection<Watcher<CM>> watchers = new ArrayList<>(2);
         protected final Map<String, Collection<Watcher<CM>>> nameScopedWatchers = new HashMap<>(1);
 
         public AbstractMockBuilder(Class<CM> resourceTypeClass, Class<CML> listClass, Class<DCM> doneableClass, Class<R> resourceClass, Map<String, CM> db) {
             this.resourceTypeClass = resourceTypeClass;
             this.resourceType = resourceTypeClass.getSimpleName();
+            String lowerCase = resourceType.toLowerCase(Locale.ENGLISH);
+            this.resourcePlural = lowerCase.endsWith("s") ? lowerCase
+                    : lowerCase.endsWith("y") ? lowerCase.substring(0, lowerCase.length() - 1) + "ies" : lowerCase + "s";
             this.doneableClass = doneableClass;
             this.resourceClass = resourceClass;
             this.db = db;
@@ -753,6 +793,7 @@ public class MockKube {
         }
 
         private KubernetesResourceList<CM> mockList(Predicate<? super CM> predicate) {
+            recordRequest("list");
             KubernetesResourceList<CM> l = mock(listClass);
             Collection<CM> values;
             synchronized (db) {
@@ -765,6 +806,21 @@ public class MockKube {
             return l;
         }
 
+        /**
+         * Records a request to the API server which the mocked operation stands for in the {@linkplain Tracing#current() current span},
+         * in the way {@link KubernetesApiTracing} does for a real client, so that tests can count the requests made by operators.
+         * @param verb The verb of the request, e.g. {@code get}.
+         */
+        protected void recordRequest(String verb) {
+            Span current = Tracing.current();
+            if (current != null) {
+                current.child(verb + " " + resourcePlural)
+                        .tag(KubernetesApiTracing.VERB_TAG, verb)
+                        .tag(KubernetesApiTracing.RESOURCE_TAG, resourcePlural)
+                        .finish();
+            }
+        }
+
         /**
          * Mock operations on the given {@code resource} which are scoped to accessing the given {@code resourceName}.
          * For example the methods accessible from
@@ -789,6 +845,7 @@ public class MockKube {
 
         protected void mockDelete(String resourceName, R resource) {
             when(resource.delete()).thenAnswer(i -> {
+                recordRequest("delete");
                 LOGGER.debug("delete {} {}", resourceType, resourceName);
                 CM removed = db.remove(resourceName);
                 if (removed != null) {
@@ -812,12 +869,13 @@ public class MockKube {
 
         protected void mockPatch(String resourceName, R resource) {
             when(resource.patch(any())).thenAnswer(invocation -> {
+                recordRequest("patch");
                 checkDoesExist(resourceName);
                 CM argument = copyResource(invocation.getArgument(0));
                 LOGGER.debug("patch {} {} -> {}", resourceType, resourceName, resource);
                 db.put(resourceName, argument);
                 fireWatchers(resourceName, argument, Watcher.Action.MODIFIED);
-                return argument;
+                return copyResource(argument);
             });
         }
 
@@ -832,6 +890,7 @@ public class MockKube {
         }
 
         private Watch mockedWatcher(String resourceName, InvocationOnMock i) {
+            recordRequest("watch");
             Watcher<CM> argument = (Watcher<CM>) i.getArguments()[0];
             LOGGER.debug("watch {} {} ", resourceType, argument);
             Collection<Watcher<CM>> w = nameScopedWatchers.get(resourceName);
@@ -850,17 +909,19 @@ public class MockKube {
 
         protected void mockCreate(String resourceName, R resource) {
             when(resource.create(any())).thenAnswer(i -> {
+                recordRequest("create");
                 checkNotExists(resourceName);
                 CM argument = (CM) i.getArguments()[0];
                 LOGGER.debug("create {} {} -> {}", resourceType, resourceName, argument);
                 db.put(resourceName, copyResource(argument));
                 fireWatchers(resourceName, argument, Watcher.Action.ADDED);
-                return argument;
+                return copyResource(db.get(resourceName));
             });
         }
 
         protected OngoingStubbing<CM> mockGet(String resourceName, R resource) {
             return when(resource.get()).thenAnswer(i -> {
+                recordRequest("get");
                 CM r = copyResource(db.get(resourceName));
                 LOGGER.debug("{} {} get {}", resourceType, resourceName, r);
                 return r;
@@ -869,6 +930,7 @@ public class MockKube {
 
         protected OngoingStubbing<Boolean> mockIsReady(String resourceName, R resource) {
             return when(resource.isReady()).thenAnswer(i -> {
+                recordRequest("get");
                 LOGGER.debug("{} {} is ready", resourceType, resourceName);
                 return Boolean.TRUE;
             });
@@ -16,6 +16,7 @@ import io.strimzi.api.kafka.model.DoneableKafka;
 import io.strimzi.api.kafka.model.Kafka;
 import io.strimzi.api.kafka.model.KafkaBuilder;
 import io.strimzi.api.kafka.model.KafkaResources;
+import io.strimzi.operator.cluster.ReconciliationCancelledException;
 import io.strimzi.operator.cluster.ResourceUtils;
 import io.strimzi.operator.cluster.model.Ca;
 import io.strimzi.operator.cluster.model.KafkaCluster;
@@ -26,6 +27,7 @@ import io.strimzi.operator.cluster.operator.resource.StatefulSetOperator;
 import io.strimzi.operator.common.Reconciliation;
 import io.strimzi.operator.common.model.ResourceType;
 import io.strimzi.operator.common.operator.MockCertManager;
+import io.strimzi.operator.common.operator.resource.NotLeaderException;
 import io.vertx.core.Vertx;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
@@ -67,6 +69,7 @@ public class PartialRollingUpdateTest {
     private Pod kafkaPod4;
     private KubernetesClient mockClient;
     private KafkaAssemblyOperator kco;
+    private ResourceOperatorSupplier supplier;
     private Pod zkPod0;
     private Pod zkPod1;
     private Pod zkPod2;
@@ -156,7 +159,7 @@ public class PartialRollingUpdateTest {
                 .withInitialSecrets(set(clusterCaCert, clusterCaKey, clientsCaCert, clientsCaKey))
                 .build();
 
-        ResourceOperatorSupplier supplier = new ResourceOperatorSupplier(vertx, mockClient, true, 60_000L);
+        this.supplier = new ResourceOperatorSupplier(vertx, mockClient, true, 60_000L);
 
         this.kco = new KafkaAssemblyOperator(vertx, true, 2_000,
                 new MockCertManager(), supplier, VERSIONS);
@@ -189,6 +192,72 @@ public class PartialRollingUpdateTest {
         });
     }
 
+    @Test
+    public void testCancelledReconciliationDoesNotRollPods(TestContext context) {
+        kafkaSs.getSpec().getTemplate().getMetadata().getAnnotations().put(StatefulSetOperator.ANNO_STRIMZI_IO_GENERATION, "3");
+        for (Pod pod : new Pod[] {kafkaPod0, kafkaPod1, kafkaPod2, kafkaPod3, kafkaPod4}) {
+            pod.getMetadata().getAnnotations().put(StatefulSetOperator.ANNO_STRIMZI_IO_GENERATION, "1");
+        }
+
+        startKube();
+
+        Reconciliation cancelled = new Reconciliation("test-trigger", ResourceType.KAFKA, NAMESPACE, CLUSTER_NAME);
+        cancelled.cancel();
+        Async cancelledAsync = context.async();
+        kco.reconcileAssembly(cancelled, ar -> {
+            context.assertTrue(ar.failed());
+            context.assertTrue(ar.cause() instanceof ReconciliationCancelledException);
+            for (int i = 0; i <= 4; i++) {
+                Pod pod = mockClient.pods().inNamespace(NAMESPACE).withName(KafkaCluster.kafkaPodName(CLUSTER_NAME, i)).get();
+                context.assertEquals("1", pod.getMetadata().getAnnotations().get(StatefulSetOperator.ANNO_STRIMZI_IO_GENERATION),
+                        "Pod " + i + " should not have been rolled");
+            }
+            cancelledAsync.complete();
+        });
+        cancelledAsync.await();
+
+        // The next reconciliation carries out the roll
+        Async async = context.async();
+        kco.reconcileAssembly(new Reconciliation("test-trigger", ResourceType.KAFKA, NAMESPACE, CLUSTER_NAME), ar -> {
+            context.assertTrue(ar.succeeded());
+            for (int i = 0; i <= 4; i++) {
+                Pod pod = mockClient.pods().inNamespace(NAMESPACE).withName(KafkaCluster.kafkaPodName(CLUSTER_NAME, i)).get();
+                context.assertEquals("3", pod.getMetadata().getAnnotations().get(StatefulSetOperator.ANNO_STRIMZI_IO_GENERATION),
+                        "Pod " + i + " had unexpected generation");
+            }
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testLosingLeadershipDuringRollingUpdateStopsRollingPods(TestContext context) {
+        kafkaSs.getSpec().getTemplate().getMetadata().getAnnotations().put(StatefulSetOperator.ANNO_STRIMZI_IO_GENERATION, "3");
+        for (Pod pod : new Pod[] {kafkaPod0, kafkaPod1, kafkaPod2, kafkaPod3, kafkaPod4}) {
+            pod.getMetadata().getAnnotations().put(StatefulSetOperator.ANNO_STRIMZI_IO_GENERATION, "1");
+        }
+
+        startKube();
+
+        // The lease is lost once the first pod has been rolled. Only the resource operators see that,
+        // as if it happened after the reconciliation last checked, right before restarting the next pod.
+        supplier.setLeadership(() -> !"3".equals(kafkaPodGeneration(0)));
+        Async async = context.async();
+        kco.reconcileAssembly(new Reconciliation("test-trigger", ResourceType.KAFKA, NAMESPACE, CLUSTER_NAME), ar -> {
+            context.assertTrue(ar.failed());
+            context.assertTrue(ar.cause() instanceof NotLeaderException, "Unexpected failure " + ar.cause());
+            context.assertEquals("3", kafkaPodGeneration(0));
+            for (int i = 1; i <= 4; i++) {
+                context.assertEquals("1", kafkaPodGeneration(i), "Pod " + i + " should not have been rolled");
+            }
+            async.complete();
+        });
+    }
+
+    private String kafkaPodGeneration(int podId) {
+        Pod pod = mockClient.pods().inNamespace(NAMESPACE).withName(KafkaCluster.kafkaPodName(CLUSTER_NAME, podId)).get();
+        return pod.getMetadata().getAnnotations().get(StatefulSetOperator.ANNO_STRIMZI_IO_GENERATION);
+    }
+
     @Test
     public void testReconcileOfPartiallyRolledZookeeperCluster(TestContext context) {
         zkSs.getSpec().getTemplate().getMetadata().getAnnotations().put(StatefulSetOperator.ANNO_STRIMZI_IO_GENERATION, "3");
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.assembly;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static java.util.Arrays.asList;
+
+@RunWith(VertxUnitRunner.class)
+public class ReconciliationQueueTest {
+
+    private static Vertx vertx;
+
+    @BeforeClass
+    public static void before() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterClass
+    public static void after() {
+        vertx.close();
+    }
+
+    /** Reconciliations which complete only when the test completes them. */
+    private final Map<String, Future<Void>> inProgress = new ConcurrentHashMap<>();
+    private final List<String> startOrder = new CopyOnWriteArrayList<>();
+
+    private Supplier<Future<Void>> reconciliation(String name) {
+        return () -> {
+            startOrder.add(name);
+            Future<Void> result = Future.future();
+            inProgress.put(name, result);
+            return result;
+        };
+    }
+
+    private void finish(String name) throws InterruptedException {
+        while (!inProgress.containsKey(name)) {
+            Thread.sleep(5);
+        }
+        inProgress.remove(name).complete();
+    }
+
+    @Test
+    public void testWaitingReconciliationsAreMerged(TestContext context) throws InterruptedException {
+        ReconciliationQueue queue = new ReconciliationQueue(vertx, 10);
+        Async async = context.async(3);
+
+        queue.enqueue("a", true, reconciliation("a1"), ar -> async.countDown());
+        // Both wait for a1, and are merged into a single reconciliation
+        queue.enqueue("a", false, reconciliation("a2"), ar -> async.countDown());
+        queue.enqueue("a", true, reconciliation("a3"), ar -> async.countDown());
+        context.assertEquals(2, queue.queueDepth() + queue.running());
+
+        finish("a1");
+        finish("a3");
+        async.awaitSuccess();
+
+        context.assertEquals(asList("a1", "a3"), startOrder);
+        context.assertEquals(1L, queue.merged());
+        context.assertEquals(2L, queue.started());
+        context.assertEquals(0, queue.queueDepth());
+    }
+
+    @Test
+    public void testPeriodicReconciliationDoesNotReplaceWaitingWatchReconciliation(TestContext context) throws InterruptedException {
+        ReconciliationQueue queue = new ReconciliationQueue(vertx, 10);
+        Async async = context.async(3);
+
+        queue.enqueue("a", false, reconciliation("a1"), ar -> async.countDown());
+        queue.enqueue("a", true, reconciliation("a2"), ar -> async.countDown());
+        queue.enqueue("a", false, reconciliation("a3"), ar -> async.countDown());
+
+        finish("a1");
+        finish("a2");
+        async.awaitSuccess();
+
+        context.assertEquals(asList("a1", "a2"), startOrder);
+    }
+
+    @Test
+    public void testConcurrencyIsBoundedAndWatchEventsGoFirst(TestContext context) throws InterruptedException {
+        ReconciliationQueue queue = new ReconciliationQueue(vertx, 1);
+        Async async = context.async(3);
+
+        queue.enqueue("a", false, reconciliation("a"), ar -> async.countDown());
+        queue.enqueue("b", false, reconciliation("b"), ar -> async.countDown());
+        queue.enqueue("c", true, reconciliation("c"), ar -> async.countDown());
+        context.assertEquals(1, queue.running());
+        context.assertEquals(2, queue.queueDepth());
+
+        finish("a");
+        finish("c");
+        finish("b");
+        async.awaitSuccess();
+
+        context.assertEquals(asList("a", "c", "b"), startOrder);
+        context.assertEquals(0, queue.running());
+    }
+
+    @Test
+    public void testFailedReconciliationReleasesKey(TestContext context) {
+        ReconciliationQueue queue = new ReconciliationQueue(vertx, 1);
+        Async async = context.async(2);
+
+        queue.enqueue("a", true, () -> {
+            throw new RuntimeException("Oops");
+        },
+            ar -> {
+                context.assertTrue(ar.failed());
+                async.countDown();
+            });
+        queue.enqueue("a", true, () -> Future.succeededFuture(), ar -> {
+            context.assertTrue(ar.succeeded());
+            async.countDown();
+        });
+    }
+}
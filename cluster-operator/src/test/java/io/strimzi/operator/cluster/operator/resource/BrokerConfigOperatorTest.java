@@ -0,0 +1,220 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.resource;
+
+import io.fabric8.kubernetes.api.model.Secret;
+import io.strimzi.operator.common.operator.resource.TimeoutException;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AlterConfigsResult;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.clients.admin.ConfigEntry;
+import org.apache.kafka.clients.admin.DescribeConfigsResult;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.errors.AuthenticationException;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.errors.InvalidRequestException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(VertxUnitRunner.class)
+public class BrokerConfigOperatorTest {
+
+    private static final String KEYSTORE = "listener.name.replication.ssl.keystore.location";
+    private static final String TRUSTSTORE = "listener.name.replication.ssl.truststore.location";
+
+    private static Vertx vertx;
+    private static WorkerExecutor executor;
+
+    @BeforeClass
+    public static void before() {
+        vertx = Vertx.vertx();
+        executor = vertx.createSharedWorkerExecutor("broker-config-test-pool");
+    }
+
+    @AfterClass
+    public static void after() {
+        executor.close();
+        vertx.close();
+    }
+
+    private static ConfigEntry entry(String name, String value, ConfigEntry.ConfigSource source, boolean sensitive) {
+        ConfigEntry entry = mock(ConfigEntry.class);
+        when(entry.name()).thenReturn(name);
+        when(entry.value()).thenReturn(value);
+        when(entry.source()).thenReturn(source);
+        when(entry.isSensitive()).thenReturn(sensitive);
+        return entry;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AdminClient mockAdminClient(ConfigEntry... entries) {
+        ConfigResource resource = new ConfigResource(ConfigResource.Type.BROKER, "1");
+        // Config reads the (mocked) entries' names, so must not be created while stubbing
+        Config config = new Config(asList(entries));
+        DescribeConfigsResult describeResult = mock(DescribeConfigsResult.class);
+        when(describeResult.values()).thenReturn(singletonMap(resource, KafkaFuture.completedFuture(config)));
+        AlterConfigsResult alterResult = mock(AlterConfigsResult.class);
+        when(alterResult.all()).thenReturn(KafkaFuture.completedFuture(null));
+
+        AdminClient admin = mock(AdminClient.class);
+        when(admin.describeConfigs(anyCollection())).thenReturn(describeResult);
+        when(admin.alterConfigs(anyMap())).thenReturn(alterResult);
+        return admin;
+    }
+
+    private static Map<String, String> values(Config config) {
+        Map<String, String> result = new HashMap<>();
+        for (ConfigEntry entry : config.entries()) {
+            result.put(entry.name(), entry.value());
+        }
+        return result;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAlterBrokerConfigKeepsOtherDynamicOptions() throws Exception {
+        AdminClient admin = mockAdminClient(
+                entry("log.cleaner.threads", "2", ConfigEntry.ConfigSource.DYNAMIC_BROKER_CONFIG, false),
+                entry(KEYSTORE, "/tmp/kafka/cluster.keystore.0123456789abcdef.p12", ConfigEntry.ConfigSource.DYNAMIC_BROKER_CONFIG, false),
+                entry(TRUSTSTORE, "/tmp/kafka/cluster.truststore.0123456789abcdef.p12", ConfigEntry.ConfigSource.DYNAMIC_BROKER_CONFIG, false),
+                entry("num.io.threads", "8", ConfigEntry.ConfigSource.STATIC_BROKER_CONFIG, false),
+                entry("ssl.key.password", null, ConfigEntry.ConfigSource.DEFAULT_CONFIG, true));
+        BrokerConfigOperator op = new BrokerConfigOperator(vertx, (bootstrap, caCerts, keyCert, name) -> admin, 60_000L);
+
+        Map<String, String> changes = new HashMap<>();
+        changes.put(KEYSTORE, "/tmp/kafka/cluster.keystore.fedcba9876543210.p12");
+        changes.put(TRUSTSTORE, null);
+        op.alterBrokerConfig("ns", "my-cluster", 1, null, null, changes);
+
+        ArgumentCaptor<Map<ConfigResource, Config>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(admin).alterConfigs(captor.capture());
+        Config altered = captor.getValue().get(new ConfigResource(ConfigResource.Type.BROKER, "1"));
+        Map<String, String> expected = new HashMap<>();
+        expected.put("log.cleaner.threads", "2");
+        expected.put(KEYSTORE, "/tmp/kafka/cluster.keystore.fedcba9876543210.p12");
+        assertEquals(expected, values(altered));
+        verify(admin).close(anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testAlterBrokerConfigRefusesToLoseSensitiveDynamicOptions() throws Exception {
+        AdminClient admin = mockAdminClient(
+                entry("listener.name.external.ssl.key.password", null, ConfigEntry.ConfigSource.DYNAMIC_BROKER_CONFIG, true));
+        BrokerConfigOperator op = new BrokerConfigOperator(vertx, (bootstrap, caCerts, keyCert, name) -> admin, 60_000L);
+
+        try {
+            op.alterBrokerConfig("ns", "my-cluster", 1, null, null, singletonMap(KEYSTORE, "/tmp/kafka/cluster.keystore.p12"));
+            fail("Expected the change to be refused");
+        } catch (BrokerConfigOperator.DynamicUpdateUnsupportedException e) {
+            assertTrue(e.getMessage().contains("listener.name.external.ssl.key.password"));
+        }
+        verify(admin, never()).alterConfigs(anyMap());
+        verify(admin).close(anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testReloadTlsStoresRetriesUntilAcceptedThenReverts(TestContext context) {
+        List<Map<String, String>> attempts = new ArrayList<>();
+        BrokerConfigOperator op = new BrokerConfigOperator(vertx, null, 10L, 5_000L) {
+            @Override
+            void alterBrokerConfig(String namespace, String cluster, int brokerId,
+                                   Secret clusterCaCertSecret, Secret brokersSecret, Map<String, String> changes) throws Exception {
+                attempts.add(changes);
+                if (attempts.size() < 3) {
+                    throw new ExecutionException(new InvalidRequestException("Store not found"));
+                }
+            }
+        };
+
+        Map<String, String> config = singletonMap(KEYSTORE, "/tmp/kafka/cluster.keystore.fedcba9876543210.p12");
+        Async async = context.async();
+        op.reloadTlsStores(executor, "ns", "my-cluster", 1, null, null, config, 5_000L).setHandler(context.asyncAssertSuccess(v -> {
+            context.assertEquals(4, attempts.size());
+            context.assertEquals(config, attempts.get(0));
+            context.assertEquals(config, attempts.get(2));
+            context.assertEquals(singletonMap(KEYSTORE, null), attempts.get(3));
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testReloadTlsStoresFailsWhenNeverAccepted(TestContext context) {
+        BrokerConfigOperator op = new BrokerConfigOperator(vertx, null, 10L, 5_000L) {
+            @Override
+            void alterBrokerConfig(String namespace, String cluster, int brokerId,
+                                   Secret clusterCaCertSecret, Secret brokersSecret, Map<String, String> changes) throws Exception {
+                throw new ExecutionException(new InvalidRequestException("Store not found"));
+            }
+        };
+
+        Async async = context.async();
+        op.reloadTlsStores(executor, "ns", "my-cluster", 1, null, null, singletonMap(KEYSTORE, "/tmp/kafka/cluster.keystore.p12"), 100L)
+            .setHandler(context.asyncAssertFailure(e -> {
+                context.assertTrue(e instanceof TimeoutException);
+                async.complete();
+            }));
+    }
+
+    @Test
+    public void testReloadTlsStoresFailsFastWhenBrokerRefusesCredentials(TestContext context) {
+        AtomicInteger attempts = new AtomicInteger();
+        BrokerConfigOperator op = new BrokerConfigOperator(vertx, null, 10L, 5_000L) {
+            @Override
+            void alterBrokerConfig(String namespace, String cluster, int brokerId,
+                                   Secret clusterCaCertSecret, Secret brokersSecret, Map<String, String> changes) throws Exception {
+                attempts.incrementAndGet();
+                throw new ExecutionException(new AuthenticationException("SSL handshake failed"));
+            }
+        };
+
+        Async async = context.async();
+        op.reloadTlsStores(executor, "ns", "my-cluster", 1, null, null, singletonMap(KEYSTORE, "/tmp/kafka/cluster.keystore.p12"), 60_000L)
+            .setHandler(context.asyncAssertFailure(e -> {
+                context.assertEquals(1, attempts.get());
+                async.complete();
+            }));
+    }
+
+    @Test
+    public void testIsPermanent() {
+        assertTrue(BrokerConfigOperator.isPermanent(new ExecutionException(new AuthenticationException("SSL handshake failed"))));
+        assertTrue(BrokerConfigOperator.isPermanent(new ExecutionException(new AuthorizationException("Cluster authorization failed"))));
+        assertTrue(BrokerConfigOperator.isPermanent(new java.util.concurrent.TimeoutException()));
+        assertTrue(BrokerConfigOperator.isPermanent(new ExecutionException(new org.apache.kafka.common.errors.TimeoutException("Timed out"))));
+        assertFalse(BrokerConfigOperator.isPermanent(new ExecutionException(new InvalidRequestException("Store not found"))));
+    }
+}
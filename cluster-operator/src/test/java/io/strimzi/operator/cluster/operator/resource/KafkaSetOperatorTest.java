@@ -12,6 +12,7 @@ import io.strimzi.api.kafka.model.KafkaBuilder;
 import io.strimzi.operator.cluster.ResourceUtils;
 import io.strimzi.operator.cluster.model.KafkaCluster;
 import io.strimzi.operator.cluster.model.KafkaVersion;
+import io.strimzi.operator.cluster.model.ModelUtils;
 import io.strimzi.operator.common.operator.MockCertManager;
 import org.junit.Before;
 import org.junit.Test;
@@ -20,6 +21,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static io.strimzi.operator.cluster.model.AbstractModel.containerEnvVars;
+import static io.strimzi.operator.cluster.model.KafkaCluster.ANNO_STRIMZI_IO_KAFKA_VERSION;
+import static io.strimzi.operator.cluster.model.KafkaCluster.ENV_VAR_KAFKA_CONFIGURATION;
 import static io.strimzi.operator.cluster.model.KafkaCluster.ENV_VAR_KAFKA_ZOOKEEPER_CONNECT;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
@@ -131,4 +134,52 @@ public class KafkaSetOperatorTest {
                 "foo", null));
         assertTrue(KafkaSetOperator.needsRollingUpdate(diff()));
     }
+
+    private static void setKafkaConfiguration(StatefulSet ss, String version, String configuration) {
+        ss.getMetadata().setAnnotations(new HashMap<>(singletonMap(ANNO_STRIMZI_IO_KAFKA_VERSION, version)));
+        Map<String, String> env = ModelUtils.getKafkaContainerEnv(ss);
+        env.put(ENV_VAR_KAFKA_CONFIGURATION, configuration);
+        ss.getSpec().getTemplate().getSpec().getContainers().get(0).setEnv(ModelUtils.envAsList(env));
+    }
+
+    @Test
+    public void testNotNeedsRollingUpdateDynamicConfiguration() {
+        setKafkaConfiguration(a, "2.0.0", "num.io.threads=8\nauto.create.topics.enable=false\n");
+        setKafkaConfiguration(b, "2.0.0", "num.io.threads=4\nlog.cleaner.threads=2\nauto.create.topics.enable=false\n");
+        assertTrue(KafkaSetOperator.needsRollingUpdate(diff()));
+        assertTrue(KafkaSetOperator.changesOnlyDynamicConfiguration(a, b));
+    }
+
+    @Test
+    public void testNeedsRollingUpdateReadOnlyConfiguration() {
+        setKafkaConfiguration(a, "2.0.0", "num.io.threads=8\nauto.create.topics.enable=false\n");
+        setKafkaConfiguration(b, "2.0.0", "num.io.threads=4\nauto.create.topics.enable=true\n");
+        assertFalse(KafkaSetOperator.changesOnlyDynamicConfiguration(a, b));
+    }
+
+    @Test
+    public void testNeedsRollingUpdateRemovedDynamicConfiguration() {
+        setKafkaConfiguration(a, "2.0.0", "num.io.threads=8\n");
+        setKafkaConfiguration(b, "2.0.0", "");
+        assertFalse(KafkaSetOperator.changesOnlyDynamicConfiguration(a, b));
+    }
+
+    @Test
+    public void testNeedsRollingUpdateConfigurationOptionDynamicInLaterVersion() {
+        setKafkaConfiguration(a, "2.0.0", "max.connections.per.ip=100\n");
+        setKafkaConfiguration(b, "2.0.0", "max.connections.per.ip=200\n");
+        assertFalse(KafkaSetOperator.changesOnlyDynamicConfiguration(a, b));
+        setKafkaConfiguration(a, "2.1.0", "max.connections.per.ip=100\n");
+        setKafkaConfiguration(b, "2.1.0", "max.connections.per.ip=200\n");
+        assertTrue(KafkaSetOperator.changesOnlyDynamicConfiguration(a, b));
+    }
+
+    @Test
+    public void testNeedsRollingUpdateDynamicConfigurationAndImage() {
+        setKafkaConfiguration(a, "2.0.0", "num.io.threads=8\n");
+        setKafkaConfiguration(b, "2.0.0", "num.io.threads=4\n");
+        a.getSpec().getTemplate().getSpec().getContainers().get(0).setImage(
+                a.getSpec().getTemplate().getSpec().getContainers().get(0).getImage() + "-foo");
+        assertFalse(KafkaSetOperator.changesOnlyDynamicConfiguration(a, b));
+    }
 }
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.resource;
+
+import io.strimzi.api.kafka.model.KafkaRebalancing;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.clients.admin.DescribeClusterResult;
+import org.apache.kafka.clients.admin.DescribeConfigsResult;
+import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.ListTopicsOptions;
+import org.apache.kafka.clients.admin.ListTopicsResult;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.config.ConfigResource;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PartitionReassignmentOperatorTest {
+
+    private static Map<TopicPartition, List<Integer>> assignment(Object... topicPartitionReplicas) {
+        Map<TopicPartition, List<Integer>> assignment = new HashMap<>();
+        for (int i = 0; i < topicPartitionReplicas.length; i += 3) {
+            assignment.put(new TopicPartition((String) topicPartitionReplicas[i], (Integer) topicPartitionReplicas[i + 1]),
+                    asList((Integer[]) topicPartitionReplicas[i + 2]));
+        }
+        return assignment;
+    }
+
+    private static Integer[] replicas(Integer... ids) {
+        return ids;
+    }
+
+    @Test
+    public void testDrainingAssignmentMovesReplicasToLeastLoadedBrokers() {
+        Map<TopicPartition, List<Integer>> reassignment = PartitionReassignmentOperator.drainingAssignment(assignment(
+                "foo", 0, replicas(0, 1),
+                "foo", 1, replicas(1, 3),
+                "foo", 2, replicas(3, 0),
+                "bar", 0, replicas(2, 4)), 3);
+
+        assertEquals(assignment(
+                "bar", 0, replicas(2, 0),
+                "foo", 1, replicas(1, 2),
+                "foo", 2, replicas(1, 0)), reassignment);
+        for (List<Integer> replicas : reassignment.values()) {
+            assertEquals(replicas.size(), new HashSet<>(replicas).size());
+            for (int broker : replicas) {
+                assertTrue(broker < 3);
+            }
+        }
+    }
+
+    @Test
+    public void testDrainingAssignmentIsEmptyWhenNothingToMove() {
+        assertTrue(PartitionReassignmentOperator.drainingAssignment(assignment(
+                "foo", 0, replicas(0, 1),
+                "foo", 1, replicas(1, 2)), 3).isEmpty());
+    }
+
+    @Test
+    public void testDrainingAssignmentRefusesToLoseReplicas() {
+        try {
+            PartitionReassignmentOperator.drainingAssignment(assignment("foo", 0, replicas(0, 1, 2)), 2);
+            fail("Expected the reassignment to be refused");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBalancingAssignmentMovesFollowersOntoNewBrokers() {
+        Map<TopicPartition, List<Integer>> assignment = assignment(
+                "foo", 0, replicas(0, 1),
+                "foo", 1, replicas(1, 2),
+                "foo", 2, replicas(2, 0),
+                "bar", 0, replicas(0, 1),
+                "bar", 1, replicas(1, 2),
+                "bar", 2, replicas(2, 0));
+
+        assertEquals(assignment(
+                "bar", 0, replicas(0, 3),
+                "bar", 1, replicas(1, 3),
+                "bar", 2, replicas(2, 3)),
+                PartitionReassignmentOperator.balancingAssignment(assignment, emptyMap(), 4, 50));
+        assertEquals(assignment(
+                "bar", 0, replicas(0, 3),
+                "bar", 2, replicas(2, 3)),
+                PartitionReassignmentOperator.balancingAssignment(assignment, emptyMap(), 4, 2));
+    }
+
+    @Test
+    public void testBalancingAssignmentIsEmptyWhenBalanced() {
+        assertTrue(PartitionReassignmentOperator.balancingAssignment(assignment(
+                "foo", 0, replicas(0, 1),
+                "foo", 1, replicas(1, 2),
+                "foo", 2, replicas(2, 3)), emptyMap(), 4, 50).isEmpty());
+    }
+
+    @Test
+    public void testBalancingAssignmentKeepsPartitionsInAsManyRacks() {
+        Map<TopicPartition, List<Integer>> assignment = assignment(
+                "foo", 0, replicas(0, 1),
+                "foo", 1, replicas(1, 0));
+        Map<Integer, String> racks = new HashMap<>();
+        racks.put(0, "zone-a");
+        racks.put(1, "zone-b");
+        racks.put(2, "zone-b");
+
+        assertEquals(assignment("foo", 1, replicas(1, 2)),
+                PartitionReassignmentOperator.balancingAssignment(assignment, emptyMap(), 3, 50));
+        assertEquals(assignment("foo", 0, replicas(0, 2)),
+                PartitionReassignmentOperator.balancingAssignment(assignment, racks, 3, 50));
+    }
+
+    @Test
+    public void testBytesToMove() {
+        List<Node> nodes = asList(new Node(0, "broker-0", 9091), new Node(1, "broker-1", 9091), new Node(2, "broker-2", 9091));
+        TopicDescription foo = new TopicDescription("foo", false, asList(
+                new TopicPartitionInfo(0, nodes.get(0), nodes, asList(nodes.get(0), nodes.get(1))),
+                new TopicPartitionInfo(1, nodes.get(1), asList(nodes.get(1), nodes.get(0)), asList(nodes.get(1), nodes.get(0)))));
+        Map<Integer, Map<TopicPartition, Long>> sizes = new HashMap<>();
+        sizes.put(0, new HashMap<>());
+        sizes.get(0).put(new TopicPartition("foo", 0), 100L);
+        sizes.get(0).put(new TopicPartition("foo", 1), 300L);
+        sizes.put(2, singletonMap(new TopicPartition("foo", 0), 40L));
+        sizes.put(1, singletonMap(new TopicPartition("foo", 1), 200L));
+
+        // The out of sync replica of foo-0 misses 60 bytes, the new replica of foo-1 needs all of its leader's 200
+        assertEquals(260, PartitionReassignmentOperator.bytesToMove(singletonList(foo),
+                assignment("foo", 1, replicas(1, 2)), sizes));
+    }
+
+    @Test
+    public void testAdaptThrottle() {
+        // Scaled by how much faster the data has to move than it did
+        assertEquals(15_000_000, PartitionReassignmentOperator.adaptThrottle(10_000_000, 8_000_000, 12_000_000, 100_000_000));
+        assertEquals(5_000_000, PartitionReassignmentOperator.adaptThrottle(10_000_000, 8_000_000, 4_000_000, 100_000_000));
+        // At most doubled or halved at once
+        assertEquals(20_000_000, PartitionReassignmentOperator.adaptThrottle(10_000_000, 1_000_000, 12_000_000, 100_000_000));
+        assertEquals(5_000_000, PartitionReassignmentOperator.adaptThrottle(10_000_000, 8_000_000, 0, 100_000_000));
+        // Only raised when the data wasn't seen moving
+        assertEquals(10_000_000, PartitionReassignmentOperator.adaptThrottle(10_000_000, 0, 2_000_000, 100_000_000));
+        assertEquals(30_000_000, PartitionReassignmentOperator.adaptThrottle(10_000_000, 0, 30_000_000, 100_000_000));
+        // Within bounds
+        assertEquals(50_000_000, PartitionReassignmentOperator.adaptThrottle(40_000_000, 10_000_000, 40_000_000, 50_000_000));
+        assertEquals(PartitionReassignmentOperator.MIN_THROTTLE_BYTES_PER_SECOND,
+                PartitionReassignmentOperator.adaptThrottle(1_500_000, 8_000_000, 0, 100_000_000));
+    }
+
+    @Test
+    public void testReassignmentJson() {
+        assertEquals("{\"version\":1,\"partitions\":[{\"topic\":\"foo\",\"partition\":1,\"replicas\":[2,0]}]}",
+                PartitionReassignmentOperator.reassignmentJson(assignment("foo", 1, replicas(2, 0))));
+    }
+
+    @Test
+    public void testDrainBrokersWhenAlreadyDrained() throws Exception {
+        List<Node> nodes = asList(new Node(0, "broker-0", 9091), new Node(1, "broker-1", 9091));
+        TopicDescription foo = new TopicDescription("foo", false, asList(
+                new TopicPartitionInfo(0, nodes.get(0), nodes, nodes),
+                new TopicPartitionInfo(1, nodes.get(1), new ArrayList<>(nodes), nodes)));
+
+        ListTopicsResult topics = mock(ListTopicsResult.class);
+        when(topics.names()).thenReturn(KafkaFuture.completedFuture(new HashSet<>(asList("foo"))));
+        DescribeTopicsResult descriptions = mock(DescribeTopicsResult.class);
+        when(descriptions.all()).thenReturn(KafkaFuture.completedFuture(singletonMap("foo", foo)));
+        DescribeConfigsResult configs = mock(DescribeConfigsResult.class);
+        when(configs.all()).thenReturn(KafkaFuture.completedFuture(
+                singletonMap(new ConfigResource(ConfigResource.Type.TOPIC, "foo"), new Config(emptyList()))));
+        AdminClient admin = mock(AdminClient.class);
+        when(admin.listTopics(any(ListTopicsOptions.class))).thenReturn(topics);
+        when(admin.describeTopics(anyCollection())).thenReturn(descriptions);
+        when(admin.describeConfigs(anyCollection())).thenReturn(configs);
+
+        // Without a Kubernetes client, running the reassignment tool would fail
+        PartitionReassignmentOperator op = new PartitionReassignmentOperator(null, (bootstrap, caCerts, keyCert, name) -> admin, 60_000L);
+        assertEquals(0, op.drainBrokers("ns", "my-cluster", 2, null, null));
+    }
+
+    @Test
+    public void testRebalanceBrokersWaitsForAllBrokers() throws Exception {
+        DescribeClusterResult cluster = mock(DescribeClusterResult.class);
+        when(cluster.nodes()).thenReturn(KafkaFuture.completedFuture(
+                asList(new Node(0, "broker-0", 9091), new Node(1, "broker-1", 9091))));
+        AdminClient admin = mock(AdminClient.class);
+        when(admin.describeCluster()).thenReturn(cluster);
+
+        // Without a Kubernetes client, running the reassignment tool would fail
+        PartitionReassignmentOperator op = new PartitionReassignmentOperator(null, (bootstrap, caCerts, keyCert, name) -> admin, 60_000L);
+        assertEquals(-1, op.rebalanceBrokers("ns", "my-cluster", 3, new KafkaRebalancing(), null, null));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.EnvVarBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSet;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSetBuilder;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSetStatusBuilder;
+import io.fabric8.zjsonpatch.JsonDiff;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.fabric8.kubernetes.client.internal.PatchUtils.patchMapper;
+
+/**
+ * Benchmarks {@link StatefulSetDiff} with StatefulSets shaped like those generated for a Kafka cluster
+ * (a broker and a TLS sidecar container with 30 environment variables each).
+ * Run it with the {@link #main(String[])} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatefulSetDiffBenchmark {
+
+    private static final int ENV_VARS = 30;
+
+    private StatefulSet current;
+    private StatefulSet unchanged;
+    private StatefulSet changed;
+
+    private static List<EnvVar> env(String changedValue) {
+        List<EnvVar> env = new ArrayList<>(ENV_VARS);
+        for (int i = 0; i < ENV_VARS; i++) {
+            env.add(new EnvVarBuilder().withName("ENV_VAR_" + i).withValue(i == ENV_VARS - 1 ? changedValue : "value-" + i).build());
+        }
+        return env;
+    }
+
+    private static Container container(String name, String envValue, String imagePullPolicy) {
+        return new ContainerBuilder()
+                .withName(name)
+                .withImage("strimzi/" + name + ":latest")
+                .withImagePullPolicy(imagePullPolicy)
+                .withEnv(env(envValue))
+                .addNewPort()
+                    .withName("replication")
+                    .withContainerPort(9091)
+                .endPort()
+                .addNewVolumeMount()
+                    .withName("data")
+                    .withMountPath("/var/lib/kafka")
+                .endVolumeMount()
+                .withNewLivenessProbe()
+                    .withNewExec()
+                        .withCommand("/opt/kafka/kafka_healthcheck.sh")
+                    .endExec()
+                    .withInitialDelaySeconds(15)
+                    .withTimeoutSeconds(5)
+                .endLivenessProbe()
+                .withNewReadinessProbe()
+                    .withNewExec()
+                        .withCommand("/opt/kafka/kafka_healthcheck.sh")
+                    .endExec()
+                    .withInitialDelaySeconds(15)
+                    .withTimeoutSeconds(5)
+                .endReadinessProbe()
+                .withNewResources()
+                    .addToLimits("memory", new Quantity("2Gi"))
+                    .addToRequests("memory", new Quantity("1Gi"))
+                .endResources()
+                .build();
+    }
+
+    private static StatefulSet statefulSet(int replicas, String envValue, String imagePullPolicy) {
+        return new StatefulSetBuilder()
+                .withNewMetadata()
+                    .withNamespace("myproject")
+                    .withName("my-cluster-kafka")
+                    .addToLabels("strimzi.io/cluster", "my-cluster")
+                    .addToLabels("strimzi.io/kind", "Kafka")
+                    .addToLabels("strimzi.io/name", "my-cluster-kafka")
+                .endMetadata()
+                .withNewSpec()
+                    .withReplicas(replicas)
+                    .withServiceName("my-cluster-kafka-headless")
+                    .withNewSelector()
+                        .addToMatchLabels("strimzi.io/name", "my-cluster-kafka")
+                    .endSelector()
+                    .withNewTemplate()
+                        .withNewMetadata()
+                            .addToLabels("strimzi.io/name", "my-cluster-kafka")
+                            .addToAnnotations("strimzi.io/generation", "0")
+                        .endMetadata()
+                        .withNewSpec()
+                            .withContainers(container("kafka", envValue, imagePullPolicy),
+                                    container("tls-sidecar", envValue, imagePullPolicy))
+                            .addNewVolume()
+                                .withName("kafka-metrics-and-logging")
+                                .withNewConfigMap()
+                                    .withName("my-cluster-kafka-config")
+                                .endConfigMap()
+                            .endVolume()
+                            .addNewVolume()
+                                .withName("cluster-ca")
+                                .withNewSecret()
+                                    .withSecretName("my-cluster-cluster-ca-cert")
+                                .endSecret()
+                            .endVolume()
+                        .endSpec()
+                    .endTemplate()
+                    .addNewVolumeClaimTemplate()
+                        .withNewMetadata()
+                            .withName("data")
+                        .endMetadata()
+                        .withNewSpec()
+                            .withAccessModes("ReadWriteOnce")
+                            .withNewResources()
+                                .addToRequests("storage", new Quantity("100Gi"))
+                            .endResources()
+                        .endSpec()
+                    .endVolumeClaimTemplate()
+                .endSpec()
+                .build();
+    }
+
+    @Setup
+    public void setup() {
+        // The current StatefulSet has been defaulted and has a status, as when read from the API server
+        current = statefulSet(3, "value", "IfNotPresent");
+        current.setStatus(new StatefulSetStatusBuilder().withReplicas(3).withReadyReplicas(3).build());
+        unchanged = statefulSet(3, "value", null);
+        changed = statefulSet(4, "changed", null);
+    }
+
+    @Benchmark
+    public StatefulSetDiff diffUnchanged() {
+        return new StatefulSetDiff(current, unchanged);
+    }
+
+    @Benchmark
+    public StatefulSetDiff diffChanged() {
+        return new StatefulSetDiff(current, changed);
+    }
+
+    /** The JSON patch which the diff used to be computed from, for comparison. */
+    @Benchmark
+    public JsonNode jsonDiffUnchanged() {
+        return JsonDiff.asJson(patchMapper().valueToTree(current), patchMapper().valueToTree(unchanged));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StatefulSetDiffBenchmark.class.getSimpleName()).build()).run();
+    }
+}
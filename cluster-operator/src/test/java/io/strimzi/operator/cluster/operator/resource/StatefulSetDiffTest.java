@@ -5,12 +5,19 @@
 package io.strimzi.operator.cluster.operator.resource;
 
 import io.fabric8.kubernetes.api.model.ConfigMapVolumeSourceBuilder;
+import io.fabric8.kubernetes.api.model.ContainerPortBuilder;
+import io.fabric8.kubernetes.api.model.EnvVarBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.ResourceRequirementsBuilder;
 import io.fabric8.kubernetes.api.model.VolumeBuilder;
 import io.fabric8.kubernetes.api.model.extensions.StatefulSet;
 import io.fabric8.kubernetes.api.model.extensions.StatefulSetBuilder;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSetStatusBuilder;
 import org.junit.Test;
 
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class StatefulSetDiffTest {
     @Test
@@ -47,4 +54,118 @@ public class StatefulSetDiffTest {
             .build();
         assertFalse(new StatefulSetDiff(ss1, ss2).changesSpecTemplateSpec());
     }
+
+    private static StatefulSet statefulSet(int replicas, String app, String envValue, String policy) {
+        return new StatefulSetBuilder()
+            .withNewMetadata()
+                .withNamespace("test")
+                .withName("foo")
+                .addToLabels("app", app)
+            .endMetadata()
+            .withNewSpec()
+                .withReplicas(replicas)
+                .withNewTemplate()
+                    .withNewSpec()
+                        .addNewInitContainer()
+                            .withName("init")
+                            .addNewEnv()
+                                .withName("FOO")
+                                .withValue(envValue)
+                            .endEnv()
+                        .endInitContainer()
+                        .addNewContainer()
+                            .withName("kafka")
+                            .withImagePullPolicy(policy)
+                            .addNewEnv()
+                                .withName("FOO")
+                                .withValue(envValue)
+                            .endEnv()
+                        .endContainer()
+                    .endSpec()
+                .endTemplate()
+            .endSpec()
+            .build();
+    }
+
+    @Test
+    public void testNoDiff() {
+        StatefulSetDiff diff = new StatefulSetDiff(statefulSet(3, "kafka", "bar", "Always"), statefulSet(3, "kafka", "bar", "Always"));
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    public void testIgnoredPathsAtAnyIndex() {
+        StatefulSet current = statefulSet(3, "kafka", "bar", "Always");
+        current.setStatus(new StatefulSetStatusBuilder().withReplicas(3).build());
+        current.getSpec().getTemplate().getSpec().getInitContainers().get(0).getEnv().get(0).setValue("baz");
+        StatefulSetDiff diff = new StatefulSetDiff(current, statefulSet(3, "kafka", "bar", "IfNotPresent"));
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    public void testFlaggedChanges() {
+        StatefulSetDiff diff = new StatefulSetDiff(statefulSet(3, "kafka", "bar", "Always"), statefulSet(4, "kafka", "bar", "Always"));
+        assertFalse(diff.isEmpty());
+        assertTrue(diff.changesSpecReplicas());
+        assertFalse(diff.changesSpecTemplateSpec());
+        assertFalse(diff.changesLabels());
+
+        diff = new StatefulSetDiff(statefulSet(3, "kafka", "bar", "Always"), statefulSet(4, "zookeeper", "baz", "Always"));
+        assertTrue(diff.changesSpecReplicas());
+        assertTrue(diff.changesSpecTemplateSpec());
+        assertTrue(diff.changesLabels());
+        assertFalse(diff.changesVolumeClaimTemplates());
+    }
+
+    @Test
+    public void testChangesWithinIgnoredPathAreNotIgnored() {
+        StatefulSet current = statefulSet(3, "kafka", "bar", "Always");
+        StatefulSet desired = statefulSet(3, "kafka", "bar", "Always");
+        current.getSpec().getTemplate().getSpec().getContainers().get(0).setResources(new ResourceRequirementsBuilder()
+                .addToLimits("memory", new Quantity("1Gi")).build());
+        desired.getSpec().getTemplate().getSpec().getContainers().get(0).setResources(new ResourceRequirementsBuilder()
+                .addToLimits("memory", new Quantity("2Gi")).build());
+        assertTrue(new StatefulSetDiff(current, desired).changesSpecTemplateSpec());
+    }
+
+    @Test
+    public void testEquivalentQuantitiesAreNotChanges() {
+        StatefulSet current = statefulSet(3, "kafka", "bar", "Always");
+        StatefulSet desired = statefulSet(3, "kafka", "bar", "Always");
+        current.getSpec().getTemplate().getSpec().getContainers().get(0).setResources(new ResourceRequirementsBuilder()
+                .addToLimits("memory", new Quantity("1Gi"))
+                .addToRequests("cpu", new Quantity("0.5")).build());
+        desired.getSpec().getTemplate().getSpec().getContainers().get(0).setResources(new ResourceRequirementsBuilder()
+                .addToLimits("memory", new Quantity("1024Mi"))
+                .addToRequests("cpu", new Quantity("500m")).build());
+        assertTrue(new StatefulSetDiff(current, desired).isEmpty());
+    }
+
+    @Test
+    public void testEnvOrderIsNotAChange() {
+        StatefulSet current = statefulSet(3, "kafka", "bar", "Always");
+        StatefulSet desired = statefulSet(3, "kafka", "bar", "Always");
+        current.getSpec().getTemplate().getSpec().getContainers().get(0).getEnv()
+                .add(0, new EnvVarBuilder().withName("QUUX").withValue("quux").build());
+        desired.getSpec().getTemplate().getSpec().getContainers().get(0).getEnv()
+                .add(new EnvVarBuilder().withName("QUUX").withValue("quux").build());
+        assertTrue(new StatefulSetDiff(current, desired).isEmpty());
+
+        desired.getSpec().getTemplate().getSpec().getContainers().get(0).getEnv().get(1).setValue("corge");
+        assertTrue(new StatefulSetDiff(current, desired).changesSpecTemplateSpec());
+    }
+
+    @Test
+    public void testDefaultedFieldsAreNotChanges() {
+        StatefulSet current = statefulSet(3, "kafka", "bar", "Always");
+        StatefulSet desired = statefulSet(3, "kafka", "bar", "Always");
+        current.getSpec().getTemplate().getSpec().getContainers().get(0).setPorts(singletonList(
+                new ContainerPortBuilder().withName("clients").withContainerPort(9092).withProtocol("TCP").build()));
+        desired.getSpec().getTemplate().getSpec().getContainers().get(0).setPorts(singletonList(
+                new ContainerPortBuilder().withName("clients").withContainerPort(9092).build()));
+        assertTrue(new StatefulSetDiff(current, desired).isEmpty());
+
+        desired.getSpec().getTemplate().getSpec().getContainers().get(0).getPorts().get(0).setProtocol("UDP");
+        assertTrue(new StatefulSetDiff(current, desired).changesSpecTemplateSpec());
+    }
 }
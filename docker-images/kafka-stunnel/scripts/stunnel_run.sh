@@ -3,10 +3,27 @@
 export BASE_HOSTNAME=$(hostname | rev | cut -d "-" -f2- | rev)
 export KAFKA_BROKER_ID=$(hostname | awk -F'-' '{print $NF}')
 
+# Prints a digest of the certificates and key Stunnel is configured with
+function certificates_version {
+  cat /etc/tls-sidecar/cluster-ca-certs/*.crt /etc/tls-sidecar/kafka-brokers/$(hostname).crt /etc/tls-sidecar/kafka-brokers/$(hostname).key | sha256sum
+}
+
 # Generate and print the config file
 echo "Starting Stunnel with configuration:"
+CERTIFICATES_VERSION=$(certificates_version)
 ./stunnel_config_generator.sh | tee /tmp/stunnel.conf
 echo ""
 
+# The broker reloads its certificates when they're renewed rather than restarting, so Stunnel has to as well:
+# regenerate the config file whenever the mounted certificates change and signal Stunnel to reload it
+(while sleep ${TLS_SIDECAR_REFRESH_INTERVAL_SECONDS:-10}; do
+  if [ "$(certificates_version)" != "$CERTIFICATES_VERSION" ]; then
+    CERTIFICATES_VERSION=$(certificates_version)
+    echo "Reloading Stunnel configuration with renewed certificates"
+    ./stunnel_config_generator.sh > /tmp/stunnel.conf
+    kill -HUP $(cat /usr/local/var/run/stunnel.pid)
+  fi
+done) &
+
 # starting Stunnel with final configuration
 exec /usr/bin/stunnel /tmp/stunnel.conf
@@ -43,6 +43,10 @@ mkdir -p /tmp/kafka
 # Import certificates into keystore and truststore
 ./kafka_tls_prepare_certificates.sh
 
+# Rebuild the keystore and truststores whenever the certificates in the mounted Secrets are renewed,
+# so that the cluster operator can make the broker reload them without a restart
+(while sleep ${KAFKA_TLS_REFRESH_INTERVAL_SECONDS:-10}; do ./kafka_tls_prepare_certificates.sh; done) &
+
 # Generate and print the config file
 echo "Starting Kafka with configuration:"
 ./kafka_config_generator.sh | tee /tmp/strimzi.properties
@@ -1,5 +1,12 @@
 #!/bin/bash
 
+# Builds the keystore and truststores for the TLS listeners from the certificates and keys mounted from Secrets.
+# Each store is written to its usual location, which the broker is configured with, and to a versioned location
+# whose name contains a digest of the files it was built from, for example /tmp/kafka/cluster.truststore.0f3c9a1b2d4e5f60.p12.
+# The cluster operator computes the same digests from the Secrets, so when certificates are renewed it can point
+# the listeners of the running broker at the new versioned stores to make it reload them.
+# A store is only rebuilt when the files it is built from have changed, so the script can be run repeatedly.
+
 # Parameters:
 # $1: Path to the new truststore
 # $2: Truststore password
@@ -20,30 +27,75 @@ function create_keystore {
    RANDFILE=/tmp/.rnd openssl pkcs12 -export -in $3 -inkey $4 -name $6 -password pass:$2 -out $1
 }
 
-echo "Preparing truststore for replication listener"
-# Add each certificate to the trust store
-STORE=/tmp/kafka/cluster.truststore.p12
-for CRT in /opt/kafka/cluster-ca-certs/*.crt; do
-  ALIAS=$(basename "$CRT" .crt)
-  echo "Adding $CRT to truststore $STORE with alias $ALIAS"
-  create_truststore "$STORE" "$CERTS_STORE_PASSWORD" "$CRT" "$ALIAS"
-done
-echo "Preparing truststore for replication listener is complete"
-
-echo "Preparing keystore for replication and clienttls listener"
-create_keystore /tmp/kafka/cluster.keystore.p12 $CERTS_STORE_PASSWORD \
-    /opt/kafka/broker-certs/$HOSTNAME.crt \
-    /opt/kafka/broker-certs/$HOSTNAME.key \
-    /opt/kafka/cluster-ca-certs/ca.crt \
-    $HOSTNAME
-echo "Preparing keystore for replication and clienttls listener is complete"
-
-echo "Preparing truststore for clienttls listener"
-# Add each certificate to the trust store
-STORE=/tmp/kafka/clients.truststore.p12
-for CRT in /opt/kafka/client-ca-certs/*.crt; do
-  ALIAS=$(basename "$CRT" .crt)
-  echo "Adding $CRT to truststore $STORE with alias $ALIAS"
-  create_truststore "$STORE" "$CERTS_STORE_PASSWORD" "$CRT" "$ALIAS"
-done
-echo "Preparing truststore for clienttls listener is complete"
\ No newline at end of file
+# Parameters:
+# $1: Directory containing the certificates
+# Lists the certificates in the directory, in the order the cluster operator digests them
+function list_certificates {
+   find "$1" -maxdepth 1 -name '*.crt' | LC_ALL=C sort
+}
+
+# Parameters:
+# $@: Files the store is built from
+# Prints the version of the store: the first 16 hex digits of the SHA-256 digest of the files' contents
+function store_version {
+   cat "$@" | sha256sum | cut -c1-16
+}
+
+# Parameters:
+# $1: Path of the newly built store
+# $2: Name of the store
+# $3: Version of the store
+function publish_store {
+   rm -f /tmp/kafka/$2.*.p12
+   cp "$1" /tmp/kafka/$2.p12.tmp
+   mv /tmp/kafka/$2.p12.tmp /tmp/kafka/$2.p12
+   # The versioned store is moved into place last, because the cluster operator takes its existence to mean the store is ready
+   mv "$1" /tmp/kafka/$2.$3.p12
+}
+
+# Parameters:
+# $1: Name of the truststore
+# $2: Directory containing the certificates to trust
+function prepare_truststore {
+   local version=$(store_version $(list_certificates "$2"))
+   if [ ! -f /tmp/kafka/$1.$version.p12 ]; then
+      echo "Preparing truststore $1 version $version"
+      local store=/tmp/kafka/$1.p12.new
+      rm -f "$store"
+      # Add each certificate to the trust store
+      for CRT in $(list_certificates "$2"); do
+         ALIAS=$(basename "$CRT" .crt)
+         echo "Adding $CRT to truststore $store with alias $ALIAS"
+         create_truststore "$store" "$CERTS_STORE_PASSWORD" "$CRT" "$ALIAS"
+      done
+      publish_store "$store" "$1" "$version"
+      echo "Preparing truststore $1 version $version is complete"
+   fi
+}
+
+# Parameters:
+# $1: Name of the keystore
+function prepare_keystore {
+   local version=$(store_version /opt/kafka/broker-certs/$HOSTNAME.crt /opt/kafka/broker-certs/$HOSTNAME.key)
+   if [ ! -f /tmp/kafka/$1.$version.p12 ]; then
+      echo "Preparing keystore $1 version $version"
+      local store=/tmp/kafka/$1.p12.new
+      rm -f "$store"
+      create_keystore "$store" $CERTS_STORE_PASSWORD \
+          /opt/kafka/broker-certs/$HOSTNAME.crt \
+          /opt/kafka/broker-certs/$HOSTNAME.key \
+          /opt/kafka/cluster-ca-certs/ca.crt \
+          $HOSTNAME
+      publish_store "$store" "$1" "$version"
+      echo "Preparing keystore $1 version $version is complete"
+   fi
+}
+
+# Truststore for replication listener
+prepare_truststore cluster.truststore /opt/kafka/cluster-ca-certs
+
+# Keystore for replication, clienttls and external listeners
+prepare_keystore cluster.keystore
+
+# Truststore for clienttls and external listeners
+prepare_truststore clients.truststore /opt/kafka/client-ca-certs
@@ -9,6 +9,7 @@ import io.fabric8.kubernetes.api.model.Secret;
 import io.fabric8.kubernetes.api.model.SecretBuilder;
 import io.strimzi.certs.CertAndKey;
 import io.strimzi.certs.CertManager;
+import io.strimzi.certs.KeyAlgorithm;
 import io.strimzi.certs.SecretCertProvider;
 import io.strimzi.certs.Subject;
 import io.strimzi.operator.common.Annotations;
@@ -17,24 +18,25 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.chrono.IsoChronology;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.SignStyle;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -77,8 +79,12 @@ public abstract class Ca {
             .optionalStart()
             .appendOffsetId()
             .toFormatter().withChronology(IsoChronology.INSTANCE);
+    /** Formats the expiry date of an old CA certificate in its key in the Secret, as {@link #removeExpiredCerts(Map)} parses it */
+    private static final DateTimeFormatter EXPIRY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH-mm-ss").withZone(ZoneOffset.UTC);
     public static final String CA_KEY = "ca.key";
     public static final String CA_CRT = "ca.crt";
+    public static final String CA_NEXT_KEY = "ca-next.key";
+    public static final String CA_NEXT_CRT = "ca-next.crt";
     public static final String IO_STRIMZI = "io.strimzi";
     public static final String ANNO_STRIMZI_IO_FORCE_RENEW = Annotations.STRIMZI_DOMAIN + "/force-renew";
     public static final String ANNO_STRIMZI_IO_CA_CERT_GENERATION = Annotations.STRIMZI_DOMAIN + "/ca-cert-generation";
@@ -104,17 +110,32 @@ public abstract class Ca {
     protected final int validityDays;
     protected final int renewalDays;
     private final boolean generateCa;
+    private final KeyAlgorithm keyAlgorithm;
     protected String caCertSecretName;
     private Secret caCertSecret;
     protected String caKeySecretName;
     private Secret caKeySecret;
     private boolean caRenewed;
     private boolean certsRemoved;
+    private boolean nextCertAdded;
 
     public Ca(CertManager certManager, String commonName,
               String caCertSecretName, Secret caCertSecret,
               String caKeySecretName, Secret caKeySecret,
               int validityDays, int renewalDays, boolean generateCa) {
+        this(certManager, commonName, caCertSecretName, caCertSecret, caKeySecretName, caKeySecret,
+                validityDays, renewalDays, generateCa, KeyAlgorithm.RSA);
+    }
+
+    /**
+     * @param keyAlgorithm The algorithm of the CA's key, and so of the keys of the certificates it signs.
+     *                     When a generated CA's key has a different algorithm, it is replaced by
+     *                     {@link #createOrRenew(String, String, Map, OwnerReference)}.
+     */
+    public Ca(CertManager certManager, String commonName,
+              String caCertSecretName, Secret caCertSecret,
+              String caKeySecretName, Secret caKeySecret,
+              int validityDays, int renewalDays, boolean generateCa, KeyAlgorithm keyAlgorithm) {
         this.commonName = commonName;
         this.caCertSecret = caCertSecret;
         this.caCertSecretName = caCertSecretName;
@@ -124,12 +145,7 @@ public abstract class Ca {
         this.validityDays = validityDays;
         this.renewalDays = renewalDays;
         this.generateCa = generateCa;
-    }
-
-    private static void delete(File brokerCsrFile) {
-        if (!brokerCsrFile.delete()) {
-            log.warn("{} cannot be deleted", brokerCsrFile.getName());
-        }
+        this.keyAlgorithm = keyAlgorithm;
     }
 
     private static CertAndKey asCertAndKey(Secret secret, String key, String cert) {
@@ -139,15 +155,10 @@ public abstract class Ca {
                 decoder.decode(secret.getData().get(cert)));
     }
 
-    private CertAndKey generateSignedCert(Subject subject,
-                                            File csrFile, File keyFile, File certFile) throws IOException {
+    private CertAndKey generateSignedCert(Subject subject) throws IOException {
         log.debug("Generating certificate {} with SAN {}, signed by CA {}", subject, subject.subjectAltNames(), this);
 
-        certManager.generateCsr(keyFile, csrFile, subject);
-        certManager.generateCert(csrFile, currentCaKey(), currentCaCertBytes(),
-                certFile, subject, validityDays);
-
-        return new CertAndKey(Files.readAllBytes(keyFile.toPath()), Files.readAllBytes(certFile.toPath()));
+        return certManager.generateSignedCert(subject, currentCaKey(), currentCaCertBytes(), validityDays);
     }
 
     /**
@@ -161,10 +172,6 @@ public abstract class Ca {
      * Generates a certificate signed by this CA
      */
     public CertAndKey generateSignedCert(String commonName, String organization) throws IOException {
-        File csrFile = File.createTempFile("tls", "csr");
-        File keyFile = File.createTempFile("tls", "key");
-        File certFile = File.createTempFile("tls", "cert");
-
         Subject subject = new Subject();
 
         if (organization != null) {
@@ -173,13 +180,7 @@ public abstract class Ca {
 
         subject.setCommonName(commonName);
 
-        CertAndKey result = generateSignedCert(subject,
-                csrFile, keyFile, certFile);
-
-        delete(csrFile);
-        delete(keyFile);
-        delete(certFile);
-        return result;
+        return generateSignedCert(subject);
     }
 
     /**
@@ -193,11 +194,8 @@ public abstract class Ca {
            Function<Integer, String> podNameFn) throws IOException {
         int replicasInSecret = secret == null || this.certRenewed() ? 0 : secret.getData().size() / 2;
 
-        File brokerCsrFile = File.createTempFile("tls", "broker-csr");
-        File brokerKeyFile = File.createTempFile("tls", "broker-key");
-        File brokerCertFile = File.createTempFile("tls", "broker-cert");
-
         Map<String, CertAndKey> certs = new HashMap<>();
+        Map<String, Subject> toGenerate = new LinkedHashMap<>();
         // copying the minimum number of certificates already existing in the secret
         // scale up -> it will copy all certificates
         // scale down -> it will copy just the requested number of replicas
@@ -227,9 +225,7 @@ public abstract class Ca {
 
                 log.debug("Alternate subjects do not match. Certificate needs to be refreshed for pod {}.", podName);
 
-                CertAndKey k = generateSignedCert(subject,
-                        brokerCsrFile, brokerKeyFile, brokerCertFile);
-                certs.put(podName, k);
+                toGenerate.put(podName, subject);
             }
         }
 
@@ -239,17 +235,36 @@ public abstract class Ca {
         for (int i = replicasInSecret; i < replicas; i++) {
             String podName = podNameFn.apply(i);
             log.debug("Certificate for {} to generate", podName);
-            CertAndKey k = generateSignedCert(subjectFn.apply(i),
-                    brokerCsrFile, brokerKeyFile, brokerCertFile);
-            certs.put(podName, k);
+            toGenerate.put(podName, subjectFn.apply(i));
         }
-        delete(brokerCsrFile);
-        delete(brokerKeyFile);
-        delete(brokerCertFile);
 
+        certs.putAll(generateSignedCerts(toGenerate));
         return certs;
     }
 
+    /**
+     * Generates certificates signed by this CA for the given subjects, concurrently if the {@link CertManager} can.
+     *
+     * @param subjects The subjects, by the name under which their certificate should be returned.
+     * @return The certificates, by the same names as the subjects.
+     */
+    private Map<String, CertAndKey> generateSignedCerts(Map<String, Subject> subjects) throws IOException {
+        if (subjects.isEmpty()) {
+            return emptyMap();
+        }
+        List<String> names = new ArrayList<>(subjects.keySet());
+        List<Subject> subjectList = new ArrayList<>(subjects.values());
+        for (Subject subject : subjectList) {
+            log.debug("Generating certificate {} with SAN {}, signed by CA {}", subject, subject.subjectAltNames(), this);
+        }
+        List<CertAndKey> generated = certManager.generateSignedCerts(subjectList, currentCaKey(), currentCaCertBytes(), validityDays);
+        Map<String, CertAndKey> result = new HashMap<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            result.put(names.get(i), generated.get(i));
+        }
+        return result;
+    }
+
     /**
      * Extracts the alternate subject names out of existing certificate
      *
@@ -278,8 +293,22 @@ public abstract class Ca {
      * Replaces the CA secret if it is within the renewal period.
      * After calling this method {@link #certRenewed()} and {@link #certsRemoved()}
      * will return whether the certificate was renewed and whether expired secrets were removed from the Secret.
+     * A pending replacement of the CA key is not completed.
      */
     public void createOrRenew(String namespace, String clusterName, Map<String, String> labels, OwnerReference ownerRef) {
+        createOrRenew(namespace, clusterName, labels, ownerRef, false);
+    }
+
+    /**
+     * Replaces the CA secret if it is within the renewal period.
+     * After calling this method {@link #certRenewed()} and {@link #certsRemoved()}
+     * will return whether the certificate was renewed and whether expired secrets were removed from the Secret.
+     * @param nextCertTrusted Whether every pod using the CA has been rolled, or has reloaded its certificates, since the
+     *                        CA certificate generation was last bumped, and so trusts the {@link #CA_NEXT_CRT}.
+     *                        A pending replacement of the CA key is only completed once it does.
+     */
+    public void createOrRenew(String namespace, String clusterName, Map<String, String> labels, OwnerReference ownerRef,
+                              boolean nextCertTrusted) {
         X509Certificate currentCert = cert(caCertSecret, CA_CRT);
         Map<String, String> certData;
         Map<String, String> keyData;
@@ -298,8 +327,13 @@ public abstract class Ca {
                     throw new RuntimeException(e);
                 }
             } else {
-                certData = caCertSecret.getData();
-                keyData = caKeySecret.getData();
+                certData = new HashMap<>(caCertSecret.getData());
+                keyData = new HashMap<>(caKeySecret.getData());
+                try {
+                    maybeReplaceKey(currentCert, certData, keyData, nextCertTrusted);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
             }
             this.certsRemoved = removeExpiredCerts(certData) > 0;
         }
@@ -317,7 +351,7 @@ public abstract class Ca {
         if (caCertSecret != null && caCertSecret.getData().get(CA_CRT) != null) {
             caCertGeneration = Annotations.intAnnotation(caCertSecret, ANNO_STRIMZI_IO_CA_CERT_GENERATION,
                     INIT_GENERATION);
-            if (caRenewed) {
+            if (caRenewed || nextCertAdded) {
                 caCertGeneration++;
             }
         }
@@ -376,6 +410,46 @@ public abstract class Ca {
         return result;
     }
 
+    /**
+     * Replaces the CA's key with one of the configured algorithm, if it has a different one, in two phases,
+     * so that every component trusts the certificate signed by the new key before any certificate it signs is used.
+     * In the first phase a new key and self-signed certificate are added to the Secrets as {@link #CA_NEXT_KEY} and
+     * {@link #CA_NEXT_CRT}, so that the pods which are rolled because of the new CA certificate generation trust it.
+     * Once all those pods trust it, they become the current key and certificate, so that all certificates are renewed,
+     * and the old certificate is kept until it expires, so that it is trusted until all of those certificates are used.
+     * Until then, the old key keeps signing.
+     */
+    private void maybeReplaceKey(X509Certificate currentCert, Map<String, String> certData, Map<String, String> keyData,
+                                 boolean nextCertTrusted) throws IOException {
+        X509Certificate nextCert = cert(caCertSecret, CA_NEXT_CRT);
+        if (nextCert != null && KeyAlgorithm.of(nextCert.getPublicKey()) != keyAlgorithm) {
+            log.info("{}: Abandoning the replacement of the CA key, since its algorithm is no longer {}", this, keyAlgorithm);
+            certData.remove(CA_NEXT_CRT);
+            keyData.remove(CA_NEXT_KEY);
+            nextCert = null;
+            nextCertAdded = true;
+        }
+        KeyAlgorithm currentKeyAlgorithm = KeyAlgorithm.of(currentCert.getPublicKey());
+        if (currentKeyAlgorithm == keyAlgorithm) {
+            return;
+        }
+        if (nextCert == null || keyData.get(CA_NEXT_KEY) == null) {
+            log.info("{}: Replacing the {} CA key with a {} key: adding a new CA certificate to be trusted", this, currentKeyAlgorithm, keyAlgorithm);
+            CertAndKey next = generateCa(commonName);
+            certData.put(CA_NEXT_CRT, next.certAsBase64String());
+            keyData.put(CA_NEXT_KEY, next.keyAsBase64String());
+            nextCertAdded = true;
+        } else if (!nextCertTrusted) {
+            log.info("{}: Replacing the {} CA key with a {} key: waiting for all pods to trust the new CA certificate", this, currentKeyAlgorithm, keyAlgorithm);
+        } else {
+            log.info("{}: Replacing the {} CA key with a {} key: signing with the new key", this, currentKeyAlgorithm, keyAlgorithm);
+            certData.put("ca-" + EXPIRY_FORMATTER.format(currentCert.getNotAfter().toInstant()) + ".crt", certData.get(CA_CRT));
+            certData.put(CA_CRT, certData.remove(CA_NEXT_CRT));
+            keyData.put(CA_KEY, keyData.remove(CA_NEXT_KEY));
+            caRenewed = true;
+        }
+    }
+
     /**
      * Gets the CA cert secret, which contains both the current CA cert and also previous, still valid certs.
      */
@@ -500,23 +574,12 @@ public abstract class Ca {
 
     private CertAndKey generateCa(String commonName) throws IOException {
         log.debug("Generating CA with cn={}, org={}", commonName, IO_STRIMZI);
-        File keyFile = File.createTempFile("tls", commonName + "-key");
-        try {
-            File certFile = File.createTempFile("tls", commonName + "-cert");
-            try {
 
-                Subject sbj = new Subject();
-                sbj.setOrganizationName(IO_STRIMZI);
-                sbj.setCommonName(commonName);
+        Subject sbj = new Subject();
+        sbj.setOrganizationName(IO_STRIMZI);
+        sbj.setCommonName(commonName);
 
-                certManager.generateSelfSignedCert(keyFile, certFile, sbj, validityDays);
-                return new CertAndKey(Files.readAllBytes(keyFile.toPath()), Files.readAllBytes(certFile.toPath()));
-            } finally {
-                delete(certFile);
-            }
-        } finally {
-            delete(keyFile);
-        }
+        return certManager.generateSelfSignedCert(sbj, keyAlgorithm, validityDays);
     }
 
     private CertAndKey renewCa(String commonName) throws IOException {
@@ -524,23 +587,11 @@ public abstract class Ca {
 
         Base64.Decoder decoder = Base64.getDecoder();
         byte[] bytes = decoder.decode(caKeySecret.getData().get(CA_KEY));
-        File keyFile = File.createTempFile("tls", commonName + "-key");
-        try {
-            Files.write(keyFile.toPath(), bytes);
-            File certFile = File.createTempFile("tls", commonName + "-cert");
-            try {
-
-                Subject sbj = new Subject();
-                sbj.setOrganizationName(IO_STRIMZI);
-                sbj.setCommonName(commonName);
-
-                certManager.renewSelfSignedCert(keyFile, certFile, sbj, validityDays);
-                return new CertAndKey(bytes, Files.readAllBytes(certFile.toPath()));
-            } finally {
-                delete(certFile);
-            }
-        } finally {
-            delete(keyFile);
-        }
+
+        Subject sbj = new Subject();
+        sbj.setOrganizationName(IO_STRIMZI);
+        sbj.setCommonName(commonName);
+
+        return certManager.renewSelfSignedCert(bytes, sbj, validityDays);
     }
 }
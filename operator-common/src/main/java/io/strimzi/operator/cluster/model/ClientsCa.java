@@ -6,15 +6,23 @@ package io.strimzi.operator.cluster.model;
 
 import io.fabric8.kubernetes.api.model.Secret;
 import io.strimzi.certs.CertManager;
+import io.strimzi.certs.KeyAlgorithm;
 
 public class ClientsCa extends Ca {
     public ClientsCa(CertManager certManager, String caCertSecretName, Secret clientsCaCert,
                      String caSecretKeyName, Secret clientsCaKey,
                      int validityDays, int renewalDays, boolean generateCa) {
+        this(certManager, caCertSecretName, clientsCaCert, caSecretKeyName, clientsCaKey,
+                validityDays, renewalDays, generateCa, KeyAlgorithm.RSA);
+    }
+
+    public ClientsCa(CertManager certManager, String caCertSecretName, Secret clientsCaCert,
+                     String caSecretKeyName, Secret clientsCaKey,
+                     int validityDays, int renewalDays, boolean generateCa, KeyAlgorithm keyAlgorithm) {
         super(certManager, "clients-ca",
                 caCertSecretName, forceRenewal(clientsCaCert, clientsCaKey, "clients-ca.key"),
                 caSecretKeyName, adapt060ClientsCaSecret(clientsCaKey),
-                validityDays, renewalDays, generateCa);
+                validityDays, renewalDays, generateCa, keyAlgorithm);
     }
 
     /**
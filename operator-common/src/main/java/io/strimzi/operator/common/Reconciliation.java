@@ -14,6 +14,10 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  * <p>Each instance has a unique id and a trigger (description of the event which initiated the reconciliation),
  * which are used to provide consistent context for logging.</p>
+ *
+ * <p>A reconciliation can be {@linkplain #cancel() cancelled}, for example because a newer version of the
+ * desired state has been observed. Cancellation is cooperative: it is up to the reconciliation to check
+ * {@link #isCancelled()} at points where it can safely stop.</p>
  */
 public class Reconciliation {
 
@@ -24,6 +28,7 @@ public class Reconciliation {
     private final String namespace;
     private final String name;
     private final int id;
+    private volatile boolean cancelled;
 
     public Reconciliation(String trigger, ResourceType type, String namespace, String assemblyName) {
         this.trigger = trigger;
@@ -45,6 +50,20 @@ public class Reconciliation {
         return name;
     }
 
+    /**
+     * Requests that this reconciliation stop at the next point where it can safely do so.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * @return true if this reconciliation has been {@linkplain #cancel() cancelled}.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
     public String toString() {
         return "Reconciliation #" + id + "(" + trigger + ") " + type() + "(" + namespace() + "/" + name() + ")";
     }
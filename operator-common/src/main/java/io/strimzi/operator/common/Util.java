@@ -5,6 +5,7 @@
 package io.strimzi.operator.common;
 
 import io.strimzi.operator.common.operator.resource.TimeoutException;
+import io.strimzi.operator.common.tracing.Tracing;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
@@ -34,7 +35,7 @@ public class Util {
             @Override
             public void handle(Long timerId) {
                 vertx.createSharedWorkerExecutor("kubernetes-ops-pool").executeBlocking(
-                    future -> {
+                    Tracing.propagate(future -> {
                         try {
                             if (ready.getAsBoolean())   {
                                 future.complete();
@@ -46,9 +47,9 @@ public class Util {
                             LOGGER.warn("Caught exception while waiting for {} to get ready", logContext, e);
                             future.fail(e);
                         }
-                    },
+                    }),
                     true,
-                    res -> {
+                    Tracing.propagate(res -> {
                         if (res.succeeded()) {
                             LOGGER.debug("{} is ready", logContext);
                             fut.complete();
@@ -60,10 +61,10 @@ public class Util {
                                 fut.fail(new TimeoutException(exceptionMessage));
                             } else {
                                 // Schedule ourselves to run again
-                                vertx.setTimer(Math.min(pollIntervalMs, timeLeft), this);
+                                vertx.setTimer(Math.min(pollIntervalMs, timeLeft), Tracing.propagate(this));
                             }
                         }
-                    }
+                    })
                 );
             }
         };
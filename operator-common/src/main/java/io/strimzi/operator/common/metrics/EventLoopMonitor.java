@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.metrics;
+
+import io.vertx.core.Vertx;
+
+/**
+ * <p>Measures how long the event loop of a verticle is blocked, by running a periodic timer on it
+ * and recording how late each tick fires.</p>
+ *
+ * <p>A tick can only fire late if the event loop was busy (or the process was paused, e.g. by GC),
+ * so the lateness is a lower bound on the time for which handlers were kept waiting.</p>
+ */
+public class EventLoopMonitor {
+
+    /** How often the event loop is probed. */
+    public static final long DEFAULT_INTERVAL_MS = 100;
+
+    static final String BLOCKED = "strimzi_event_loop_blocked_seconds_total";
+    static final String DELAY = "strimzi_event_loop_delay_seconds";
+
+    private final Vertx vertx;
+    private final MetricsRegistry.Counter blocked;
+    private final MetricsRegistry.Histogram delay;
+    private final String loop;
+    private final long intervalMs;
+
+    private long timer = -1;
+    private long lastTick;
+
+    /**
+     * @param vertx The Vertx instance.
+     * @param metrics The registry to record the delays in.
+     * @param loop The value of the {@code loop} label of the recorded metrics.
+     * @param intervalMs How often to probe the event loop.
+     */
+    public EventLoopMonitor(Vertx vertx, MetricsRegistry metrics, String loop, long intervalMs) {
+        this.vertx = vertx;
+        this.blocked = metrics.counter(BLOCKED,
+                "The total time for which the event loop was blocked", "loop");
+        this.delay = metrics.durationHistogram(DELAY,
+                "How late timers on the event loop fired", "loop");
+        this.loop = loop;
+        this.intervalMs = intervalMs;
+    }
+
+    /**
+     * Starts probing the event loop of the current context.
+     * This must be called from the verticle whose event loop is to be monitored, e.g. in its {@code start()}.
+     */
+    public void start() {
+        lastTick = System.nanoTime();
+        timer = vertx.setPeriodic(intervalMs, ignored -> tick(System.nanoTime()));
+    }
+
+    void tick(long now) {
+        double lateness = Math.max(0, (now - lastTick) / 1e9 - intervalMs / 1e3);
+        lastTick = now;
+        delay.observe(lateness, loop);
+        if (lateness > 0) {
+            blocked.inc(lateness, loop);
+        }
+    }
+
+    /**
+     * Stops probing the event loop.
+     */
+    public void stop() {
+        if (timer != -1) {
+            vertx.cancelTimer(timer);
+            timer = -1;
+        }
+    }
+}
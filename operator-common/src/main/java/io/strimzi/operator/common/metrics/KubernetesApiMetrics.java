@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.metrics;
+
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <p>Records the number and latency of the requests made to the Kubernetes API server,
+ * labelled by verb (as the API server's audit log would name it: get, list, watch, create, update, patch,
+ * delete or deletecollection) and by resource (the plural resource name in the request path, e.g. statefulsets).</p>
+ *
+ * <p>For watches, the latency is the time taken to open the watch.</p>
+ */
+public class KubernetesApiMetrics implements Interceptor {
+
+    static final String REQUESTS = "strimzi_kubernetes_api_requests_total";
+    static final String DURATION = "strimzi_kubernetes_api_request_duration_seconds";
+
+    private final MetricsRegistry.Counter requests;
+    private final MetricsRegistry.Histogram duration;
+
+    public KubernetesApiMetrics(MetricsRegistry metrics) {
+        this.requests = metrics.counter(REQUESTS,
+                "The number of requests made to the Kubernetes API server, by verb, resource and response code",
+                "verb", "resource", "code");
+        this.duration = metrics.durationHistogram(DURATION,
+                "The latency of requests made to the Kubernetes API server, by verb and resource",
+                "verb", "resource");
+    }
+
+    /**
+     * Creates a client which shares the configuration and connection pool of the given {@code client},
+     * and records the requests it makes in the given {@code metrics}.
+     * @param client The client.
+     * @param metrics The registry to record requests in.
+     * @return The instrumented client.
+     */
+    public static DefaultKubernetesClient instrument(DefaultKubernetesClient client, MetricsRegistry metrics) {
+        OkHttpClient httpClient = client.adapt(OkHttpClient.class).newBuilder()
+                .addInterceptor(new KubernetesApiMetrics(metrics))
+                .build();
+        return new DefaultKubernetesClient(httpClient, client.getConfiguration());
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String verb = verb(request);
+        String resource = resource(request.url());
+        long start = System.nanoTime();
+        String code = "error";
+        try {
+            Response response = chain.proceed(request);
+            code = String.valueOf(response.code());
+            return response;
+        } finally {
+            requests.inc(verb, resource, code);
+            duration.observe(MetricsRegistry.secondsSince(start), verb, resource);
+        }
+    }
+
+    /**
+     * The index, in the path segments of the given {@code url}, of the resource name,
+     * or -1 if the URL is not for a resource (e.g. /version).
+     * Resource paths are /api/{version}/..., /oapi/{version}/... or /apis/{group}/{version}/...,
+     * followed by namespaces/{namespace}/ for namespaced resources, and possibly preceded by watch/.
+     */
+    private static int resourceIndex(List<String> segments) {
+        int index = versionEnd(segments);
+        if (index < 0) {
+            return -1;
+        }
+        if (isWatchPath(segments)) {
+            index++;
+        }
+        if (segments.size() > index + 2 && "namespaces".equals(segments.get(index))) {
+            index += 2;
+        }
+        return segments.size() > index ? index : -1;
+    }
+
+    private static int versionEnd(List<String> segments) {
+        if (segments.size() > 0 && ("api".equals(segments.get(0)) || "oapi".equals(segments.get(0)))) {
+            return 2;
+        } else if (segments.size() > 0 && "apis".equals(segments.get(0))) {
+            return 3;
+        } else {
+            return -1;
+        }
+    }
+
+    private static boolean isWatchPath(List<String> segments) {
+        int index = versionEnd(segments);
+        return index >= 0 && segments.size() > index && "watch".equals(segments.get(index));
+    }
+
+    /**
+     * @param url The URL of a request to the API server.
+     * @return The plural name of the resource the request is for (e.g. statefulsets), or "none".
+     */
+    public static String resource(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        int index = resourceIndex(segments);
+        return index >= 0 ? segments.get(index) : "none";
+    }
+
+    /**
+     * @param request A request to the API server.
+     * @return The verb of the request, as the API server would name it (e.g. list, patch).
+     */
+    public static String verb(Request request) {
+        HttpUrl url = request.url();
+        List<String> segments = url.pathSegments();
+        int index = resourceIndex(segments);
+        // Whether the request is for a named resource (or a non-resource path), rather than a collection
+        boolean named = index < 0 || segments.size() > index + 1 && !segments.get(index + 1).isEmpty();
+        switch (request.method()) {
+            case "GET":
+                if ("true".equals(url.queryParameter("watch")) || isWatchPath(segments)) {
+                    return "watch";
+                }
+                return named ? "get" : "list";
+            case "POST":
+                return "create";
+            case "PUT":
+                return "update";
+            case "PATCH":
+                return "patch";
+            case "DELETE":
+                return named ? "delete" : "deletecollection";
+            default:
+                return request.method().toLowerCase(Locale.ENGLISH);
+        }
+    }
+}
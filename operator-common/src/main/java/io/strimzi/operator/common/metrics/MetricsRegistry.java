@@ -0,0 +1,363 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * <p>A registry of metrics, which can be {@linkplain #scrape() scraped} in the
+ * <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus text format</a>.</p>
+ *
+ * <p>Each metric has a fixed set of label names, and a value per combination of label values.
+ * Asking for a metric which is already registered returns the existing one,
+ * so components can share a registry without coordinating who registers what.</p>
+ */
+public class MetricsRegistry {
+
+    /** The content type of {@link #scrape()}. */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** Histogram buckets, in seconds, suitable for durations from milliseconds to minutes. */
+    private static final double[] DURATION_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120, 300};
+
+    private final Map<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param startNanos A start time, as returned by {@link System#nanoTime()}.
+     * @return The seconds elapsed since {@code startNanos}.
+     */
+    public static double secondsSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    /**
+     * Gets, or registers, the counter with the given {@code name}.
+     * @param name The metric name.
+     * @param help The metric description.
+     * @param labelNames The label names.
+     * @return The counter.
+     * @throws IllegalArgumentException If a metric of another type or with other labels has the given {@code name}.
+     */
+    public Counter counter(String name, String help, String... labelNames) {
+        return get(name, Counter.class, () -> new Counter(name, help, labelNames), labelNames);
+    }
+
+    /**
+     * Gets, or registers, the gauge with the given {@code name}.
+     * @param name The metric name.
+     * @param help The metric description.
+     * @param labelNames The label names.
+     * @return The gauge.
+     * @throws IllegalArgumentException If a metric of another type or with other labels has the given {@code name}.
+     */
+    public Gauge gauge(String name, String help, String... labelNames) {
+        return get(name, Gauge.class, () -> new Gauge(name, help, labelNames), labelNames);
+    }
+
+    /**
+     * Gets, or registers, the histogram with the given {@code name}.
+     * @param name The metric name.
+     * @param help The metric description.
+     * @param buckets The ascending upper bounds of the histogram's buckets.
+     * @param labelNames The label names.
+     * @return The histogram.
+     * @throws IllegalArgumentException If a metric of another type or with other labels has the given {@code name}.
+     */
+    public Histogram histogram(String name, String help, double[] buckets, String... labelNames) {
+        return get(name, Histogram.class, () -> new Histogram(name, help, buckets, labelNames), labelNames);
+    }
+
+    /**
+     * Gets, or registers, the histogram with the given {@code name}, with buckets suitable for durations,
+     * in seconds, from milliseconds to minutes.
+     * @param name The metric name.
+     * @param help The metric description.
+     * @param labelNames The label names.
+     * @return The histogram.
+     * @throws IllegalArgumentException If a metric of another type or with other labels has the given {@code name}.
+     */
+    public Histogram durationHistogram(String name, String help, String... labelNames) {
+        return histogram(name, help, DURATION_BUCKETS, labelNames);
+    }
+
+    private <M extends Metric> M get(String name, Class<M> type, Supplier<M> factory, String[] labelNames) {
+        Metric metric = metrics.computeIfAbsent(name, n -> factory.get());
+        if (!type.isInstance(metric) || metric.labelNames.length != labelNames.length) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + metric.type
+                    + " with " + metric.labelNames.length + " label(s)");
+        }
+        return type.cast(metric);
+    }
+
+    /**
+     * @return The current value of all the metrics, in the Prometheus text format.
+     */
+    public String scrape() {
+        StringBuilder sb = new StringBuilder();
+        for (Metric metric : metrics.values()) {
+            sb.append("# HELP ").append(metric.name).append(' ').append(escapeHelp(metric.help)).append('\n');
+            sb.append("# TYPE ").append(metric.name).append(' ').append(metric.type).append('\n');
+            metric.write(sb);
+        }
+        return sb.toString();
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabelValue(String value) {
+        return String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    static String format(double value) {
+        if (value == Double.POSITIVE_INFINITY) {
+            return "+Inf";
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            return "-Inf";
+        } else if (Double.isNaN(value)) {
+            return "NaN";
+        } else if (Double.compare(value, Math.rint(value)) == 0 && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        } else {
+            return Double.toString(value);
+        }
+    }
+
+    private static void writeSample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(name);
+        if (!labels.isEmpty()) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ').append(format(value)).append('\n');
+    }
+
+    /**
+     * The base class of metrics.
+     * Each combination of label values is identified by its rendering as Prometheus labels,
+     * which keeps the samples sorted and avoids rendering them on every scrape.
+     */
+    abstract static class Metric {
+        final String name;
+        final String help;
+        final String type;
+        final String[] labelNames;
+
+        Metric(String name, String help, String type, String[] labelNames) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.labelNames = labelNames.clone();
+        }
+
+        String labels(String... labelValues) {
+            if (labelValues.length != labelNames.length) {
+                throw new IllegalArgumentException("Metric " + name + " has " + labelNames.length
+                        + " label(s), but " + labelValues.length + " value(s) were given");
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < labelNames.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(labelNames[i]).append("=\"").append(escapeLabelValue(labelValues[i])).append('"');
+            }
+            return sb.toString();
+        }
+
+        abstract void write(StringBuilder sb);
+    }
+
+    /**
+     * A metric whose samples are read from {@link DoubleSupplier}s when scraped.
+     */
+    abstract static class Sampled extends Metric {
+        final Map<String, DoubleSupplier> samples = new ConcurrentSkipListMap<>();
+
+        Sampled(String name, String help, String type, String[] labelNames) {
+            super(name, help, type, labelNames);
+        }
+
+        /**
+         * Registers the function which provides the value of this metric with the given {@code labelValues},
+         * replacing any function previously registered for them.
+         * @param supplier Provides the value.
+         * @param labelValues The label values.
+         */
+        public void register(DoubleSupplier supplier, String... labelValues) {
+            samples.put(labels(labelValues), supplier);
+        }
+
+        /**
+         * @param labelValues The label values.
+         * @return The current value of this metric with the given {@code labelValues}, or 0 if it has none.
+         */
+        public double value(String... labelValues) {
+            DoubleSupplier supplier = samples.get(labels(labelValues));
+            return supplier != null ? supplier.getAsDouble() : 0;
+        }
+
+        @Override
+        void write(StringBuilder sb) {
+            for (Map.Entry<String, DoubleSupplier> sample : samples.entrySet()) {
+                writeSample(sb, name, sample.getKey(), sample.getValue().getAsDouble());
+            }
+        }
+    }
+
+    /**
+     * A value which only increases.
+     * Either it is {@linkplain #inc(String...) incremented} directly, or its value is
+     * {@linkplain #register(DoubleSupplier, String...) read} from a count kept elsewhere.
+     */
+    public static class Counter extends Sampled {
+        private final Map<String, DoubleAdder> adders = new ConcurrentHashMap<>();
+
+        Counter(String name, String help, String[] labelNames) {
+            super(name, help, "counter", labelNames);
+        }
+
+        /**
+         * Increments the counter with the given {@code labelValues} by one.
+         * @param labelValues The label values.
+         */
+        public void inc(String... labelValues) {
+            inc(1, labelValues);
+        }
+
+        /**
+         * Increments the counter with the given {@code labelValues}.
+         * @param amount The non-negative amount to increment by.
+         * @param labelValues The label values.
+         */
+        public void inc(double amount, String... labelValues) {
+            if (amount < 0) {
+                throw new IllegalArgumentException("Counters cannot be decremented");
+            }
+            String labels = labels(labelValues);
+            DoubleAdder adder = adders.get(labels);
+            if (adder == null) {
+                adder = adders.computeIfAbsent(labels, l -> {
+                    DoubleAdder newAdder = new DoubleAdder();
+                    samples.put(l, newAdder::sum);
+                    return newAdder;
+                });
+            }
+            adder.add(amount);
+        }
+    }
+
+    /**
+     * A value which can go up and down, read from a {@link DoubleSupplier} when scraped.
+     */
+    public static class Gauge extends Sampled {
+        Gauge(String name, String help, String[] labelNames) {
+            super(name, help, "gauge", labelNames);
+        }
+    }
+
+    /**
+     * Counts observations (such as durations) in buckets.
+     */
+    public static class Histogram extends Metric {
+        private final double[] buckets;
+        private final Map<String, Child> children = new ConcurrentSkipListMap<>();
+
+        Histogram(String name, String help, double[] buckets, String[] labelNames) {
+            super(name, help, "histogram", labelNames);
+            for (int i = 1; i < buckets.length; i++) {
+                if (buckets[i] <= buckets[i - 1]) {
+                    throw new IllegalArgumentException("Histogram buckets must be ascending");
+                }
+            }
+            this.buckets = buckets.clone();
+        }
+
+        /**
+         * Records an observation.
+         * @param value The observed value.
+         * @param labelValues The label values.
+         */
+        public void observe(double value, String... labelValues) {
+            child(labelValues).observe(value);
+        }
+
+        /**
+         * @param labelValues The label values.
+         * @return The number of observations with the given {@code labelValues}.
+         */
+        public long count(String... labelValues) {
+            Child child = children.get(labels(labelValues));
+            return child != null ? child.count.sum() : 0;
+        }
+
+        /**
+         * @param labelValues The label values.
+         * @return The sum of the observations with the given {@code labelValues}.
+         */
+        public double sum(String... labelValues) {
+            Child child = children.get(labels(labelValues));
+            return child != null ? child.sum.sum() : 0;
+        }
+
+        private Child child(String... labelValues) {
+            String labels = labels(labelValues);
+            Child child = children.get(labels);
+            if (child == null) {
+                child = children.computeIfAbsent(labels, l -> new Child(buckets.length));
+            }
+            return child;
+        }
+
+        @Override
+        void write(StringBuilder sb) {
+            for (Map.Entry<String, Child> entry : children.entrySet()) {
+                String labels = entry.getKey();
+                String separator = labels.isEmpty() ? "" : ",";
+                Child child = entry.getValue();
+                // Observations are counted after being bucketed, so cap the buckets at the count read first
+                long count = child.count.sum();
+                long cumulative = 0;
+                for (int i = 0; i < buckets.length; i++) {
+                    cumulative += child.counts[i].sum();
+                    writeSample(sb, name + "_bucket", labels + separator + "le=\"" + format(buckets[i]) + "\"", Math.min(cumulative, count));
+                }
+                writeSample(sb, name + "_bucket", labels + separator + "le=\"+Inf\"", count);
+                writeSample(sb, name + "_sum", labels, child.sum.sum());
+                writeSample(sb, name + "_count", labels, count);
+            }
+        }
+
+        private class Child {
+            private final LongAdder[] counts;
+            private final LongAdder count = new LongAdder();
+            private final DoubleAdder sum = new DoubleAdder();
+
+            Child(int size) {
+                this.counts = new LongAdder[size];
+                for (int i = 0; i < size; i++) {
+                    this.counts[i] = new LongAdder();
+                }
+            }
+
+            void observe(double value) {
+                for (int i = 0; i < buckets.length; i++) {
+                    if (value <= buckets[i]) {
+                        counts[i].increment();
+                        break;
+                    }
+                }
+                sum.add(value);
+                count.increment();
+            }
+        }
+    }
+}
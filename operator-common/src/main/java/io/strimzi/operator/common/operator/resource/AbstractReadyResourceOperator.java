@@ -40,8 +40,18 @@ public abstract class AbstractReadyResourceOperator<C extends KubernetesClient,
         super(vertx, client, resourceKind);
     }
 
+    /**
+     * Returns a future that completes when the resource identified by the given {@code namespace} and {@code name}
+     * is ready. Readiness is determined from the watch events for the resource, falling back to polling
+     * {@link #isReady(String, String)} if the resource cannot be watched.
+     *
+     * @param namespace The namespace.
+     * @param name The resource name.
+     * @param pollIntervalMs The poll interval in milliseconds, used only if the resource cannot be watched.
+     * @param timeoutMs The timeout, in milliseconds.
+     */
     public Future<Void> readiness(String namespace, String name, long pollIntervalMs, long timeoutMs) {
-        return waitFor(namespace, name, pollIntervalMs, timeoutMs, this::isReady);
+        return waitFor(namespace, name, pollIntervalMs, timeoutMs, this::isResourceReady, this::isReady);
     }
 
     /**
@@ -51,6 +61,9 @@ public abstract class AbstractReadyResourceOperator<C extends KubernetesClient,
      * @param name The resource name.
      */
     public boolean isReady(String namespace, String name) {
+        if (isCached()) {
+            return isResourceReady(get(namespace, name));
+        }
         R resourceOp = operation().inNamespace(namespace).withName(name);
         T resource = resourceOp.get();
         if (resource != null)   {
@@ -63,4 +76,21 @@ public abstract class AbstractReadyResourceOperator<C extends KubernetesClient,
             return false;
         }
     }
+
+    /**
+     * Check if the given resource is in the Ready state.
+     *
+     * @param resource The resource, or null if it doesn't exist.
+     */
+    protected boolean isResourceReady(T resource) {
+        if (resource != null)   {
+            if (Readiness.isReadinessApplicable(resource.getClass())) {
+                return Readiness.isReady(resource);
+            } else {
+                return true;
+            }
+        } else {
+            return false;
+        }
+    }
 }
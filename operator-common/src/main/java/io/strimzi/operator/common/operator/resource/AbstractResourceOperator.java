@@ -4,23 +4,46 @@
  */
 package io.strimzi.operator.common.operator.resource;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
-import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.dsl.base.OperationSupport;
+import io.strimzi.operator.common.Annotations;
 import io.strimzi.operator.common.Util;
+import io.strimzi.operator.common.metrics.MetricsRegistry;
 import io.strimzi.operator.common.model.Labels;
+import io.strimzi.operator.common.tracing.Tracing;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.math.BigInteger;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiPredicate;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Abstract resource creation, for a generic resource type {@code R}.
@@ -35,10 +58,30 @@ import java.util.function.BiPredicate;
 public abstract class AbstractResourceOperator<C extends KubernetesClient, T extends HasMetadata,
         L extends KubernetesResourceList/*<T>*/, D, R extends Resource<T, D>> {
 
+    /**
+     * The annotation holding a hash of the desired state of a resource, as last applied by the operator.
+     */
+    public static final String ANNO_STRIMZI_IO_DESIRED_HASH = Annotations.STRIMZI_DOMAIN + "/desired-hash";
+
+    /**
+     * The namespace which {@link #list(String, Labels)} (and the watches of {@link AbstractWatchableResourceOperator})
+     * take to mean all namespaces.
+     */
+    public static final String ANY_NAMESPACE = "*";
+
+    private static final ObjectMapper HASH_MAPPER = new ObjectMapper().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
     protected final Logger log = LogManager.getLogger(getClass());
     protected final Vertx vertx;
     protected final C client;
     protected final String resourceKind;
+    private final ResourceWaiter<T> waiter;
+    private volatile ResourceCache<T> cache;
+    private volatile MetadataLister metadataLister;
+    private volatile BooleanSupplier leadership = () -> true;
+    private volatile MetricsRegistry.Counter skippedPatches = skippedPatchesCounter(new MetricsRegistry());
+    /** The resourceVersion of each resource as it was after the operator last created or patched it. */
+    private final Map<String, String> appliedVersions = new ConcurrentHashMap<>();
 
     /**
      * Constructor.
@@ -50,6 +93,72 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
         this.vertx = vertx;
         this.client = client;
         this.resourceKind = resourceKind;
+        this.waiter = new ResourceWaiter<>(vertx, resourceKind,
+            (namespace, watcher) -> operation().inNamespace(namespace).watch(watcher),
+            // The waiter's watch may have missed events which the cache has yet to see, so don't use the cache
+            (namespace, name) -> operation().inNamespace(namespace).withName(name).get());
+    }
+
+    /**
+     * Serve reads of resources from the given cache, for those namespaces where the cache is in sync.
+     * @param cache The cache, or null to always read from the API server.
+     */
+    public void setCache(ResourceCache<T> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Sets whether this replica of the operator is the leader, and so may change resources.
+     * While it is not, creating, patching, deleting and scaling resources fail with a {@link NotLeaderException}
+     * rather than make the request.
+     * @param leadership Whether this replica is the leader.
+     */
+    public void setLeadership(BooleanSupplier leadership) {
+        this.leadership = leadership;
+    }
+
+    /**
+     * Counts the patches this operator skips in the given {@code metrics}, per kind of resource.
+     * @param metrics The metrics registry.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.skippedPatches = skippedPatchesCounter(metrics);
+    }
+
+    private static MetricsRegistry.Counter skippedPatchesCounter(MetricsRegistry metrics) {
+        return metrics.counter("strimzi_resource_patches_skipped_total",
+                "The number of patches skipped because the desired state of the resource was unchanged", "kind");
+    }
+
+    /**
+     * @return The number of patches of this kind of resource which have been skipped
+     * because the desired state of the resource was unchanged.
+     */
+    public long skippedPatches() {
+        return (long) skippedPatches.value(resourceKind);
+    }
+
+    /**
+     * @return Whether this replica of the operator is the leader, checked right before each change to a resource.
+     */
+    protected boolean isLeader() {
+        return leadership.getAsBoolean();
+    }
+
+    /**
+     * @return The exception with which to fail the given action on the resource with the given namespace and name,
+     * because this replica is not the leader.
+     */
+    protected NotLeaderException notLeader(String action, String namespace, String name) {
+        log.info("Not {} {} {} in namespace {}, because this replica is not the leader", action, resourceKind, name, namespace);
+        return new NotLeaderException("Not " + action + " " + resourceKind + " " + namespace + "/" + name + ", because this replica is not the leader");
+    }
+
+    /**
+     * @return Whether reads are served from a cache.
+     */
+    protected boolean isCached() {
+        return cache != null;
     }
 
     protected abstract MixedOperation<T, L, D, R> operation();
@@ -80,20 +189,34 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
 
         Future<ReconcileResult<T>> fut = Future.future();
         vertx.createSharedWorkerExecutor("kubernetes-ops-pool").executeBlocking(
-            future -> {
-                T current = operation().inNamespace(namespace).withName(name).get();
+            Tracing.propagate(future -> {
+                String desiredHash = desired != null && skipsUnchangedPatches() ? setDesiredHash(desired) : null;
+                T current = get(namespace, name);
+                if (desired != null && current == null && cache != null) {
+                    // Make sure we're not about to create something which the cache hasn't heard about yet
+                    current = operation().inNamespace(namespace).withName(name).get();
+                }
                 if (desired != null) {
                     if (current == null) {
                         log.debug("{} {}/{} does not exist, creating it", resourceKind, namespace, name);
-                        internalCreate(namespace, name, desired).setHandler(future);
+                        internalCreate(namespace, name, desired)
+                            .map(result -> applied(namespace, name, result))
+                            .setHandler(future);
+                    } else if (isUnchanged(namespace, name, current, desiredHash)) {
+                        log.debug("{} {}/{} is unchanged since it was last patched, not patching it", resourceKind, namespace, name);
+                        skippedPatches.inc(resourceKind);
+                        future.complete(ReconcileResult.patchSkipped(current));
                     } else {
                         log.debug("{} {}/{} already exists, patching it", resourceKind, namespace, name);
-                        internalPatch(namespace, name, current, desired).setHandler(future);
+                        internalPatch(namespace, name, current, desired)
+                            .map(result -> applied(namespace, name, result))
+                            .setHandler(future);
                     }
                 } else {
                     if (current != null) {
                         // Deletion is desired
                         log.debug("{} {}/{} exist, deleting it", resourceKind, namespace, name);
+                        appliedVersions.remove(key(namespace, name));
                         internalDelete(namespace, name).setHandler(future);
                     } else {
                         log.debug("{} {}/{} does not exist, noop", resourceKind, namespace, name);
@@ -101,18 +224,81 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
                     }
                 }
 
-            },
+            }),
             false,
-            fut.completer()
+            Tracing.propagate(fut.completer())
         );
         return fut;
     }
 
+    /**
+     * Whether {@link #reconcile(String, String, HasMetadata)} should record a hash of the desired state
+     * of resources in the {@link #ANNO_STRIMZI_IO_DESIRED_HASH} annotation, and skip patching resources
+     * whose desired state is unchanged.
+     * Operators for resources which they don't own outright (such as custom resources) should override this
+     * to return false.
+     */
+    protected boolean skipsUnchangedPatches() {
+        return true;
+    }
+
+    /**
+     * Sets the {@link #ANNO_STRIMZI_IO_DESIRED_HASH} annotation of the given {@code desired} resource
+     * to a hash of the rest of the resource.
+     * @return The hash, or null if it couldn't be computed.
+     */
+    private String setDesiredHash(T desired) {
+        Map<String, String> annotations = desired.getMetadata().getAnnotations() != null
+                ? new HashMap<>(desired.getMetadata().getAnnotations()) : new HashMap<>(1);
+        annotations.remove(ANNO_STRIMZI_IO_DESIRED_HASH);
+        desired.getMetadata().setAnnotations(annotations);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(HASH_MAPPER.writeValueAsBytes(desired));
+            String hash = new BigInteger(1, digest).toString(16);
+            annotations.put(ANNO_STRIMZI_IO_DESIRED_HASH, hash);
+            return hash;
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            log.warn("Could not hash the desired state of {} {}/{}", resourceKind,
+                    desired.getMetadata().getNamespace(), desired.getMetadata().getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * The {@code current} resource is unchanged if the operator last applied the same desired state to it,
+     * and nothing else has changed it since (so the patch would be a no-op).
+     */
+    private boolean isUnchanged(String namespace, String name, T current, String desiredHash) {
+        return desiredHash != null
+                && current.getMetadata() != null
+                && current.getMetadata().getAnnotations() != null
+                && desiredHash.equals(current.getMetadata().getAnnotations().get(ANNO_STRIMZI_IO_DESIRED_HASH))
+                && current.getMetadata().getResourceVersion() != null
+                && current.getMetadata().getResourceVersion().equals(appliedVersions.get(key(namespace, name)));
+    }
+
+    private ReconcileResult<T> applied(String namespace, String name, ReconcileResult<T> result) {
+        T resource = result.resource();
+        if (resource != null && resource.getMetadata() != null && resource.getMetadata().getResourceVersion() != null) {
+            appliedVersions.put(key(namespace, name), resource.getMetadata().getResourceVersion());
+        } else {
+            appliedVersions.remove(key(namespace, name));
+        }
+        return result;
+    }
+
+    private static String key(String namespace, String name) {
+        return namespace + "/" + name;
+    }
+
     /**
      * Deletes the resource with the given namespace and name
      * and completes the given future accordingly
      */
     protected Future<ReconcileResult<T>> internalDelete(String namespace, String name) {
+        if (!isLeader()) {
+            return Future.failedFuture(notLeader("deleting", namespace, name));
+        }
         try {
             operation().inNamespace(namespace).withName(name).delete();
             log.debug("{} {} in namespace {} has been deleted", resourceKind, name, namespace);
@@ -132,9 +318,13 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
     }
 
     protected Future<ReconcileResult<T>> internalPatch(String namespace, String name, T current, T desired, boolean cascading) {
+        if (!isLeader()) {
+            return Future.failedFuture(notLeader("patching", namespace, name));
+        }
         try {
             T result = operation().inNamespace(namespace).withName(name).cascading(cascading).patch(desired);
             log.debug("{} {} in namespace {} has been patched", resourceKind, name, namespace);
+            updateCache(result);
             return Future.succeededFuture(wasChanged(current, result) ? ReconcileResult.patched(result) : ReconcileResult.noop(result));
         } catch (Exception e) {
             log.error("Caught exception while patching {} {} in namespace {}", resourceKind, name, namespace, e);
@@ -158,9 +348,13 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
      * and completes the given future accordingly.
      */
     protected Future<ReconcileResult<T>> internalCreate(String namespace, String name, T desired) {
+        if (!isLeader()) {
+            return Future.failedFuture(notLeader("creating", namespace, name));
+        }
         try {
             ReconcileResult<T> result = ReconcileResult.created(operation().inNamespace(namespace).withName(name).create(desired));
             log.debug("{} {} in namespace {} has been created", resourceKind, name, namespace);
+            updateCache(result.resource());
             return Future.succeededFuture(result);
         } catch (Exception e) {
             log.error("Caught exception while creating {} {} in namespace {}", resourceKind, name, namespace, e);
@@ -168,6 +362,13 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
         }
     }
 
+    private void updateCache(T resource) {
+        ResourceCache<T> cache = this.cache;
+        if (cache != null) {
+            cache.update(resource);
+        }
+    }
+
     /**
      * Synchronously gets the resource with the given {@code name} in the given {@code namespace}.
      * @param namespace The namespace.
@@ -175,6 +376,10 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
      * @return The resource, or null if it doesn't exist.
      */
     public T get(String namespace, String name) {
+        ResourceCache<T> cache = this.cache;
+        if (cache != null) {
+            return cache.get(namespace, name, () -> operation().inNamespace(namespace).withName(name).get());
+        }
         return operation().inNamespace(namespace).withName(name).get();
     }
 
@@ -187,23 +392,78 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
     public Future<T> getAsync(String namespace, String name) {
         Future<T> result = Future.future();
         vertx.createSharedWorkerExecutor("kubernetes-ops-tool").executeBlocking(
-            future -> {
+            Tracing.propagate(future -> {
                 T resource = get(namespace, name);
                 future.complete(resource);
-            }, true, result.completer()
+            }), true, Tracing.propagate(result.completer())
         );
         return result;
     }
 
     /**
      * Synchronously list the resources in the given {@code namespace} with the given {@code selector}.
-     * @param namespace The namespace.
+     * @param namespace The namespace, or {@link #ANY_NAMESPACE} to list the resources in all namespaces.
      * @param selector The selector.
      * @return A list of matching resources.
      */
-    @SuppressWarnings("unchecked")
     public List<T> list(String namespace, Labels selector) {
-        NonNamespaceOperation<T, L, D, R> tldrNonNamespaceOperation = operation().inNamespace(namespace);
+        ResourceCache<T> cache = this.cache;
+        if (cache != null && !ANY_NAMESPACE.equals(namespace)) {
+            return cache.list(namespace, selector != null ? selector.toMap() : null, () -> listLive(namespace, selector));
+        }
+        return listLive(namespace, selector);
+    }
+
+    /**
+     * Synchronously passes the metadata of the resources in the given {@code namespace} with the given {@code selector}
+     * to the given {@code consumer}, without holding all the resources in memory at once.
+     * This is for when only the names or labels of the resources are needed.
+     * The metadata is read from the cache, if the namespace is cached, and otherwise listed
+     * a page at a time using a {@link MetadataLister}.
+     * The consumer must not modify the metadata.
+     * @param namespace The namespace, or {@link #ANY_NAMESPACE} to list the resources in all namespaces.
+     * @param selector The selector.
+     * @param consumer The consumer of the resources' metadata.
+     */
+    public void listMetadata(String namespace, Labels selector, Consumer<ObjectMeta> consumer) {
+        Map<String, String> labels = selector != null ? selector.toMap() : null;
+        ResourceCache<T> cache = this.cache;
+        if (cache != null && !ANY_NAMESPACE.equals(namespace) && cache.forEachMetadata(namespace, labels, consumer)) {
+            return;
+        }
+        FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>> operation = ANY_NAMESPACE.equals(namespace)
+                ? operation().inAnyNamespace()
+                : operation().inNamespace(namespace);
+        MetadataLister lister = metadataLister();
+        if (lister != null && operation instanceof OperationSupport) {
+            URL url;
+            try {
+                url = ((OperationSupport) operation).getNamespacedUrl();
+            } catch (MalformedURLException e) {
+                throw new KubernetesClientException("Listing " + resourceKind + " metadata", e);
+            }
+            lister.list(HttpUrl.get(url), labels, consumer);
+        } else {
+            for (T resource : listLive(namespace, selector)) {
+                consumer.accept(resource.getMetadata());
+            }
+        }
+    }
+
+    private MetadataLister metadataLister() {
+        MetadataLister lister = this.metadataLister;
+        if (lister == null && client.isAdaptable(OkHttpClient.class)) {
+            lister = new MetadataLister(client.adapt(OkHttpClient.class));
+            this.metadataLister = lister;
+        }
+        return lister;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> listLive(String namespace, Labels selector) {
+        FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>> tldrNonNamespaceOperation = ANY_NAMESPACE.equals(namespace)
+                ? operation().inAnyNamespace()
+                : operation().inNamespace(namespace);
         if (selector != null) {
             Map<String, String> labels = selector.toMap();
             return tldrNonNamespaceOperation.withLabels(labels)
@@ -233,4 +493,31 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
             timeoutMs,
             () -> predicate.test(namespace, name));
     }
+
+    /**
+     * Returns a future that completes when the resource identified by the given {@code namespace} and {@code name}
+     * satisfies the given {@code predicate}.
+     * Unlike {@link #waitFor(String, String, long, long, BiPredicate)} this doesn't poll the resource,
+     * but tests the predicate against the watch events for the resource, which is a single watch shared by all the
+     * waits in the namespace. Polling is used only when the watch is not available.
+     *
+     * @param namespace The namespace.
+     * @param name The resource name.
+     * @param pollIntervalMs The poll interval in milliseconds, used only if the resource cannot be watched.
+     * @param timeoutMs The timeout, in milliseconds.
+     * @param predicate The predicate, which is given null if the resource doesn't exist.
+     */
+    public Future<Void> waitFor(String namespace, String name, long pollIntervalMs, final long timeoutMs, Predicate<T> predicate) {
+        return waitFor(namespace, name, pollIntervalMs, timeoutMs, predicate, (ignore1, ignore2) -> predicate.test(get(namespace, name)));
+    }
+
+    /**
+     * Like {@link #waitFor(String, String, long, long, Predicate)}, but using the given {@code pollPredicate}
+     * when falling back to polling.
+     */
+    protected Future<Void> waitFor(String namespace, String name, long pollIntervalMs, final long timeoutMs, Predicate<T> predicate,
+                                   BiPredicate<String, String> pollPredicate) {
+        return waiter.waitFor(namespace, name, pollIntervalMs, timeoutMs, predicate,
+            () -> pollPredicate.test(namespace, name));
+    }
 }
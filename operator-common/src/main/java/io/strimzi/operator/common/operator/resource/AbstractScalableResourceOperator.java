@@ -10,6 +10,7 @@ import io.fabric8.kubernetes.api.model.KubernetesResourceList;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.ScalableResource;
 import io.strimzi.operator.common.Annotations;
+import io.strimzi.operator.common.tracing.Tracing;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
@@ -68,22 +69,27 @@ public abstract class AbstractScalableResourceOperator<C extends KubernetesClien
     public Future<Integer> scaleUp(String namespace, String name, int scaleTo) {
         Future<Integer> fut = Future.future();
         vertx.createSharedWorkerExecutor("kubernetes-ops-pool").executeBlocking(
-            future -> {
+            Tracing.propagate(future -> {
                 try {
                     Integer currentScale = currentScale(namespace, name);
                     if (currentScale != null && currentScale < scaleTo) {
+                        if (!isLeader()) {
+                            throw notLeader("scaling up", namespace, name);
+                        }
                         log.info("Scaling up to {} replicas", scaleTo);
                         resource(namespace, name).scale(scaleTo, true);
                         currentScale = scaleTo;
                     }
                     future.complete(currentScale);
+                } catch (NotLeaderException e) {
+                    future.fail(e);
                 } catch (Exception e) {
                     log.error("Caught exception while scaling up", e);
                     future.fail(e);
                 }
-            },
+            }),
             false,
-            fut.completer()
+            Tracing.propagate(fut.completer())
         );
         return fut;
     }
@@ -104,24 +110,29 @@ public abstract class AbstractScalableResourceOperator<C extends KubernetesClien
     public Future<Integer> scaleDown(String namespace, String name, int scaleTo) {
         Future<Integer> fut = Future.future();
         vertx.createSharedWorkerExecutor("kubernetes-ops-pool").executeBlocking(
-            future -> {
+            Tracing.propagate(future -> {
                 try {
                     Integer nextReplicas = currentScale(namespace, name);
                     if (nextReplicas != null) {
                         while (nextReplicas > scaleTo) {
+                            if (!isLeader()) {
+                                throw notLeader("scaling down", namespace, name);
+                            }
                             nextReplicas--;
                             log.info("Scaling down from {} to {}", nextReplicas + 1, nextReplicas);
                             resource(namespace, name).scale(nextReplicas, true);
                         }
                     }
                     future.complete(nextReplicas);
+                } catch (NotLeaderException e) {
+                    future.fail(e);
                 } catch (Exception e) {
                     log.error("Caught exception while scaling down", e);
                     future.fail(e);
                 }
-            },
+            }),
             false,
-            fut.completer()
+            Tracing.propagate(fut.completer())
         );
         return fut;
     }
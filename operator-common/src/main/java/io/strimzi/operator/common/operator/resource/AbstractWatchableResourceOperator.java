@@ -34,11 +34,89 @@ public abstract class AbstractWatchableResourceOperator<
         super(vertx, client, resourceKind);
     }
 
+    /**
+     * Watches the resources in the given {@code namespace}.
+     * @param namespace The namespace, or {@link #ANY_NAMESPACE} to watch the resources in all namespaces.
+     * @param watcher The watcher.
+     * @return The watch.
+     */
     public Watch watch(String namespace, Watcher<T> watcher) {
+        if (ANY_NAMESPACE.equals(namespace)) {
+            return operation().inAnyNamespace().watch(watcher);
+        }
         return operation().inNamespace(namespace).watch(watcher);
     }
 
     public Watch watch(String namespace, Labels selector, Watcher<T> watcher) {
+        if (ANY_NAMESPACE.equals(namespace)) {
+            return operation().inAnyNamespace().withLabels(selector.toMap()).watch(watcher);
+        }
         return operation().inNamespace(namespace).withLabels(selector.toMap()).watch(watcher);
     }
+
+    /**
+     * Watches the resources in the given {@code namespace}, starting from the given {@code resourceVersion}.
+     * @param namespace The namespace, or {@link #ANY_NAMESPACE} to watch the resources in all namespaces.
+     * @param resourceVersion The resourceVersion to watch from, or null to watch from the current state.
+     * @param watcher The watcher.
+     * @return The watch.
+     */
+    public Watch watch(String namespace, String resourceVersion, Watcher<T> watcher) {
+        if (resourceVersion == null) {
+            return watch(namespace, watcher);
+        }
+        if (ANY_NAMESPACE.equals(namespace)) {
+            return operation().inAnyNamespace().withResourceVersion(resourceVersion).watch(watcher);
+        }
+        return operation().inNamespace(namespace).withResourceVersion(resourceVersion).watch(watcher);
+    }
+
+    /**
+     * Watches the resources matching the given {@code selector} in the given {@code namespace},
+     * starting from the given {@code resourceVersion}.
+     * @param namespace The namespace, or {@link #ANY_NAMESPACE} to watch the resources in all namespaces.
+     * @param selector The labels the resources must have.
+     * @param resourceVersion The resourceVersion to watch from, or null to watch from the current state.
+     * @param watcher The watcher.
+     * @return The watch.
+     */
+    public Watch watch(String namespace, Labels selector, String resourceVersion, Watcher<T> watcher) {
+        if (resourceVersion == null) {
+            return watch(namespace, selector, watcher);
+        }
+        if (ANY_NAMESPACE.equals(namespace)) {
+            return operation().inAnyNamespace().withLabels(selector.toMap()).withResourceVersion(resourceVersion).watch(watcher);
+        }
+        return operation().inNamespace(namespace).withLabels(selector.toMap()).withResourceVersion(resourceVersion).watch(watcher);
+    }
+
+    /**
+     * Watches the resources in the given {@code namespace}, resuming the watch from the last seen resourceVersion
+     * if it is closed by the API server.
+     * This performs a blocking API call, so must not be called on an event loop thread.
+     * @param namespace The namespace, or {@link #ANY_NAMESPACE} to watch the resources in all namespaces.
+     * @param watcher The watcher.
+     * @param onRelist Called when the watch could not be resumed, so events may have been missed.
+     * @return The watch.
+     * @see ResumableWatch
+     */
+    public ResumableWatch<T> resumableWatch(String namespace, Watcher<T> watcher, Runnable onRelist) {
+        return new ResumableWatch<>(vertx, resourceKind, namespace, this::watch, watcher, onRelist).start();
+    }
+
+    /**
+     * Watches the resources matching the given {@code selector} in the given {@code namespace},
+     * resuming the watch from the last seen resourceVersion if it is closed by the API server.
+     * This performs a blocking API call, so must not be called on an event loop thread.
+     * @param namespace The namespace, or {@link #ANY_NAMESPACE} to watch the resources in all namespaces.
+     * @param selector The labels the resources must have.
+     * @param watcher The watcher.
+     * @param onRelist Called when the watch could not be resumed, so events may have been missed.
+     * @return The watch.
+     * @see ResumableWatch
+     */
+    public ResumableWatch<T> resumableWatch(String namespace, Labels selector, Watcher<T> watcher, Runnable onRelist) {
+        return new ResumableWatch<>(vertx, resourceKind, namespace,
+            (ns, resourceVersion, w) -> watch(ns, selector, resourceVersion, w), watcher, onRelist).start();
+    }
 }
@@ -39,4 +39,12 @@ public class CrdOperator<C extends KubernetesClient,
     protected MixedOperation<T, L, D, Resource<T, D>> operation() {
         return Crds.operation(client, cls, listCls, doneableCls);
     }
+
+    /**
+     * Custom resources belong to the user, so the operator doesn't annotate them with its desired state.
+     */
+    @Override
+    protected boolean skipsUnchangedPatches() {
+        return false;
+    }
 }
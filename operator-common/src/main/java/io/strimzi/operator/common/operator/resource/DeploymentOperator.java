@@ -16,6 +16,8 @@ import io.strimzi.operator.common.model.Labels;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 
+import java.util.function.BooleanSupplier;
+
 /**
  * Operations for {@code Deployment}s.
  */
@@ -37,6 +39,20 @@ public class DeploymentOperator extends AbstractScalableResourceOperator<Kuberne
         this.podOperations = podOperations;
     }
 
+    /**
+     * Serve reads of the Deployments' pods from the given cache.
+     * @param cache The cache, or null to always read pods from the API server.
+     */
+    public void setPodCache(ResourceCache<Pod> cache) {
+        podOperations.setCache(cache);
+    }
+
+    @Override
+    public void setLeadership(BooleanSupplier leadership) {
+        super.setLeadership(leadership);
+        podOperations.setLeadership(leadership);
+    }
+
     @Override
     protected MixedOperation<Deployment, DeploymentList, DoneableDeployment, ScalableResource<Deployment, DoneableDeployment>> operation() {
         return client.extensions().deployments();
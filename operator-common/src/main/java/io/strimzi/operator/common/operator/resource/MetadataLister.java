@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.base.OperationSupport;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Lists the metadata of resources without materializing the resources themselves.</p>
+ *
+ * <p>Resources are listed in pages of at most {@link #PAGE_SIZE} (using the {@code limit} and {@code continue}
+ * list parameters), asking the API server for {@code PartialObjectMetadataList}s so only the metadata is sent.
+ * API servers which cannot do that send whole resources instead, but even then the response is parsed as a stream,
+ * keeping only the {@code metadata} of each item, so at most one item's metadata is held at once,
+ * however many resources (and however large: think Secrets) there are.</p>
+ */
+class MetadataLister {
+
+    private static final Logger log = LogManager.getLogger(MetadataLister.class);
+
+    /** The maximum number of resources to ask for in a single list call. */
+    static final int PAGE_SIZE = 500;
+
+    private static final String ACCEPT_METADATA = "application/json;as=PartialObjectMetadataList;v=v1beta1;g=meta.k8s.io,application/json";
+    private static final String ACCEPT_JSON = "application/json";
+    private static final int HTTP_NOT_ACCEPTABLE = 406;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final OkHttpClient client;
+    private volatile boolean partialMetadataSupported = true;
+
+    MetadataLister(OkHttpClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Synchronously lists the resources at the given {@code url}, passing the metadata of each to the given {@code consumer}.
+     * @param url The URL of the resource collection.
+     * @param labels The labels the resources must have, or null.
+     * @param consumer The consumer of the resources' metadata.
+     * @throws KubernetesClientException If the resources could not be listed.
+     */
+    void list(HttpUrl url, Map<String, String> labels, Consumer<ObjectMeta> consumer) {
+        HttpUrl.Builder base = url.newBuilder().addQueryParameter("limit", String.valueOf(PAGE_SIZE));
+        if (labels != null && !labels.isEmpty()) {
+            base.addQueryParameter("labelSelector", labels.entrySet().stream()
+                    .map(entry -> entry.getKey() + "=" + entry.getValue())
+                    .collect(Collectors.joining(",")));
+        }
+        String continueToken = null;
+        int pages = 0;
+        do {
+            HttpUrl.Builder page = base.build().newBuilder();
+            if (continueToken != null) {
+                page.addQueryParameter("continue", continueToken);
+            }
+            continueToken = listPage(page.build(), consumer);
+            pages++;
+        } while (continueToken != null);
+        log.debug("Listed metadata at {} in {} page(s)", url, pages);
+    }
+
+    private String listPage(HttpUrl url, Consumer<ObjectMeta> consumer) {
+        boolean partialMetadata = partialMetadataSupported;
+        Request request = new Request.Builder().get().url(url)
+                .header("Accept", partialMetadata ? ACCEPT_METADATA : ACCEPT_JSON)
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            if (response.code() == HTTP_NOT_ACCEPTABLE && partialMetadata) {
+                log.debug("API server cannot list metadata only, listing whole resources instead");
+                partialMetadataSupported = false;
+                return listPage(url, consumer);
+            }
+            if (!response.isSuccessful()) {
+                throw new KubernetesClientException("Got unexpected GET status code " + response.code() + ": " + response.message(),
+                        response.code(), OperationSupport.createStatus(response));
+            }
+            try (InputStream body = response.body().byteStream()) {
+                return parse(body, consumer);
+            }
+        } catch (IOException e) {
+            throw new KubernetesClientException("Listing " + url, e);
+        }
+    }
+
+    /**
+     * Parses a list, passing the metadata of each item to the given {@code consumer}.
+     * @return The list's continue token, or null if this is the last page.
+     */
+    static String parse(InputStream list, Consumer<ObjectMeta> consumer) throws IOException {
+        String continueToken = null;
+        try (JsonParser parser = MAPPER.getFactory().createParser(list)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a list object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("metadata".equals(field) && value == JsonToken.START_OBJECT) {
+                    continueToken = readContinue(parser);
+                } else if ("items".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        ObjectMeta metadata = readItemMetadata(parser);
+                        if (metadata != null) {
+                            consumer.accept(metadata);
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return continueToken == null || continueToken.isEmpty() ? null : continueToken;
+    }
+
+    private static String readContinue(JsonParser parser) throws IOException {
+        String result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("continue".equals(field)) {
+                result = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private static ObjectMeta readItemMetadata(JsonParser parser) throws IOException {
+        ObjectMeta result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("metadata".equals(field) && value == JsonToken.START_OBJECT) {
+                result = MAPPER.readValue(parser, ObjectMeta.class);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,15 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+/**
+ * Thrown instead of changing a resource when this replica of the operator is not the leader.
+ */
+public class NotLeaderException extends RuntimeException {
+
+    public NotLeaderException(String message) {
+        super(message);
+    }
+}
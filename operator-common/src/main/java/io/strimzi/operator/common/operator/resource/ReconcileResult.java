@@ -13,8 +13,18 @@ public abstract class ReconcileResult<R> {
     };
 
     public static class Noop<R> extends ReconcileResult<R> {
-        private Noop(R resource) {
+        private final boolean patchSkipped;
+
+        private Noop(R resource, boolean patchSkipped) {
             super(resource);
+            this.patchSkipped = patchSkipped;
+        }
+
+        /**
+         * @return true if the resource wasn't patched at all because its desired state was unchanged.
+         */
+        public boolean isPatchSkipped() {
+            return patchSkipped;
         }
 
         public String toString() {
@@ -61,7 +71,12 @@ public abstract class ReconcileResult<R> {
 
     /** No action was performed. */
     public static final <P> ReconcileResult<P> noop(P resource) {
-        return new Noop<>(resource);
+        return new Noop<>(resource, false);
+    }
+
+    /** No action was performed, because the desired state of the resource was unchanged. */
+    public static final <P> ReconcileResult<P> patchSkipped(P resource) {
+        return new Noop<>(resource, true);
     }
 
     private final R resource;
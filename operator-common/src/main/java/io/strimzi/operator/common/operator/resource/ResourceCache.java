@@ -0,0 +1,429 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.strimzi.operator.common.metrics.MetricsRegistry;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>A watch-fed cache of all the resources of a single kind in some set of namespaces
+ * (an "informer").</p>
+ *
+ * <p>A namespace is cached once {@link #start(String)} has listed its resources and opened a watch on it.
+ * Reads for namespaces which are not (or no longer) in sync with the API server are delegated to the
+ * fallback given by the caller, which usually reads from the API server directly, so the cache can only
+ * ever save API calls and never fail a read.
+ * If a watch closes with an error the namespace is re-listed and re-watched after {@link #RESYNC_DELAY_MS}.</p>
+ *
+ * <p>Resources returned from the cache are copies, so callers are free to modify them.</p>
+ *
+ * <p>The cache keeps simple metrics: the number of reads which were served from the cache ({@link #hits()})
+ * and which were not ({@link #misses()}), and for each namespace how long it is since the cache last heard
+ * from the API server ({@link #stalenessMs(String)}).</p>
+ *
+ * @param <T> The Kubernetes resource type.
+ */
+public class ResourceCache<T extends HasMetadata> {
+
+    /**
+     * Opens a watch on the resources in a namespace.
+     * @param <T> The Kubernetes resource type.
+     */
+    @FunctionalInterface
+    public interface WatchFunction<T> {
+        Watch watch(String namespace, String resourceVersion, Watcher<T> watcher);
+    }
+
+    private static final Logger log = LogManager.getLogger(ResourceCache.class);
+
+    /** How long to wait before re-listing a namespace whose watch closed with an error. */
+    static final long RESYNC_DELAY_MS = 5_000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Vertx vertx;
+    private final String resourceKind;
+    private final Function<String, KubernetesResourceList> listFn;
+    private final WatchFunction<T> watchFn;
+
+    private final Map<String, NamespaceCache> namespaces = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructor.
+     * @param vertx The Vertx instance.
+     * @param resourceKind The kind of Kubernetes resource (used for logging).
+     * @param listFn Lists all the resources of this kind in the given namespace.
+     * @param watchFn Opens a watch on all the resources of this kind in the given namespace,
+     *                starting from the given resource version (which may be null).
+     */
+    public ResourceCache(Vertx vertx, String resourceKind, Function<String, KubernetesResourceList> listFn, WatchFunction<T> watchFn) {
+        this.vertx = vertx;
+        this.resourceKind = resourceKind;
+        this.listFn = listFn;
+        this.watchFn = watchFn;
+    }
+
+    /**
+     * Synchronously populates the cache for the given {@code namespace} and starts watching it.
+     * This performs blocking API calls, so must not be called on an event loop thread.
+     * If the namespace cannot be listed or watched the cache keeps retrying in the background,
+     * and reads use the fallback in the meantime.
+     * @param namespace The namespace.
+     * @throws KubernetesClientException If the namespace could not be listed or watched.
+     */
+    public void start(String namespace) {
+        NamespaceCache nsCache = new NamespaceCache(namespace);
+        NamespaceCache previous = namespaces.put(namespace, nsCache);
+        if (previous != null) {
+            previous.close();
+        }
+        try {
+            nsCache.sync();
+        } catch (RuntimeException e) {
+            nsCache.scheduleResync();
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronously {@link #start(String) starts} caching the given {@code namespace}
+     * using a Vertx worker thread.
+     * @param namespace The namespace.
+     * @return A future which completes when the namespace is cached.
+     */
+    public Future<Void> startAsync(String namespace) {
+        Future<Void> result = Future.future();
+        vertx.executeBlocking(
+            future -> {
+                start(namespace);
+                future.complete();
+            },
+            false,
+            result.completer());
+        return result;
+    }
+
+    /**
+     * Stops watching the given {@code namespace} and discards its cached resources.
+     * @param namespace The namespace.
+     */
+    public void stop(String namespace) {
+        NamespaceCache nsCache = namespaces.remove(namespace);
+        if (nsCache != null) {
+            nsCache.close();
+        }
+    }
+
+    /**
+     * @param namespace The namespace.
+     * @return Whether reads for the given {@code namespace} are currently served from the cache.
+     */
+    public boolean isSynced(String namespace) {
+        NamespaceCache nsCache = namespaces.get(namespace);
+        return nsCache != null && nsCache.synced;
+    }
+
+    /**
+     * Gets a copy of the resource with the given {@code namespace} and {@code name}.
+     * @param namespace The namespace.
+     * @param name The name.
+     * @param fallback Used to get the resource if the namespace is not in sync.
+     * @return The resource, or null if it doesn't exist.
+     */
+    public T get(String namespace, String name, Supplier<T> fallback) {
+        NamespaceCache nsCache = namespaces.get(namespace);
+        if (nsCache == null || !nsCache.synced) {
+            misses.incrementAndGet();
+            return fallback.get();
+        }
+        hits.incrementAndGet();
+        return copy(nsCache.resources.get(name));
+    }
+
+    /**
+     * Lists copies of the resources in the given {@code namespace} which have all the given {@code labels}.
+     * @param namespace The namespace.
+     * @param labels The labels to select by, or null to select all the resources in the namespace.
+     * @param fallback Used to list the resources if the namespace is not in sync.
+     * @return The matching resources.
+     */
+    public List<T> list(String namespace, Map<String, String> labels, Supplier<List<T>> fallback) {
+        NamespaceCache nsCache = namespaces.get(namespace);
+        if (nsCache == null || !nsCache.synced) {
+            misses.incrementAndGet();
+            return fallback.get();
+        }
+        hits.incrementAndGet();
+        List<T> result = new ArrayList<>();
+        for (T resource : nsCache.resources.values()) {
+            if (hasLabels(resource, labels)) {
+                result.add(copy(resource));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Passes the metadata of the resources in the given {@code namespace} which have all the given {@code labels}
+     * to the given {@code consumer}, if the namespace is in sync.
+     * Unlike {@link #list(String, Map, Supplier)} the resources are not copied, so the consumer must not modify the metadata.
+     * @param namespace The namespace.
+     * @param labels The labels to select by, or null to select all the resources in the namespace.
+     * @param consumer The consumer of the resources' metadata.
+     * @return Whether the namespace was in sync (if not, the consumer was not called).
+     */
+    public boolean forEachMetadata(String namespace, Map<String, String> labels, Consumer<ObjectMeta> consumer) {
+        NamespaceCache nsCache = namespaces.get(namespace);
+        if (nsCache == null || !nsCache.synced) {
+            misses.incrementAndGet();
+            return false;
+        }
+        hits.incrementAndGet();
+        for (T resource : nsCache.resources.values()) {
+            if (hasLabels(resource, labels)) {
+                consumer.accept(resource.getMetadata());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the given resource, as returned by a create or patch, without waiting for the watch event.
+     * This means a reconciliation which immediately follows a change sees that change.
+     * @param resource The resource.
+     */
+    public void update(T resource) {
+        if (resource == null || resource.getMetadata() == null) {
+            return;
+        }
+        NamespaceCache nsCache = namespaces.get(resource.getMetadata().getNamespace());
+        if (nsCache != null) {
+            nsCache.put(copy(resource));
+        }
+    }
+
+    /**
+     * @return The number of reads served from the cache.
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of reads which could not be served from the cache.
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The fraction of reads served from the cache, or 0 if there have been no reads.
+     */
+    public double hitRate() {
+        long hits = this.hits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * @param namespace The namespace.
+     * @return The number of milliseconds since the cache for the given {@code namespace} was last listed
+     * or received a watch event, or -1 if the namespace is not cached.
+     */
+    public long stalenessMs(String namespace) {
+        NamespaceCache nsCache = namespaces.get(namespace);
+        return nsCache == null ? -1 : System.currentTimeMillis() - nsCache.lastUpdated;
+    }
+
+    /**
+     * Exposes this cache's {@linkplain #hits() hits} and {@linkplain #misses() misses} in the given {@code metrics}.
+     * @param metrics The registry.
+     */
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.counter("strimzi_resource_cache_hits_total", "The number of reads served from the resource cache", "kind")
+                .register(hits::get, resourceKind);
+        metrics.counter("strimzi_resource_cache_misses_total", "The number of reads which could not be served from the resource cache", "kind")
+                .register(misses::get, resourceKind);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T copy(T resource) {
+        if (resource == null) {
+            return null;
+        }
+        try {
+            return (T) MAPPER.readValue(MAPPER.writeValueAsBytes(resource), resource.getClass());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean hasLabels(HasMetadata resource, Map<String, String> labels) {
+        if (labels == null || labels.isEmpty()) {
+            return true;
+        }
+        Map<String, String> actual = resource.getMetadata().getLabels();
+        return actual != null && actual.entrySet().containsAll(labels.entrySet());
+    }
+
+    /**
+     * Whether {@code candidate} is known to be older than {@code existing}, which can happen when a watch event
+     * arrives after the result of the change it describes has been recorded with {@link #update(HasMetadata)}.
+     * Resource versions are supposed to be opaque, but they are integers in practice, and when they aren't
+     * we simply take the most recent state we were told about to be the current state.
+     */
+    private static boolean isOlder(HasMetadata candidate, HasMetadata existing) {
+        if (candidate.getMetadata().getResourceVersion() == null || existing.getMetadata().getResourceVersion() == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(candidate.getMetadata().getResourceVersion())
+                    < Long.parseLong(existing.getMetadata().getResourceVersion());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The cached resources of a single namespace, keyed by name.
+     */
+    private class NamespaceCache implements Watcher<T> {
+        private final String namespace;
+        private volatile Map<String, T> resources = new ConcurrentHashMap<>();
+        private volatile boolean synced;
+        private volatile boolean closed;
+        private volatile long lastUpdated;
+        private Watch watch;
+
+        NamespaceCache(String namespace) {
+            this.namespace = namespace;
+        }
+
+        /**
+         * Lists the namespace and then watches it from the resource version of the list,
+         * so that no change can be missed between the two.
+         */
+        @SuppressWarnings("unchecked")
+        private void sync() {
+            KubernetesResourceList list = listFn.apply(namespace);
+            Map<String, T> listed = new ConcurrentHashMap<>();
+            for (Object item : list.getItems()) {
+                T resource = (T) item;
+                listed.put(resource.getMetadata().getName(), resource);
+            }
+            String resourceVersion = list.getMetadata() != null ? list.getMetadata().getResourceVersion() : null;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                resources = listed;
+                watch = watchFn.watch(namespace, resourceVersion, this);
+                lastUpdated = System.currentTimeMillis();
+                synced = true;
+            }
+            log.debug("Cached {} {} resources in namespace {}", listed.size(), resourceKind, namespace);
+        }
+
+        private void put(T resource) {
+            resources.merge(resource.getMetadata().getName(), resource,
+                (existing, candidate) -> isOlder(candidate, existing) ? existing : candidate);
+        }
+
+        private synchronized void close() {
+            closed = true;
+            synced = false;
+            resources.clear();
+            if (watch != null) {
+                watch.close();
+                watch = null;
+            }
+        }
+
+        @Override
+        public void eventReceived(Action action, T resource) {
+            if (resource == null || resource.getMetadata() == null) {
+                return;
+            }
+            log.trace("{} {} in namespace {} was {}", resourceKind, resource.getMetadata().getName(), namespace, action);
+            switch (action) {
+                case ADDED:
+                case MODIFIED:
+                    put(resource);
+                    break;
+                case DELETED:
+                    resources.remove(resource.getMetadata().getName());
+                    break;
+                case ERROR:
+                    log.warn("Watch for {} in namespace {} received an error event", resourceKind, namespace);
+                    break;
+                default:
+                    log.error("Unknown action: {} for {} in namespace {}", action, resourceKind, namespace);
+            }
+            lastUpdated = System.currentTimeMillis();
+        }
+
+        @Override
+        public void onClose(KubernetesClientException cause) {
+            synced = false;
+            if (closed) {
+                log.debug("Watch for {} in namespace {} closed", resourceKind, namespace);
+                return;
+            }
+            if (cause != null) {
+                log.warn("Watch for {} in namespace {} closed with exception, resyncing in {}ms",
+                        resourceKind, namespace, RESYNC_DELAY_MS, cause);
+            } else {
+                log.info("Watch for {} in namespace {} closed, resyncing in {}ms", resourceKind, namespace, RESYNC_DELAY_MS);
+            }
+            scheduleResync();
+        }
+
+        private void scheduleResync() {
+            vertx.setTimer(RESYNC_DELAY_MS, ignored -> resync());
+        }
+
+        private void resync() {
+            if (closed || namespaces.get(namespace) != this) {
+                return;
+            }
+            vertx.<Void>executeBlocking(
+                future -> {
+                    sync();
+                    future.complete();
+                },
+                false,
+                res -> {
+                    if (res.failed()) {
+                        log.warn("Failed to resync {} in namespace {}, retrying in {}ms",
+                                resourceKind, namespace, RESYNC_DELAY_MS, res.cause());
+                        scheduleResync();
+                    }
+                });
+        }
+    }
+}
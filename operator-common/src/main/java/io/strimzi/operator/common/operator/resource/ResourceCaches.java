@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSet;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.strimzi.operator.common.metrics.MetricsRegistry;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+/**
+ * The {@link ResourceCache}s for the kinds of resource which the operators read most often.
+ * Operators use them once they are given them via
+ * {@link AbstractResourceOperator#setCache(ResourceCache)}.
+ */
+public class ResourceCaches {
+
+    public final ResourceCache<StatefulSet> statefulSets;
+    public final ResourceCache<Pod> pods;
+    public final ResourceCache<Service> services;
+    public final ResourceCache<Secret> secrets;
+    public final ResourceCache<ConfigMap> configMaps;
+    public final ResourceCache<Deployment> deployments;
+
+    /**
+     * Constructor
+     * @param vertx The Vertx instance
+     * @param client The Kubernetes client
+     */
+    public ResourceCaches(Vertx vertx, KubernetesClient client) {
+        this.statefulSets = new ResourceCache<>(vertx, "StatefulSet",
+            namespace -> client.apps().statefulSets().inNamespace(namespace).list(),
+            (namespace, resourceVersion, watcher) -> resourceVersion != null
+                    ? client.apps().statefulSets().inNamespace(namespace).withResourceVersion(resourceVersion).watch(watcher)
+                    : client.apps().statefulSets().inNamespace(namespace).watch(watcher));
+        this.pods = new ResourceCache<>(vertx, "Pod",
+            namespace -> client.pods().inNamespace(namespace).list(),
+            (namespace, resourceVersion, watcher) -> resourceVersion != null
+                    ? client.pods().inNamespace(namespace).withResourceVersion(resourceVersion).watch(watcher)
+                    : client.pods().inNamespace(namespace).watch(watcher));
+        this.services = new ResourceCache<>(vertx, "Service",
+            namespace -> client.services().inNamespace(namespace).list(),
+            (namespace, resourceVersion, watcher) -> resourceVersion != null
+                    ? client.services().inNamespace(namespace).withResourceVersion(resourceVersion).watch(watcher)
+                    : client.services().inNamespace(namespace).watch(watcher));
+        this.secrets = new ResourceCache<>(vertx, "Secret",
+            namespace -> client.secrets().inNamespace(namespace).list(),
+            (namespace, resourceVersion, watcher) -> resourceVersion != null
+                    ? client.secrets().inNamespace(namespace).withResourceVersion(resourceVersion).watch(watcher)
+                    : client.secrets().inNamespace(namespace).watch(watcher));
+        this.configMaps = new ResourceCache<>(vertx, "ConfigMap",
+            namespace -> client.configMaps().inNamespace(namespace).list(),
+            (namespace, resourceVersion, watcher) -> resourceVersion != null
+                    ? client.configMaps().inNamespace(namespace).withResourceVersion(resourceVersion).watch(watcher)
+                    : client.configMaps().inNamespace(namespace).watch(watcher));
+        this.deployments = new ResourceCache<>(vertx, "Deployment",
+            namespace -> client.extensions().deployments().inNamespace(namespace).list(),
+            (namespace, resourceVersion, watcher) -> resourceVersion != null
+                    ? client.extensions().deployments().inNamespace(namespace).withResourceVersion(resourceVersion).watch(watcher)
+                    : client.extensions().deployments().inNamespace(namespace).watch(watcher));
+    }
+
+    /**
+     * @return All the caches.
+     */
+    public List<ResourceCache<?>> all() {
+        return asList(statefulSets, pods, services, secrets, configMaps, deployments);
+    }
+
+    /**
+     * Exposes the metrics of all the caches in the given {@code metrics}.
+     * @param metrics The registry.
+     */
+    public void registerMetrics(MetricsRegistry metrics) {
+        for (ResourceCache<?> cache : all()) {
+            cache.registerMetrics(metrics);
+        }
+    }
+
+    /**
+     * Starts caching the given {@code namespace} in all the caches.
+     * @param namespace The namespace.
+     * @return A future which completes when all the caches are in sync for the namespace.
+     */
+    public Future<Void> start(String namespace) {
+        List<Future> futures = new ArrayList<>();
+        for (ResourceCache<?> cache : all()) {
+            futures.add(cache.startAsync(namespace));
+        }
+        return CompositeFuture.join(futures).map((Void) null);
+    }
+
+    /**
+     * Stops caching the given {@code namespace} in all the caches.
+     * @param namespace The namespace.
+     */
+    public void stop(String namespace) {
+        for (ResourceCache<?> cache : all()) {
+            cache.stop(namespace);
+        }
+    }
+}
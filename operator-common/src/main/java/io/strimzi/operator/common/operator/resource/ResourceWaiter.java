@@ -0,0 +1,329 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.strimzi.operator.common.Util;
+import io.strimzi.operator.common.tracing.Span;
+import io.strimzi.operator.common.tracing.Tracing;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * <p>Waits for resources of a single kind to satisfy some condition, using a single watch per namespace
+ * which is shared by all the waiters in that namespace.</p>
+ *
+ * <p>A waiter completes as soon as an event for the awaited resource satisfies its condition.
+ * The watch is opened when the first waiter in a namespace is registered and is closed once the namespace
+ * has had no waiters for {@link #IDLE_WATCH_CLOSE_MS}, so that a rolling update waiting for one pod
+ * after another reuses the same watch.</p>
+ *
+ * <p>If the watch cannot be opened, or closes with an error, the affected waiters fall back to polling
+ * (via {@link Util#waitFor(Vertx, String, long, long, BooleanSupplier)}) for the rest of their timeout.</p>
+ *
+ * @param <T> The Kubernetes resource type.
+ */
+public class ResourceWaiter<T extends HasMetadata> {
+
+    private static final Logger log = LogManager.getLogger(ResourceWaiter.class);
+
+    /** How long a watch without any waiters is kept open before it is closed. */
+    static final long IDLE_WATCH_CLOSE_MS = 60_000;
+
+    private final Vertx vertx;
+    private final String resourceKind;
+    private final BiFunction<String, Watcher<T>, Watch> watchFn;
+    private final BiFunction<String, String, T> getFn;
+
+    private final Map<String, NamespaceWatch> watches = new HashMap<>();
+
+    /**
+     * Constructor.
+     * @param vertx The Vertx instance.
+     * @param resourceKind The kind of Kubernetes resource (used for logging).
+     * @param watchFn Opens a watch on all the resources of this kind in the given namespace.
+     * @param getFn Gets the resource with the given namespace and name.
+     */
+    public ResourceWaiter(Vertx vertx, String resourceKind, BiFunction<String, Watcher<T>, Watch> watchFn, BiFunction<String, String, T> getFn) {
+        this.vertx = vertx;
+        this.resourceKind = resourceKind;
+        this.watchFn = watchFn;
+        this.getFn = getFn;
+    }
+
+    /**
+     * Returns a future that completes when the resource identified by the given {@code namespace} and {@code name}
+     * satisfies the given {@code condition}, or fails with a {@link TimeoutException}.
+     *
+     * @param namespace The namespace.
+     * @param name The resource name.
+     * @param pollIntervalMs The poll interval in milliseconds, used only if the watch is not available.
+     * @param timeoutMs The timeout, in milliseconds.
+     * @param condition The condition, tested with the current state of the resource (null if it doesn't exist).
+     * @param poll The check used when falling back to polling.
+     */
+    public Future<Void> waitFor(String namespace, String name, long pollIntervalMs, long timeoutMs,
+                                Predicate<T> condition, BooleanSupplier poll) {
+        Waiter waiter = new Waiter(vertx.getOrCreateContext(), namespace, name, pollIntervalMs, timeoutMs, condition, poll);
+        log.debug("Waiting for {} to get ready", waiter.logContext);
+        waiter.timerId = vertx.setTimer(Math.max(1, timeoutMs), ignored -> {
+            String message = String.format("Exceeded timeout of %dms while waiting for %s to be ready", timeoutMs, waiter.logContext);
+            log.error(message);
+            waiter.fail(new TimeoutException(message));
+        });
+
+        vertx.createSharedWorkerExecutor("kubernetes-ops-pool").<Boolean>executeBlocking(
+            Tracing.propagate(future -> {
+                if (register(waiter)) {
+                    try {
+                        // The resource might already satisfy the condition, in which case there will be no event for it
+                        waiter.test(getFn.apply(namespace, name));
+                    } catch (Throwable e) {
+                        log.trace("Caught exception while checking {}", waiter.logContext, e);
+                    }
+                    future.complete(true);
+                } else {
+                    future.complete(false);
+                }
+            }),
+            false,
+            Tracing.propagate(res -> {
+                if (res.failed() || !res.result()) {
+                    waiter.poll();
+                }
+            })
+        );
+        return waiter.result;
+    }
+
+    /**
+     * Registers the given waiter with the watch for its namespace, opening the watch if necessary.
+     * A waiter which has already completed, such as one whose timeout fired before this ran, is not registered,
+     * since nothing would ever unregister it.
+     * @return true if the waiter is now registered with an open watch.
+     */
+    private boolean register(Waiter waiter) {
+        NamespaceWatch nsWatch;
+        synchronized (watches) {
+            // Waiters complete before unregistering, so checking while holding the lock can't miss an unregistration
+            if (waiter.done.get()) {
+                return false;
+            }
+            nsWatch = watches.get(waiter.namespace);
+            if (nsWatch == null) {
+                nsWatch = new NamespaceWatch(waiter.namespace);
+                try {
+                    nsWatch.watch = watchFn.apply(waiter.namespace, nsWatch);
+                } catch (Throwable e) {
+                    log.debug("Could not watch {} in namespace {}, falling back to polling", resourceKind, waiter.namespace, e);
+                }
+                if (nsWatch.watch == null) {
+                    return false;
+                }
+                log.debug("Opened watch for {} in namespace {}", resourceKind, waiter.namespace);
+                watches.put(waiter.namespace, nsWatch);
+            }
+            nsWatch.add(waiter);
+        }
+        return true;
+    }
+
+    private void unregister(Waiter waiter) {
+        synchronized (watches) {
+            NamespaceWatch nsWatch = watches.get(waiter.namespace);
+            if (nsWatch != null && nsWatch.remove(waiter)) {
+                long idleSince = nsWatch.idleSince;
+                vertx.setTimer(IDLE_WATCH_CLOSE_MS, ignored -> closeIfIdle(nsWatch, idleSince));
+            }
+        }
+    }
+
+    /**
+     * @return The number of waiters registered with the watch for the given namespace.
+     */
+    int registeredWaiters(String namespace) {
+        synchronized (watches) {
+            NamespaceWatch nsWatch = watches.get(namespace);
+            return nsWatch == null ? 0 : nsWatch.waiters.values().stream().mapToInt(List::size).sum();
+        }
+    }
+
+    private void closeIfIdle(NamespaceWatch nsWatch, long idleSince) {
+        synchronized (watches) {
+            if (nsWatch.waiters.isEmpty() && nsWatch.idleSince == idleSince
+                    && watches.get(nsWatch.namespace) == nsWatch) {
+                log.debug("Closing idle watch for {} in namespace {}", resourceKind, nsWatch.namespace);
+                watches.remove(nsWatch.namespace);
+                nsWatch.watch.close();
+            }
+        }
+    }
+
+    /**
+     * The watch on a single namespace, and the waiters using it, keyed by resource name.
+     */
+    private class NamespaceWatch implements Watcher<T> {
+        private final String namespace;
+        private final Map<String, List<Waiter>> waiters = new HashMap<>();
+        private Watch watch;
+        private long idleSince;
+
+        NamespaceWatch(String namespace) {
+            this.namespace = namespace;
+        }
+
+        private void add(Waiter waiter) {
+            waiters.computeIfAbsent(waiter.name, k -> new ArrayList<>(1)).add(waiter);
+        }
+
+        /**
+         * @return true if this watch has no waiters left after removing the given one.
+         */
+        private boolean remove(Waiter waiter) {
+            List<Waiter> forName = waiters.get(waiter.name);
+            if (forName != null && forName.remove(waiter) && forName.isEmpty()) {
+                waiters.remove(waiter.name);
+                if (waiters.isEmpty()) {
+                    idleSince = System.nanoTime();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void eventReceived(Action action, T resource) {
+            if (resource == null || resource.getMetadata() == null) {
+                return;
+            }
+            List<Waiter> forName;
+            synchronized (watches) {
+                forName = waiters.get(resource.getMetadata().getName());
+                forName = forName != null ? new ArrayList<>(forName) : null;
+            }
+            if (forName != null) {
+                log.trace("{} {} in namespace {} was {}", resourceKind, resource.getMetadata().getName(), namespace, action);
+                for (Waiter waiter : forName) {
+                    waiter.test(action == Action.DELETED ? null : resource);
+                }
+            }
+        }
+
+        @Override
+        public void onClose(KubernetesClientException cause) {
+            List<Waiter> orphans = new ArrayList<>();
+            synchronized (watches) {
+                if (watches.get(namespace) == this) {
+                    watches.remove(namespace);
+                }
+                waiters.values().forEach(orphans::addAll);
+                waiters.clear();
+            }
+            if (cause != null) {
+                log.warn("Watch for {} in namespace {} closed with exception, falling back to polling for {} waiters",
+                        resourceKind, namespace, orphans.size(), cause);
+            }
+            for (Waiter waiter : orphans) {
+                waiter.context.runOnContext(ignored -> waiter.poll());
+            }
+        }
+    }
+
+    /**
+     * A single wait for a resource to satisfy a condition.
+     */
+    private class Waiter {
+        private final Context context;
+        private final String namespace;
+        private final String name;
+        private final String logContext;
+        private final long pollIntervalMs;
+        private final long deadline;
+        private final Predicate<T> condition;
+        private final BooleanSupplier poll;
+        private final Future<Void> result = Future.future();
+        private final AtomicBoolean done = new AtomicBoolean();
+        // Watch events arrive on the watch's own thread, so the result is completed with the span which started the wait
+        private final Span span = Tracing.current();
+        private volatile long timerId;
+
+        Waiter(Context context, String namespace, String name, long pollIntervalMs, long timeoutMs,
+               Predicate<T> condition, BooleanSupplier poll) {
+            this.context = context;
+            this.namespace = namespace;
+            this.name = name;
+            this.logContext = String.format("%s resource %s in namespace %s", resourceKind, name, namespace);
+            this.pollIntervalMs = pollIntervalMs;
+            this.deadline = System.currentTimeMillis() + timeoutMs;
+            this.condition = condition;
+            this.poll = poll;
+        }
+
+        private void test(T resource) {
+            boolean ready;
+            try {
+                ready = condition.test(resource);
+            } catch (Throwable e) {
+                log.warn("Caught exception while waiting for {} to get ready", logContext, e);
+                ready = false;
+            }
+            if (ready) {
+                complete();
+            } else {
+                log.trace("{} is not ready", logContext);
+            }
+        }
+
+        private void complete() {
+            if (done.compareAndSet(false, true)) {
+                log.debug("{} is ready", logContext);
+                vertx.cancelTimer(timerId);
+                unregister(this);
+                context.runOnContext(Tracing.propagate(span, ignored -> result.complete()));
+            }
+        }
+
+        private void fail(Throwable cause) {
+            if (done.compareAndSet(false, true)) {
+                unregister(this);
+                context.runOnContext(Tracing.propagate(span, ignored -> result.fail(cause)));
+            }
+        }
+
+        /**
+         * Falls back to polling for the rest of the timeout.
+         */
+        private void poll() {
+            long timeLeft = deadline - System.currentTimeMillis();
+            if (done.get() || timeLeft <= 0) {
+                return;
+            }
+            Util.waitFor(vertx, logContext, pollIntervalMs, timeLeft, () -> done.get() || poll.getAsBoolean())
+                    .setHandler(res -> {
+                        if (res.succeeded()) {
+                            complete();
+                        } else {
+                            // The TimeoutException from polling will usually lose the race with our own timer
+                            fail(res.cause());
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.vertx.core.Vertx;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A watch which survives being closed by the API server.</p>
+ *
+ * <p>The watch remembers the resourceVersion of the last event it passed to its {@link Watcher}.
+ * If the watch is closed with an exception it is reopened from that resourceVersion after {@link #RESTART_DELAY_MS},
+ * so the watcher sees the events it would otherwise have missed, without anything having to be re-listed.
+ * Only if the API server no longer has that resourceVersion (410 Gone) is the watch reopened from the current state,
+ * and the {@code onRelist} callback run so the caller can catch up by listing the resources and acting on any differences.</p>
+ *
+ * <p>The watcher's {@link Watcher#onClose(KubernetesClientException)} is only called once this watch is {@linkplain #close() closed}.</p>
+ *
+ * @param <T> The Kubernetes resource type.
+ */
+public class ResumableWatch<T extends HasMetadata> implements Watch {
+
+    private static final Logger log = LogManager.getLogger(ResumableWatch.class);
+
+    /** How long to wait before reopening a watch which was closed with an exception. */
+    static final long RESTART_DELAY_MS = 1_000;
+
+    private static final int HTTP_GONE = 410;
+
+    private final Vertx vertx;
+    private final String resourceKind;
+    private final String namespace;
+    private final ResourceCache.WatchFunction<T> watchFn;
+    private final Watcher<T> watcher;
+    private final Runnable onRelist;
+
+    private volatile String resourceVersion;
+    private Watch watch;
+    private boolean closed;
+
+    private final AtomicLong restarts = new AtomicLong();
+    private final AtomicLong relists = new AtomicLong();
+
+    /**
+     * Constructor.
+     * @param vertx The Vertx instance.
+     * @param resourceKind The kind of Kubernetes resource (used for logging).
+     * @param namespace The namespace to watch (used for logging, and passed to {@code watchFn}).
+     * @param watchFn Opens a watch on the resources in the given namespace,
+     *                starting from the given resource version (which may be null).
+     * @param watcher The watcher to pass events to.
+     * @param onRelist Called when the watch had to be reopened from the current state, so events may have been missed.
+     */
+    public ResumableWatch(Vertx vertx, String resourceKind, String namespace, ResourceCache.WatchFunction<T> watchFn,
+                          Watcher<T> watcher, Runnable onRelist) {
+        this.vertx = vertx;
+        this.resourceKind = resourceKind;
+        this.namespace = namespace;
+        this.watchFn = watchFn;
+        this.watcher = watcher;
+        this.onRelist = onRelist;
+    }
+
+    /**
+     * Synchronously opens the watch.
+     * This performs a blocking API call, so must not be called on an event loop thread.
+     * @return This watch.
+     * @throws KubernetesClientException If the watch could not be opened.
+     */
+    public ResumableWatch<T> start() {
+        open();
+        return this;
+    }
+
+    private synchronized void open() {
+        if (!closed) {
+            watch = watchFn.watch(namespace, resourceVersion, new Resuming());
+        }
+    }
+
+    @Override
+    public void close() {
+        Watch watch;
+        synchronized (this) {
+            closed = true;
+            watch = this.watch;
+            this.watch = null;
+        }
+        if (watch != null) {
+            watch.close();
+        }
+        watcher.onClose(null);
+    }
+
+    /**
+     * @return The number of times the watch has been reopened from the last seen resourceVersion.
+     */
+    public long restarts() {
+        return restarts.get();
+    }
+
+    /**
+     * @return The number of times the watch has been reopened from the current state, because the
+     * last seen resourceVersion was gone.
+     */
+    public long relists() {
+        return relists.get();
+    }
+
+    /**
+     * @return The resourceVersion of the last event, or null.
+     */
+    public String resourceVersion() {
+        return resourceVersion;
+    }
+
+    private static boolean isGone(Throwable e) {
+        if (e instanceof KubernetesClientException) {
+            KubernetesClientException kce = (KubernetesClientException) e;
+            return kce.getCode() == HTTP_GONE
+                    || kce.getStatus() != null && kce.getStatus().getCode() != null && kce.getStatus().getCode() == HTTP_GONE;
+        }
+        return false;
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private void restart(Throwable cause) {
+        if (isGone(cause)) {
+            relists.incrementAndGet();
+            resourceVersion = null;
+            log.info("Watch for {} in namespace {} closed, and resourceVersion is gone; rewatching and relisting in {}ms",
+                    resourceKind, namespace, RESTART_DELAY_MS);
+            reopen(true);
+        } else {
+            restarts.incrementAndGet();
+            log.info("Watch for {} in namespace {} closed with exception, resuming from resourceVersion {} in {}ms",
+                    resourceKind, namespace, resourceVersion, RESTART_DELAY_MS, cause);
+            reopen(false);
+        }
+    }
+
+    private void reopen(boolean relist) {
+        vertx.setTimer(RESTART_DELAY_MS, ignored -> {
+            if (isClosed()) {
+                return;
+            }
+            vertx.<Void>executeBlocking(
+                future -> {
+                    open();
+                    future.complete();
+                },
+                false,
+                res -> {
+                    if (res.failed()) {
+                        log.warn("Failed to reopen watch for {} in namespace {}", resourceKind, namespace, res.cause());
+                        if (relist) {
+                            // Still needs relisting once the watch is open
+                            resourceVersion = null;
+                            reopen(true);
+                        } else {
+                            restart(res.cause());
+                        }
+                    } else if (relist) {
+                        onRelist.run();
+                    }
+                });
+        });
+    }
+
+    /**
+     * The watcher of the underlying watch.
+     */
+    private class Resuming implements Watcher<T> {
+
+        @Override
+        public void eventReceived(Action action, T resource) {
+            if (resource == null || resource.getMetadata() == null) {
+                log.warn("Watch for {} in namespace {} received {} event", resourceKind, namespace, action);
+                return;
+            }
+            if (resource.getMetadata().getResourceVersion() != null) {
+                resourceVersion = resource.getMetadata().getResourceVersion();
+            }
+            watcher.eventReceived(action, resource);
+        }
+
+        @Override
+        public void onClose(KubernetesClientException cause) {
+            if (isClosed()) {
+                return;
+            }
+            if (cause == null) {
+                log.debug("Watch for {} in namespace {} closed", resourceKind, namespace);
+            }
+            restart(cause);
+        }
+    }
+}
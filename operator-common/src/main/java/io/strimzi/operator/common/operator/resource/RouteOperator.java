@@ -41,7 +41,7 @@ public class RouteOperator extends AbstractResourceOperator<OpenShiftClient, Rou
      * @return
      */
     public Future<Void> hasAddress(String namespace, String name, long pollIntervalMs, long timeoutMs) {
-        return waitFor(namespace, name, pollIntervalMs, timeoutMs, this::isAddressReady);
+        return waitFor(namespace, name, pollIntervalMs, timeoutMs, RouteOperator::hasAddress, this::isAddressReady);
     }
 
     /**
@@ -52,8 +52,15 @@ public class RouteOperator extends AbstractResourceOperator<OpenShiftClient, Rou
      */
     public boolean isAddressReady(String namespace, String name) {
         Resource<Route, DoneableRoute> resourceOp = operation().inNamespace(namespace).withName(name);
-        Route resource = resourceOp.get();
+        return hasAddress(resourceOp.get());
+    }
 
+    /**
+     * Checks if the given Route has an assigned address.
+     *
+     * @param resource The Route, or null.
+     */
+    static boolean hasAddress(Route resource) {
         if (resource != null && resource.getStatus() != null && resource.getStatus().getIngress() != null && resource.getStatus().getIngress().size() > 0) {
             if (resource.getStatus().getIngress().get(0).getHost() != null) {
                 return true;
@@ -100,7 +100,7 @@ public class ServiceOperator extends AbstractResourceOperator<KubernetesClient,
      * @return
      */
     public Future<Void> hasIngressAddress(String namespace, String name, long pollIntervalMs, long timeoutMs) {
-        return waitFor(namespace, name, pollIntervalMs, timeoutMs, this::isIngressAddressReady);
+        return waitFor(namespace, name, pollIntervalMs, timeoutMs, ServiceOperator::hasIngressAddress, this::isIngressAddressReady);
     }
 
     /**
@@ -110,9 +110,15 @@ public class ServiceOperator extends AbstractResourceOperator<KubernetesClient,
      * @param name The route name.
      */
     public boolean isIngressAddressReady(String namespace, String name) {
-        Resource<Service, DoneableService> resourceOp = operation().inNamespace(namespace).withName(name);
-        Service resource = resourceOp.get();
+        return hasIngressAddress(get(namespace, name));
+    }
 
+    /**
+     * Checks if the given Service has an assigned ingress address.
+     *
+     * @param resource The Service, or null.
+     */
+    static boolean hasIngressAddress(Service resource) {
         if (resource != null && resource.getStatus() != null && resource.getStatus().getLoadBalancer() != null && resource.getStatus().getLoadBalancer().getIngress() != null && resource.getStatus().getLoadBalancer().getIngress().size() > 0) {
             if (resource.getStatus().getLoadBalancer().getIngress().get(0).getHostname() != null || resource.getStatus().getLoadBalancer().getIngress().get(0).getIp() != null) {
                 return true;
@@ -132,7 +138,7 @@ public class ServiceOperator extends AbstractResourceOperator<KubernetesClient,
      * @return
      */
     public Future<Void> hasNodePort(String namespace, String name, long pollIntervalMs, long timeoutMs) {
-        return waitFor(namespace, name, pollIntervalMs, timeoutMs, this::isNodePortReady);
+        return waitFor(namespace, name, pollIntervalMs, timeoutMs, ServiceOperator::hasNodePorts, this::isNodePortReady);
     }
 
     /**
@@ -142,9 +148,15 @@ public class ServiceOperator extends AbstractResourceOperator<KubernetesClient,
      * @param name The route name.
      */
     public boolean isNodePortReady(String namespace, String name) {
-        Resource<Service, DoneableService> resourceOp = operation().inNamespace(namespace).withName(name);
-        Service resource = resourceOp.get();
+        return hasNodePorts(get(namespace, name));
+    }
 
+    /**
+     * Checks if the given Service has assigned node ports.
+     *
+     * @param resource The Service, or null.
+     */
+    static boolean hasNodePorts(Service resource) {
         if (resource != null && resource.getSpec() != null && resource.getSpec().getPorts() != null) {
             boolean ready = true;
 
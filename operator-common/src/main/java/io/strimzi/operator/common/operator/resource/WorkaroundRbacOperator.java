@@ -9,6 +9,7 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.dsl.base.OperationSupport;
+import io.strimzi.operator.common.tracing.Tracing;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import okhttp3.OkHttpClient;
@@ -19,6 +20,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.util.function.BooleanSupplier;
 
 /**
  * This class is a temporary work-around for the fact that Fabric8 doesn't
@@ -35,7 +37,7 @@ public class WorkaroundRbacOperator<T> {
     protected final String group;
     protected final String apiVersion;
     protected final String plural;
-
+    private volatile BooleanSupplier leadership = () -> true;
 
     public WorkaroundRbacOperator(Vertx vertx, KubernetesClient client, String group, String apiVersion, String plural) {
         this.vertx = vertx;
@@ -50,12 +52,24 @@ public class WorkaroundRbacOperator<T> {
         this.plural = plural;
     }
 
+    /**
+     * Sets whether this replica of the operator is the leader, and so may change resources.
+     * While it is not, reconciling a resource which needs to be changed fails with a {@link NotLeaderException}.
+     * @param leadership Whether this replica is the leader.
+     */
+    public void setLeadership(BooleanSupplier leadership) {
+        this.leadership = leadership;
+    }
+
     protected Future<Void> doReconcile(String urlWithoutName, String urlWithName, T resource) {
         Future<Void> result = Future.future();
-        vertx.executeBlocking(fut -> {
+        vertx.executeBlocking(Tracing.propagate(fut -> {
             try {
                 Request getRequest = new Request.Builder().get().url(urlWithName).build();
                 int getCode = execute(getRequest, 200, 404);
+                if ((getCode == 200 || resource != null) && !leadership.getAsBoolean()) {
+                    throw new NotLeaderException("Not changing " + urlWithName + ", because this replica is not the leader");
+                }
                 if (getCode == 200) {
                     if (resource != null) {
                         // exists and wanted => replace
@@ -84,7 +98,7 @@ public class WorkaroundRbacOperator<T> {
             } catch (Throwable e) {
                 fut.fail(e);
             }
-        }, result.completer());
+        }), Tracing.propagate(result.completer()));
 
         return result;
     }
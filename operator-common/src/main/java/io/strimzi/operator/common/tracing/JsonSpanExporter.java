@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * <p>Exports traces as JSON, one line per span, either to a log or appended to a file,
+ * so traces can be captured without running a tracing server.</p>
+ *
+ * <p>Each line is an object with the fields {@code traceId}, {@code id}, {@code parentId} (absent for the root span),
+ * {@code name}, {@code timestamp} and {@code duration} (both in microseconds, like Zipkin's),
+ * {@code tags} and, for failed spans, {@code error}.</p>
+ */
+public class JsonSpanExporter implements SpanExporter {
+
+    private static final Logger log = LogManager.getLogger(JsonSpanExporter.class);
+
+    /** The logger which {@link #toLog()} writes spans to, at DEBUG level. */
+    public static final String SPAN_LOGGER = "io.strimzi.tracing";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Consumer<String> lines;
+
+    JsonSpanExporter(Consumer<String> lines) {
+        this.lines = lines;
+    }
+
+    /**
+     * @return An exporter which writes spans to the {@link #SPAN_LOGGER} logger at DEBUG level,
+     * so they can be enabled, and routed to their own file, through the logging configuration.
+     */
+    public static JsonSpanExporter toLog() {
+        Logger spanLog = LogManager.getLogger(SPAN_LOGGER);
+        return new JsonSpanExporter(line -> spanLog.debug(line)) {
+            @Override
+            public void export(Trace trace) {
+                if (spanLog.isDebugEnabled()) {
+                    super.export(trace);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param file The file to append spans to, which is created if need be.
+     * @return An exporter which appends spans to the given {@code file}.
+     */
+    public static JsonSpanExporter toFile(Path file) {
+        return new JsonSpanExporter(null) {
+            @Override
+            public void export(Trace trace) {
+                synchronized (this) {
+                    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                        for (Span span : trace.spans()) {
+                            writer.write(toJson(span));
+                            writer.newLine();
+                        }
+                    } catch (IOException e) {
+                        log.warn("Failed to write trace {} to {}", trace.id(), file, e);
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public void export(Trace trace) {
+        for (Span span : trace.spans()) {
+            lines.accept(toJson(span));
+        }
+    }
+
+    static String toJson(Span span) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("traceId", span.trace().id());
+        json.put("id", span.id());
+        if (span.parent() != null) {
+            json.put("parentId", span.parent().id());
+        }
+        json.put("name", span.name());
+        json.put("timestamp", span.startEpochMs() * 1_000);
+        long durationNanos = span.durationNanos();
+        if (durationNanos >= 0) {
+            json.put("duration", durationNanos / 1_000);
+        }
+        json.put("tags", span.tags());
+        if (span.error() != null) {
+            json.put("error", span.error());
+        }
+        try {
+            return MAPPER.writeValueAsString(json);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
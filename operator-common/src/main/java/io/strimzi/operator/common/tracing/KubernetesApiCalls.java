@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.tracing;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>The requests to the Kubernetes API server made within a {@link Trace}, counted by the step which made them
+ * (the child of the trace's root within which they were made), their verb and the resource requested.</p>
+ *
+ * <p>Requests are recognised by the {@link KubernetesApiTracing#VERB_TAG} and {@link KubernetesApiTracing#RESOURCE_TAG}
+ * tags of their spans. Requests made directly within the root span are counted against the root's name.</p>
+ */
+public class KubernetesApiCalls {
+
+    /**
+     * Receives the number of requests made by a step with a particular verb and resource.
+     */
+    @FunctionalInterface
+    public interface CountConsumer {
+        void accept(String step, String verb, String resource, int count);
+    }
+
+    // step -> verb -> resource -> count
+    private final Map<String, Map<String, Map<String, Integer>>> counts = new TreeMap<>();
+    private int total;
+
+    private KubernetesApiCalls() {
+    }
+
+    /**
+     * Counts the requests made within the given {@code trace}.
+     * @param trace The trace.
+     * @return The counts.
+     */
+    public static KubernetesApiCalls of(Trace trace) {
+        KubernetesApiCalls calls = new KubernetesApiCalls();
+        Span root = trace.root();
+        for (Span span : trace.spans()) {
+            Map<String, String> tags = span.tags();
+            String verb = tags.get(KubernetesApiTracing.VERB_TAG);
+            String resource = tags.get(KubernetesApiTracing.RESOURCE_TAG);
+            if (verb == null || resource == null) {
+                continue;
+            }
+            Span step = span.parent();
+            while (step != root && step.parent() != root) {
+                step = step.parent();
+            }
+            calls.counts.computeIfAbsent(step.name(), k -> new TreeMap<>())
+                    .computeIfAbsent(verb, k -> new TreeMap<>())
+                    .merge(resource, 1, Integer::sum);
+            calls.total++;
+        }
+        return calls;
+    }
+
+    /**
+     * @return The total number of requests.
+     */
+    public int total() {
+        return total;
+    }
+
+    /**
+     * @param verb The verb, e.g. {@code get}.
+     * @return The number of requests with the given verb.
+     */
+    public int count(String verb) {
+        return count(null, verb, null);
+    }
+
+    /**
+     * @param step The step, or null for any step.
+     * @param verb The verb, or null for any verb.
+     * @param resource The resource, e.g. {@code pods}, or null for any resource.
+     * @return The number of matching requests.
+     */
+    public int count(String step, String verb, String resource) {
+        int[] count = {0};
+        forEach((s, v, r, n) -> {
+            if ((step == null || step.equals(s))
+                    && (verb == null || verb.equals(v))
+                    && (resource == null || resource.equals(r))) {
+                count[0] += n;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * @return The number of requests made by each step which made any, by step name.
+     */
+    public Map<String, Integer> byStep() {
+        Map<String, Integer> result = new TreeMap<>();
+        forEach((step, verb, resource, count) -> result.merge(step, count, Integer::sum));
+        return result;
+    }
+
+    /**
+     * Passes the number of requests for each combination of step, verb and resource to the given {@code consumer}.
+     * @param consumer The consumer.
+     */
+    public void forEach(CountConsumer consumer) {
+        for (Map.Entry<String, Map<String, Map<String, Integer>>> step : counts.entrySet()) {
+            for (Map.Entry<String, Map<String, Integer>> verb : step.getValue().entrySet()) {
+                for (Map.Entry<String, Integer> resource : verb.getValue().entrySet()) {
+                    consumer.accept(step.getKey(), verb.getKey(), resource.getKey(), resource.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The total number of requests and the number for each verb, e.g. {@code 12 API request(s) (10 get, 2 patch)}.
+     */
+    @Override
+    public String toString() {
+        Map<String, Integer> byVerb = new TreeMap<>();
+        forEach((step, verb, resource, count) -> byVerb.merge(verb, count, Integer::sum));
+        StringBuilder sb = new StringBuilder().append(total).append(" API request(s)");
+        String separator = " (";
+        for (Map.Entry<String, Integer> verb : byVerb.entrySet()) {
+            sb.append(separator).append(verb.getValue()).append(' ').append(verb.getKey());
+            separator = ", ";
+        }
+        if (!byVerb.isEmpty()) {
+            sb.append(')');
+        }
+        return sb.toString();
+    }
+}
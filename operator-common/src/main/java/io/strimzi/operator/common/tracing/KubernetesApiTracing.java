@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.tracing;
+
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.strimzi.operator.common.metrics.KubernetesApiMetrics;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Records each request to the Kubernetes API server which is made on behalf of a {@linkplain Tracing#current() current span}
+ * as a child span, named after the request's verb and resource (e.g. {@code patch statefulsets}).
+ */
+public class KubernetesApiTracing implements Interceptor {
+
+    /** The tag of request spans which holds the verb of the request, as reported by {@link KubernetesApiMetrics#verb(Request)}. */
+    public static final String VERB_TAG = "k8s.verb";
+    /** The tag of request spans which holds the resource requested, as reported by {@link KubernetesApiMetrics#resource(okhttp3.HttpUrl)}. */
+    public static final String RESOURCE_TAG = "k8s.resource";
+
+    /**
+     * Creates a client which shares the configuration and connection pool of the given {@code client},
+     * and records the requests it makes in the current trace.
+     * @param client The client.
+     * @return The instrumented client.
+     */
+    public static DefaultKubernetesClient instrument(DefaultKubernetesClient client) {
+        OkHttpClient httpClient = client.adapt(OkHttpClient.class).newBuilder()
+                .addInterceptor(new KubernetesApiTracing())
+                .build();
+        return new DefaultKubernetesClient(httpClient, client.getConfiguration());
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Span parent = Tracing.current();
+        Request request = chain.request();
+        if (parent == null) {
+            return chain.proceed(request);
+        }
+        String verb = KubernetesApiMetrics.verb(request);
+        String resource = KubernetesApiMetrics.resource(request.url());
+        Span span = parent.child(verb + " " + resource)
+                .tag(VERB_TAG, verb)
+                .tag(RESOURCE_TAG, resource)
+                .tag("http.method", request.method())
+                .tag("http.path", request.url().encodedPath());
+        try {
+            Response response = chain.proceed(request);
+            span.tag("http.status_code", String.valueOf(response.code()));
+            span.finish();
+            return response;
+        } catch (IOException | RuntimeException e) {
+            span.finish(e);
+            throw e;
+        }
+    }
+}
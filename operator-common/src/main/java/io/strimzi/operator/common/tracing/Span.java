@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>A named, timed operation within a {@link Trace}, such as a step of a reconciliation or
+ * a request to the Kubernetes API server.</p>
+ *
+ * <p>Spans form a tree: every span but the trace's {@linkplain Trace#root() root} has a parent.
+ * Finishing the root span finishes the trace, which is then passed to the trace's {@link SpanExporter}.</p>
+ */
+public class Span {
+
+    private final Trace trace;
+    private final int id;
+    private final Span parent;
+    private final String name;
+    private final long startEpochMs = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private volatile long durationNanos = -1;
+    private volatile String error;
+
+    Span(Trace trace, int id, Span parent, String name) {
+        this.trace = trace;
+        this.id = id;
+        this.parent = parent;
+        this.name = name;
+    }
+
+    /**
+     * Starts a span which is a child of this one.
+     * @param name The name of the child span.
+     * @return The child span.
+     */
+    public Span child(String name) {
+        return trace.startSpan(this, name);
+    }
+
+    /**
+     * Adds a tag, such as the HTTP status code of a request, to this span.
+     * @param key The tag key.
+     * @param value The tag value.
+     * @return This span.
+     */
+    public Span tag(String key, String value) {
+        synchronized (tags) {
+            tags.put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Finishes this span successfully.
+     */
+    public void finish() {
+        finish(null);
+    }
+
+    /**
+     * Finishes this span, which failed if {@code error} is not null.
+     * Finishing a span which is already finished has no effect.
+     * @param error The reason the span failed, or null.
+     */
+    public void finish(Throwable error) {
+        synchronized (this) {
+            if (durationNanos >= 0) {
+                return;
+            }
+            if (error != null) {
+                this.error = error.getClass().getSimpleName() + ": " + error.getMessage();
+            }
+            durationNanos = System.nanoTime() - startNanos;
+        }
+        if (parent == null) {
+            trace.finished();
+        }
+    }
+
+    public Trace trace() {
+        return trace;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    /**
+     * @return The parent of this span, or null if this is the root of its trace.
+     */
+    public Span parent() {
+        return parent;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return The wall-clock time this span started, in milliseconds since the epoch.
+     */
+    public long startEpochMs() {
+        return startEpochMs;
+    }
+
+    /**
+     * @return How long this span took, in nanoseconds, or -1 if it has not finished.
+     */
+    public long durationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return A description of why this span failed, or null if it succeeded or has not finished.
+     */
+    public String error() {
+        return error;
+    }
+
+    /**
+     * @return A copy of this span's tags.
+     */
+    public Map<String, String> tags() {
+        synchronized (tags) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(tags));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Span(" + trace.id() + "/" + id + " " + name + ")";
+    }
+}
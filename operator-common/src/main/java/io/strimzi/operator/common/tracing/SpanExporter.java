@@ -0,0 +1,22 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.tracing;
+
+/**
+ * Receives each {@link Trace} once its root span has finished.
+ */
+@FunctionalInterface
+public interface SpanExporter {
+
+    /** An exporter which discards traces. */
+    SpanExporter NONE = trace -> { };
+
+    /**
+     * Exports the given {@code trace}.
+     * This is called on the thread which finished the trace's root span, so should not block for long.
+     * @param trace The finished trace.
+     */
+    void export(Trace trace);
+}
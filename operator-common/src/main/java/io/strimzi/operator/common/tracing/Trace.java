@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.tracing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>The tree of {@link Span}s recorded for a single operation, such as a reconciliation.</p>
+ *
+ * <p>Once the {@linkplain #root() root span} finishes the trace is passed to its {@link SpanExporter}.
+ * Spans of the trace which are still running at that point (for example a request whose result
+ * is no longer needed) are exported unfinished.</p>
+ */
+public class Trace {
+
+    /** The number of slowest steps listed in the {@link #summary()}. */
+    static final int SUMMARY_STEPS = 5;
+
+    private final String id;
+    private final SpanExporter exporter;
+    private final List<Span> spans = new ArrayList<>();
+    private final Span root;
+    private int nextSpanId;
+
+    private Trace(String id, String rootName, SpanExporter exporter) {
+        this.id = id;
+        this.exporter = exporter;
+        this.root = startSpan(null, rootName);
+    }
+
+    /**
+     * Starts a trace.
+     * @param id The trace id, which should identify the operation being traced, e.g. a reconciliation.
+     * @param rootName The name of the root span.
+     * @param exporter The exporter to pass the trace to once the root span finishes.
+     * @return The root span of the new trace.
+     */
+    public static Span start(String id, String rootName, SpanExporter exporter) {
+        return new Trace(id, rootName, exporter).root;
+    }
+
+    synchronized Span startSpan(Span parent, String name) {
+        Span span = new Span(this, nextSpanId++, parent, name);
+        spans.add(span);
+        return span;
+    }
+
+    void finished() {
+        exporter.export(this);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public Span root() {
+        return root;
+    }
+
+    /**
+     * @return The spans of this trace, in the order they were started.
+     */
+    public synchronized List<Span> spans() {
+        return new ArrayList<>(spans);
+    }
+
+    /**
+     * @return A one line summary of where the time in this trace went: its total duration
+     * and number of spans, and the slowest children of the root span, with the number of
+     * spans (e.g. API requests) within each.
+     */
+    public String summary() {
+        List<Span> spans = spans();
+        Map<Span, Integer> descendants = new HashMap<>();
+        for (Span span : spans) {
+            for (Span ancestor = span.parent(); ancestor != null; ancestor = ancestor.parent()) {
+                descendants.merge(ancestor, 1, Integer::sum);
+            }
+        }
+        List<Span> steps = new ArrayList<>();
+        for (Span span : spans) {
+            if (span.parent() == root) {
+                steps.add(span);
+            }
+        }
+        steps.sort(Comparator.comparingLong(Span::durationNanos).reversed());
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(root.name()).append(" took ").append(millis(root)).append(" with ").append(spans.size() - 1).append(" span(s)");
+        if (!steps.isEmpty()) {
+            sb.append("; slowest:");
+            for (int i = 0; i < Math.min(SUMMARY_STEPS, steps.size()); i++) {
+                Span step = steps.get(i);
+                sb.append(i == 0 ? " " : ", ").append(step.name()).append(' ').append(millis(step));
+                Integer children = descendants.get(step);
+                if (children != null) {
+                    sb.append(" (").append(children).append(" span(s))");
+                }
+                if (step.error() != null) {
+                    sb.append(" [failed]");
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String millis(Span span) {
+        long durationNanos = span.durationNanos();
+        return durationNanos < 0 ? "(unfinished)" : (durationNanos / 1_000_000) + "ms";
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.tracing;
+
+import io.vertx.core.Handler;
+
+import java.util.function.Supplier;
+
+/**
+ * <p>Tracks the {@link Span} which the current thread is working on behalf of, so work started
+ * on that thread (notably requests to the Kubernetes API server) can be recorded in the right trace.</p>
+ *
+ * <p>The operators hand work between the event loop and the worker pool, so a span is only current
+ * for as long as some code {@linkplain #callWith(Span, Supplier) runs with it}. Handlers which will run later,
+ * on whatever thread, should be {@linkplain #propagate(Handler) wrapped} so that they run with the span
+ * which was current when they were created.</p>
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    /**
+     * @return The span the current thread is working on behalf of, or null.
+     */
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the given {@code code} with the given {@code span} current.
+     * @param span The span, or null to run the code outside any span.
+     * @param code The code to run.
+     * @param <T> The type of the result.
+     * @return The result of the code.
+     */
+    public static <T> T callWith(Span span, Supplier<T> code) {
+        Span previous = CURRENT.get();
+        CURRENT.set(span);
+        try {
+            return code.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Wraps the given {@code handler} so that it runs with the span which is current now (or with no span, if none is).
+     * @param handler The handler.
+     * @param <T> The type of event handled.
+     * @return The wrapped handler.
+     */
+    public static <T> Handler<T> propagate(Handler<T> handler) {
+        return propagate(CURRENT.get(), handler);
+    }
+
+    /**
+     * Wraps the given {@code handler} so that it runs with the given {@code span}.
+     * @param span The span, or null to run the handler outside any span.
+     * @param handler The handler.
+     * @param <T> The type of event handled.
+     * @return The wrapped handler.
+     */
+    public static <T> Handler<T> propagate(Span span, Handler<T> handler) {
+        return event -> callWith(span, () -> {
+            handler.handle(event);
+            return null;
+        });
+    }
+}
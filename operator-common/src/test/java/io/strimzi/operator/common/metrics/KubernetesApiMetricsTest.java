@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.metrics;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class KubernetesApiMetricsTest {
+
+    private static final String MASTER = "https://kubernetes.default.svc";
+
+    private static Request request(String method, String path) {
+        RequestBody body = "GET".equals(method) || "DELETE".equals(method) ? null
+                : RequestBody.create(MediaType.parse("application/json"), "{}");
+        return new Request.Builder().url(MASTER + path).method(method, body).build();
+    }
+
+    private static void assertVerbAndResource(String verb, String resource, String method, String path) {
+        Request request = request(method, path);
+        assertEquals(verb, KubernetesApiMetrics.verb(request));
+        assertEquals(resource, KubernetesApiMetrics.resource(request.url()));
+    }
+
+    @Test
+    public void testCoreResources() {
+        assertVerbAndResource("get", "secrets", "GET", "/api/v1/namespaces/ns/secrets/my-cluster-cluster-ca");
+        assertVerbAndResource("list", "secrets", "GET", "/api/v1/namespaces/ns/secrets?labelSelector=strimzi.io%2Fcluster%3Dmy-cluster");
+        assertVerbAndResource("create", "services", "POST", "/api/v1/namespaces/ns/services");
+        assertVerbAndResource("update", "configmaps", "PUT", "/api/v1/namespaces/ns/configmaps/my-cluster-kafka-config");
+        assertVerbAndResource("delete", "pods", "DELETE", "/api/v1/namespaces/ns/pods/my-cluster-kafka-0");
+        assertVerbAndResource("list", "pods", "GET", "/api/v1/pods");
+    }
+
+    @Test
+    public void testGroupResources() {
+        assertVerbAndResource("patch", "statefulsets", "PATCH", "/apis/apps/v1beta1/namespaces/ns/statefulsets/my-cluster-kafka");
+        assertVerbAndResource("list", "kafkas", "GET", "/apis/kafka.strimzi.io/v1alpha1/kafkas");
+        assertVerbAndResource("deletecollection", "persistentvolumeclaims", "DELETE", "/api/v1/namespaces/ns/persistentvolumeclaims");
+    }
+
+    @Test
+    public void testWatches() {
+        assertVerbAndResource("watch", "kafkas", "GET", "/apis/kafka.strimzi.io/v1alpha1/namespaces/ns/kafkas?watch=true&resourceVersion=10");
+        assertVerbAndResource("watch", "pods", "GET", "/api/v1/watch/namespaces/ns/pods");
+    }
+
+    @Test
+    public void testNamespaces() {
+        assertVerbAndResource("list", "namespaces", "GET", "/api/v1/namespaces");
+        assertVerbAndResource("get", "namespaces", "GET", "/api/v1/namespaces/ns");
+    }
+
+    @Test
+    public void testNonResourcePaths() {
+        assertVerbAndResource("get", "none", "GET", "/version");
+        assertVerbAndResource("get", "none", "GET", "/oapi");
+    }
+}
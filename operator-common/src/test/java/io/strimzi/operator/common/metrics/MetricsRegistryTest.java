@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testCounter() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        MetricsRegistry.Counter counter = metrics.counter("test_total", "A test counter", "kind", "outcome");
+        counter.inc("Kafka", "success");
+        counter.inc("Kafka", "success");
+        counter.inc(0.5, "KafkaConnect", "failure");
+
+        assertEquals(2.0, counter.value("Kafka", "success"), 0.0);
+        assertEquals("# HELP test_total A test counter\n"
+                + "# TYPE test_total counter\n"
+                + "test_total{kind=\"Kafka\",outcome=\"success\"} 2\n"
+                + "test_total{kind=\"KafkaConnect\",outcome=\"failure\"} 0.5\n", metrics.scrape());
+    }
+
+    @Test
+    public void testRegisteringAgainReturnsTheSameMetric() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        assertSame(metrics.counter("test_total", "A test counter", "kind"),
+                metrics.counter("test_total", "A test counter", "kind"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisteringAsAnotherTypeFails() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.counter("test", "A test counter");
+        metrics.gauge("test", "A test gauge");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongNumberOfLabelValuesFails() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.counter("test_total", "A test counter", "kind").inc("Kafka", "success");
+    }
+
+    @Test
+    public void testGaugeIsReadWhenScraped() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        AtomicInteger depth = new AtomicInteger(3);
+        metrics.gauge("test_depth", "A test gauge").register(depth::get);
+        depth.set(5);
+
+        assertEquals("# HELP test_depth A test gauge\n"
+                + "# TYPE test_depth gauge\n"
+                + "test_depth 5\n", metrics.scrape());
+    }
+
+    @Test
+    public void testHistogram() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        MetricsRegistry.Histogram histogram = metrics.histogram("test_seconds", "A test histogram", new double[] {0.1, 1}, "kind");
+        histogram.observe(0.0625, "Kafka");
+        histogram.observe(0.5, "Kafka");
+        histogram.observe(2, "Kafka");
+
+        assertEquals(3, histogram.count("Kafka"));
+        assertEquals(2.5625, histogram.sum("Kafka"), 0.0);
+        assertEquals("# HELP test_seconds A test histogram\n"
+                + "# TYPE test_seconds histogram\n"
+                + "test_seconds_bucket{kind=\"Kafka\",le=\"0.1\"} 1\n"
+                + "test_seconds_bucket{kind=\"Kafka\",le=\"1\"} 2\n"
+                + "test_seconds_bucket{kind=\"Kafka\",le=\"+Inf\"} 3\n"
+                + "test_seconds_sum{kind=\"Kafka\"} 2.5625\n"
+                + "test_seconds_count{kind=\"Kafka\"} 3\n", metrics.scrape());
+    }
+
+    @Test
+    public void testMetricsAreSortedAndLabelValuesEscaped() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.counter("b_total", "B").inc();
+        metrics.counter("a_total", "A", "name").inc("say \"hi\"\\n");
+
+        assertEquals("# HELP a_total A\n"
+                + "# TYPE a_total counter\n"
+                + "a_total{name=\"say \\\"hi\\\"\\\\n\"} 1\n"
+                + "# HELP b_total B\n"
+                + "# TYPE b_total counter\n"
+                + "b_total 1\n", metrics.scrape());
+    }
+}
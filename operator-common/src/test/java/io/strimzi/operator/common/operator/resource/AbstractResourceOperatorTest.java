@@ -4,12 +4,14 @@
  */
 package io.strimzi.operator.common.operator.resource;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesResourceList;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
+import io.strimzi.operator.common.metrics.MetricsRegistry;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.ext.unit.Async;
@@ -20,13 +22,18 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.matches;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -302,6 +309,59 @@ public abstract class AbstractResourceOperatorTest<C extends KubernetesClient, T
         });
     }
 
+    @SuppressWarnings("unchecked")
+    private T copy(T resource) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        return (T) mapper.readValue(mapper.writeValueAsString(resource), resource.getClass());
+    }
+
+    @Test
+    public void unchangedDesiredStateSkipsPatch(TestContext context) throws IOException {
+        T desired = resource();
+        T desiredAgain = copy(desired);
+        T current = copy(desired);
+        current.getMetadata().setResourceVersion("1");
+        AtomicReference<T> live = new AtomicReference<>(current);
+
+        Resource mockResource = mock(resourceType());
+        when(mockResource.get()).thenAnswer(invocation -> live.get());
+        when(mockResource.cascading(anyBoolean())).thenReturn(mockResource);
+        when(mockResource.patch(any())).thenAnswer(invocation -> {
+            T patched = invocation.getArgument(0);
+            patched.getMetadata().setResourceVersion("2");
+            live.set(patched);
+            return patched;
+        });
+
+        NonNamespaceOperation mockNameable = mock(NonNamespaceOperation.class);
+        when(mockNameable.withName(matches(RESOURCE_NAME))).thenReturn(mockResource);
 
+        MixedOperation mockCms = mock(MixedOperation.class);
+        when(mockCms.inNamespace(matches(NAMESPACE))).thenReturn(mockNameable);
+
+        C mockClient = mock(clientType());
+        mocker(mockClient, mockCms);
+
+        AbstractResourceOperator<C, T, L, D, R> op = createResourceOperations(vertx, mockClient);
+        MetricsRegistry metrics = new MetricsRegistry();
+        op.setMetrics(metrics);
+
+        Async async = context.async();
+        op.createOrUpdate(desired).compose(first -> {
+            context.assertTrue(first instanceof ReconcileResult.Patched);
+            context.assertNotNull(desired.getMetadata().getAnnotations().get(AbstractResourceOperator.ANNO_STRIMZI_IO_DESIRED_HASH));
+            return op.createOrUpdate(desiredAgain);
+        }).setHandler(ar -> {
+            if (ar.failed()) ar.cause().printStackTrace();
+            context.assertTrue(ar.succeeded());
+            context.assertTrue(ar.result() instanceof ReconcileResult.Noop);
+            context.assertTrue(((ReconcileResult.Noop) ar.result()).isPatchSkipped());
+            context.assertEquals(1L, op.skippedPatches());
+            context.assertTrue(metrics.scrape().contains("strimzi_resource_patches_skipped_total{kind=\"" + op.resourceKind + "\"} 1\n"),
+                    metrics.scrape());
+            verify(mockResource, times(1)).patch(any());
+            async.complete();
+        });
+    }
 }
 
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MetadataListerTest {
+
+    private static String parse(String json, List<ObjectMeta> metadata) throws IOException {
+        return MetadataLister.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), metadata::add);
+    }
+
+    @Test
+    public void testWholeResourcesAreReducedToMetadata() throws IOException {
+        List<ObjectMeta> metadata = new ArrayList<>();
+        String continueToken = parse("{\"kind\":\"SecretList\",\"apiVersion\":\"v1\","
+                + "\"metadata\":{\"resourceVersion\":\"10\"},"
+                + "\"items\":["
+                + "{\"kind\":\"Secret\",\"data\":{\"user.key\":\"c2VjcmV0\",\"nested\":[{\"metadata\":{}}]},"
+                + "\"metadata\":{\"name\":\"alice\",\"namespace\":\"ns\",\"labels\":{\"strimzi.io/cluster\":\"my-cluster\"}}},"
+                + "{\"metadata\":{\"name\":\"bob\",\"namespace\":\"ns\"},\"type\":\"Opaque\"}"
+                + "]}", metadata);
+
+        assertNull(continueToken);
+        assertEquals(2, metadata.size());
+        assertEquals("alice", metadata.get(0).getName());
+        assertEquals("my-cluster", metadata.get(0).getLabels().get("strimzi.io/cluster"));
+        assertEquals("bob", metadata.get(1).getName());
+    }
+
+    @Test
+    public void testPartialObjectMetadataListWithContinue() throws IOException {
+        List<ObjectMeta> metadata = new ArrayList<>();
+        String continueToken = parse("{\"kind\":\"PartialObjectMetadataList\",\"apiVersion\":\"meta.k8s.io/v1beta1\","
+                + "\"metadata\":{\"resourceVersion\":\"10\",\"continue\":\"next-page\"},"
+                + "\"items\":["
+                + "{\"kind\":\"PartialObjectMetadata\",\"metadata\":{\"name\":\"alice\"}},"
+                + "{\"kind\":\"PartialObjectMetadata\",\"metadata\":{\"name\":\"bob\"}}"
+                + "]}", metadata);
+
+        assertEquals("next-page", continueToken);
+        List<String> names = new ArrayList<>();
+        metadata.forEach(m -> names.add(m.getName()));
+        assertEquals(asList("alice", "bob"), names);
+    }
+
+    @Test
+    public void testEmptyContinueMeansLastPage() throws IOException {
+        List<ObjectMeta> metadata = new ArrayList<>();
+        assertNull(parse("{\"metadata\":{\"continue\":\"\"},\"items\":[]}", metadata));
+        assertEquals(0, metadata.size());
+    }
+}
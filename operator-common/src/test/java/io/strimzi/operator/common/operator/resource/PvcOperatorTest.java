@@ -15,6 +15,8 @@ import io.vertx.core.Vertx;
 import io.vertx.ext.unit.TestContext;
 import org.junit.Test;
 
+import java.io.IOException;
+
 import static org.mockito.Mockito.when;
 
 public class PvcOperatorTest extends AbstractResourceOperatorTest<KubernetesClient, PersistentVolumeClaim, PersistentVolumeClaimList, DoneablePersistentVolumeClaim, Resource<PersistentVolumeClaim, DoneablePersistentVolumeClaim>> {
@@ -67,4 +69,10 @@ public class PvcOperatorTest extends AbstractResourceOperatorTest<KubernetesClie
     public void existenceCheckThrows(TestContext context) {
         super.existenceCheckThrows(context);
     }
+
+    @Override
+    @Test(expected = UnsupportedOperationException.class)
+    public void unchangedDesiredStateSkipsPatch(TestContext context) throws IOException {
+        super.unchangedDesiredStateSkipsPatch(context);
+    }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodListBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.vertx.core.Vertx;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class ResourceCacheTest {
+
+    private static final String NAMESPACE = "test";
+
+    private static Vertx vertx;
+
+    private AtomicInteger lists;
+    private AtomicReference<String> watchedVersion;
+    private AtomicReference<Watcher<Pod>> watcher;
+    private ResourceCache<Pod> cache;
+
+    @BeforeClass
+    public static void before() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterClass
+    public static void after() {
+        vertx.close();
+    }
+
+    private static Pod pod(String name, String resourceVersion, String app) {
+        return new PodBuilder()
+                .withNewMetadata()
+                    .withName(name)
+                    .withNamespace(NAMESPACE)
+                    .withResourceVersion(resourceVersion)
+                    .withLabels(singletonMap("app", app))
+                .endMetadata()
+                .build();
+    }
+
+    @Before
+    public void createCache() {
+        lists = new AtomicInteger();
+        watchedVersion = new AtomicReference<>();
+        watcher = new AtomicReference<>();
+        cache = new ResourceCache<>(vertx, "Pod",
+            namespace -> {
+                lists.incrementAndGet();
+                return new PodListBuilder()
+                        .withNewMetadata()
+                            .withResourceVersion("10")
+                        .endMetadata()
+                        .withItems(pod("pod-0", "5", "foo"), pod("pod-1", "6", "bar"))
+                        .build();
+            },
+            (namespace, resourceVersion, w) -> {
+                watchedVersion.set(resourceVersion);
+                watcher.set(w);
+                return mock(Watch.class);
+            });
+    }
+
+    @Test
+    public void testReadsAreServedFromCache() {
+        cache.start(NAMESPACE);
+        assertTrue(cache.isSynced(NAMESPACE));
+        assertEquals("10", watchedVersion.get());
+
+        assertEquals("5", cache.get(NAMESPACE, "pod-0", ResourceCacheTest::unexpected).getMetadata().getResourceVersion());
+        assertNull(cache.get(NAMESPACE, "pod-2", ResourceCacheTest::unexpected));
+        assertEquals(2, cache.list(NAMESPACE, null, ResourceCacheTest::unexpected).size());
+        List<Pod> bar = cache.list(NAMESPACE, singletonMap("app", "bar"), ResourceCacheTest::unexpected);
+        assertEquals(1, bar.size());
+        assertEquals("pod-1", bar.get(0).getMetadata().getName());
+
+        assertEquals(1, lists.get());
+        assertEquals(4, cache.hits());
+        assertEquals(0, cache.misses());
+        assertEquals(1.0, cache.hitRate(), 0.0);
+        assertTrue(cache.stalenessMs(NAMESPACE) >= 0);
+    }
+
+    @Test
+    public void testReadsReturnCopies() {
+        cache.start(NAMESPACE);
+        Pod pod = cache.get(NAMESPACE, "pod-0", ResourceCacheTest::unexpected);
+        pod.getMetadata().getLabels().put("app", "changed");
+        Pod again = cache.get(NAMESPACE, "pod-0", ResourceCacheTest::unexpected);
+        assertNotSame(pod, again);
+        assertEquals("foo", again.getMetadata().getLabels().get("app"));
+    }
+
+    @Test
+    public void testWatchEventsUpdateCache() {
+        cache.start(NAMESPACE);
+        watcher.get().eventReceived(Watcher.Action.ADDED, pod("pod-2", "11", "foo"));
+        watcher.get().eventReceived(Watcher.Action.MODIFIED, pod("pod-0", "12", "baz"));
+        watcher.get().eventReceived(Watcher.Action.DELETED, pod("pod-1", "13", "bar"));
+
+        assertEquals("11", cache.get(NAMESPACE, "pod-2", ResourceCacheTest::unexpected).getMetadata().getResourceVersion());
+        assertEquals("baz", cache.get(NAMESPACE, "pod-0", ResourceCacheTest::unexpected).getMetadata().getLabels().get("app"));
+        assertNull(cache.get(NAMESPACE, "pod-1", ResourceCacheTest::unexpected));
+    }
+
+    @Test
+    public void testUpdateIsNotOverwrittenByOlderEvent() {
+        cache.start(NAMESPACE);
+        cache.update(pod("pod-0", "20", "patched"));
+        watcher.get().eventReceived(Watcher.Action.MODIFIED, pod("pod-0", "15", "older"));
+        assertEquals("patched", cache.get(NAMESPACE, "pod-0", ResourceCacheTest::unexpected).getMetadata().getLabels().get("app"));
+
+        watcher.get().eventReceived(Watcher.Action.MODIFIED, pod("pod-0", "20", "patched"));
+        watcher.get().eventReceived(Watcher.Action.MODIFIED, pod("pod-0", "21", "newer"));
+        assertEquals("newer", cache.get(NAMESPACE, "pod-0", ResourceCacheTest::unexpected).getMetadata().getLabels().get("app"));
+    }
+
+    @Test
+    public void testUnsyncedNamespaceUsesFallback() {
+        assertFalse(cache.isSynced(NAMESPACE));
+        Pod fallback = pod("pod-0", "1", "live");
+        assertEquals("live", cache.get(NAMESPACE, "pod-0", () -> fallback).getMetadata().getLabels().get("app"));
+        assertEquals(emptyList(), cache.list(NAMESPACE, null, () -> emptyList()));
+        assertEquals(0, cache.hits());
+        assertEquals(2, cache.misses());
+        assertEquals(-1, cache.stalenessMs(NAMESPACE));
+    }
+
+    @Test
+    public void testWatchFailureUsesFallbackUntilResynced() {
+        cache.start(NAMESPACE);
+        watcher.get().onClose(new KubernetesClientException("Gone"));
+        assertFalse(cache.isSynced(NAMESPACE));
+        List<Pod> live = asList(pod("pod-0", "30", "live"));
+        assertEquals(live, cache.list(NAMESPACE, null, () -> live));
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void testStopDiscardsNamespace() {
+        cache.start(NAMESPACE);
+        cache.stop(NAMESPACE);
+        assertFalse(cache.isSynced(NAMESPACE));
+        assertEquals(-1, cache.stalenessMs(NAMESPACE));
+    }
+
+    private static <T> T unexpected() {
+        fail("Expected the read to be served from the cache");
+        return null;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@RunWith(VertxUnitRunner.class)
+public class ResourceWaiterTest {
+
+    private static final String NAMESPACE = "test";
+
+    private static Vertx vertx;
+
+    @BeforeClass
+    public static void before() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterClass
+    public static void after() {
+        vertx.close();
+    }
+
+    private static Pod pod(String name, String phase) {
+        return new PodBuilder()
+                .withNewMetadata()
+                    .withName(name)
+                    .withNamespace(NAMESPACE)
+                .endMetadata()
+                .withNewStatus()
+                    .withPhase(phase)
+                .endStatus()
+                .build();
+    }
+
+    private static boolean isRunning(Pod pod) {
+        return pod != null && "Running".equals(pod.getStatus().getPhase());
+    }
+
+    @Test
+    public void testWaitersShareOneWatchAndCompleteOnEvent(TestContext context) throws InterruptedException {
+        AtomicInteger watches = new AtomicInteger();
+        AtomicInteger gets = new AtomicInteger();
+        AtomicReference<Watcher<Pod>> watcher = new AtomicReference<>();
+        ResourceWaiter<Pod> waiter = new ResourceWaiter<>(vertx, "Pod",
+            (namespace, w) -> {
+                watches.incrementAndGet();
+                watcher.set(w);
+                return mock(Watch.class);
+            },
+            (namespace, name) -> {
+                gets.incrementAndGet();
+                return pod(name, "Pending");
+            });
+
+        Async async = context.async(2);
+        waiter.waitFor(NAMESPACE, "pod-0", 60_000, 10_000, ResourceWaiterTest::isRunning, () -> false).setHandler(ar -> {
+            context.assertTrue(ar.succeeded());
+            async.countDown();
+        });
+        waiter.waitFor(NAMESPACE, "pod-1", 60_000, 10_000, ResourceWaiterTest::isRunning, () -> false).setHandler(ar -> {
+            context.assertTrue(ar.succeeded());
+            async.countDown();
+        });
+
+        while (gets.get() < 2) {
+            Thread.sleep(10);
+        }
+        watcher.get().eventReceived(Watcher.Action.MODIFIED, pod("pod-0", "Running"));
+        watcher.get().eventReceived(Watcher.Action.MODIFIED, pod("pod-1", "Running"));
+        async.awaitSuccess();
+        assertEquals(1, watches.get());
+        assertEquals(2, gets.get());
+    }
+
+    @Test
+    public void testWaiterCompletesWhenAlreadySatisfied(TestContext context) {
+        ResourceWaiter<Pod> waiter = new ResourceWaiter<>(vertx, "Pod",
+            (namespace, w) -> mock(Watch.class),
+            (namespace, name) -> pod(name, "Running"));
+
+        Async async = context.async();
+        waiter.waitFor(NAMESPACE, "pod-0", 60_000, 10_000, ResourceWaiterTest::isRunning, () -> false).setHandler(ar -> {
+            context.assertTrue(ar.succeeded());
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testWaiterTimesOut(TestContext context) {
+        ResourceWaiter<Pod> waiter = new ResourceWaiter<>(vertx, "Pod",
+            (namespace, w) -> mock(Watch.class),
+            (namespace, name) -> pod(name, "Pending"));
+
+        Async async = context.async();
+        waiter.waitFor(NAMESPACE, "pod-0", 20, 100, ResourceWaiterTest::isRunning, () -> false).setHandler(ar -> {
+            assertTrue(ar.failed());
+            assertThat(ar.cause(), instanceOf(TimeoutException.class));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testWaiterTimingOutBeforeRegistrationIsNotRegistered(TestContext context) throws InterruptedException {
+        ResourceWaiter<Pod> waiter = new ResourceWaiter<>(vertx, "Pod",
+            (namespace, w) -> mock(Watch.class),
+            (namespace, name) -> pod(name, "Pending"));
+
+        // With a 1ms timeout the timer usually fires before the worker registers the waiter
+        int waiters = 50;
+        Async async = context.async(waiters);
+        for (int i = 0; i < waiters; i++) {
+            waiter.waitFor(NAMESPACE, "pod-" + i, 20, 1, ResourceWaiterTest::isRunning, () -> false).setHandler(ar -> {
+                context.assertTrue(ar.failed());
+                async.countDown();
+            });
+        }
+        async.awaitSuccess();
+
+        // Registrations still running after the timeouts must not leave finished waiters behind
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (waiter.registeredWaiters(NAMESPACE) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, waiter.registeredWaiters(NAMESPACE));
+        Thread.sleep(100);
+        assertEquals(0, waiter.registeredWaiters(NAMESPACE));
+    }
+
+    @Test
+    public void testFallsBackToPollingWithoutWatch(TestContext context) {
+        AtomicInteger polls = new AtomicInteger();
+        ResourceWaiter<Pod> waiter = new ResourceWaiter<>(vertx, "Pod",
+            (namespace, w) -> {
+                throw new KubernetesClientException("Forbidden");
+            },
+            (namespace, name) -> pod(name, "Pending"));
+
+        Async async = context.async();
+        waiter.waitFor(NAMESPACE, "pod-0", 20, 5_000, ResourceWaiterTest::isRunning, () -> polls.incrementAndGet() == 3).setHandler(ar -> {
+            assertTrue(ar.succeeded());
+            assertEquals(3, polls.get());
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testFallsBackToPollingWhenWatchFails(TestContext context) throws InterruptedException {
+        List<Watcher<Pod>> watchers = new ArrayList<>();
+        AtomicInteger gets = new AtomicInteger();
+        ResourceWaiter<Pod> waiter = new ResourceWaiter<>(vertx, "Pod",
+            (namespace, w) -> {
+                watchers.add(w);
+                return mock(Watch.class);
+            },
+            (namespace, name) -> {
+                gets.incrementAndGet();
+                return pod(name, "Pending");
+            });
+
+        Async async = context.async();
+        waiter.waitFor(NAMESPACE, "pod-0", 20, 5_000, ResourceWaiterTest::isRunning, () -> true).setHandler(ar -> {
+            assertTrue(ar.succeeded());
+            async.complete();
+        });
+
+        while (gets.get() < 1) {
+            Thread.sleep(10);
+        }
+        watchers.get(0).onClose(new KubernetesClientException("Gone"));
+    }
+}
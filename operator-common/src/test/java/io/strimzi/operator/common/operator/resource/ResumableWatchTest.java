@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.vertx.core.Vertx;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ResumableWatchTest {
+
+    private static final String NAMESPACE = "test";
+
+    private static Vertx vertx;
+
+    private List<String> watchedVersions;
+    private AtomicReference<Watcher<Pod>> watcher;
+    private List<String> events;
+    private AtomicInteger closes;
+    private AtomicInteger relisted;
+    private Watch underlying;
+    private ResumableWatch<Pod> watch;
+
+    @BeforeClass
+    public static void before() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterClass
+    public static void after() {
+        vertx.close();
+    }
+
+    private static Pod pod(String name, String resourceVersion) {
+        return new PodBuilder()
+                .withNewMetadata()
+                    .withName(name)
+                    .withNamespace(NAMESPACE)
+                    .withResourceVersion(resourceVersion)
+                .endMetadata()
+                .build();
+    }
+
+    @Before
+    public void createWatch() {
+        watchedVersions = new CopyOnWriteArrayList<>();
+        watcher = new AtomicReference<>();
+        events = new CopyOnWriteArrayList<>();
+        closes = new AtomicInteger();
+        relisted = new AtomicInteger();
+        underlying = mock(Watch.class);
+        watch = new ResumableWatch<>(vertx, "Pod", NAMESPACE,
+            (namespace, resourceVersion, w) -> {
+                watchedVersions.add(String.valueOf(resourceVersion));
+                watcher.set(w);
+                return underlying;
+            },
+            new Watcher<Pod>() {
+                @Override
+                public void eventReceived(Action action, Pod resource) {
+                    events.add(action + " " + resource.getMetadata().getName());
+                }
+
+                @Override
+                public void onClose(KubernetesClientException cause) {
+                    closes.incrementAndGet();
+                }
+            },
+            relisted::incrementAndGet);
+    }
+
+    @Test
+    public void testResumesFromLastResourceVersion() throws InterruptedException {
+        watch.start();
+        watcher.get().eventReceived(Watcher.Action.ADDED, pod("pod-0", "5"));
+        watcher.get().eventReceived(Watcher.Action.MODIFIED, pod("pod-0", "7"));
+        watcher.get().onClose(new KubernetesClientException("Connection reset"));
+
+        waitFor(() -> watchedVersions.size() == 2);
+        assertEquals(asList("null", "7"), watchedVersions);
+        assertEquals(asList("ADDED pod-0", "MODIFIED pod-0"), events);
+        assertEquals(1, watch.restarts());
+        assertEquals(0, watch.relists());
+        assertEquals(0, relisted.get());
+        assertEquals(0, closes.get());
+    }
+
+    @Test
+    public void testRelistsWhenResourceVersionIsGone() throws InterruptedException {
+        watch.start();
+        watcher.get().eventReceived(Watcher.Action.ADDED, pod("pod-0", "5"));
+        watcher.get().onClose(new KubernetesClientException("Gone", 410, null));
+
+        waitFor(() -> relisted.get() == 1);
+        assertEquals(asList("null", "null"), watchedVersions);
+        assertEquals(0, watch.restarts());
+        assertEquals(1, watch.relists());
+        assertEquals(0, closes.get());
+    }
+
+    @Test
+    public void testErrorEventsWithoutResourceAreNotPassedOn() {
+        watch.start();
+        watcher.get().eventReceived(Watcher.Action.ERROR, null);
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testCloseDoesNotResume() throws InterruptedException {
+        watch.start();
+        watch.close();
+        verify(underlying).close();
+        assertEquals(1, closes.get());
+
+        watcher.get().onClose(new KubernetesClientException("Connection reset"));
+        Thread.sleep(ResumableWatch.RESTART_DELAY_MS * 2);
+        assertEquals(singletonList("null"), watchedVersions);
+        assertEquals(0, watch.restarts());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for the watch");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.tracing;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.openshift.client.server.mock.OpenShiftServer;
+import io.strimzi.operator.common.operator.resource.ConfigMapOperator;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(VertxUnitRunner.class)
+public class KubernetesApiCallsTest {
+
+    private static final String NAMESPACE = "ns";
+
+    @Rule
+    public OpenShiftServer server = new OpenShiftServer(false, true);
+
+    private Vertx vertx;
+
+    @Before
+    public void before() {
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void after() {
+        vertx.close();
+    }
+
+    private static void request(Span parent, String verb, String resource) {
+        parent.child(verb + " " + resource)
+                .tag(KubernetesApiTracing.VERB_TAG, verb)
+                .tag(KubernetesApiTracing.RESOURCE_TAG, resource)
+                .finish();
+    }
+
+    @Test
+    public void testCountsByStepVerbAndResource() {
+        Span root = Trace.start("Reconciliation #1", "reconcile", SpanExporter.NONE);
+        request(root, "get", "kafkas");
+        Span zkService = root.child("zkService");
+        request(zkService, "get", "services");
+        request(zkService, "patch", "services");
+        Span rollingUpdate = root.child("kafkaRollingUpdate");
+        Span nested = rollingUpdate.child("restart");
+        request(nested, "get", "pods");
+        request(nested, "get", "pods");
+        request(nested, "delete", "pods");
+        zkService.child("not a request").finish();
+        root.finish();
+
+        KubernetesApiCalls calls = KubernetesApiCalls.of(root.trace());
+        assertEquals(6, calls.total());
+        assertEquals(4, calls.count("get"));
+        assertEquals(2, calls.count("kafkaRollingUpdate", "get", "pods"));
+        assertEquals(1, calls.count("reconcile", null, null));
+        assertEquals(2, (int) calls.byStep().get("zkService"));
+        assertEquals(3, (int) calls.byStep().get("kafkaRollingUpdate"));
+        assertEquals("6 API request(s) (1 delete, 4 get, 1 patch)", calls.toString());
+
+        List<String> visited = new ArrayList<>();
+        calls.forEach((step, verb, resource, count) -> visited.add(step + " " + verb + " " + resource + " " + count));
+        assertEquals(5, visited.size());
+        assertEquals("kafkaRollingUpdate delete pods 1", visited.get(0));
+    }
+
+    @Test
+    public void testNoRequests() {
+        Span root = Trace.start("Reconciliation #2", "reconcile", SpanExporter.NONE);
+        root.finish();
+        KubernetesApiCalls calls = KubernetesApiCalls.of(root.trace());
+        assertEquals(0, calls.total());
+        assertEquals("0 API request(s)", calls.toString());
+    }
+
+    /**
+     * Reconciling a ConfigMap which doesn't exist yet should take one request to find it doesn't exist
+     * and one to create it, and reading it back one more, all counted against the step which made them.
+     */
+    @Test
+    public void testRequestsToMockServerAreCounted(TestContext context) {
+        vertx.createSharedWorkerExecutor("kubernetes-ops-pool", 10);
+        DefaultKubernetesClient client = KubernetesApiTracing.instrument(
+                new DefaultKubernetesClient(server.getKubernetesClient().getConfiguration()));
+        ConfigMapOperator operator = new ConfigMapOperator(vertx, client);
+        ConfigMap cm = new ConfigMapBuilder()
+                .withNewMetadata()
+                    .withNamespace(NAMESPACE)
+                    .withName("my-config")
+                .endMetadata()
+                .withData(singletonMap("key", "value"))
+                .build();
+
+        List<Trace> traces = new ArrayList<>();
+        Span root = Trace.start("Reconciliation #3", "reconcile", traces::add);
+        Span create = root.child("create");
+        Async async = context.async();
+        Tracing.callWith(create, () -> operator.reconcile(NAMESPACE, "my-config", cm)).setHandler(context.asyncAssertSuccess(created -> {
+            create.finish();
+            Span read = root.child("read");
+            Tracing.callWith(read, () -> operator.getAsync(NAMESPACE, "my-config")).setHandler(context.asyncAssertSuccess(got -> {
+                context.assertNotNull(got);
+                read.finish();
+                root.finish();
+
+                KubernetesApiCalls calls = KubernetesApiCalls.of(traces.get(0));
+                context.assertEquals(3, calls.total(), calls.toString());
+                context.assertEquals(1, calls.count("create", "get", "configmaps"));
+                context.assertEquals(1, calls.count("create", "create", "configmaps"));
+                context.assertEquals(1, calls.count("read", "get", "configmaps"));
+                async.complete();
+            }));
+        }));
+    }
+}
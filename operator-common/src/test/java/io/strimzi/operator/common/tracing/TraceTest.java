@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.tracing;
+
+import io.vertx.core.Handler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TraceTest {
+
+    @Test
+    public void testTraceIsExportedWhenRootFinishes() {
+        List<Trace> exported = new ArrayList<>();
+        Span root = Trace.start("Reconciliation #1", "reconcile", exported::add);
+        Span step = root.child("zkScaleDown");
+        Span request = step.child("get statefulsets").tag("http.status_code", "200");
+        request.finish();
+        step.finish();
+        assertTrue(exported.isEmpty());
+
+        root.finish();
+        root.finish();
+        assertEquals(1, exported.size());
+        Trace trace = exported.get(0);
+        assertEquals(3, trace.spans().size());
+        assertSame(root, trace.root());
+        assertSame(step, request.parent());
+        assertTrue(request.durationNanos() >= 0);
+        assertEquals("200", request.tags().get("http.status_code"));
+    }
+
+    @Test
+    public void testSummaryListsSlowestStepsWithTheirSpans() {
+        Span root = Trace.start("Reconciliation #2", "reconcile", SpanExporter.NONE);
+        Span fast = root.child("zkService");
+        fast.child("get services").finish();
+        fast.finish();
+        Span failed = root.child("kafkaStatefulSet");
+        failed.finish(new RuntimeException("boom"));
+        root.finish();
+
+        String summary = root.trace().summary();
+        assertTrue(summary, summary.startsWith("reconcile took "));
+        assertTrue(summary, summary.contains("with 3 span(s)"));
+        assertTrue(summary, summary.contains("zkService "));
+        assertTrue(summary, summary.contains("(1 span(s))"));
+        assertTrue(summary, summary.contains("kafkaStatefulSet "));
+        assertTrue(summary, summary.contains("[failed]"));
+        assertEquals("RuntimeException: boom", failed.error());
+    }
+
+    @Test
+    public void testJson() {
+        Span root = Trace.start("Reconciliation #3", "reconcile", SpanExporter.NONE);
+        Span child = root.child("get pods").tag("http.method", "GET");
+        assertEquals("{\"traceId\":\"Reconciliation #3\",\"id\":1,\"parentId\":0,\"name\":\"get pods\",\"timestamp\":" + child.startEpochMs() * 1_000
+                + ",\"tags\":{\"http.method\":\"GET\"}}", JsonSpanExporter.toJson(child));
+
+        List<String> lines = new ArrayList<>();
+        child.finish();
+        root.finish();
+        new JsonSpanExporter(lines::add).export(root.trace());
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1), lines.get(1).contains("\"duration\":"));
+    }
+
+    @Test
+    public void testPropagate() {
+        Span root = Trace.start("Reconciliation #4", "reconcile", SpanExporter.NONE);
+        List<Span> seen = new ArrayList<>();
+        Handler<Void> handler = Tracing.callWith(root, () -> Tracing.propagate(ignored -> seen.add(Tracing.current())));
+        assertNull(Tracing.current());
+
+        handler.handle(null);
+        assertSame(root, seen.get(0));
+        assertNull(Tracing.current());
+
+        Span other = root.child("other");
+        Tracing.callWith(other, () -> {
+            handler.handle(null);
+            assertSame(other, Tracing.current());
+            return null;
+        });
+        assertSame(root, seen.get(1));
+    }
+}
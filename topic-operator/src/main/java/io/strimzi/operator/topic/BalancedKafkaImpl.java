@@ -0,0 +1,226 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.strimzi.operator.common.process.ProcessHelper;
+import io.strimzi.operator.topic.balancer.BalancePlan;
+import io.strimzi.operator.topic.balancer.ClusterBalancer;
+import io.strimzi.operator.topic.balancer.LoadMonitor;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An implementation of {@link Kafka} which, on top of what {@link OperatorAssignedKafkaImpl} does, can
+ * {@linkplain #rebalance(TopicName, Handler) rebalance} topics according to the load of the brokers,
+ * which a {@link LoadMonitor} samples periodically and a {@link ClusterBalancer} plans the moves from.
+ */
+public class BalancedKafkaImpl extends OperatorAssignedKafkaImpl {
+
+    private final static Logger LOGGER = LogManager.getLogger(BalancedKafkaImpl.class);
+
+    private static final long REQUEST_TIMEOUT_MS = 60_000;
+
+    private final Config config;
+    private final LoadMonitor loadMonitor;
+    private final ClusterBalancer balancer;
+    private final long samplingTimerId;
+    private final Set<Long> verificationTimerIds = ConcurrentHashMap.newKeySet();
+
+    public BalancedKafkaImpl(AdminClient adminClient, Vertx vertx, Config config) {
+        this(adminClient, vertx, config,
+                new LoadMonitor(adminClient,
+                        config.get(Config.BALANCER_DISK_CAPACITY),
+                        config.get(Config.BALANCER_NETWORK_IN_CAPACITY),
+                        config.get(Config.BALANCER_NETWORK_OUT_CAPACITY),
+                        config.get(Config.BALANCER_CONSUMER_FAN_OUT),
+                        Math.min(REQUEST_TIMEOUT_MS, config.get(Config.BALANCER_SAMPLE_INTERVAL_MS))),
+                new ClusterBalancer(ClusterBalancer.defaultGoals(config.get(Config.BALANCER_CAPACITY_THRESHOLD)),
+                        config.get(Config.BALANCER_MAX_REPLICA_MOVEMENTS)));
+    }
+
+    BalancedKafkaImpl(AdminClient adminClient, Vertx vertx, Config config, LoadMonitor loadMonitor, ClusterBalancer balancer) {
+        super(adminClient, vertx, config);
+        this.config = config;
+        this.loadMonitor = loadMonitor;
+        this.balancer = balancer;
+        // The byte rates are derived from the growth of the partitions between samples,
+        // so sample periodically even when nothing is rebalanced
+        sample();
+        this.samplingTimerId = vertx.setPeriodic(config.get(Config.BALANCER_SAMPLE_INTERVAL_MS), timerId -> sample());
+    }
+
+    private void sample() {
+        vertx.executeBlocking(fut -> {
+            try {
+                loadMonitor.sample();
+                fut.complete();
+            } catch (Exception e) {
+                fut.fail(e);
+            }
+        }, false,
+            ar -> {
+                if (ar.failed()) {
+                    LOGGER.warn("Error sampling the load of the brokers", ar.cause());
+                }
+            });
+    }
+
+    @Override
+    public void stop() {
+        vertx.cancelTimer(samplingTimerId);
+        for (Long timerId : verificationTimerIds) {
+            vertx.cancelTimer(timerId);
+        }
+        verificationTimerIds.clear();
+        super.stop();
+    }
+
+    /**
+     * Plans the moves of the replicas and leaders of the topic's partitions from a snapshot of the load of the
+     * brokers, which has the current placement of the partitions and the byte rates of the latest periodic sample,
+     * and starts the reassignment moving the replicas. The handler is called once the reassignment has
+     * started; the reassignment is then verified periodically and, once it has completed, the leaders are moved
+     * by a preferred replica leader election. When no replica moves, the leaders are moved straight away.
+     * If another reassignment, such as a rebalance of the whole cluster by the Cluster Operator, is running,
+     * the handler fails with a {@link ReassignmentInProgressException}, and nothing is moved.
+     */
+    @Override
+    public void rebalance(TopicName topicName, Handler<AsyncResult<Void>> handler) {
+        final String zookeeper = config.get(Config.ZOOKEEPER_CONNECT);
+        vertx.<BalancePlan>executeBlocking(fut -> {
+            File reassignmentJsonFile = null;
+            try {
+                BalancePlan plan = balancer.plan(loadMonitor.snapshot(), p -> topicName.toString().equals(p.getTopic()));
+                LOGGER.info("Rebalancing topic {}: {}", topicName, plan);
+                if (plan.reassignment().isEmpty()) {
+                    if (!plan.leaderElections().isEmpty()) {
+                        electPreferredLeaders(plan.leaderElections(), zookeeper);
+                    }
+                } else {
+                    reassignmentJsonFile = ProcessHelper.createTmpFile("-reassignment.json");
+                    writeReassignment(plan.reassignment(), reassignmentJsonFile);
+                    final Long throttle = config.get(Config.REASSIGN_THROTTLE);
+                    LOGGER.debug("Starting reassignment for topic {} with throttle {}", topicName, throttle);
+                    executeReassignment(reassignmentJsonFile, zookeeper, throttle);
+                    verifyPeriodically(topicName, plan, reassignmentJsonFile, zookeeper);
+                }
+                fut.complete(plan);
+            } catch (Exception e) {
+                if (reassignmentJsonFile != null) {
+                    ProcessHelper.delete(reassignmentJsonFile);
+                }
+                fut.fail(e);
+            }
+        }, ar -> handler.handle(ar.map((Void) null)));
+    }
+
+    private void verifyPeriodically(TopicName topicName, BalancePlan plan, File reassignmentJsonFile, String zookeeper) {
+        final Long periodMs = config.get(Config.REASSIGN_VERIFY_INTERVAL_MS);
+        // Tracked, so that stop() cancels the verification of the reassignments still running
+        verificationTimerIds.add(vertx.setPeriodic(periodMs, timerId ->
+            vertx.<Boolean>executeBlocking(fut -> {
+                try {
+                    boolean complete = verifyReassignment(reassignmentJsonFile, zookeeper, config.get(Config.REASSIGN_THROTTLE));
+                    if (complete && !plan.leaderElections().isEmpty()) {
+                        electPreferredLeaders(plan.leaderElections(), zookeeper);
+                    }
+                    fut.complete(complete);
+                } catch (Exception e) {
+                    fut.fail(e);
+                }
+            },
+                ar -> {
+                    if (ar.failed()) {
+                        LOGGER.error("Error while rebalancing topic {}", topicName, ar.cause());
+                    } else if (ar.result()) {
+                        LOGGER.info("Rebalance of topic {} complete", topicName);
+                    } else {
+                        return;
+                    }
+                    ProcessHelper.delete(reassignmentJsonFile);
+                    vertx.cancelTimer(timerId);
+                    verificationTimerIds.remove(timerId);
+                })
+        ));
+    }
+
+    private void electPreferredLeaders(Collection<TopicPartition> partitions, String zookeeper) throws IOException, InterruptedException {
+        File electionJsonFile = ProcessHelper.createTmpFile("-election.json");
+        try {
+            try (JsonGenerator gen = new JsonFactory().createGenerator(electionJsonFile, JsonEncoding.UTF8)) {
+                gen.writeStartObject();
+                gen.writeArrayFieldStart("partitions");
+                for (TopicPartition partition : partitions) {
+                    gen.writeStartObject();
+                    gen.writeStringField("topic", partition.topic());
+                    gen.writeNumberField("partition", partition.partition());
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            List<String> electionArgs = new ArrayList<>();
+            addElectionJavaArgs(electionArgs);
+            electionArgs.add("--zookeeper");
+            electionArgs.add(zookeeper);
+            electionArgs.add("--path-to-json-file");
+            electionArgs.add(electionJsonFile.toString());
+            forEachLineStdout(ProcessHelper.executeSubprocess(electionArgs), line -> {
+                if (line.contains("Failed to start preferred replica election")) {
+                    throw new TransientOperatorException("Preferred replica leader election failed: " + line);
+                }
+                return null;
+            });
+        } finally {
+            ProcessHelper.delete(electionJsonFile);
+        }
+    }
+
+    protected void addElectionJavaArgs(List<String> args) {
+        // protected access only for testing purposes
+        args.add(System.getProperty("java.home") + "/bin/java");
+        args.add("-cp");
+        args.add(System.getProperty("java.class.path"));
+        args.add("kafka.admin.PreferredReplicaLeaderElectionCommand");
+    }
+
+    private static void writeReassignment(Map<TopicPartition, List<Integer>> reassignment, File file) throws IOException {
+        try (JsonGenerator gen = new JsonFactory().createGenerator(file, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeNumberField("version", 1);
+            gen.writeArrayFieldStart("partitions");
+            for (Map.Entry<TopicPartition, List<Integer>> entry : reassignment.entrySet()) {
+                gen.writeStartObject();
+                gen.writeStringField("topic", entry.getKey().topic());
+                gen.writeNumberField("partition", entry.getKey().partition());
+                gen.writeArrayFieldStart("replicas");
+                for (int broker : entry.getValue()) {
+                    gen.writeNumber(broker);
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+}
@@ -26,7 +26,7 @@ import java.util.concurrent.ExecutionException;
 /**
  * Partial implementation of {@link Kafka} omitting those methods which imply a partition assignment.
  * Subclasses will need to implement those method according to their own semantics.
- * For example it is anticipated that one subclass will delegate to a "cluster balancer" so that cluster-wide,
+ * For example {@link BalancedKafkaImpl} delegates to a "cluster balancer" so that cluster-wide,
  * traffic-aware assignments can be done.
  */
 public abstract class BaseKafkaImpl implements Kafka {
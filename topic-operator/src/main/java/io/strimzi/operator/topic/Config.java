@@ -46,6 +46,14 @@ public class Config {
         }
     };
 
+    /** A Java Double */
+    private static final Type<? extends Double> DOUBLE = new Type<Double>() {
+        @Override
+        Double parse(String s) {
+            return Double.parseDouble(s);
+        }
+    };
+
     /**
      * A time duration.
      */
@@ -100,6 +108,15 @@ public class Config {
     public static final String TC_REASSIGN_VERIFY_INTERVAL_MS = "STRIMZI_REASSIGN_VERIFY_INTERVAL_MS";
     public static final String TC_TOPIC_METADATA_MAX_ATTEMPTS = "STRIMZI_TOPIC_METADATA_MAX_ATTEMPTS";
 
+    public static final String TC_BALANCER_ENABLED = "STRIMZI_BALANCER_ENABLED";
+    public static final String TC_BALANCER_SAMPLE_INTERVAL_MS = "STRIMZI_BALANCER_SAMPLE_INTERVAL_MS";
+    public static final String TC_BALANCER_MAX_REPLICA_MOVEMENTS = "STRIMZI_BALANCER_MAX_REPLICA_MOVEMENTS";
+    public static final String TC_BALANCER_CAPACITY_THRESHOLD = "STRIMZI_BALANCER_CAPACITY_THRESHOLD";
+    public static final String TC_BALANCER_DISK_CAPACITY = "STRIMZI_BALANCER_DISK_CAPACITY";
+    public static final String TC_BALANCER_NETWORK_IN_CAPACITY = "STRIMZI_BALANCER_NETWORK_IN_CAPACITY";
+    public static final String TC_BALANCER_NETWORK_OUT_CAPACITY = "STRIMZI_BALANCER_NETWORK_OUT_CAPACITY";
+    public static final String TC_BALANCER_CONSUMER_FAN_OUT = "STRIMZI_BALANCER_CONSUMER_FAN_OUT";
+
     public static final String TC_TLS_ENABLED = "STRIMZI_TLS_ENABLED";
     public static final String TC_TLS_TRUSTSTORE_LOCATION = "STRIMZI_TRUSTSTORE_LOCATION";
     public static final String TC_TLS_TRUSTSTORE_PASSWORD = "STRIMZI_TRUSTSTORE_PASSWORD";
@@ -141,6 +158,23 @@ public class Config {
     /** The maximum number of retries for getting topic metadata from the Kafka cluster */
     public static final Value<Integer> TOPIC_METADATA_MAX_ATTEMPTS = new Value<>(TC_TOPIC_METADATA_MAX_ATTEMPTS, POSITIVE_INTEGER, "6");
 
+    /** If topics can be rebalanced according to the load of the brokers */
+    public static final Value<String> BALANCER_ENABLED = new Value<>(TC_BALANCER_ENABLED, STRING, "false");
+    /** The interval between samples of the load of the brokers, which the byte rates are derived from */
+    public static final Value<Long> BALANCER_SAMPLE_INTERVAL_MS = new Value<>(TC_BALANCER_SAMPLE_INTERVAL_MS, DURATION, "300000");
+    /** The maximum number of partition replicas moved by one rebalance */
+    public static final Value<Integer> BALANCER_MAX_REPLICA_MOVEMENTS = new Value<>(TC_BALANCER_MAX_REPLICA_MOVEMENTS, POSITIVE_INTEGER, "50");
+    /** The share of the capacity of the brokers which their load should stay below */
+    public static final Value<Double> BALANCER_CAPACITY_THRESHOLD = new Value<>(TC_BALANCER_CAPACITY_THRESHOLD, DOUBLE, "0.8");
+    /** The disk space of each broker, in bytes, or 0 if unknown */
+    public static final Value<Long> BALANCER_DISK_CAPACITY = new Value<>(TC_BALANCER_DISK_CAPACITY, LONG, "0");
+    /** The incoming network bandwidth of each broker, in bytes per second, or 0 if unknown */
+    public static final Value<Long> BALANCER_NETWORK_IN_CAPACITY = new Value<>(TC_BALANCER_NETWORK_IN_CAPACITY, LONG, "0");
+    /** The outgoing network bandwidth of each broker, in bytes per second, or 0 if unknown */
+    public static final Value<Long> BALANCER_NETWORK_OUT_CAPACITY = new Value<>(TC_BALANCER_NETWORK_OUT_CAPACITY, LONG, "0");
+    /** How many times the data produced to a partition is consumed, on average */
+    public static final Value<Double> BALANCER_CONSUMER_FAN_OUT = new Value<>(TC_BALANCER_CONSUMER_FAN_OUT, DOUBLE, "1");
+
     /** If the connection with Kafka has to be encrypted by TLS protocol */
     public static final Value<String> TLS_ENABLED = new Value<>(TC_TLS_ENABLED, STRING, "false");
     /** The truststore with CA certificate for Kafka broker/server authentication */
@@ -164,6 +198,14 @@ public class Config {
         addConfigValue(configValues, REASSIGN_THROTTLE);
         addConfigValue(configValues, REASSIGN_VERIFY_INTERVAL_MS);
         addConfigValue(configValues, TOPIC_METADATA_MAX_ATTEMPTS);
+        addConfigValue(configValues, BALANCER_ENABLED);
+        addConfigValue(configValues, BALANCER_SAMPLE_INTERVAL_MS);
+        addConfigValue(configValues, BALANCER_MAX_REPLICA_MOVEMENTS);
+        addConfigValue(configValues, BALANCER_CAPACITY_THRESHOLD);
+        addConfigValue(configValues, BALANCER_DISK_CAPACITY);
+        addConfigValue(configValues, BALANCER_NETWORK_IN_CAPACITY);
+        addConfigValue(configValues, BALANCER_NETWORK_OUT_CAPACITY);
+        addConfigValue(configValues, BALANCER_CONSUMER_FAN_OUT);
         addConfigValue(configValues, TLS_ENABLED);
         addConfigValue(configValues, TLS_TRUSTSTORE_LOCATION);
         addConfigValue(configValues, TLS_TRUSTSTORE_PASSWORD);
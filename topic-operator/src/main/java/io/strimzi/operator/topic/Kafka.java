@@ -72,5 +72,12 @@ public interface Kafka {
      */
     void listTopics(Handler<AsyncResult<Set<String>>> handler);
 
+    /**
+     * Asynchronously move the replicas and leaders of the topic's partitions to balance
+     * the load of the brokers. Invoke the given handler once the moves have started.
+     * If the operation fails the given handler will be called with a failed AsyncResult.
+     */
+    void rebalance(TopicName topicName, Handler<AsyncResult<Void>> handler);
+
 }
 
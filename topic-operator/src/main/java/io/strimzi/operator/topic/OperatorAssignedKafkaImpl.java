@@ -185,6 +185,16 @@ public class OperatorAssignedKafkaImpl extends BaseKafkaImpl {
 
 
 
+    /**
+     * Partition assignments are left to Kafka, so there is nothing to balance: fails the handler.
+     * {@link BalancedKafkaImpl} balances the load of the brokers.
+     */
+    @Override
+    public void rebalance(TopicName topicName, Handler<AsyncResult<Void>> handler) {
+        handler.handle(Future.failedFuture(new OperatorException(
+                "Cannot rebalance topic " + topicName + ": the balancer is not enabled (" + Config.TC_BALANCER_ENABLED + ")")));
+    }
+
     private static class VerifyLineParser implements Function<String, Void> {
         int complete = 0;
         int inProgress = 0;
@@ -203,7 +213,7 @@ public class OperatorAssignedKafkaImpl extends BaseKafkaImpl {
         }
     }
 
-    private <T> T forEachLineStdout(ProcessHelper.ProcessResult pr, Function<String, T> fn) throws IOException {
+    protected <T> T forEachLineStdout(ProcessHelper.ProcessResult pr, Function<String, T> fn) throws IOException {
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(
                 // Use platform default charset, on assumption that
                 // the ReassignPartitionsCommand will output in that
@@ -221,7 +231,7 @@ public class OperatorAssignedKafkaImpl extends BaseKafkaImpl {
         }
     }
 
-    private boolean verifyReassignment(File reassignmentJsonFile, String zookeeper, Long throttle) throws IOException, InterruptedException {
+    protected boolean verifyReassignment(File reassignmentJsonFile, String zookeeper, Long throttle) throws IOException, InterruptedException {
         List<String> verifyArgs = new ArrayList<>();
         addJavaArgs(verifyArgs);
         // command args
@@ -240,7 +250,7 @@ public class OperatorAssignedKafkaImpl extends BaseKafkaImpl {
         return verifyLineParser.inProgress == 0;
     }
 
-    private void executeReassignment(File reassignmentJsonFile, String zookeeper, Long throttle) throws IOException, InterruptedException {
+    protected void executeReassignment(File reassignmentJsonFile, String zookeeper, Long throttle) throws IOException, InterruptedException {
         List<String> executeArgs = new ArrayList<>();
         addJavaArgs(executeArgs);
         executeArgs.add("--zookeeper");
@@ -254,8 +264,9 @@ public class OperatorAssignedKafkaImpl extends BaseKafkaImpl {
         executeArgs.add("--execute");
 
         if (!forEachLineStdout(ProcessHelper.executeSubprocess(executeArgs), line -> {
-            if (line.contains("Partitions reassignment failed due to")
-                    || line.contains("There is an existing assignment running")
+            if (line.contains("There is an existing assignment running")) {
+                throw new ReassignmentInProgressException("Reassignment not started: " + line);
+            } else if (line.contains("Partitions reassignment failed due to")
                     || line.contains("Failed to reassign partitions")) {
                 throw new TransientOperatorException("Reassigment failed: " + line);
             } else if (line.contains("Successfully started reassignment of partitions.")) {
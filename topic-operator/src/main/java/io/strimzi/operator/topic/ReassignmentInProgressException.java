@@ -0,0 +1,16 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+/**
+ * Thrown when a partition reassignment cannot be started because another one, which may have been started by the
+ * Cluster Operator or by hand, is running. Kafka runs a single reassignment at a time.
+ */
+public class ReassignmentInProgressException extends TransientOperatorException {
+
+    public ReassignmentInProgressException(String message) {
+        super(message);
+    }
+}
@@ -6,10 +6,13 @@ package io.strimzi.operator.topic;
 
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
 import io.strimzi.api.kafka.Crds;
 import io.strimzi.api.kafka.KafkaTopicList;
 import io.strimzi.api.kafka.model.DoneableKafkaTopic;
 import io.strimzi.api.kafka.model.KafkaTopic;
+import io.strimzi.operator.common.operator.resource.ResumableWatch;
 import io.strimzi.operator.topic.zk.Zk;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Future;
@@ -127,7 +130,9 @@ public class Session extends AbstractVerticle {
 
         this.adminClient = AdminClient.create(adminClientProps);
         LOGGER.debug("Using AdminClient {}", adminClient);
-        this.kafka = new OperatorAssignedKafkaImpl(adminClient, vertx, config);
+        this.kafka = Boolean.valueOf(config.get(Config.BALANCER_ENABLED))
+                ? new BalancedKafkaImpl(adminClient, vertx, config)
+                : new OperatorAssignedKafkaImpl(adminClient, vertx, config);
         LOGGER.debug("Using Kafka {}", kafka);
         LabelPredicate resourcePredicate = config.get(Config.LABELS);
 
@@ -157,7 +162,16 @@ public class Session extends AbstractVerticle {
 
         Thread resourceThread = new Thread(() -> {
             LOGGER.debug("Watching KafkaTopics matching {}", resourcePredicate);
-            Session.this.topicWatch = kubeClient.customResources(Crds.topic(), KafkaTopic.class, KafkaTopicList.class, DoneableKafkaTopic.class).inNamespace(namespace).watch(new K8sTopicWatcher(topicOperator, resourcePredicate));
+            // Resume the watch from the last seen resourceVersion when the API server closes it,
+            // and only reconcile all the topics if that resourceVersion is gone
+            Session.this.topicWatch = new ResumableWatch<KafkaTopic>(vertx, "KafkaTopic", namespace,
+                (ns, resourceVersion, watcher) -> {
+                    FilterWatchListDeletable<KafkaTopic, KafkaTopicList, Boolean, Watch, Watcher<KafkaTopic>> topics =
+                            kubeClient.customResources(Crds.topic(), KafkaTopic.class, KafkaTopicList.class, DoneableKafkaTopic.class).inNamespace(ns);
+                    return resourceVersion == null ? topics.watch(watcher) : topics.withResourceVersion(resourceVersion).watch(watcher);
+                },
+                new K8sTopicWatcher(topicOperator, resourcePredicate),
+                () -> topicOperator.reconcileAllTopics("watch relist")).start();
             LOGGER.debug("Watching setup");
 
             // start the HTTP server for healthchecks
@@ -7,6 +7,8 @@ package io.strimzi.operator.topic;
 import io.fabric8.kubernetes.api.model.EventBuilder;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.strimzi.api.kafka.model.KafkaTopic;
+import io.strimzi.api.kafka.model.KafkaTopicBuilder;
+import io.strimzi.operator.common.Annotations;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
@@ -31,6 +33,14 @@ public class TopicOperator {
 
     private final static Logger LOGGER = LogManager.getLogger(TopicOperator.class);
     private final static Logger EVENT_LOGGER = LogManager.getLogger("Event");
+
+    /**
+     * Annotation requesting the topic to be rebalanced according to the load of the brokers.
+     * It is removed once the rebalance has started. While another reassignment is running, the rebalance
+     * is retried by the periodic reconciliations.
+     */
+    public static final String ANNO_STRIMZI_IO_REBALANCE = Annotations.STRIMZI_DOMAIN + "/rebalance";
+
     private final Kafka kafka;
     private final K8s k8s;
     private final Vertx vertx;
@@ -303,6 +313,59 @@ public class TopicOperator {
         }
     }
 
+    /** KafkaTopic annotated for rebalancing in k8s */
+    class RebalanceKafkaTopic implements Handler<Void> {
+
+        private final KafkaTopic topicResource;
+        private final Handler<AsyncResult<Void>> handler;
+
+        public RebalanceKafkaTopic(KafkaTopic topicResource, Handler<AsyncResult<Void>> handler) {
+            this.topicResource = topicResource;
+            this.handler = handler;
+        }
+
+        @Override
+        public void handle(Void v) throws OperatorException {
+            TopicName topicName = new TopicName(topicResource);
+            LOGGER.info("Rebalancing topic '{}'", topicName);
+            kafka.rebalance(topicName, ar -> {
+                if (ar.failed() && ar.cause() instanceof ReassignmentInProgressException) {
+                    // Keep the annotation, so that the rebalance is retried by the next periodic reconciliation
+                    LOGGER.info("Deferring the rebalance of topic '{}': {}", topicName, ar.cause().getMessage());
+                    enqueue(new Event(topicResource, "Rebalance deferred until the running partition reassignment completes",
+                            EventType.INFO, eventResult -> { }));
+                    handler.handle(Future.succeededFuture());
+                } else if (ar.failed()) {
+                    // Keep the annotation, so that the rebalance is retried when the KafkaTopic next changes
+                    enqueue(new Event(topicResource, ar.cause().toString(), EventType.WARNING, eventResult -> { }));
+                    handler.handle(ar);
+                } else {
+                    removeAnnotation();
+                }
+            });
+        }
+
+        /** Removes the annotation from the current KafkaTopic, which the reconciliation may have updated */
+        private void removeAnnotation() {
+            k8s.getFromName(new ResourceName(topicResource), ar -> {
+                if (ar.failed()) {
+                    handler.handle(ar.map((Void) null));
+                } else if (ar.result() == null || !Annotations.annotations(ar.result()).containsKey(ANNO_STRIMZI_IO_REBALANCE)) {
+                    handler.handle(Future.succeededFuture());
+                } else {
+                    KafkaTopic withoutAnnotation = new KafkaTopicBuilder(ar.result()).build();
+                    Annotations.annotations(withoutAnnotation).remove(ANNO_STRIMZI_IO_REBALANCE);
+                    k8s.updateResource(withoutAnnotation, handler);
+                }
+            });
+        }
+
+        @Override
+        public String toString() {
+            return "RebalanceKafkaTopic(topicName=" + new TopicName(topicResource) + ")";
+        }
+    }
+
     /** KafkaTopic deleted in k8s */
     class DeleteKafkaTopic implements Handler<Void> {
 
@@ -360,10 +423,12 @@ public class TopicOperator {
                             Topic privateTopic = ar.result().resultAt(0);
                             TopicMetadata kafkaTopicMeta = ar.result().resultAt(1);
                             Topic kafkaTopic = TopicSerialization.fromTopicMetadata(kafkaTopicMeta);
+                            // Retry the rebalances which had to wait for another reassignment
+                            Handler<AsyncResult<Void>> done = topicResource != null ? rebalanceIfRequested(topicResource, fut) : fut;
                             reconcile(topicResource, k8sTopic, kafkaTopic, privateTopic, reconcileResult -> {
                                 if (reconcileResult.succeeded()) {
                                     LOGGER.info("Success reconciling KafkaTopic {}", logTopic(topicResource));
-                                    fut.complete();
+                                    done.handle(Future.succeededFuture());
                                 } else {
                                     LOGGER.error("Error reconciling KafkaTopic {}", logTopic(topicResource), reconcileResult.cause());
                                     fut.fail(reconcileResult.cause());
@@ -761,7 +826,8 @@ public class TopicOperator {
             Handler<Future<Void>> action = new Reconciliation("onResourceAdded") {
                 @Override
                 public void handle(Future<Void> fut) {
-                    TopicOperator.this.reconcileOnResourceChange(addedTopic, k8sTopic, false, fut);
+                    TopicOperator.this.reconcileOnResourceChange(addedTopic, k8sTopic, false,
+                            rebalanceIfRequested(addedTopic, fut));
                 }
             };
             inFlight.enqueue(new TopicName(addedTopic), action, resultHandler);
@@ -796,7 +862,8 @@ public class TopicOperator {
             Reconciliation action = new Reconciliation("onResourceModified") {
                 @Override
                 public void handle(Future<Void> fut) {
-                    TopicOperator.this.reconcileOnResourceChange(modifiedTopic, k8sTopic, true, fut);
+                    TopicOperator.this.reconcileOnResourceChange(modifiedTopic, k8sTopic, true,
+                            rebalanceIfRequested(modifiedTopic, fut));
                 }
             };
             inFlight.enqueue(new TopicName(modifiedTopic), action, resultHandler);
@@ -805,6 +872,24 @@ public class TopicOperator {
         }
     }
 
+    /**
+     * @return The given handler if the given KafkaTopic isn't annotated with {@link #ANNO_STRIMZI_IO_REBALANCE},
+     * otherwise a handler which, once the KafkaTopic has been reconciled, rebalances the topic before calling
+     * the given handler.
+     */
+    private Handler<AsyncResult<Void>> rebalanceIfRequested(KafkaTopic topicResource, Handler<AsyncResult<Void>> handler) {
+        if (!Annotations.booleanAnnotation(topicResource, ANNO_STRIMZI_IO_REBALANCE, false)) {
+            return handler;
+        }
+        return reconcileResult -> {
+            if (reconcileResult.succeeded()) {
+                enqueue(new RebalanceKafkaTopic(topicResource, handler));
+            } else {
+                handler.handle(reconcileResult);
+            }
+        };
+    }
+
     private void reconcileOnResourceChange(KafkaTopic topicResource, Topic k8sTopic, boolean isModify, Handler<AsyncResult<Void>> handler) {
         TopicName topicName = new TopicName(topicResource);
         Future<TopicMetadata> f1 = Future.future();
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+/**
+ * A change to the {@link ClusterModel}: moving a replica of a partition from a broker to another, which moves data,
+ * or moving the leadership of a partition from a replica to another, which doesn't.
+ */
+public final class Action {
+
+    private final int partition;
+    private final int from;
+    private final int to;
+    private final boolean leadership;
+
+    private Action(int partition, int from, int to, boolean leadership) {
+        this.partition = partition;
+        this.from = from;
+        this.to = to;
+        this.leadership = leadership;
+    }
+
+    /**
+     * @param partition The index of the partition in the model
+     * @param from The index of the broker hosting the replica
+     * @param to The index of the broker to move the replica to
+     * @return The action moving the replica.
+     */
+    public static Action moveReplica(int partition, int from, int to) {
+        return new Action(partition, from, to, false);
+    }
+
+    /**
+     * @param partition The index of the partition in the model
+     * @param from The index of the broker hosting the leader
+     * @param to The index of the broker hosting the follower to become the leader
+     * @return The action moving the leadership.
+     */
+    public static Action moveLeadership(int partition, int from, int to) {
+        return new Action(partition, from, to, true);
+    }
+
+    /**
+     * @return The action undoing this one.
+     */
+    public Action reverse() {
+        return new Action(partition, to, from, leadership);
+    }
+
+    public int partition() {
+        return partition;
+    }
+
+    public int from() {
+        return from;
+    }
+
+    public int to() {
+        return to;
+    }
+
+    public boolean isLeadership() {
+        return leadership;
+    }
+
+    @Override
+    public String toString() {
+        return (leadership ? "moveLeadership(" : "moveReplica(") + partition + ", " + from + ", " + to + ")";
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The plan of the {@link ClusterBalancer}: the reassignment moving the replicas, and the preferred leader elections
+ * moving the leaderships once the reassignment has completed.
+ */
+public class BalancePlan {
+
+    private static final Comparator<TopicPartition> ORDER =
+            Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition);
+
+    private final Map<TopicPartition, List<Integer>> reassignment = new TreeMap<>(ORDER);
+    private final Set<TopicPartition> leaderElections = new LinkedHashSet<>();
+    private final int replicaMovements;
+    private final long bytesToMove;
+    private final double initialCost;
+    private final double finalCost;
+
+    BalancePlan(ClusterModel model, double initialCost, double finalCost) {
+        int replicas = 0;
+        long bytes = 0;
+        for (int p = 0; p < model.partitions(); p++) {
+            ClusterLoad.Partition partition = model.partition(p);
+            TopicPartition tp = new TopicPartition(partition.getTopic(), partition.getPartition());
+            List<Integer> brokers = new ArrayList<>(model.replicas(p).size());
+            for (int i = 0; i < model.replicas(p).size(); i++) {
+                int b = model.replicas(p).get(i);
+                brokers.add(b < 0 ? partition.getReplicas().get(i) : model.broker(b).getId());
+            }
+            int leader = model.leader(p) < 0 ? -1 : model.broker(model.leader(p)).getId();
+            if (leader >= 0 && leader != partition.getLeader()) {
+                // The new leader becomes the preferred leader, which the election then makes the leader
+                brokers.remove((Integer) leader);
+                brokers.add(0, leader);
+                leaderElections.add(tp);
+            }
+            if (!brokers.equals(partition.getReplicas())) {
+                reassignment.put(tp, brokers);
+                for (int id : brokers) {
+                    if (!partition.getReplicas().contains(id)) {
+                        replicas++;
+                        bytes += partition.getSize();
+                    }
+                }
+            }
+        }
+        this.replicaMovements = replicas;
+        this.bytesToMove = bytes;
+        this.initialCost = initialCost;
+        this.finalCost = finalCost;
+    }
+
+    /** @return The new replicas of the partitions whose replicas change, the preferred leader first. */
+    public Map<TopicPartition, List<Integer>> reassignment() {
+        return Collections.unmodifiableMap(reassignment);
+    }
+
+    /**
+     * @return The partitions whose leader changes, by a preferred leader election once the reassignment has completed.
+     * The replicas of some of them may only change order, or not at all when the new leader already is the preferred one.
+     */
+    public Set<TopicPartition> leaderElections() {
+        return Collections.unmodifiableSet(leaderElections);
+    }
+
+    /** @return The number of replicas moved to another broker, each of which copies its partition. */
+    public int replicaMovements() {
+        return replicaMovements;
+    }
+
+    /** @return The number of leaderships moved to another replica. */
+    public int leadershipMovements() {
+        return leaderElections.size();
+    }
+
+    /** @return The number of bytes copied to the brokers the replicas are moved to. */
+    public long bytesToMove() {
+        return bytesToMove;
+    }
+
+    /** @return The cost of the cluster before the plan. */
+    public double initialCost() {
+        return initialCost;
+    }
+
+    /** @return The cost of the cluster after the plan. */
+    public double finalCost() {
+        return finalCost;
+    }
+
+    /** @return Whether the plan doesn't change anything. */
+    public boolean isEmpty() {
+        return reassignment.isEmpty() && leaderElections.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BalancePlan(replicaMovements=" + replicaMovements +
+                ", leadershipMovements=" + leaderElections.size() +
+                ", bytesToMove=" + bytesToMove +
+                ", cost=" + initialCost + "->" + finalCost + ")";
+    }
+}
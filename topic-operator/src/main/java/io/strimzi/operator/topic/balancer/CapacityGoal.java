@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+/**
+ * Keeps the load of a resource of each broker below a share of its capacity: actions adding load to a broker above
+ * that share are refused, and the load above it is a high cost, so that it is moved off first.
+ * Brokers whose capacity is unknown are not constrained.
+ */
+public class CapacityGoal implements Goal {
+
+    /** The cost of each unit of utilization above the threshold, much higher than the costs of an even distribution. */
+    private static final double EXCESS_COST = 1_000;
+
+    private final Resource resource;
+    private final double threshold;
+
+    /**
+     * @param resource The resource
+     * @param threshold The share of the capacity, between 0 and 1
+     */
+    public CapacityGoal(Resource resource, double threshold) {
+        this.resource = resource;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public boolean allows(ClusterModel model, Action action) {
+        int to = action.to();
+        if (model.capacity(to, resource) <= 0 || model.utilization(to, resource) <= threshold) {
+            return true;
+        }
+        // Only refuse actions which add load to the broker
+        int p = action.partition();
+        double added = action.isLeadership()
+                ? model.replicaLoad(p, resource, true) - model.replicaLoad(p, resource, false)
+                : model.replicaLoad(p, resource, model.leader(p) == to);
+        return added <= 0;
+    }
+
+    @Override
+    public double cost(ClusterModel model, int broker) {
+        if (model.capacity(broker, resource) <= 0) {
+            return 0;
+        }
+        return EXCESS_COST * Math.max(0, model.utilization(broker, resource) - threshold);
+    }
+
+    @Override
+    public String toString() {
+        return "CapacityGoal(" + resource + ", " + threshold + ")";
+    }
+}
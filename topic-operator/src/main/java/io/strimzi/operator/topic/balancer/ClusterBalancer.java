@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * <p>Plans how to balance the load of a cluster, given a {@link ClusterLoad} snapshot and a list of {@link Goal}s.</p>
+ *
+ * <p>The plan is found greedily: at each step the action lowering the sum of the costs of the goals the most,
+ * among those all the goals allow, is applied to a {@link ClusterModel}, until no action lowers it.
+ * Only the costs of the two brokers of an action change, so each candidate action is cheap to evaluate.
+ * Moving leaderships doesn't move data, so the leaderships are balanced first, then at most
+ * {@code maxReplicaMovements} replicas are moved, then the leaderships are balanced again.</p>
+ */
+public class ClusterBalancer {
+
+    private static final Logger LOGGER = LogManager.getLogger(ClusterBalancer.class);
+
+    /** The smallest lowering of the cost worth an action, so that rounding errors don't cause useless moves. */
+    private static final double MIN_IMPROVEMENT = 1e-9;
+
+    private final List<Goal> goals;
+    private final int maxReplicaMovements;
+
+    /**
+     * @param goals The goals, which the cost of the cluster is the sum of the costs of
+     * @param maxReplicaMovements The maximum number of replicas moved by a plan
+     */
+    public ClusterBalancer(List<Goal> goals, int maxReplicaMovements) {
+        this.goals = unmodifiableList(new ArrayList<>(goals));
+        this.maxReplicaMovements = maxReplicaMovements;
+    }
+
+    /**
+     * @param capacityThreshold The share of the capacity of the brokers their load should stay below
+     * @return The goals keeping the replicas of each partition in as many racks, the load of the brokers below the
+     * given share of their capacity, and the load of each resource evenly spread.
+     */
+    public static List<Goal> defaultGoals(double capacityThreshold) {
+        return asList(
+                new RackAwareGoal(),
+                new CapacityGoal(Resource.DISK, capacityThreshold),
+                new CapacityGoal(Resource.NETWORK_IN, capacityThreshold),
+                new CapacityGoal(Resource.NETWORK_OUT, capacityThreshold),
+                new DistributionGoal(Resource.DISK, 1),
+                new DistributionGoal(Resource.NETWORK_IN, 1),
+                new DistributionGoal(Resource.NETWORK_OUT, 1),
+                new DistributionGoal(Resource.LEADERS, 1));
+    }
+
+    public List<Goal> goals() {
+        return goals;
+    }
+
+    /**
+     * @param snapshot The load of the cluster
+     * @param movable Which partitions the plan may change
+     * @return The plan.
+     */
+    public BalancePlan plan(ClusterLoad snapshot, Predicate<ClusterLoad.Partition> movable) {
+        ClusterModel model = new ClusterModel(snapshot);
+        double initialCost = cost(model);
+        optimize(model, movable, true, model.partitions());
+        optimize(model, movable, false, maxReplicaMovements);
+        optimize(model, movable, true, model.partitions());
+        BalancePlan plan = new BalancePlan(model, initialCost, cost(model));
+        LOGGER.debug("Planned {}", plan);
+        return plan;
+    }
+
+    /**
+     * Applies the best actions of the given kind to the model, until none lowers the cost or the maximum number
+     * of actions has been applied.
+     */
+    private void optimize(ClusterModel model, Predicate<ClusterLoad.Partition> movable, boolean leadership, int maxActions) {
+        int applied = 0;
+        while (applied < maxActions) {
+            Action best = bestAction(model, movable, leadership);
+            if (best == null) {
+                break;
+            }
+            LOGGER.trace("Applying {}", best);
+            model.apply(best);
+            applied++;
+        }
+    }
+
+    private Action bestAction(ClusterModel model, Predicate<ClusterLoad.Partition> movable, boolean leadership) {
+        Action best = null;
+        double bestDelta = -MIN_IMPROVEMENT;
+        for (int p = 0; p < model.partitions(); p++) {
+            if (!movable.test(model.partition(p))) {
+                continue;
+            }
+            List<Integer> replicas = new ArrayList<>(model.replicas(p));
+            List<Action> candidates = new ArrayList<>();
+            if (leadership) {
+                int leader = model.leader(p);
+                for (int b : replicas) {
+                    if (leader >= 0 && b >= 0 && b != leader) {
+                        candidates.add(Action.moveLeadership(p, leader, b));
+                    }
+                }
+            } else {
+                for (int from : replicas) {
+                    for (int to = 0; from >= 0 && to < model.brokers(); to++) {
+                        if (!replicas.contains(to)) {
+                            candidates.add(Action.moveReplica(p, from, to));
+                        }
+                    }
+                }
+            }
+            for (Action candidate : candidates) {
+                double delta = delta(model, candidate);
+                if (delta < bestDelta) {
+                    best = candidate;
+                    bestDelta = delta;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return How much the given action changes the cost, or positive infinity if a goal refuses it.
+     */
+    private double delta(ClusterModel model, Action action) {
+        double before = cost(model, action.from()) + cost(model, action.to());
+        model.apply(action);
+        try {
+            for (Goal goal : goals) {
+                if (!goal.allows(model, action)) {
+                    return Double.POSITIVE_INFINITY;
+                }
+            }
+            return cost(model, action.from()) + cost(model, action.to()) - before;
+        } finally {
+            model.apply(action.reverse());
+        }
+    }
+
+    private double cost(ClusterModel model, int broker) {
+        double cost = 0;
+        for (Goal goal : goals) {
+            cost += goal.cost(model, broker);
+        }
+        return cost;
+    }
+
+    /**
+     * @return The cost of the whole cluster.
+     */
+    double cost(ClusterModel model) {
+        double cost = 0;
+        for (int b = 0; b < model.brokers(); b++) {
+            cost += cost(model, b);
+        }
+        return cost;
+    }
+}
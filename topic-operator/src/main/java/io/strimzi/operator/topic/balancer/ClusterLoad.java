@@ -0,0 +1,224 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>A snapshot of the load of a Kafka cluster: its brokers, with their capacity, and its partitions, with their
+ * replicas and the load they put on the brokers hosting them.</p>
+ *
+ * <p>Snapshots are written as JSON by the {@link LoadMonitor}, so that the plans of the {@link ClusterBalancer} can be
+ * reproduced offline from recorded snapshots.</p>
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ClusterLoad {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private List<Broker> brokers = new ArrayList<>();
+    private List<Partition> partitions = new ArrayList<>();
+
+    public List<Broker> getBrokers() {
+        return brokers;
+    }
+
+    public void setBrokers(List<Broker> brokers) {
+        this.brokers = brokers;
+    }
+
+    public List<Partition> getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(List<Partition> partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * @return This snapshot as JSON.
+     */
+    public String toJson() {
+        try {
+            return MAPPER.writeValueAsString(this);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param json A snapshot as JSON.
+     * @return The snapshot.
+     * @throws IOException If the JSON is not a snapshot.
+     */
+    public static ClusterLoad fromJson(InputStream json) throws IOException {
+        return MAPPER.readValue(json, ClusterLoad.class);
+    }
+
+    /**
+     * A broker, with its capacity. A capacity of 0 is unknown, the load of such a resource is balanced relative to
+     * the average load of the brokers.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Broker {
+        private int id;
+        private String rack;
+        private long diskCapacity;
+        private long networkInCapacity;
+        private long networkOutCapacity;
+
+        public Broker() {
+        }
+
+        public Broker(int id, String rack, long diskCapacity, long networkInCapacity, long networkOutCapacity) {
+            this.id = id;
+            this.rack = rack;
+            this.diskCapacity = diskCapacity;
+            this.networkInCapacity = networkInCapacity;
+            this.networkOutCapacity = networkOutCapacity;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        /** @return The rack of the broker, or null if it has none. */
+        public String getRack() {
+            return rack;
+        }
+
+        public void setRack(String rack) {
+            this.rack = rack;
+        }
+
+        /** @return The disk space of the broker, in bytes. */
+        public long getDiskCapacity() {
+            return diskCapacity;
+        }
+
+        public void setDiskCapacity(long diskCapacity) {
+            this.diskCapacity = diskCapacity;
+        }
+
+        /** @return The incoming network bandwidth of the broker, in bytes per second. */
+        public long getNetworkInCapacity() {
+            return networkInCapacity;
+        }
+
+        public void setNetworkInCapacity(long networkInCapacity) {
+            this.networkInCapacity = networkInCapacity;
+        }
+
+        /** @return The outgoing network bandwidth of the broker, in bytes per second. */
+        public long getNetworkOutCapacity() {
+            return networkOutCapacity;
+        }
+
+        public void setNetworkOutCapacity(long networkOutCapacity) {
+            this.networkOutCapacity = networkOutCapacity;
+        }
+    }
+
+    /**
+     * A partition, with its replicas and its load.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Partition {
+        private String topic;
+        private int partition;
+        private List<Integer> replicas = new ArrayList<>();
+        private int leader = -1;
+        private long size;
+        private double bytesIn;
+        private double bytesOut;
+
+        public Partition() {
+        }
+
+        public Partition(String topic, int partition, List<Integer> replicas, int leader, long size, double bytesIn, double bytesOut) {
+            this.topic = topic;
+            this.partition = partition;
+            this.replicas = replicas;
+            this.leader = leader;
+            this.size = size;
+            this.bytesIn = bytesIn;
+            this.bytesOut = bytesOut;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public void setTopic(String topic) {
+            this.topic = topic;
+        }
+
+        public int getPartition() {
+            return partition;
+        }
+
+        public void setPartition(int partition) {
+            this.partition = partition;
+        }
+
+        /** @return The ids of the brokers hosting the replicas, the preferred leader first. */
+        public List<Integer> getReplicas() {
+            return replicas;
+        }
+
+        public void setReplicas(List<Integer> replicas) {
+            this.replicas = replicas;
+        }
+
+        /** @return The id of the broker hosting the leader, or -1 if the partition has no leader. */
+        public int getLeader() {
+            return leader;
+        }
+
+        public void setLeader(int leader) {
+            this.leader = leader;
+        }
+
+        /** @return The size of the partition, in bytes, which each of its replicas takes on disk. */
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
+
+        /**
+         * @return The rate at which data is produced to the partition, in bytes per second,
+         * which its leader receives from producers and its followers from the leader.
+         */
+        public double getBytesIn() {
+            return bytesIn;
+        }
+
+        public void setBytesIn(double bytesIn) {
+            this.bytesIn = bytesIn;
+        }
+
+        /** @return The rate at which data is consumed from the partition, in bytes per second, which its leader sends. */
+        public double getBytesOut() {
+            return bytesOut;
+        }
+
+        public void setBytesOut(double bytesOut) {
+            this.bytesOut = bytesOut;
+        }
+    }
+}
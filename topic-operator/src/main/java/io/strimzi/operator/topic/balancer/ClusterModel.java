@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The working model of a {@link ClusterLoad}, which {@link Action}s are applied to while planning. Brokers and
+ * partitions are identified by their index in the snapshot. Replicas on brokers which are not in the snapshot have
+ * the broker index -1, they don't load any broker and cannot be moved.
+ */
+public class ClusterModel {
+
+    private static final Resource[] RESOURCES = Resource.values();
+
+    private final ClusterLoad snapshot;
+    private final Map<Integer, Integer> brokerIndexes = new HashMap<>();
+    private final double[][] load;
+    private final double[][] capacity;
+    private final double[] averageLoad = new double[RESOURCES.length];
+    private final List<List<Integer>> replicas;
+    private final int[] leaders;
+
+    public ClusterModel(ClusterLoad snapshot) {
+        this.snapshot = snapshot;
+        int brokers = snapshot.getBrokers().size();
+        this.load = new double[brokers][RESOURCES.length];
+        this.capacity = new double[brokers][RESOURCES.length];
+        for (int b = 0; b < brokers; b++) {
+            ClusterLoad.Broker broker = snapshot.getBrokers().get(b);
+            brokerIndexes.put(broker.getId(), b);
+            capacity[b][Resource.DISK.ordinal()] = broker.getDiskCapacity();
+            capacity[b][Resource.NETWORK_IN.ordinal()] = broker.getNetworkInCapacity();
+            capacity[b][Resource.NETWORK_OUT.ordinal()] = broker.getNetworkOutCapacity();
+        }
+        int partitions = snapshot.getPartitions().size();
+        this.replicas = new ArrayList<>(partitions);
+        this.leaders = new int[partitions];
+        for (int p = 0; p < partitions; p++) {
+            ClusterLoad.Partition partition = snapshot.getPartitions().get(p);
+            List<Integer> brokerList = new ArrayList<>(partition.getReplicas().size());
+            for (int id : partition.getReplicas()) {
+                brokerList.add(brokerIndexes.getOrDefault(id, -1));
+            }
+            replicas.add(brokerList);
+            int leader = brokerIndexes.getOrDefault(partition.getLeader(), -1);
+            leaders[p] = brokerList.contains(leader) ? leader : -1;
+            for (int b : brokerList) {
+                if (b >= 0) {
+                    addReplica(p, b, b == leaders[p], 1);
+                }
+            }
+        }
+        for (Resource resource : RESOURCES) {
+            double total = 0;
+            for (int b = 0; b < brokers; b++) {
+                total += load[b][resource.ordinal()];
+            }
+            averageLoad[resource.ordinal()] = brokers == 0 ? 0 : total / brokers;
+        }
+    }
+
+    public int brokers() {
+        return load.length;
+    }
+
+    public int partitions() {
+        return replicas.size();
+    }
+
+    /** @return The broker with the given index, as in the snapshot. */
+    public ClusterLoad.Broker broker(int broker) {
+        return snapshot.getBrokers().get(broker);
+    }
+
+    /** @return The partition with the given index, as in the snapshot. */
+    public ClusterLoad.Partition partition(int partition) {
+        return snapshot.getPartitions().get(partition);
+    }
+
+    /** @return The indexes of the brokers currently hosting the replicas of the given partition, the preferred leader first. */
+    public List<Integer> replicas(int partition) {
+        return Collections.unmodifiableList(replicas.get(partition));
+    }
+
+    /** @return The index of the broker currently hosting the leader of the given partition, or -1 if it has none. */
+    public int leader(int partition) {
+        return leaders[partition];
+    }
+
+    /** @return The current load of the given broker. */
+    public double load(int broker, Resource resource) {
+        return load[broker][resource.ordinal()];
+    }
+
+    /** @return The capacity of the given broker, or 0 if it is unknown. */
+    public double capacity(int broker, Resource resource) {
+        return capacity[broker][resource.ordinal()];
+    }
+
+    /** @return The average load of the brokers, which doesn't change as replicas and leaderships move. */
+    public double averageLoad(Resource resource) {
+        return averageLoad[resource.ordinal()];
+    }
+
+    /**
+     * @return The current load of the given broker relative to its capacity or, when the capacity is unknown, to
+     * the average load of the brokers.
+     */
+    public double utilization(int broker, Resource resource) {
+        double reference = capacity(broker, resource) > 0 ? capacity(broker, resource) : averageLoad(resource);
+        return reference > 0 ? load(broker, resource) / reference : 0;
+    }
+
+    /** @return The rack of the given broker, or null if it has none or the index is -1. */
+    public String rack(int broker) {
+        return broker < 0 ? null : broker(broker).getRack();
+    }
+
+    /**
+     * Applies the given action.
+     */
+    public void apply(Action action) {
+        int p = action.partition();
+        if (action.isLeadership()) {
+            addReplica(p, action.from(), true, -1);
+            addReplica(p, action.from(), false, 1);
+            addReplica(p, action.to(), false, -1);
+            addReplica(p, action.to(), true, 1);
+            leaders[p] = action.to();
+        } else {
+            boolean leader = leaders[p] == action.from();
+            addReplica(p, action.from(), leader, -1);
+            addReplica(p, action.to(), leader, 1);
+            List<Integer> brokers = replicas.get(p);
+            brokers.set(brokers.indexOf(action.from()), action.to());
+            if (leader) {
+                leaders[p] = action.to();
+            }
+        }
+    }
+
+    private void addReplica(int partition, int broker, boolean leader, int sign) {
+        for (Resource resource : RESOURCES) {
+            load[broker][resource.ordinal()] += sign * replicaLoad(partition, resource, leader);
+        }
+    }
+
+    /**
+     * @return The load a replica of the given partition puts on the broker hosting it.
+     */
+    double replicaLoad(int partition, Resource resource, boolean leader) {
+        ClusterLoad.Partition p = partition(partition);
+        switch (resource) {
+            case DISK:
+                return p.getSize();
+            case NETWORK_IN:
+                return p.getBytesIn();
+            case NETWORK_OUT:
+                return leader ? p.getBytesOut() + p.getBytesIn() * (replicas.get(partition).size() - 1) : 0;
+            case LEADERS:
+                return leader ? 1 : 0;
+            default:
+                throw new IllegalArgumentException(String.valueOf(resource));
+        }
+    }
+}
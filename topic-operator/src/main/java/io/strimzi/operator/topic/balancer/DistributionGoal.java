@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+/**
+ * Spreads the load of a resource evenly across the brokers, relative to their capacity: the cost of a broker is
+ * the square of its utilization, so that moving load from a busier broker to a less busy one always lowers the sum.
+ */
+public class DistributionGoal implements Goal {
+
+    private final Resource resource;
+    private final double weight;
+
+    /**
+     * @param resource The resource
+     * @param weight How much the distribution of this resource matters compared to the other distribution goals
+     */
+    public DistributionGoal(Resource resource, double weight) {
+        this.resource = resource;
+        this.weight = weight;
+    }
+
+    @Override
+    public boolean allows(ClusterModel model, Action action) {
+        return true;
+    }
+
+    @Override
+    public double cost(ClusterModel model, int broker) {
+        double utilization = model.utilization(broker, resource);
+        return weight * utilization * utilization;
+    }
+
+    @Override
+    public String toString() {
+        return "DistributionGoal(" + resource + ", " + weight + ")";
+    }
+}
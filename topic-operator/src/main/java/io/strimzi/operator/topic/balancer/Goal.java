@@ -0,0 +1,26 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+/**
+ * A goal of the {@link ClusterBalancer}. A goal can refuse actions which would break it, and gives each broker a
+ * cost, which the balancer minimizes the sum of across the goals and the brokers.
+ */
+public interface Goal {
+
+    /**
+     * @param model The model, which the action has been applied to
+     * @param action The action
+     * @return Whether the goal allows the action.
+     */
+    boolean allows(ClusterModel model, Action action);
+
+    /**
+     * @param model The model
+     * @param broker The index of a broker
+     * @return How far the broker is from meeting this goal, 0 when it meets it.
+     */
+    double cost(ClusterModel model, int broker);
+}
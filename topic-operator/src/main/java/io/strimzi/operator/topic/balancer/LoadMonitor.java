@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.protocol.Errors;
+import org.apache.kafka.common.requests.DescribeLogDirsResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.Collections.emptyMap;
+
+/**
+ * <p>Samples the load of a Kafka cluster into {@link ClusterLoad} snapshots, using the AdminClient.</p>
+ *
+ * <p>The brokers don't expose their byte rates through the AdminClient, so they are derived from the growth of
+ * the partitions between two samples: the rate at which data is produced to a partition is how much its leader
+ * replica grew per second, and the rate at which it is consumed is that times the configured consumer fan-out.
+ * When a partition shrinks, because old segments were deleted, its previous rate is kept.</p>
+ *
+ * <p>The rates are only meaningful when the samples are taken at a regular interval, so only {@link #sample()}
+ * moves the baseline they are measured from. A {@link #snapshot()} taken in between, such as to plan a rebalance,
+ * has the current placement and sizes of the partitions but the rates of the latest sample.</p>
+ *
+ * <p>Each snapshot is logged as JSON at debug level, so that plans can be reproduced offline.</p>
+ */
+public class LoadMonitor {
+
+    private static final Logger LOGGER = LogManager.getLogger(LoadMonitor.class);
+
+    private final AdminClient adminClient;
+    private final long diskCapacity;
+    private final long networkInCapacity;
+    private final long networkOutCapacity;
+    private final double consumerFanOut;
+    private final long requestTimeoutMs;
+
+    private Map<TopicPartition, Long> previousSizes = new HashMap<>();
+    private Map<TopicPartition, Double> previousRates = new HashMap<>();
+    private long previousSampleMs;
+
+    /**
+     * @param adminClient The AdminClient
+     * @param diskCapacity The disk space of each broker, in bytes, or 0 if unknown
+     * @param networkInCapacity The incoming network bandwidth of each broker, in bytes per second, or 0 if unknown
+     * @param networkOutCapacity The outgoing network bandwidth of each broker, in bytes per second, or 0 if unknown
+     * @param consumerFanOut How many times the data produced to a partition is consumed
+     * @param requestTimeoutMs How long to wait for the response to each AdminClient request
+     */
+    public LoadMonitor(AdminClient adminClient, long diskCapacity, long networkInCapacity, long networkOutCapacity,
+                       double consumerFanOut, long requestTimeoutMs) {
+        this.adminClient = adminClient;
+        this.diskCapacity = diskCapacity;
+        this.networkInCapacity = networkInCapacity;
+        this.networkOutCapacity = networkOutCapacity;
+        this.consumerFanOut = consumerFanOut;
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+
+    /**
+     * Samples the load of the cluster, measuring the rates since the previous sample, and makes this sample the
+     * baseline for the next one. This should be called at a regular interval. This method blocks.
+     * @return The snapshot.
+     */
+    public ClusterLoad sample() throws InterruptedException, ExecutionException, TimeoutException {
+        return sample(true);
+    }
+
+    /**
+     * Takes a snapshot of the current load of the cluster, with the rates of the latest {@link #sample()}, without
+     * changing the baseline of the next sample. This method blocks.
+     * @return The snapshot.
+     */
+    public ClusterLoad snapshot() throws InterruptedException, ExecutionException, TimeoutException {
+        return sample(false);
+    }
+
+    private synchronized ClusterLoad sample(boolean periodic) throws InterruptedException, ExecutionException, TimeoutException {
+        ClusterLoad snapshot = new ClusterLoad();
+        List<Integer> brokerIds = new ArrayList<>();
+        for (Node node : adminClient.describeCluster().nodes().get(requestTimeoutMs, TimeUnit.MILLISECONDS)) {
+            brokerIds.add(node.id());
+            snapshot.getBrokers().add(new ClusterLoad.Broker(node.id(), node.rack(),
+                    diskCapacity, networkInCapacity, networkOutCapacity));
+        }
+        Collection<String> topicNames = adminClient.listTopics().names().get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        Map<String, TopicDescription> topics = adminClient.describeTopics(topicNames).all().get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        Map<Integer, Map<TopicPartition, Long>> sizes = replicaSizes(brokerIds);
+
+        long now = System.currentTimeMillis();
+        Map<TopicPartition, Long> currentSizes = new HashMap<>();
+        Map<TopicPartition, Double> currentRates = new HashMap<>();
+        for (TopicDescription topic : topics.values()) {
+            for (TopicPartitionInfo info : topic.partitions()) {
+                TopicPartition tp = new TopicPartition(topic.name(), info.partition());
+                List<Integer> replicas = new ArrayList<>(info.replicas().size());
+                long size = 0;
+                for (Node replica : info.replicas()) {
+                    replicas.add(replica.id());
+                    size = Math.max(size, sizes.getOrDefault(replica.id(), emptyMap()).getOrDefault(tp, 0L));
+                }
+                int leader = info.leader() == null ? -1 : info.leader().id();
+                if (sizes.getOrDefault(leader, emptyMap()).containsKey(tp)) {
+                    // The followers may lag behind the leader
+                    size = sizes.get(leader).get(tp);
+                }
+                double rate = periodic ?
+                        rate(previousSizes.get(tp), size, now - previousSampleMs, previousRates.getOrDefault(tp, 0.0)) :
+                        previousRates.getOrDefault(tp, 0.0);
+                currentSizes.put(tp, size);
+                currentRates.put(tp, rate);
+                snapshot.getPartitions().add(new ClusterLoad.Partition(tp.topic(), tp.partition(), replicas, leader,
+                        size, rate, rate * consumerFanOut));
+            }
+        }
+        if (periodic) {
+            this.previousSizes = currentSizes;
+            this.previousRates = currentRates;
+            this.previousSampleMs = now;
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Sampled load {}", snapshot.toJson());
+        }
+        return snapshot;
+    }
+
+    /**
+     * @param previousSize The size of the partition at the previous sample, or null if it wasn't sampled
+     * @param size The size of the partition now
+     * @param elapsedMs The time since the previous sample
+     * @param previousRate The rate at the previous sample
+     * @return The rate at which the partition grows, in bytes per second.
+     */
+    static double rate(Long previousSize, long size, long elapsedMs, double previousRate) {
+        if (previousSize == null || elapsedMs <= 0) {
+            return previousRate;
+        } else if (size < previousSize) {
+            // Segments were deleted, so the growth is unknown
+            return previousRate;
+        } else {
+            return (size - previousSize) * 1000.0 / elapsedMs;
+        }
+    }
+
+    /**
+     * @return The size, in bytes, of each replica on each of the given brokers, excluding the replicas being moved
+     * between the log directories of a broker.
+     */
+    private Map<Integer, Map<TopicPartition, Long>> replicaSizes(Collection<Integer> brokers) throws InterruptedException, ExecutionException, TimeoutException {
+        Map<Integer, Map<TopicPartition, Long>> sizes = new HashMap<>();
+        for (Map.Entry<Integer, Map<String, DescribeLogDirsResponse.LogDirInfo>> broker
+                : adminClient.describeLogDirs(brokers).all().get(requestTimeoutMs, TimeUnit.MILLISECONDS).entrySet()) {
+            Map<TopicPartition, Long> brokerSizes = new HashMap<>();
+            for (DescribeLogDirsResponse.LogDirInfo logDir : broker.getValue().values()) {
+                if (logDir.error == Errors.NONE) {
+                    for (Map.Entry<TopicPartition, DescribeLogDirsResponse.ReplicaInfo> replica : logDir.replicaInfos.entrySet()) {
+                        if (!replica.getValue().isFuture) {
+                            brokerSizes.put(replica.getKey(), replica.getValue().size);
+                        }
+                    }
+                }
+            }
+            sizes.put(broker.getKey(), brokerSizes);
+        }
+        return sizes;
+    }
+}
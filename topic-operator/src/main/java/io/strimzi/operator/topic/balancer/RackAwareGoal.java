@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the replicas of each partition in as many racks: a replica is only moved to a broker in another rack if no
+ * other replica of its partition is in that rack. Brokers without a rack are not constrained.
+ */
+public class RackAwareGoal implements Goal {
+
+    @Override
+    public boolean allows(ClusterModel model, Action action) {
+        if (action.isLeadership() || model.rack(action.from()) == null || model.rack(action.to()) == null) {
+            return true;
+        }
+        List<Integer> after = model.replicas(action.partition());
+        List<Integer> before = new ArrayList<>(after);
+        before.set(before.indexOf(action.to()), action.from());
+        return racks(model, after) >= racks(model, before);
+    }
+
+    private static int racks(ClusterModel model, List<Integer> brokers) {
+        Set<String> racks = new HashSet<>();
+        for (int broker : brokers) {
+            racks.add(model.rack(broker));
+        }
+        return racks.size();
+    }
+
+    @Override
+    public double cost(ClusterModel model, int broker) {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RackAwareGoal";
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+/**
+ * The resources of a broker which the replicas it hosts use.
+ */
+public enum Resource {
+    /** The disk space, which every replica uses as much of as the size of its partition. */
+    DISK,
+    /** The incoming network bandwidth, which every replica uses as much of as is produced to its partition. */
+    NETWORK_IN,
+    /**
+     * The outgoing network bandwidth, which only leaders use: as much as is consumed from their partition,
+     * and as much as is produced to it for each of its followers.
+     */
+    NETWORK_OUT,
+    /** The partition leaderships, which have no capacity. */
+    LEADERS
+}
@@ -33,6 +33,8 @@ public class MockKafka implements Kafka {
         t -> failedFuture("Unexpected. Your test probably need to configure the MockKafka with a deleteTopicResponse.");
     private Function<TopicName, AsyncResult<Void>> updateTopicResponse =
         t -> failedFuture("Unexpected. Your test probably need to configure the MockKafka with a updateTopicResponse.");
+    private Function<TopicName, AsyncResult<Void>> rebalanceResponse =
+        t -> failedFuture("Unexpected. Your test probably need to configure the MockKafka with a rebalanceResponse.");
 
     public MockKafka setTopicsListResponse(AsyncResult<Set<String>> topicsListResponse) {
         this.topicsListResponse = topicsListResponse;
@@ -195,6 +197,16 @@ public class MockKafka implements Kafka {
         handler.handle(topicsListResponse);
     }
 
+    public MockKafka setRebalanceResponse(Function<TopicName, AsyncResult<Void>> rebalanceResponse) {
+        this.rebalanceResponse = rebalanceResponse;
+        return this;
+    }
+
+    @Override
+    public void rebalance(TopicName topicName, Handler<AsyncResult<Void>> handler) {
+        handler.handle(rebalanceResponse.apply(topicName));
+    }
+
     public void assertExists(TestContext context, TopicName topicName) {
         context.assertTrue(topics.containsKey(topicName), "The topic "  + topicName + " should exist in " + this);
     }
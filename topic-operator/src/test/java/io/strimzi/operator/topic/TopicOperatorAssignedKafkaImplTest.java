@@ -244,7 +244,8 @@ public class TopicOperatorAssignedKafkaImplTest {
         Async async = context.async();
         sub.changeReplicationFactor(topic, ar -> {
             context.assertFalse(ar.succeeded());
-            context.assertEquals("Reassigment failed: There is an existing assignment running.", ar.cause().getMessage());
+            context.assertTrue(ar.cause() instanceof ReassignmentInProgressException);
+            context.assertEquals("Reassignment not started: There is an existing assignment running.", ar.cause().getMessage());
             async.complete();
         });
     }
@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
@@ -732,6 +733,81 @@ public class TopicOperatorTest {
         });
     }
 
+    private KafkaTopic rebalanceRequested(Function<TopicName, AsyncResult<Void>> rebalanceResponse) {
+        Topic topic = new Topic.Builder(topicName, resourceName, 10, (short) 2, map("cleanup.policy", "bar")).build();
+        KafkaTopic resource = new KafkaTopicBuilder(TopicSerialization.toTopicResource(topic, resourcePredicate))
+                .editMetadata()
+                    .addToAnnotations(TopicOperator.ANNO_STRIMZI_IO_REBALANCE, "true")
+                .endMetadata()
+            .build();
+
+        mockKafka.setCreateTopicResponse(topicName.toString(), null)
+                .createTopic(topic, ar -> { });
+        mockKafka.setTopicMetadataResponse(topicName, Utils.getTopicMetadata(topic), null);
+        mockKafka.setUpdateTopicResponse(topicName -> Future.succeededFuture());
+        mockKafka.setRebalanceResponse(rebalanceResponse);
+
+        mockTopicStore.setCreateTopicResponse(topicName, null)
+                .create(topic, ar -> { });
+        mockTopicStore.setUpdateTopicResponse(topicName, null);
+
+        mockK8s.setCreateResponse(resourceName, null)
+                .createResource(resource, ar -> { });
+        mockK8s.setModifyResponse(resourceName, null);
+        return resource;
+    }
+
+    @Test
+    public void testOnKafkaTopicChanged_rebalance(TestContext context) {
+        AtomicInteger rebalances = new AtomicInteger();
+        KafkaTopic resource = rebalanceRequested(t -> {
+            rebalances.incrementAndGet();
+            return Future.succeededFuture();
+        });
+
+        Async async = context.async();
+        topicOperator.onResourceModified(resource, ar -> {
+            assertSucceeded(context, ar);
+            context.assertEquals(1, rebalances.get());
+            mockK8s.getFromName(resourceName, ar2 -> {
+                assertSucceeded(context, ar2);
+                context.assertFalse(ar2.result().getMetadata().getAnnotations().containsKey(TopicOperator.ANNO_STRIMZI_IO_REBALANCE));
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testOnKafkaTopicChanged_rebalanceFails(TestContext context) {
+        KafkaTopic resource = rebalanceRequested(t -> Future.failedFuture(new OperatorException("balancer not enabled")));
+
+        Async async = context.async();
+        topicOperator.onResourceModified(resource, ar -> {
+            assertFailed(context, ar);
+            mockK8s.getFromName(resourceName, ar2 -> {
+                assertSucceeded(context, ar2);
+                context.assertEquals("true", ar2.result().getMetadata().getAnnotations().get(TopicOperator.ANNO_STRIMZI_IO_REBALANCE));
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testOnKafkaTopicChanged_rebalanceDeferredWhileReassignmentRunning(TestContext context) {
+        KafkaTopic resource = rebalanceRequested(t -> Future.failedFuture(
+                new ReassignmentInProgressException("Reassignment not started: There is an existing assignment running.")));
+
+        Async async = context.async();
+        topicOperator.onResourceModified(resource, ar -> {
+            assertSucceeded(context, ar);
+            mockK8s.getFromName(resourceName, ar2 -> {
+                assertSucceeded(context, ar2);
+                context.assertEquals("true", ar2.result().getMetadata().getAnnotations().get(TopicOperator.ANNO_STRIMZI_IO_REBALANCE));
+                async.complete();
+            });
+        });
+    }
+
     @Test
     public void testOnKafkaTopicRemoved(TestContext context) {
         Exception deleteTopicException = null;
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClusterBalancerTest {
+
+    private static ClusterLoad snapshot(String name) throws IOException {
+        try (InputStream json = ClusterBalancerTest.class.getResourceAsStream(name)) {
+            return ClusterLoad.fromJson(json);
+        }
+    }
+
+    /** @return The snapshot with the given plan applied. */
+    private static ClusterLoad apply(ClusterLoad snapshot, BalancePlan plan) throws IOException {
+        ClusterLoad result = ClusterLoad.fromJson(new ByteArrayInputStream(snapshot.toJson().getBytes(StandardCharsets.UTF_8)));
+        for (ClusterLoad.Partition partition : result.getPartitions()) {
+            TopicPartition tp = new TopicPartition(partition.getTopic(), partition.getPartition());
+            List<Integer> replicas = plan.reassignment().get(tp);
+            if (replicas != null) {
+                partition.setReplicas(replicas);
+                if (!replicas.contains(partition.getLeader())) {
+                    partition.setLeader(replicas.get(0));
+                }
+            }
+            if (plan.leaderElections().contains(tp)) {
+                partition.setLeader(partition.getReplicas().get(0));
+            }
+        }
+        return result;
+    }
+
+    private static Map<Integer, Long> diskLoad(ClusterLoad snapshot) {
+        Map<Integer, Long> load = new HashMap<>();
+        for (ClusterLoad.Partition partition : snapshot.getPartitions()) {
+            for (int broker : partition.getReplicas()) {
+                load.merge(broker, partition.getSize(), Long::sum);
+            }
+        }
+        return load;
+    }
+
+    private static Map<Integer, Integer> leaders(ClusterLoad snapshot) {
+        Map<Integer, Integer> leaders = new HashMap<>();
+        for (ClusterLoad.Partition partition : snapshot.getPartitions()) {
+            leaders.merge(partition.getLeader(), 1, Integer::sum);
+        }
+        return leaders;
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        ClusterLoad snapshot = snapshot("unbalanced.json");
+        ClusterLoad copy = ClusterLoad.fromJson(new ByteArrayInputStream(snapshot.toJson().getBytes(StandardCharsets.UTF_8)));
+        assertEquals(snapshot.toJson(), copy.toJson());
+        assertEquals(4, copy.getBrokers().size());
+        assertEquals("rack-b", copy.getBrokers().get(3).getRack());
+        assertEquals(12, copy.getPartitions().size());
+        assertEquals(110L, copy.getPartitions().get(0).getSize());
+    }
+
+    @Test
+    public void testPlanMeetsGoals() throws IOException {
+        ClusterLoad snapshot = snapshot("unbalanced.json");
+        ClusterBalancer balancer = new ClusterBalancer(ClusterBalancer.defaultGoals(0.8), 50);
+        BalancePlan plan = balancer.plan(snapshot, p -> true);
+
+        assertFalse(plan.isEmpty());
+        assertTrue(plan.finalCost() < plan.initialCost());
+        assertTrue(plan.replicaMovements() > 0);
+        assertTrue(plan.bytesToMove() > 0);
+
+        ClusterLoad balanced = apply(snapshot, plan);
+        // No broker is above 80% of its disk
+        for (long load : diskLoad(balanced).values()) {
+            assertTrue("Disk load " + load, load <= 800);
+        }
+        // Every partition still has a replica in each rack
+        for (ClusterLoad.Partition partition : balanced.getPartitions()) {
+            Set<String> racks = new HashSet<>();
+            for (int broker : partition.getReplicas()) {
+                racks.add(balanced.getBrokers().get(broker).getRack());
+            }
+            assertEquals(partition.getTopic() + "-" + partition.getPartition(), 2, racks.size());
+        }
+        // The leaders of the busy topic are spread
+        assertTrue(leaders(balanced).get(0) < 8);
+    }
+
+    @Test
+    public void testPlanIsBounded() throws IOException {
+        ClusterLoad snapshot = snapshot("unbalanced.json");
+        BalancePlan plan = new ClusterBalancer(ClusterBalancer.defaultGoals(0.8), 2).plan(snapshot, p -> true);
+        assertTrue(plan.replicaMovements() > 0);
+        assertTrue(plan.replicaMovements() <= 2);
+        assertTrue(plan.bytesToMove() <= 220L);
+    }
+
+    @Test
+    public void testPlanOnlyMovesMovablePartitions() throws IOException {
+        ClusterLoad snapshot = snapshot("unbalanced.json");
+        BalancePlan plan = new ClusterBalancer(ClusterBalancer.defaultGoals(0.8), 50)
+                .plan(snapshot, p -> "busy".equals(p.getTopic()));
+        assertFalse(plan.isEmpty());
+        for (TopicPartition partition : plan.reassignment().keySet()) {
+            assertEquals("busy", partition.topic());
+        }
+    }
+
+    @Test
+    public void testBalancedClusterGivesEmptyPlan() throws IOException {
+        BalancePlan plan = new ClusterBalancer(ClusterBalancer.defaultGoals(0.8), 50)
+                .plan(snapshot("balanced.json"), p -> true);
+        assertTrue(plan.isEmpty());
+        assertEquals(0, plan.replicaMovements());
+        assertEquals(0, plan.leadershipMovements());
+    }
+
+    @Test
+    public void testLeadershipsMoveWithoutData() throws IOException {
+        ClusterLoad snapshot = snapshot("leaders.json");
+        BalancePlan plan = new ClusterBalancer(ClusterBalancer.defaultGoals(0.8), 50).plan(snapshot, p -> true);
+        assertEquals(0, plan.replicaMovements());
+        assertEquals(0L, plan.bytesToMove());
+        assertTrue(plan.leaderElections().containsAll(plan.reassignment().keySet()));
+
+        Map<Integer, Integer> leaders = leaders(apply(snapshot, plan));
+        assertEquals(Integer.valueOf(2), leaders.get(0));
+        assertEquals(Integer.valueOf(2), leaders.get(1));
+        assertEquals(Integer.valueOf(2), leaders.get(2));
+    }
+}
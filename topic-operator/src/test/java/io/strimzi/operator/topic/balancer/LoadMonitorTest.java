@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.balancer;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.DescribeClusterResult;
+import org.apache.kafka.clients.admin.DescribeLogDirsResult;
+import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.ListTopicsResult;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.apache.kafka.common.protocol.Errors;
+import org.apache.kafka.common.requests.DescribeLogDirsResponse;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LoadMonitorTest {
+
+    @Test
+    public void testRate() {
+        // Growth per second
+        assertEquals(100.0, LoadMonitor.rate(1_000L, 11_000L, 100_000L, 0), 0.0);
+        // The first sample has no rate
+        assertEquals(0.0, LoadMonitor.rate(null, 11_000L, 100_000L, 0), 0.0);
+        // Segments were deleted, so keep the previous rate
+        assertEquals(50.0, LoadMonitor.rate(11_000L, 1_000L, 100_000L, 50), 0.0);
+        // No time elapsed, so keep the previous rate
+        assertEquals(50.0, LoadMonitor.rate(1_000L, 11_000L, 0L, 50), 0.0);
+    }
+
+    @Test
+    public void testSnapshotDoesNotMoveTheBaseline() throws Exception {
+        AdminClient admin = adminClient(1_000L, 10_001_000L, 20_000_000L, 10_003_000L);
+        LoadMonitor monitor = new LoadMonitor(admin, 0, 0, 0, 1, 60_000L);
+
+        monitor.sample();
+        Thread.sleep(100);
+        double sampledRate = partition(monitor.sample()).getBytesIn();
+        assertTrue(sampledRate > 0);
+        Thread.sleep(200);
+
+        // The snapshot has the current size, but the rate of the latest sample
+        ClusterLoad.Partition snapshot = partition(monitor.snapshot());
+        assertEquals(20_000_000L, snapshot.getSize());
+        assertEquals(sampledRate, snapshot.getBytesIn(), 0.0);
+
+        // The next sample measures the growth since the latest sample, not since the snapshot:
+        // 2000 bytes in at least 200ms
+        assertTrue(partition(monitor.sample()).getBytesIn() <= 10_000);
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void testSampleTimesOut() throws Exception {
+        DescribeClusterResult cluster = mock(DescribeClusterResult.class);
+        when(cluster.nodes()).thenReturn(new KafkaFutureImpl<>());
+        AdminClient admin = mock(AdminClient.class);
+        when(admin.describeCluster()).thenReturn(cluster);
+
+        new LoadMonitor(admin, 0, 0, 0, 1, 10L).sample();
+    }
+
+    private static ClusterLoad.Partition partition(ClusterLoad load) {
+        assertEquals(1, load.getPartitions().size());
+        return load.getPartitions().get(0);
+    }
+
+    /**
+     * @return An AdminClient for a single broker with a single partition, which has the given sizes
+     * at each successive sample.
+     */
+    private static AdminClient adminClient(Long... sizes) {
+        Node node = new Node(0, "broker-0", 9091);
+        DescribeClusterResult cluster = mock(DescribeClusterResult.class);
+        when(cluster.nodes()).thenReturn(KafkaFuture.completedFuture(singletonList(node)));
+        ListTopicsResult topics = mock(ListTopicsResult.class);
+        when(topics.names()).thenReturn(KafkaFuture.completedFuture(new HashSet<>(asList("foo"))));
+        DescribeTopicsResult descriptions = mock(DescribeTopicsResult.class);
+        when(descriptions.all()).thenReturn(KafkaFuture.completedFuture(singletonMap("foo",
+                new TopicDescription("foo", false, singletonList(
+                        new TopicPartitionInfo(0, node, singletonList(node), singletonList(node)))))));
+
+        DescribeLogDirsResult[] logDirs = new DescribeLogDirsResult[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            Map<Integer, Map<String, DescribeLogDirsResponse.LogDirInfo>> brokers = singletonMap(0,
+                    singletonMap("/var/lib/kafka", new DescribeLogDirsResponse.LogDirInfo(Errors.NONE,
+                            singletonMap(new TopicPartition("foo", 0), new DescribeLogDirsResponse.ReplicaInfo(sizes[i], 0, false)))));
+            logDirs[i] = mock(DescribeLogDirsResult.class);
+            when(logDirs[i].all()).thenReturn(KafkaFuture.completedFuture(brokers));
+        }
+
+        AdminClient admin = mock(AdminClient.class);
+        when(admin.describeCluster()).thenReturn(cluster);
+        when(admin.listTopics()).thenReturn(topics);
+        when(admin.describeTopics(anyCollection())).thenReturn(descriptions);
+        when(admin.describeLogDirs(anyCollection())).thenReturn(logDirs[0], Arrays.copyOfRange(logDirs, 1, logDirs.length));
+        return admin;
+    }
+}
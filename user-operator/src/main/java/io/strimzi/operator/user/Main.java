@@ -10,7 +10,7 @@ import io.strimzi.api.kafka.Crds;
 import io.strimzi.api.kafka.model.DoneableKafkaUser;
 import io.strimzi.api.kafka.KafkaUserList;
 import io.strimzi.api.kafka.model.KafkaUser;
-import io.strimzi.certs.OpenSslCertManager;
+import io.strimzi.certs.JavaCertManager;
 import io.strimzi.operator.common.operator.resource.CrdOperator;
 import io.strimzi.operator.common.operator.resource.SecretOperator;
 import io.strimzi.operator.user.operator.KafkaUserOperator;
@@ -29,6 +29,9 @@ import java.util.Map;
 public class Main {
     private static final Logger log = LogManager.getLogger(Main.class.getName());
 
+    /** The number of key pairs kept ready for the certificates of new or renewed users */
+    private static final int KEY_PAIR_POOL_SIZE = 10;
+
     static {
         try {
             Crds.registerCustomKinds();
@@ -55,7 +58,7 @@ public class Main {
 
     static Future<String> run(Vertx vertx, KubernetesClient client, SimpleAclAuthorizer authorizer, UserOperatorConfig config) {
         printEnvInfo();
-        OpenSslCertManager certManager = new OpenSslCertManager();
+        JavaCertManager certManager = new JavaCertManager(JavaCertManager.DEFAULT_RSA_KEY_SIZE, KEY_PAIR_POOL_SIZE, 1);
         SecretOperator secretOperations = new SecretOperator(vertx, client);
         CrdOperator<KubernetesClient, KafkaUser, KafkaUserList, DoneableKafkaUser> crdOperations = new CrdOperator<>(vertx, client, KafkaUser.class, KafkaUserList.class, DoneableKafkaUser.class);
         SimpleAclOperator aclOperations = new SimpleAclOperator(vertx, authorizer);
@@ -51,19 +51,11 @@ public class UserOperator extends AbstractVerticle {
         this.selector = config.getLabels();
     }
 
-    Consumer<KubernetesClientException> recreateWatch(KafkaUserOperator op) {
-        Consumer<KubernetesClientException> cons = new Consumer<KubernetesClientException>() {
-            @Override
-            public void accept(KubernetesClientException e) {
-                if (e != null) {
-                    log.error("Watcher closed with exception in namespace {}", namespace, e);
-                    op.createWatch(namespace, selector, this);
-                } else {
-                    log.info("Watcher closed in namespace {}", namespace);
-                }
-            }
-        };
-        return cons;
+    /**
+     * The watch resumes itself when closed by the API server, so it is only closed when this verticle stops.
+     */
+    Consumer<KubernetesClientException> onWatchClosed() {
+        return e -> log.info("Watcher closed in namespace {}", namespace);
     }
 
     @Override
@@ -73,7 +65,7 @@ public class UserOperator extends AbstractVerticle {
         // Configure the executor here, but it is used only in other places
         getVertx().createSharedWorkerExecutor("kubernetes-ops-pool", 10, TimeUnit.SECONDS.toNanos(120));
 
-        kafkaUserOperator.createWatch(namespace, selector, recreateWatch(kafkaUserOperator))
+        kafkaUserOperator.createWatch(namespace, selector, onWatchClosed())
             .compose(w -> {
                 log.info("Started operator for {} kind", "KafkaUser");
                 watch = w;
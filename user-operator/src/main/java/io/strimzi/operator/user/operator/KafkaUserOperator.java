@@ -4,7 +4,6 @@
  */
 package io.strimzi.operator.user.operator;
 
-import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.Secret;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
@@ -32,15 +31,13 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.nio.charset.Charset;
-import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collection;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * Operator for a Kafka Users.
@@ -50,7 +47,7 @@ public class KafkaUserOperator {
     private static final int LOCK_TIMEOUT_MS = 10;
     private static final String RESOURCE_KIND = "KafkaUser";
     private final Vertx vertx;
-    private final CrdOperator crdOperator;
+    private final CrdOperator<KubernetesClient, KafkaUser, KafkaUserList, DoneableKafkaUser> crdOperator;
     private final SecretOperator secretOperations;
     private final SimpleAclOperator aclOperations;
     private final CertManager certManager;
@@ -167,7 +164,7 @@ public class KafkaUserOperator {
     /**
      * Reconcile assembly resources in the given namespace having the given {@code name}.
      * Reconciliation works by getting the assembly resource (e.g. {@code KafkaUser}) in the given namespace with the given name and
-     * comparing with the corresponding {@linkplain #getResources(String, Labels) resource}.
+     * comparing with the corresponding user Secrets.
      */
     public final void reconcile(Reconciliation reconciliation, Handler<AsyncResult<Void>> handler) {
         String namespace = reconciliation.namespace();
@@ -227,23 +224,22 @@ public class KafkaUserOperator {
     /**
      * Reconcile User resources in the given namespace having the given selector.
      * Reconciliation works by getting the KafkaUSer custom resources in the given namespace with the given selector and
-     * comparing with the corresponding {@linkplain #getResources(String, Labels) resource}.
+     * comparing with the corresponding user Secrets.
      *
      * @param trigger A description of the triggering event (timer or watch), used for logging
      * @param namespace The namespace
      * @param selector The labels used to select the resources
      */
     public final CountDownLatch reconcileAll(String trigger, String namespace, Labels selector) {
-        List<KafkaUser> desiredResources = crdOperator.list(namespace, selector);
-        Set<String> desiredNames = desiredResources.stream().map(cm -> cm.getMetadata().getName()).collect(Collectors.toSet());
+        // Only the names are needed, so list the metadata rather than the whole resources
+        Set<String> desiredNames = new HashSet<>();
+        crdOperator.listMetadata(namespace, selector, metadata -> desiredNames.add(metadata.getName()));
         log.debug("reconcileAll({}, {}): desired resources with labels {}: {}", RESOURCE_KIND, trigger, selector, desiredNames);
 
+        // The user Secrets hold certificates and keys, which we don't want to fetch just to learn their names
         Labels resourceSelector = selector.withKind(RESOURCE_KIND);
-        List<? extends HasMetadata> resources = getResources(namespace, resourceSelector);
-        Set<String> resourceNames = resources.stream()
-                .filter(r -> !r.getKind().equals(RESOURCE_KIND)) // exclude desired resource
-                .map(r -> ((HasMetadata) r).getMetadata().getName())
-                .collect(Collectors.toSet());
+        Set<String> resourceNames = new HashSet<>();
+        secretOperations.listMetadata(namespace, resourceSelector, metadata -> resourceNames.add(metadata.getName()));
         log.debug("reconcileAll({}, {}): Other resources with labels {}: {}", RESOURCE_KIND, trigger, resourceSelector, resourceNames);
 
         CountDownLatch outerLatch = new CountDownLatch(1);
@@ -286,20 +282,9 @@ public class KafkaUserOperator {
     }
 
     /**
-     * Gets all resources relevant to KafkaUser
-     *
-     * @param namespace Namespace where to search for resources
-     * @param selector  Labels which the resources should have
-     * @return
-     */
-    private List<HasMetadata> getResources(String namespace, Labels selector) {
-        List<HasMetadata> result = new ArrayList<>();
-        result.addAll(secretOperations.list(namespace, selector));
-        return result;
-    }
-
-    /**
-     * Create Kubernetes watch for KafkaUser resources
+     * Create Kubernetes watch for KafkaUser resources.
+     * If the watch is closed by the API server it is resumed from the last seen resourceVersion,
+     * and only if that is no longer available are all the users reconciled.
      *
      * @param namespace Namespace where to watch for users
      * @param selector  Labels which the Users should match
@@ -311,7 +296,7 @@ public class KafkaUserOperator {
         Future<Watch> result = Future.future();
         vertx.<Watch>executeBlocking(
             future -> {
-                Watch watch = crdOperator.watch(namespace, selector, new Watcher<KafkaUser>() {
+                Watch watch = crdOperator.resumableWatch(namespace, selector, new Watcher<KafkaUser>() {
                     @Override
                     public void eventReceived(Action action, KafkaUser crd) {
                         String name = crd.getMetadata().getName();
@@ -326,8 +311,7 @@ public class KafkaUserOperator {
                                 });
                                 break;
                             case ERROR:
-                                log.error("Failed {} {} in namespace{} ", RESOURCE_KIND, name, namespace);
-                                reconcileAll("watch error", namespace, selector);
+                                log.error("Failed {} {} in namespace {}", RESOURCE_KIND, name, namespace);
                                 break;
                             default:
                                 log.error("Unknown action: {} in namespace {}", name, namespace);
@@ -339,7 +323,7 @@ public class KafkaUserOperator {
                     public void onClose(KubernetesClientException e) {
                         onClose.accept(e);
                     }
-                });
+                }, () -> reconcileAll("watch relist", namespace, selector));
                 future.complete(watch);
             }, result.completer()
         );